@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.exception;
+
+/**
+ * Thrown when the driver could not be created because the circuit breaker of the hub is open.
+ * <b>for internal usage only</b>
+ */
+public class CircuitBreakerOpenException extends DriverPoolException {
+    private static final long serialVersionUID = -3209472843519046718L;
+
+    public CircuitBreakerOpenException(String msg) {
+        super(msg);
+    }
+}
@@ -28,4 +28,8 @@ public class DriverPoolException extends RuntimeException {
     public DriverPoolException(String msg) {
         super(msg);
     }
+
+    public DriverPoolException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
 }
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.factory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the classes annotated by {@link DeviceType}, generated at compile time by
+ * {@link com.zebrunner.carina.utils.factory.processor.DeviceTypeIndexProcessor}.<br>
+ * <b>For internal usage only</b>
+ */
+@API(status = API.Status.INTERNAL)
+public final class DeviceTypeIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Location of the index resource. Every jar / classes folder could contain its own index.
+     */
+    public static final String INDEX_LOCATION = "META-INF/carina/device-types.idx";
+    /**
+     * Separator between implementation and parent class in the index record
+     */
+    public static final String SEPARATOR = "=";
+
+    /**
+     * Names of classes annotated by {@link DeviceType} by name of the {@link DeviceType#parentClass()}
+     */
+    private final Map<String, Set<String>> implementations;
+    /**
+     * Classpath roots (jars / classes folders) that contain the index
+     */
+    private final Set<String> indexedRoots;
+
+    private DeviceTypeIndex(Map<String, Set<String>> implementations, Set<String> indexedRoots) {
+        this.implementations = implementations;
+        this.indexedRoots = indexedRoots;
+    }
+
+    /**
+     * Load all indexes available from class loader
+     *
+     * @param classLoader {@link ClassLoader}
+     * @return {@link DeviceTypeIndex}, empty if there are no index resources
+     */
+    public static DeviceTypeIndex load(ClassLoader classLoader) {
+        Map<String, Set<String>> implementations = new HashMap<>();
+        Set<String> indexedRoots = new HashSet<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(INDEX_LOCATION);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                LOGGER.debug("Loading @DeviceType index: {}", url);
+                indexedRoots.add(getRoot(url));
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    reader.lines()
+                            .map(DeviceTypeIndex::parseRecord)
+                            .filter(record -> record != null)
+                            .forEach(record -> implementations.computeIfAbsent(record[1], k -> new LinkedHashSet<>()).add(record[0]));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load @DeviceType index.", e);
+        }
+        return new DeviceTypeIndex(implementations, indexedRoots);
+    }
+
+    /**
+     * Get classpath root of the index resource, for example {@code file:/lib/pages.jar} for
+     * {@code jar:file:/lib/pages.jar!/META-INF/carina/device-types.idx}
+     *
+     * @param url url of the index resource
+     * @return classpath root without trailing slash
+     */
+    static String getRoot(URL url) {
+        String root = StringUtils.removeEnd(url.toExternalForm(), INDEX_LOCATION);
+        if (root.startsWith("jar:")) {
+            root = StringUtils.removeEnd(StringUtils.removeStart(root, "jar:"), "!/");
+        }
+        return StringUtils.removeEnd(root, "/");
+    }
+
+    /**
+     * Check if classpath root (jar / classes folder) contains the index. Classes of such roots are not scanned,
+     * other roots (for example, jars compiled without the annotation processor) should be scanned.
+     *
+     * @param root url of the classpath root
+     * @return true if root contains the index
+     */
+    public boolean isIndexed(URL root) {
+        return indexedRoots.contains(StringUtils.removeEnd(root.toExternalForm(), "/"));
+    }
+
+    /**
+     * Parse index record
+     *
+     * @param line line of the index
+     * @return array with implementation class name and parent class name, or null if line is not a record
+     */
+    public static String[] parseRecord(String line) {
+        String[] record = StringUtils.split(StringUtils.trimToEmpty(line), SEPARATOR);
+        if (record.length != 2) {
+            return null;
+        }
+        return record;
+    }
+
+    public boolean isEmpty() {
+        return implementations.isEmpty();
+    }
+
+    /**
+     * Get indexed classes annotated by {@link DeviceType} with provided parent class.
+     * Classes which could not be loaded (stale records) are skipped.
+     *
+     * @param parentClass {@link DeviceType#parentClass()}
+     * @return list of classes
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<Class<? extends T>> getImplementations(Class<T> parentClass) {
+        Set<String> classNames = implementations.getOrDefault(parentClass.getName(), Collections.emptySet());
+        List<Class<? extends T>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                Class<?> clazz = Class.forName(className, false, parentClass.getClassLoader());
+                if (parentClass.isAssignableFrom(clazz)) {
+                    classes.add((Class<? extends T>) clazz);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOGGER.debug("Skip '{}' class from @DeviceType index: {}", className, e.getMessage());
+            }
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.factory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Member;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.reflections.Reflections;
+import org.reflections.Store;
+import org.reflections.scanners.Scanner;
+import org.reflections.scanners.Scanners;
+import org.reflections.serializers.Serializer;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.QueryFunction;
+import org.slf4j.Logger;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.factory.DeviceType.Type;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.profiler.StartupTimeline;
+import com.zebrunner.carina.webdriver.gui.AbstractPage;
+
+/**
+ * Page classes used by {@link ICustomTypePageFactory#initPage(Class, Object...)}.<br>
+ * Page class is resolved only once for each combination of the parent class, device type and device version.
+ * Candidates are taken from the compile-time {@link DeviceTypeIndex} and from the scan of the classpath roots
+ * without the index (for example, jars compiled without the annotation processor). Index and scanner are created
+ * on the first page initialization.
+ */
+final class PageClassCache {
+    private static final Logger LOGGER = ICustomTypePageFactory.PAGEFACTORY_LOGGER;
+
+    /**
+     * Resolved page classes by parent class, device type and device version
+     */
+    private static final Map<ImmutableTriple<Class<?>, Type, String>, Class<?>> PAGE_CLASSES = new ConcurrentHashMap<>();
+
+    private PageClassCache() {
+        // hide
+    }
+
+    /**
+     * Get page class that satisfy to device type and version
+     *
+     * @param parentClass {@link DeviceType#parentClass()}
+     * @param screenType device type
+     * @param deviceVersion device OS version
+     * @return page class
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends AbstractPage> Class<? extends T> get(Class<T> parentClass, Type screenType, String deviceVersion) {
+        return (Class<? extends T>) PAGE_CLASSES.computeIfAbsent(ImmutableTriple.of(parentClass, screenType, deviceVersion),
+                key -> findPageClass(parentClass, screenType, deviceVersion));
+    }
+
+    /**
+     * Get scanner of the whole classpath, that is created on the first query
+     *
+     * @return {@link Reflections}
+     */
+    static Reflections getClasspathScanner() {
+        return new LazyClasspathScanner();
+    }
+
+    /**
+     * Find class that satisfy to device type and version
+     *
+     * @param parentClass {@link DeviceType#parentClass()}
+     * @param screenType device type
+     * @param deviceVersion device OS version
+     * @return page class
+     */
+    private static <T extends AbstractPage> Class<? extends T> findPageClass(Class<T> parentClass, Type screenType, String deviceVersion) {
+        Collection<Class<? extends T>> setClasses = getPageClasses(parentClass);
+        LOGGER.debug("Relatives classes count: {}", setClasses.size());
+        Class<? extends T> versionClass = null;
+        Class<? extends T> majorVersionClass = null;
+        Class<? extends T> deviceClass = null;
+        Class<? extends T> familyClass = null;
+
+        String majorVersionNumber = deviceVersion.split(ICustomTypePageFactory.VERSION_SPLITTER)[0];
+        LOGGER.debug("Major version of device OS: {}", majorVersionNumber);
+        for (Class<? extends T> clazz : setClasses) {
+            if (clazz.getAnnotation(DeviceType.class) == null || clazz.getAnnotation(DeviceType.class).parentClass() != parentClass) {
+                LOGGER.debug("Removing as parentClass ({}) is not satisfied or due to absence of @DeviceType annotation on class: {}",
+                        parentClass.getName(), clazz.getName());
+                continue;
+            }
+            DeviceType dt = clazz.getAnnotation(DeviceType.class);
+
+            LOGGER.debug("Expected screenType: {}, Actual screenType: {}", screenType, dt.pageType());
+            if (dt.pageType().equals(screenType)) {
+                String[] versions = dt.version();
+                if (Arrays.asList(versions).contains(deviceVersion)) {
+                    LOGGER.debug("Expected version: {}", deviceVersion);
+                    String versionsAsString = Arrays.toString(versions);
+                    LOGGER.debug("Actual versions: {}", versionsAsString);
+                    versionClass = clazz;
+                    break;
+                }
+
+                for (String version : dt.version()) {
+                    if (version.split(ICustomTypePageFactory.VERSION_SPLITTER)[0].equals(majorVersionNumber)) {
+                        majorVersionClass = clazz;
+                        LOGGER.debug("Class was chosen by major version number of device");
+                        break;
+                    }
+                }
+
+                deviceClass = clazz;
+                continue;
+            }
+            if (dt.pageType().getFamily().equals(screenType.getFamily())) {
+                LOGGER.debug("Family class '{}' correspond to required page.", screenType.getFamily());
+                familyClass = clazz;
+            }
+        }
+        if (versionClass != null) {
+            LOGGER.debug("Instance by version and platform will be created.");
+            return versionClass;
+        } else if (majorVersionClass != null) {
+            LOGGER.debug("Instance by major version and platform will be created.");
+            return majorVersionClass;
+        } else if (deviceClass != null) {
+            LOGGER.debug("Instance by platform will be created.");
+            return deviceClass;
+        } else if (familyClass != null) {
+            LOGGER.debug("Instance by family will be created.");
+            return familyClass;
+        }
+        throw new RuntimeException(
+                String.format("There is no any class that satisfy to required conditions: [parent class - %s], [device type - %s]",
+                        parentClass.getName(), screenType));
+    }
+
+    /**
+     * Get classes annotated by {@link DeviceType} with provided parent class.
+     * Classes from the compile-time index are merged with classes found by scanning of the not indexed classpath roots.
+     *
+     * @param parentClass {@link DeviceType#parentClass()}
+     * @return classes
+     */
+    private static <T extends AbstractPage> Collection<Class<? extends T>> getPageClasses(Class<T> parentClass) {
+        Set<Class<? extends T>> classes = new LinkedHashSet<>(IndexHolder.INDEX.getImplementations(parentClass));
+        classes.addAll(NotIndexedScannerHolder.SCANNER.getSubTypesOf(parentClass));
+        return classes;
+    }
+
+    /**
+     * Get classpath roots that should be scanned for the page classes
+     *
+     * @return urls of the classpath roots
+     */
+    private static Collection<URL> getClasspathRoots() {
+        return isRecursiveReflection()
+                ? Arrays.stream(Package.getPackages())
+                        .map(Package::getName)
+                        .map(s -> s.split("\\.")[0])
+                        .distinct()
+                        .map(ClasspathHelper::forPackage).reduce((c1, c2) -> {
+                            Collection<URL> c3 = new HashSet<>();
+                            c3.addAll(c1);
+                            c3.addAll(c2);
+                            return c3;
+                        }).orElseThrow()
+                : ClasspathHelper.forJavaClassPath();
+    }
+
+    private static boolean isRecursiveReflection() {
+        return Configuration.getRequired(WebDriverConfiguration.Parameter.PAGE_RECURSIVE_REFLECTION, Boolean.class);
+    }
+
+    private static final class IndexHolder {
+        private static final DeviceTypeIndex INDEX = load();
+
+        private static DeviceTypeIndex load() {
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("@DeviceType index loading")) {
+                return DeviceTypeIndex.load(PageClassCache.class.getClassLoader());
+            }
+        }
+    }
+
+    /**
+     * Scanner of the classpath roots without {@link DeviceTypeIndex}
+     */
+    private static final class NotIndexedScannerHolder {
+        private static final Reflections SCANNER = scan();
+
+        private static Reflections scan() {
+            LOGGER.debug("Scanning classpath for the page classes...");
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("ICustomTypePageFactory classpath scan")) {
+                Collection<URL> urls = getClasspathRoots();
+                Collection<URL> notIndexed = new HashSet<>(urls);
+                notIndexed.removeIf(IndexHolder.INDEX::isIndexed);
+                LOGGER.debug("{} of {} classpath roots have no @DeviceType index and will be scanned.", notIndexed.size(), urls.size());
+                return new Reflections(new ConfigurationBuilder()
+                        .setScanners(Scanners.SubTypes)
+                        .setUrls(notIndexed));
+            }
+        }
+    }
+
+    /**
+     * Scanner of the whole classpath, kept for {@link ICustomTypePageFactory#REFLECTIONS}
+     */
+    private static final class ClasspathScannerHolder {
+        private static final Reflections SCANNER = isRecursiveReflection()
+                ? new Reflections(new ConfigurationBuilder().addUrls(getClasspathRoots())
+                        .addScanners(Scanners.SubTypes))
+                : new Reflections(new ConfigurationBuilder()
+                        .setScanners(Scanners.SubTypes)
+                        .setUrls(getClasspathRoots()));
+    }
+
+    /**
+     * {@link Reflections} that delegates to the {@link ClasspathScannerHolder#SCANNER}, so the classpath is not scanned
+     * until the first query
+     */
+    private static final class LazyClasspathScanner extends Reflections {
+
+        @Override
+        public <T> Set<T> get(QueryFunction<Store, T> query) {
+            return ClasspathScannerHolder.SCANNER.get(query);
+        }
+
+        @Override
+        public Set<String> getAll(Scanner scanner) {
+            return ClasspathScannerHolder.SCANNER.getAll(scanner);
+        }
+
+        @Override
+        public List<String> getMemberParameterNames(Member member) {
+            return ClasspathScannerHolder.SCANNER.getMemberParameterNames(member);
+        }
+
+        @Override
+        public Collection<Member> getMemberUsage(Member member) {
+            return ClasspathScannerHolder.SCANNER.getMemberUsage(member);
+        }
+
+        @Override
+        public Reflections collect(InputStream inputStream, Serializer serializer) {
+            return ClasspathScannerHolder.SCANNER.collect(inputStream, serializer);
+        }
+
+        @Override
+        public Reflections collect(File file, Serializer serializer) {
+            return ClasspathScannerHolder.SCANNER.collect(file, serializer);
+        }
+
+        @Override
+        public Reflections merge(Reflections reflections) {
+            return ClasspathScannerHolder.SCANNER.merge(reflections);
+        }
+
+        @Override
+        public void expandSuperTypes(Map<String, Set<String>> subTypesStore, Map<String, Set<String>> typesAnnotatedStore) {
+            ClasspathScannerHolder.SCANNER.expandSuperTypes(subTypesStore, typesAnnotatedStore);
+        }
+
+        @Override
+        public Store getStore() {
+            return ClasspathScannerHolder.SCANNER.getStore();
+        }
+
+        @Override
+        public org.reflections.Configuration getConfiguration() {
+            return ClasspathScannerHolder.SCANNER.getConfiguration();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.factory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import com.zebrunner.carina.webdriver.gui.AbstractPage;
+
+/**
+ * Invokers of the page constructors used by {@link ICustomTypePageFactory#initPage(Class, Object...)}.<br>
+ * Constructor is resolved by {@link ICustomTypePageFactory#getConstructorByParams(Class, Object...)} only once for each
+ * combination of the page class and types of parameters, so subsequent calls only take the invoker from the cache.
+ */
+final class PageConstructorCache {
+    /**
+     * Page constructor invokers by page class and types of the constructor arguments.
+     * Invoker accepts arguments as {@code Object[]} and returns created page
+     */
+    private static final Map<ImmutablePair<Class<?>, List<Class<?>>>, MethodHandle> PAGE_CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private PageConstructorCache() {
+        // hide
+    }
+
+    /**
+     * Get invoker of the page constructor that satisfy specific range of parameters
+     *
+     * @param factory factory used to resolve the constructor
+     * @param clazz page class
+     * @param parameters constructor parameters
+     * @return {@link MethodHandle} with {@code (Object[])Object} type
+     */
+    static <T extends AbstractPage> MethodHandle get(ICustomTypePageFactory factory, Class<T> clazz, Object... parameters) {
+        List<Class<?>> parametersTypes = new ArrayList<>(parameters.length);
+        for (Object param : parameters) {
+            parametersTypes.add(param.getClass());
+        }
+        return PAGE_CONSTRUCTORS.computeIfAbsent(ImmutablePair.of(clazz, parametersTypes),
+                key -> toInvoker(factory.getConstructorByParams(clazz, parameters)));
+    }
+
+    static boolean contains(Class<?> clazz, List<Class<?>> parametersTypes) {
+        return PAGE_CONSTRUCTORS.containsKey(ImmutablePair.of(clazz, parametersTypes));
+    }
+
+    /**
+     * Convert constructor to the invoker that accepts arguments as array
+     *
+     * @param constructor {@link Constructor}
+     * @return {@link MethodHandle} with {@code (Object[])Object} type
+     */
+    private static MethodHandle toInvoker(Constructor<?> constructor) {
+        try {
+            return MethodHandles.lookup()
+                    .unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to instantiate page!\n" + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.factory.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.zebrunner.carina.utils.factory.DeviceTypeIndex;
+
+/**
+ * Annotation processor that generates {@link DeviceTypeIndex#INDEX_LOCATION} index of the classes
+ * annotated by {@link com.zebrunner.carina.utils.factory.DeviceType}, so
+ * {@link com.zebrunner.carina.utils.factory.ICustomTypePageFactory} could find page implementations without classpath scanning.<br>
+ * Processor is registered as a service, so it is applied automatically when carina-webdriver is in the compilation classpath.
+ */
+@SupportedAnnotationTypes(DeviceTypeIndexProcessor.DEVICE_TYPE_ANNOTATION)
+public class DeviceTypeIndexProcessor extends AbstractProcessor {
+    static final String DEVICE_TYPE_ANNOTATION = "com.zebrunner.carina.utils.factory.DeviceType";
+
+    /**
+     * Implementation class name - parent class name
+     */
+    private final Map<String, String> index = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    continue;
+                }
+                String parentClass = getParentClass(element);
+                if (parentClass == null) {
+                    continue;
+                }
+                index.put(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString(), parentClass);
+            }
+        }
+        if (roundEnv.processingOver() && !index.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private String getParentClass(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!DEVICE_TYPE_ANNOTATION.equals(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if ("parentClass".contentEquals(entry.getKey().getSimpleName())) {
+                    TypeMirror type = (TypeMirror) entry.getValue().getValue();
+                    return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void writeIndex() {
+        // merge with the index from the previous (incremental) compilation, stale records are ignored in runtime
+        Map<String, String> records = new TreeMap<>();
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", DeviceTypeIndex.INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines()
+                        .map(DeviceTypeIndex::parseRecord)
+                        .filter(record -> record != null)
+                        .forEach(record -> records.put(record[0], record[1]));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // there is no index from the previous compilation
+        }
+        records.putAll(index);
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", DeviceTypeIndex.INDEX_LOCATION);
+            try (Writer writer = file.openWriter()) {
+                for (Map.Entry<String, String> record : records.entrySet()) {
+                    writer.write(record.getKey() + DeviceTypeIndex.SEPARATOR + record.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Unable to write @DeviceType index: " + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.zebrunner.carina.utils.mobile;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
@@ -8,11 +9,18 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
@@ -21,48 +29,52 @@ import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.zebrunner.carina.commons.artifact.ArtifactManagerFactory;
 import com.zebrunner.carina.commons.artifact.IArtifactManager;
 import com.zebrunner.carina.commons.artifact.IArtifactManagerFactory;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.profiler.StartupTimeline;
 
+/**
+ * Artifact manager that delegates calls to the suitable {@link IArtifactManagerFactory}.<br>
+ * Factories are loaded by {@link ServiceLoader} (providers are registered at compile time for the classes
+ * annotated by {@link ArtifactManagerFactory}) and always merged with the annotated classes found by the scan of the
+ * classpath roots without {@code META-INF/services} registration (for example, jars compiled without the annotation
+ * processor). Registered factories go first.<br>
+ * Direct links are cached by source url, see {@link WebDriverConfiguration.Parameter#ARTIFACT_DIRECT_LINK_CACHE_TTL}.
+ */
 public final class ArtifactProvider implements IArtifactManager {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private static final String ARTIFACT_MANAGER_NOT_FOUND_ERROR = "Cannot find suitable artifact manager for url: %s";
+    private static final String SERVICES_LOCATION = "META-INF/services/" + IArtifactManagerFactory.class.getName();
     private static IArtifactManager instance;
-    private final List<IArtifactManagerFactory> artifactManagerFactories = new ArrayList<>();
+    private final List<IArtifactManagerFactory> artifactManagerFactories;
+    /**
+     * Direct links by source url. Null if caching is disabled
+     */
+    private final Cache<String, String> directLinks;
 
     public ArtifactProvider() {
-        Collection<URL> allPackagePrefixes = Arrays.stream(Package.getPackages())
-                .map(Package::getName)
-                .map(s -> s.split("\\.")[0])
-                .distinct()
-                .map(ClasspathHelper::forPackage).reduce((c1, c2) -> {
-                    Collection<URL> c3 = new HashSet<>();
-                    c3.addAll(c1);
-                    c3.addAll(c2);
-                    return c3;
-                }).orElseThrow();
-
-        ConfigurationBuilder config = new ConfigurationBuilder()
-                .addUrls(allPackagePrefixes)
-                .setScanners(Scanners.TypesAnnotated);
-
-        Set<Class<?>> classes = new Reflections(config).getTypesAnnotatedWith(ArtifactManagerFactory.class);
+        this(loadArtifactManagerFactories(),
+                Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.ARTIFACT_DIRECT_LINK_CACHE_TTL, Long.class)),
+                Configuration.getRequired(WebDriverConfiguration.Parameter.ARTIFACT_DIRECT_LINK_CACHE_SIZE, Long.class));
+    }
 
-        for (Class<?> clazz : classes) {
-            if (!IArtifactManagerFactory.class.isAssignableFrom(clazz)) {
-                LOGGER.error("Class {} marked by ArtifactManagerFactory annotation, but it is not realize interface IArtifactManagerFactory",
-                        clazz.getName());
-                continue;
-            }
-            try {
-                IArtifactManagerFactory artifactManagerFactory = (IArtifactManagerFactory) ConstructorUtils.invokeConstructor(clazz);
-                artifactManagerFactories.add(artifactManagerFactory);
-            } catch (ClassCastException | NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
-                LOGGER.error("Cannot create instance of artifact factory class: {}", clazz.getName());
-            }
-        }
+    ArtifactProvider(List<IArtifactManagerFactory> artifactManagerFactories, Duration directLinkTtl, long directLinkCacheSize) {
+        this.artifactManagerFactories = List.copyOf(artifactManagerFactories);
+        this.directLinks = directLinkTtl.isZero() || directLinkTtl.isNegative() || directLinkCacheSize <= 0
+                ? null
+                : CacheBuilder.newBuilder()
+                        .expireAfterWrite(directLinkTtl)
+                        .maximumSize(directLinkCacheSize)
+                        .build();
     }
 
     public static synchronized IArtifactManager getInstance() {
@@ -106,10 +118,133 @@ public final class ArtifactProvider implements IArtifactManager {
                 .findFirst();
         if (manager.isEmpty()) {
             LOGGER.debug("Cannot find artifact manager to get direct link: '{}', so it will return as is", url);
+            return url;
+        }
+        if (directLinks == null) {
+            return manager.get().getInstance().getDirectLink(url);
+        }
+        try {
+            return directLinks.get(url, () -> manager.get().getInstance().getDirectLink(url));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException("Cannot get direct link for url: " + url, e.getCause());
+        }
+    }
+
+    /**
+     * Load artifact manager factories registered as {@link ServiceLoader} providers together with the classes annotated by
+     * {@link ArtifactManagerFactory} from the classpath roots without registered providers
+     * (factories compiled without carina-webdriver annotation processor).
+     *
+     * @return list of {@link IArtifactManagerFactory}
+     */
+    private static List<IArtifactManagerFactory> loadArtifactManagerFactories() {
+        List<IArtifactManagerFactory> registered;
+        Set<String> registeredRoots;
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("artifact manager factories loading")) {
+            registered = loadRegisteredArtifactManagerFactories();
+            registeredRoots = getRegisteredRoots(ArtifactProvider.class.getClassLoader());
+        }
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("ArtifactProvider classpath scan")) {
+            return merge(registered, scanArtifactManagerFactories(registeredRoots));
+        }
+    }
+
+    /**
+     * Merge registered and scanned factories. Factory of the same class is added only once.
+     *
+     * @param registered factories registered as {@link ServiceLoader} providers
+     * @param scanned factories found by the classpath scan
+     * @return list of {@link IArtifactManagerFactory}, registered factories first
+     */
+    static List<IArtifactManagerFactory> merge(List<IArtifactManagerFactory> registered, List<IArtifactManagerFactory> scanned) {
+        List<IArtifactManagerFactory> factories = new ArrayList<>(registered);
+        for (IArtifactManagerFactory factory : scanned) {
+            if (factories.stream().noneMatch(f -> f.getClass() == factory.getClass())) {
+                factories.add(factory);
+            }
+        }
+        return factories;
+    }
+
+    /**
+     * Get classpath roots (jars / classes folders) with registered {@link IArtifactManagerFactory} providers.
+     * All annotated factories of such roots are registered by the annotation processor, so these roots are not scanned.
+     *
+     * @param classLoader {@link ClassLoader}
+     * @return roots, for example {@code file:/lib/manager.jar}
+     */
+    static Set<String> getRegisteredRoots(ClassLoader classLoader) {
+        Set<String> roots = new HashSet<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(SERVICES_LOCATION);
+            while (resources.hasMoreElements()) {
+                String root = StringUtils.removeEnd(resources.nextElement().toExternalForm(), SERVICES_LOCATION);
+                if (root.startsWith("jar:")) {
+                    root = StringUtils.removeEnd(StringUtils.removeStart(root, "jar:"), "!/");
+                }
+                roots.add(StringUtils.removeEnd(root, "/"));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot find registered artifact manager factories, all classpath will be scanned. Message: {}", e.getMessage());
+        }
+        return roots;
+    }
+
+    private static List<IArtifactManagerFactory> loadRegisteredArtifactManagerFactories() {
+        List<IArtifactManagerFactory> factories = new ArrayList<>();
+        Iterator<IArtifactManagerFactory> iterator = ServiceLoader.load(IArtifactManagerFactory.class).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                factories.add(iterator.next());
+            } catch (ServiceConfigurationError e) {
+                LOGGER.error("Cannot create instance of artifact factory. Message: {}", e.getMessage());
+            }
+        }
+        return factories;
+    }
+
+    private static List<IArtifactManagerFactory> scanArtifactManagerFactories(Set<String> registeredRoots) {
+        Collection<URL> allPackagePrefixes = Arrays.stream(Package.getPackages())
+                .map(Package::getName)
+                .map(s -> s.split("\\.")[0])
+                .distinct()
+                .map(ClasspathHelper::forPackage).reduce((c1, c2) -> {
+                    Collection<URL> c3 = new HashSet<>();
+                    c3.addAll(c1);
+                    c3.addAll(c2);
+                    return c3;
+                }).orElseThrow();
+        allPackagePrefixes = new HashSet<>(allPackagePrefixes);
+        allPackagePrefixes.removeIf(url -> registeredRoots.contains(StringUtils.removeEnd(url.toExternalForm(), "/")));
+        if (allPackagePrefixes.isEmpty()) {
+            return List.of();
+        }
+        LOGGER.debug("Scanning {} classpath roots without registered artifact manager factories.", allPackagePrefixes.size());
+
+        ConfigurationBuilder config = new ConfigurationBuilder()
+                .addUrls(allPackagePrefixes)
+                .setScanners(Scanners.TypesAnnotated);
+
+        Set<Class<?>> classes = new Reflections(config).getTypesAnnotatedWith(ArtifactManagerFactory.class);
+
+        List<IArtifactManagerFactory> factories = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            if (!IArtifactManagerFactory.class.isAssignableFrom(clazz)) {
+                LOGGER.error("Class {} marked by ArtifactManagerFactory annotation, but it is not realize interface IArtifactManagerFactory",
+                        clazz.getName());
+                continue;
+            }
+            try {
+                IArtifactManagerFactory artifactManagerFactory = (IArtifactManagerFactory) ConstructorUtils.invokeConstructor(clazz);
+                factories.add(artifactManagerFactory);
+            } catch (ClassCastException | NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
+                LOGGER.error("Cannot create instance of artifact factory class: {}", clazz.getName());
+            }
         }
-        return manager.isEmpty() ? url
-                : manager.get()
-                        .getInstance()
-                        .getDirectLink(url);
+        return factories;
     }
 }
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.mobile.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that registers classes annotated by {@link com.zebrunner.carina.commons.artifact.ArtifactManagerFactory}
+ * as {@link java.util.ServiceLoader} providers of {@link com.zebrunner.carina.commons.artifact.IArtifactManagerFactory}, so
+ * {@link com.zebrunner.carina.utils.mobile.ArtifactProvider} could find them without classpath scanning.<br>
+ * Processor is registered as a service, so it is applied automatically when carina-webdriver is in the compilation classpath.
+ */
+@SupportedAnnotationTypes(ArtifactManagerFactoryProcessor.ARTIFACT_MANAGER_FACTORY_ANNOTATION)
+public class ArtifactManagerFactoryProcessor extends AbstractProcessor {
+    static final String ARTIFACT_MANAGER_FACTORY_ANNOTATION = "com.zebrunner.carina.commons.artifact.ArtifactManagerFactory";
+    static final String ARTIFACT_MANAGER_FACTORY_INTERFACE = "com.zebrunner.carina.commons.artifact.IArtifactManagerFactory";
+    static final String SERVICE_LOCATION = "META-INF/services/" + ARTIFACT_MANAGER_FACTORY_INTERFACE;
+
+    private final Set<String> providers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement factoryInterface = processingEnv.getElementUtils().getTypeElement(ARTIFACT_MANAGER_FACTORY_INTERFACE);
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    continue;
+                }
+                if (factoryInterface == null ||
+                        !processingEnv.getTypeUtils().isAssignable(element.asType(), factoryInterface.asType())) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Class marked by ArtifactManagerFactory annotation, but it is not realize interface IArtifactManagerFactory",
+                            element);
+                    continue;
+                }
+                providers.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            }
+        }
+        if (roundEnv.processingOver() && !providers.isEmpty()) {
+            writeServiceFile();
+        }
+        return false;
+    }
+
+    private void writeServiceFile() {
+        // merge with the providers from the previous (incremental) compilation or declared manually
+        Set<String> records = new TreeSet<>();
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines()
+                        .map(line -> line.replaceAll("#.*", "").trim())
+                        .filter(line -> !line.isEmpty())
+                        .forEach(records::add);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // there is no service file from the previous compilation
+        }
+        records.addAll(providers);
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_LOCATION);
+            try (Writer writer = file.openWriter()) {
+                for (String record : records) {
+                    writer.write(record + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Unable to write artifact manager factories service file: " + e.getMessage());
+        }
+    }
+}
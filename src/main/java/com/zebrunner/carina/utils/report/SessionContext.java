@@ -38,6 +38,7 @@ import com.zebrunner.agent.core.config.ConfigurationHolder;
 import com.zebrunner.agent.core.registrar.Artifact;
 import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 
 public final class SessionContext {
@@ -331,7 +332,8 @@ public final class SessionContext {
      */
     private static URL getEndpoint(WebDriver driver, String endpointName, @Nullable String method) {
         LOGGER.debug("Trying to create URL for endpoint '{}' with method '{}'", endpointName, method);
-        String endpoint = String.format("%s/%s/", Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL)
+        String endpoint = String.format("%s/%s/", HubBalancer.getInstance().getSeleniumUrl(driver)
+                .orElseGet(() -> Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL))
                 .replace("wd/hub", endpointName),
                 DriverListener.castDriver(driver, RemoteWebDriver.class).getSessionId());
         if (method != null) {
@@ -15,6 +15,8 @@
  *******************************************************************************/
 package com.zebrunner.carina.webdriver;
 
+import javax.annotation.Nullable;
+
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.openqa.selenium.Capabilities;
@@ -30,8 +32,15 @@ public class CarinaDriver {
 	private final Phase phase;
 	private long threadId;
 	private final Capabilities originalCapabilities;
+	@Nullable
+	private final String seleniumHost;
 
 	public CarinaDriver(String name, WebDriver driver, Device device, Phase phase, long threadId, Capabilities originalCapabilities) {
+		this(name, driver, device, phase, threadId, originalCapabilities, null);
+	}
+
+	public CarinaDriver(String name, WebDriver driver, Device device, Phase phase, long threadId, Capabilities originalCapabilities,
+			@Nullable String seleniumHost) {
 		super();
 		this.name = name;
 		this.driver = driver;
@@ -39,6 +48,7 @@ public class CarinaDriver {
 		this.phase = phase;
 		this.threadId = threadId;
 		this.originalCapabilities = originalCapabilities;
+		this.seleniumHost = seleniumHost;
 	}
 
 	public WebDriver getDriver() {
@@ -75,6 +85,17 @@ public class CarinaDriver {
         return originalCapabilities;
     }
 
+    /**
+     * Get selenium host explicitly requested for the driver.<br>
+     * <b>For internal usage only</b>
+     *
+     * @return selenium host url, or null if the driver was created on the configured hub
+     */
+    @Nullable
+    public String getSeleniumHost() {
+        return seleniumHost;
+    }
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Background threads for creating drivers concurrently, see {@link IDriverPool#getDrivers(Map)}.<br>
+ * Number of threads is not limited and there is no caller-runs fallback: the pool is shared by all tests, so a per-test limit would
+ * make parallel tests create their drivers one by one. New sessions are already throttled by the admission controller and the hubs.
+ */
+final class DriverCreationExecutor {
+
+    private DriverCreationExecutor() {
+        // hide
+    }
+
+    static ExecutorService getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static final class InstanceHolder {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("carina-driver-creation-%d")
+                .build());
+    }
+}
@@ -38,6 +38,7 @@ import com.zebrunner.carina.utils.encryptor.EncryptorUtils;
 import com.zebrunner.carina.utils.messager.Messager;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration.Parameter;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
 import com.zebrunner.carina.webdriver.helper.IChromeDevToolsHelper;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 
@@ -149,7 +150,7 @@ public class DriverHelper implements IChromeDevToolsHelper, IExtendedWebElementH
 
     public WebDriver getDriver() {
         if (driver == null) {
-            long currentThreadId = Thread.currentThread().getId();
+            long currentThreadId = DriverContext.currentId();
             LOGGER.error("There is no any initialized driver for thread: {}", currentThreadId);
             throw new RuntimeException("Driver isn't initialized.");
         }
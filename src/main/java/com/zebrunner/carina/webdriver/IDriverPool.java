@@ -18,16 +18,16 @@ package com.zebrunner.carina.webdriver;
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -42,13 +42,21 @@ import org.openqa.selenium.support.decorators.Decorated;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.zebrunner.carina.utils.common.CommonUtils;
 import com.zebrunner.carina.utils.commons.SpecialKeywords;
 import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.exception.CircuitBreakerOpenException;
 import com.zebrunner.carina.utils.exception.DriverPoolException;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration.Parameter;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
 import com.zebrunner.carina.webdriver.core.factory.DriverFactory;
+import com.zebrunner.carina.webdriver.core.pool.DriverIndex;
+import com.zebrunner.carina.webdriver.core.pool.DriverQuitExecutor;
+import com.zebrunner.carina.webdriver.core.pool.SessionRecycler;
+import com.zebrunner.carina.webdriver.core.pool.SessionWatchdog;
+import com.zebrunner.carina.webdriver.core.pool.WarmDriverPool;
+import com.zebrunner.carina.webdriver.core.profiler.jfr.DriverLifecycleEvent;
+import com.zebrunner.carina.webdriver.core.retry.RetryPolicy;
 import com.zebrunner.carina.webdriver.device.Device;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 
@@ -60,33 +68,33 @@ public interface IDriverPool {
     Logger I_DRIVER_POOL_LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     /**
-     * Store drivers by thread id and driver name
+     * Store drivers by {@link DriverContext} id (thread id by default) and driver name
      */
     @SuppressWarnings("squid:S2386")
     @API(status = API.Status.INTERNAL)
     ConcurrentHashMap<Long, Map<String, CarinaDriver>> DRIVERS_POOL = new ConcurrentHashMap<>();
 
     /**
-     * Background process for closing drivers. Scalable depends on requirements.
-     * In carina-core in the shutdown logic we wait until all tasks will be completed
+     * Background process for closing drivers, see {@link DriverQuitExecutor}.
+     * In carina-core in the shutdown logic we wait until all tasks will be completed,
+     * otherwise tasks are drained on JVM shutdown, see {@link DriverQuitExecutor#drain()}
      */
     @API(status = API.Status.INTERNAL)
-    ExecutorService EXECUTOR_SERVICE = new ThreadPoolExecutor(10, Integer.MAX_VALUE, 120L, TimeUnit.SECONDS,
-            new SynchronousQueue<>());
+    DriverQuitExecutor EXECUTOR_SERVICE = DriverQuitExecutor.create();
 
     /**
-     * Store device object for current thread
+     * Store device object for current {@link DriverContext}
      */
     // todo remove this storage
     @API(status = API.Status.INTERNAL)
-    ThreadLocal<Device> CURRENT_DEVICE = new ThreadLocal<>();
+    ThreadLocal<Device> CURRENT_DEVICE = new DriverContext.Local<>();
 
     // todo check if it is possible to remove usage of this object and reuse Optional for methods that return Device object
     @API(status = API.Status.INTERNAL)
     Device nullDevice = new Device();
 
     @API(status = API.Status.INTERNAL)
-    ThreadLocal<Capabilities> CUSTOM_CAPABILITIES = new ThreadLocal<>();
+    ThreadLocal<Capabilities> CUSTOM_CAPABILITIES = new DriverContext.Local<>();
 
     /**
      * Default driver name
@@ -140,6 +148,10 @@ public interface IDriverPool {
     default WebDriver getDriver(String name, @Nullable Capabilities capabilities, @Nullable String seleniumHost) {
         Optional<CarinaDriver> carinaDriver = getCarinaDriver(name);
         if (carinaDriver.isPresent()) {
+            if (SessionWatchdog.getInstance().isUnhealthy(carinaDriver.get())) {
+                // session is not replaced in the middle of the test, as the test would lose its state
+                I_DRIVER_POOL_LOGGER.debug("Session of the '{}' driver is unhealthy, it will be replaced at the next test boundary.", name);
+            }
             if (TestPhase.Phase.BEFORE_SUITE.equals(carinaDriver.get().getPhase())) {
                 I_DRIVER_POOL_LOGGER.info("Before suite registered driver will be returned.");
             } else {
@@ -153,13 +165,49 @@ public interface IDriverPool {
     }
 
     /**
-     * Get driver by sessionId.
+     * Get drivers by names. Drivers that are not registered for current test (thread) yet are created concurrently,
+     * so the test pays the new session latency once instead of once per driver.<br>
+     * New drivers are registered together, only when all of them are created. If creation of any driver failed,
+     * already created drivers are quit and exception is thrown.<br>
+     * Current device ({@link #getDevice()}) is not changed as there could be several devices, so devices of the created drivers
+     * should be got by the driver name ({@link #getDevice(String)}).
+     *
+     * @param drivers {@link Map} of driver names and capabilities (capabilities could be null)
+     * @return {@link Map} of driver names and {@link WebDriver} in the order of the provided map
+     */
+    @API(status = API.Status.EXPERIMENTAL)
+    default Map<String, WebDriver> getDrivers(Map<String, Capabilities> drivers) {
+        Map<String, WebDriver> result = new LinkedHashMap<>(drivers.size());
+        Map<String, Capabilities> newDrivers = new LinkedHashMap<>();
+        for (Map.Entry<String, Capabilities> entry : drivers.entrySet()) {
+            Optional<CarinaDriver> carinaDriver = getCarinaDriver(entry.getKey());
+            if (carinaDriver.isPresent()) {
+                result.put(entry.getKey(), carinaDriver.get().getDriver());
+            } else {
+                result.put(entry.getKey(), null);
+                newDrivers.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!newDrivers.isEmpty()) {
+            I_DRIVER_POOL_LOGGER.debug("Starting {} new driver(s) concurrently: {}", newDrivers.size(), newDrivers.keySet());
+            createDrivers(newDrivers).forEach((name, drv) -> result.put(name, drv.getDriver()));
+        }
+        return result;
+    }
+
+    /**
+     * Get driver of the current context (thread) by sessionId.
      *
      * @param sessionId session id to be used for searching a desired driver
      * @return {@link WebDriver}
      */
     @API(status = API.Status.INTERNAL)
     public static WebDriver getDriver(SessionId sessionId) {
+        Optional<CarinaDriver> indexed = DriverIndex.getBySessionId(Objects.requireNonNull(sessionId))
+                .filter(carinaDriver -> carinaDriver.getThreadId() == DriverContext.currentId());
+        if (indexed.isPresent()) {
+            return indexed.get().getDriver();
+        }
         for (CarinaDriver carinaDriver : getDrivers().values()) {
             WebDriver drv = carinaDriver.getDriver();
             if (Objects.requireNonNull(sessionId).equals(DriverListener.castDriver(drv, RemoteWebDriver.class).getSessionId())) {
@@ -177,6 +225,14 @@ public interface IDriverPool {
      */
     @API(status = API.Status.INTERNAL)
     default WebDriver getDriver(Device device) {
+        long threadId = DriverContext.currentId();
+        Optional<CarinaDriver> indexed = DriverIndex.getByUdid(device.getUdid())
+                .stream()
+                .filter(carinaDriver -> carinaDriver.getDevice() == device && carinaDriver.getThreadId() == threadId)
+                .findAny();
+        if (indexed.isPresent()) {
+            return indexed.get().getDriver();
+        }
         WebDriver drv = null;
         for (CarinaDriver carinaDriver : getDrivers().values()) {
             if (carinaDriver.getDevice().equals(device)) {
@@ -208,7 +264,9 @@ public interface IDriverPool {
     }
 
     /**
-     * Restart default driver on the same device with additional capabilities
+     * Restart default driver on the same device with additional capabilities<br>
+     * When session recycling is enabled, the session is reset in place instead of restart only if there are no additional
+     * capabilities and it stays on the same device (or has no device at all).
      *
      * @param isSameDevice restart driver on the same device or not
      * @param additionalOptions {@link Capabilities}
@@ -219,6 +277,10 @@ public interface IDriverPool {
         CarinaDriver driver = getCarinaDriver(DEFAULT)
                 .orElseThrow(() -> new DriverPoolException(String.format("Could not find '%s' driver. "
                         + "Please check that driver exists before 'restartDriver' method call.", DEFAULT)));
+        if (additionalOptions == null && (isSameDevice || driver.getDevice() == nullDevice) && SessionRecycler.isEnabled()
+                && SessionRecycler.reset(driver)) {
+            return driver.getDriver();
+        }
         quitDriver(DEFAULT);
 
         Capabilities capabilities = driver.getOriginalCapabilities()
@@ -232,6 +294,30 @@ public interface IDriverPool {
                 .getDriver();
     }
 
+    /**
+     * Replace driver of the current context by the new one with the same original capabilities, selenium host, device and phase.
+     * Used to replace sessions marked as unhealthy by the {@link SessionWatchdog}
+     *
+     * @param name driver name
+     * @return {@link WebDriver}
+     */
+    @API(status = API.Status.INTERNAL)
+    static WebDriver replaceDriver(String name) {
+        long threadId = DriverContext.currentId();
+        CarinaDriver driver = Optional.ofNullable(DRIVERS_POOL.getOrDefault(threadId, Map.of()).get(name))
+                .orElseThrow(() -> new DriverPoolException(String.format("Could not find '%s' driver to replace.", name)));
+        quitDriver(name, threadId);
+
+        Capabilities capabilities = driver.getOriginalCapabilities();
+        if (driver.getDevice() != nullDevice) {
+            MutableCapabilities udidCaps = new MutableCapabilities();
+            udidCaps.setCapability(MobileCapabilityType.UDID, driver.getDevice().getUdid());
+            capabilities = capabilities.merge(udidCaps);
+        }
+        return createDriver(name, capabilities, driver.getSeleniumHost(), threadId, driver.getPhase(), true)
+                .getDriver();
+    }
+
     /**
      * Quit default driver
      */
@@ -248,54 +334,72 @@ public interface IDriverPool {
     @API(status = API.Status.STABLE)
     @SuppressWarnings("squid:S1181")
     default void quitDriver(String name) {
-        quitDriver(name, Thread.currentThread().getId());
+        quitDriver(name, DriverContext.currentId());
     }
 
     @API(status = API.Status.INTERNAL)
     @SuppressWarnings("squid:S1181")
     static void quitDriver(String name, Long threadId) {
-        DRIVERS_POOL.computeIfAbsent(threadId, k -> new ConcurrentHashMap<>(0))
-                .computeIfPresent(name, (k, carinaDriver) -> {
+        CarinaDriver carinaDriver = DRIVERS_POOL.computeIfAbsent(threadId, k -> new ConcurrentHashMap<>(0)).remove(name);
+        if (carinaDriver == null) {
+            return;
+        }
+        DriverIndex.remove(carinaDriver);
+        // session reset could take a while, so it is done after the driver is removed from the pool, not under its lock
+        if (SessionRecycler.isEnabled() && SessionRecycler.recycle(carinaDriver)) {
+            I_DRIVER_POOL_LOGGER.debug("Driver {}-{} was recycled instead of quit", threadId, name);
+            return;
+        }
+        try {
+            EXECUTOR_SERVICE.submit(new CloseDriverTask(carinaDriver) {
+                @Override
+                public void run() {
+                    I_DRIVER_POOL_LOGGER.debug("Starting driver quit process for {}-{}", getCarinaDriver().getThreadId(),
+                            getCarinaDriver().getName());
                     try {
-                        EXECUTOR_SERVICE.submit(new CloseDriverTask(carinaDriver) {
-                            @Override
-                            public void run() {
-                                I_DRIVER_POOL_LOGGER.debug("Starting driver quit process for {}-{}", getCarinaDriver().getThreadId(),
-                                        getCarinaDriver().getName());
-                                try {
-                                    getCarinaDriver().getDevice().disconnectRemote();
-                                } catch (Throwable e) {
-                                    I_DRIVER_POOL_LOGGER.warn("Unsuccessful remote disconnect", e);
-                                }
-                                // castDriver to disable DriverListener operations on quit
-                                WebDriver drv = castDriver(getCarinaDriver().getDriver());
-
-                                if (Configuration.get(WebDriverConfiguration.Parameter.CHROME_CLOSURE, Boolean.class).orElse(false)) {
-                                    try {
-                                        // workaround to not cleaned chrome profiles on hard drive
-                                        drv.close();
-                                    } catch (Throwable e) {
-                                        I_DRIVER_POOL_LOGGER.warn("Unsuccessful driver close process");
-                                    }
-                                }
-                                try {
-                                    drv.quit();
-                                } catch (Throwable e) {
-                                    I_DRIVER_POOL_LOGGER.error("Unable to quit driver! Cause: {}", e.getMessage(), e);
-                                }
-                                I_DRIVER_POOL_LOGGER.debug("Finished driver quit process for {}-{}", getCarinaDriver().getThreadId(),
-                                        getCarinaDriver().getName());
-                            }
-                        });
+                        getCarinaDriver().getDevice().disconnectRemote();
                     } catch (Throwable e) {
-                        I_DRIVER_POOL_LOGGER.warn("Unsuccessful submit driver quit task");
+                        I_DRIVER_POOL_LOGGER.warn("Unsuccessful remote disconnect", e);
                     }
-                    return null;
-                });
+                    // castDriver to disable DriverListener operations on quit
+                    WebDriver drv = castDriver(getCarinaDriver().getDriver());
+
+                    if (Configuration.get(WebDriverConfiguration.Parameter.CHROME_CLOSURE, Boolean.class).orElse(false)) {
+                        try {
+                            // workaround to not cleaned chrome profiles on hard drive
+                            drv.close();
+                        } catch (Throwable e) {
+                            I_DRIVER_POOL_LOGGER.warn("Unsuccessful driver close process");
+                        }
+                    }
+                    DriverLifecycleEvent event = new DriverLifecycleEvent();
+                    event.begin();
+                    boolean success = false;
+                    try {
+                        drv.quit();
+                        success = true;
+                    } catch (Throwable e) {
+                        I_DRIVER_POOL_LOGGER.error("Unable to quit driver! Cause: {}", e.getMessage(), e);
+                    }
+                    if (event.shouldCommit()) {
+                        event.operation = DriverLifecycleEvent.QUIT;
+                        event.name = getCarinaDriver().getName();
+                        event.success = success;
+                        event.commit();
+                    }
+                    I_DRIVER_POOL_LOGGER.debug("Finished driver quit process for {}-{}", getCarinaDriver().getThreadId(),
+                            getCarinaDriver().getName());
+                }
+            });
+        } catch (Throwable e) {
+            I_DRIVER_POOL_LOGGER.warn("Unsuccessful submit driver quit task");
+        }
     }
 
     /**
-     * Quit drivers in current thread by phase(s). "Current" means assigned to the current test/thread.
+     * Quit drivers in current thread by phase(s). "Current" means assigned to the current test/thread.<br>
+     * As it is the test boundary, remaining drivers marked as unhealthy by the {@link SessionWatchdog} are replaced, so the next test
+     * gets the healthy sessions.
      *
      * @param phase comma separated driver phases to quit
      */
@@ -303,13 +407,14 @@ public interface IDriverPool {
     default void quitDrivers(TestPhase.Phase... phase) {
         List<TestPhase.Phase> phases = Arrays.asList(phase);
         Set<String> drivers4Remove = new HashSet<>(1);
-        Long threadId = Thread.currentThread().getId();
+        Long threadId = DriverContext.currentId();
         for (CarinaDriver carinaDriver : getDrivers().values()) {
             if ((phases.contains(carinaDriver.getPhase()) && threadId.equals(carinaDriver.getThreadId())) || phases.contains(TestPhase.Phase.ALL)) {
                 drivers4Remove.add(carinaDriver.getName());
             }
         }
         drivers4Remove.forEach(this::quitDriver);
+        SessionWatchdog.getInstance().replaceUnhealthyDrivers();
         removeCapabilities();
     }
 
@@ -352,7 +457,7 @@ public interface IDriverPool {
      */
     @API(status = API.Status.INTERNAL)
     private static Optional<CarinaDriver> getCarinaDriver(String name) {
-        long threadId = Thread.currentThread().getId();
+        long threadId = DriverContext.currentId();
         return Optional.ofNullable(DRIVERS_POOL.computeIfAbsent(threadId, k -> new ConcurrentHashMap<>(0))
                 .getOrDefault(name, null));
     }
@@ -381,6 +486,45 @@ public interface IDriverPool {
      */
     @API(status = API.Status.INTERNAL)
     private static CarinaDriver createDriver(String name, @Nullable Capabilities capabilities, @Nullable String seleniumHost) {
+        return createDriver(name, capabilities, seleniumHost, DriverContext.currentId(), TestPhase.getActivePhase(), true);
+    }
+
+    /**
+     * Create driver for the test context
+     *
+     * @param name driver name
+     * @param capabilities {@link Capabilities}
+     * @param seleniumHost selenium host url
+     * @param threadId id of the {@link DriverContext} the driver is created for
+     * @param phase {@link TestPhase.Phase} of the driver
+     * @param register true if driver should be registered in the {@link #DRIVERS_POOL}
+     * @return {@link CarinaDriver}
+     */
+    @API(status = API.Status.INTERNAL)
+    private static CarinaDriver createDriver(String name, @Nullable Capabilities capabilities, @Nullable String seleniumHost, long threadId,
+            TestPhase.Phase phase, boolean register) {
+        DriverLifecycleEvent event = new DriverLifecycleEvent();
+        event.begin();
+        CarinaDriver drv = null;
+        try {
+            drv = createDriver(name, capabilities, seleniumHost, threadId, phase, register, event);
+            return drv;
+        } finally {
+            if (event.shouldCommit()) {
+                event.operation = DriverLifecycleEvent.CREATE;
+                event.name = name;
+                event.success = drv != null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Create driver with retries, number of attempts and warm session usage are recorded to the event
+     */
+    @API(status = API.Status.INTERNAL)
+    private static CarinaDriver createDriver(String name, @Nullable Capabilities capabilities, @Nullable String seleniumHost, long threadId,
+            TestPhase.Phase phase, boolean register, DriverLifecycleEvent event) {
         int count = 0;
         CarinaDriver drv = null;
         Device device = nullDevice;
@@ -388,10 +532,10 @@ public interface IDriverPool {
         // 1 - is default run without retry
         int maxCount = Configuration.getRequired(Parameter.INIT_RETRY_COUNT, Integer.class) + 1;
         int maxDriverCount = Configuration.getRequired(Parameter.MAX_DRIVER_COUNT, Integer.class);
-        long threadId = Thread.currentThread().getId();
         while (drv == null && count++ < maxCount) {
+            event.attempts = count;
             try {
-                Map<String, CarinaDriver> currentDrivers = getDrivers();
+                Map<String, CarinaDriver> currentDrivers = DRIVERS_POOL.computeIfAbsent(threadId, k -> new ConcurrentHashMap<>(0));
                 if (currentDrivers.size() == maxDriverCount) {
                     throw new DriverPoolException(String.format("Unable to create new driver as you reached max number of drivers per thread: %s !" +
                             " Override max_driver_count to allow more drivers per test!", maxDriverCount));
@@ -401,24 +545,46 @@ public interface IDriverPool {
                     // [VD] moved containsKey verification before the driver start
                     throw new DriverPoolException(String.format("Driver '%s' is already registered for thread: %s", name, threadId));
                 }
-                ImmutablePair<WebDriver, Capabilities> pair = DriverFactory.create(name, capabilities, seleniumHost);
+                ImmutablePair<WebDriver, Capabilities> pair;
+                Optional<WarmDriverPool.WarmSession> warmSession = WarmDriverPool.getInstance().take(capabilities, seleniumHost);
+                if (warmSession.isPresent()) {
+                    pair = new ImmutablePair<>(warmSession.get().getDriver(), warmSession.get().getCapabilities());
+                    event.warm = true;
+                    if (warmSession.get().getDevice() != nullDevice) {
+                        CURRENT_DEVICE.set(warmSession.get().getDevice());
+                    }
+                } else {
+                    // circuit breaker of the hub is applied by the factory when the hub is chosen, see HubBalancer.Lease
+                    pair = DriverFactory.create(name, capabilities, seleniumHost);
+                }
+                WarmDriverPool.getInstance().track(pair.getLeft(), capabilities, seleniumHost);
                 if (CURRENT_DEVICE.get() != null) {
                     device = CURRENT_DEVICE.get();
                 }
-                drv = new CarinaDriver(name, pair.getLeft(), device, TestPhase.getActivePhase(), threadId, pair.getRight());
-                DRIVERS_POOL.computeIfAbsent(threadId, k -> new ConcurrentHashMap<>(1))
-                        .put(name, drv);
+                drv = new CarinaDriver(name, pair.getLeft(), device, phase, threadId, pair.getRight(), seleniumHost);
+                if (register) {
+                    CarinaDriver registered = drv;
+                    DRIVERS_POOL.compute(threadId, (k, threadDrivers) -> {
+                        Map<String, CarinaDriver> drivers = threadDrivers == null ? new ConcurrentHashMap<>(1) : threadDrivers;
+                        drivers.put(name, registered);
+                        DriverIndex.register(registered);
+                        return drivers;
+                    });
+                }
             } catch (Throwable e) {
                 device.disconnectRemote();
                 // TODO: [VD] think about excluding device from pool for explicit reasons like out of space etc
                 // but initially try to implement it on selenium-hub level
-                if (count == maxCount) {
+                if (count == maxCount || e instanceof CircuitBreakerOpenException) {
                     throw e;
                 } else {
                     // do not provide huge stacktrace as more retries exists. Only latest will generate full error + stacktrace
                     I_DRIVER_POOL_LOGGER.error(String.format("Driver initialization '%s' FAILED! Retry %d of %d time - %s",
                             name, count, maxCount, e.getMessage()));
-                    CommonUtils.pause(Configuration.getRequired(Parameter.INIT_RETRY_INTERVAL, Integer.class));
+                    if (!RetryPolicy.getInstance().backoff(count)) {
+                        I_DRIVER_POOL_LOGGER.error("Driver initialization '{}' will not be retried: retry budget is exhausted.", name);
+                        throw e;
+                    }
                 }
             }
         }
@@ -428,6 +594,82 @@ public interface IDriverPool {
         return drv;
     }
 
+    /**
+     * Create drivers concurrently and register them for the current test context when all of them are created
+     *
+     * @param drivers {@link Map} of driver names and capabilities
+     * @return {@link Map} of driver names and registered {@link CarinaDriver}
+     */
+    @API(status = API.Status.INTERNAL)
+    private static Map<String, CarinaDriver> createDrivers(Map<String, Capabilities> drivers) {
+        long threadId = DriverContext.currentId();
+        TestPhase.Phase phase = TestPhase.getActivePhase();
+        int maxDriverCount = Configuration.getRequired(Parameter.MAX_DRIVER_COUNT, Integer.class);
+        checkDriversCanBeRegistered(getDrivers(), drivers.keySet(), maxDriverCount, threadId);
+
+        Map<String, CompletableFuture<CarinaDriver>> futures = new LinkedHashMap<>(drivers.size());
+        // each driver is created in the separate context, so devices registered by the factories do not override each other
+        drivers.forEach((name, capabilities) -> futures.put(name, CompletableFuture.supplyAsync(() -> DriverContext.create()
+                .get(() -> createDriver(name, capabilities, null, threadId, phase, false)), DriverCreationExecutor.getInstance())));
+
+        Map<String, CarinaDriver> created = new LinkedHashMap<>(drivers.size());
+        DriverPoolException failure = null;
+        for (Map.Entry<String, CompletableFuture<CarinaDriver>> entry : futures.entrySet()) {
+            try {
+                created.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (failure == null) {
+                    failure = new DriverPoolException(String.format("Unable to create driver '%s': %s", entry.getKey(), cause.getMessage()), cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure == null) {
+            try {
+                DRIVERS_POOL.compute(threadId, (k, currentDrivers) -> {
+                    Map<String, CarinaDriver> registered = currentDrivers == null ? new ConcurrentHashMap<>(created.size()) : currentDrivers;
+                    checkDriversCanBeRegistered(registered, created.keySet(), maxDriverCount, threadId);
+                    registered.putAll(created);
+                    created.values().forEach(DriverIndex::register);
+                    return registered;
+                });
+            } catch (DriverPoolException e) {
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            I_DRIVER_POOL_LOGGER.error("Drivers creation FAILED, {} created driver(s) will be quit: {}", created.size(), created.keySet());
+            for (CarinaDriver drv : created.values()) {
+                try {
+                    drv.getDevice().disconnectRemote();
+                    castDriver(drv.getDriver()).quit();
+                } catch (Exception e) {
+                    I_DRIVER_POOL_LOGGER.warn("Unable to quit driver '{}' on rollback: {}", drv.getName(), e.getMessage());
+                }
+            }
+            throw failure;
+        }
+        return created;
+    }
+
+    @API(status = API.Status.INTERNAL)
+    private static void checkDriversCanBeRegistered(Map<String, CarinaDriver> currentDrivers, Set<String> names, int maxDriverCount,
+            long threadId) {
+        if (currentDrivers.size() + names.size() > maxDriverCount) {
+            throw new DriverPoolException(String.format("Unable to create %d new driver(s) as you reached max number of drivers per thread: %s !" +
+                    " Override max_driver_count to allow more drivers per test!", names.size(), maxDriverCount));
+        }
+        for (String name : names) {
+            if (currentDrivers.containsKey(name)) {
+                throw new DriverPoolException(String.format("Driver '%s' is already registered for thread: %s", name, threadId));
+            }
+        }
+    }
+
     /**
      * Verify if driver with provided name is registered in current thread (test)
      *
@@ -446,7 +688,7 @@ public interface IDriverPool {
      */
     @API(status = API.Status.INTERNAL)
     static Map<String, CarinaDriver> getDrivers() {
-        long threadId = Thread.currentThread().getId();
+        long threadId = DriverContext.currentId();
         return DRIVERS_POOL.computeIfAbsent(threadId, k -> new ConcurrentHashMap<>(0));
     }
 
@@ -479,13 +721,18 @@ public interface IDriverPool {
     }
 
     /**
-     * Get device registered for the provided driver. If no driver discovered nullDevice will be returned
+     * Get device registered for the provided driver of the current context (thread). If no driver discovered nullDevice will be returned
      *
      * @param driver {@link WebDriver}
      * @return {@link Device}
      */
     @API(status = API.Status.INTERNAL)
     default Device getDevice(WebDriver driver) {
+        Optional<CarinaDriver> indexed = DriverIndex.getByDriver(driver)
+                .filter(carinaDriver -> carinaDriver.getThreadId() == DriverContext.currentId());
+        if (indexed.isPresent()) {
+            return indexed.get().getDevice();
+        }
         Device device = nullDevice;
         for (CarinaDriver drv : getDrivers().values()) {
             if (drv.getDriver().equals(driver)) {
@@ -505,7 +752,7 @@ public interface IDriverPool {
     @API(status = API.Status.INTERNAL)
     static Device registerDevice(Device device) {
         // register current device to be able to transfer it into Zafira at the end of the test
-        long threadId = Thread.currentThread().getId();
+        long threadId = DriverContext.currentId();
         I_DRIVER_POOL_LOGGER.debug("Set current device '{}' to thread: {}", device.getName(), threadId);
         CURRENT_DEVICE.set(device);
         I_DRIVER_POOL_LOGGER.debug("register device for current thread id: {}; device: '{}'", threadId, device.getName());
@@ -525,7 +772,7 @@ public interface IDriverPool {
      */
     @Deprecated(forRemoval = true)
     static Device getDefaultDevice() {
-        long threadId = Thread.currentThread().getId();
+        long threadId = DriverContext.currentId();
         Device device = CURRENT_DEVICE.get();
         if (device == null) {
             device = nullDevice;
@@ -41,8 +41,6 @@ import org.openqa.selenium.Beta;
 import org.openqa.selenium.HasCapabilities;
 import org.openqa.selenium.NoSuchSessionException;
 import org.openqa.selenium.NoSuchWindowException;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.Platform;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.TimeoutException;
@@ -60,9 +58,10 @@ import org.slf4j.LoggerFactory;
 import com.zebrunner.carina.utils.commons.SpecialKeywords;
 import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.utils.report.ReportContext;
-import com.zebrunner.carina.webdriver.core.capability.CapabilityUtils;
-import com.zebrunner.carina.webdriver.core.capability.DriverType;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
+import com.zebrunner.carina.webdriver.core.http.ResponseStreaming;
+import com.zebrunner.carina.webdriver.core.profiler.jfr.ScreenshotEvent;
 import com.zebrunner.carina.webdriver.screenshot.IScreenshotRule;
 
 import io.appium.java_client.AppiumDriver;
@@ -367,6 +366,9 @@ public class Screenshot {
 
         WebDriver originalDriver = castDriver(driver);
 
+        ScreenshotEvent event = new ScreenshotEvent();
+        event.begin();
+        long captureStartNanos = System.nanoTime();
         BufferedImage screenshot = null;
         LOGGER.debug("Screenshot->capture starting...");
         try {
@@ -397,12 +399,15 @@ public class Screenshot {
             setPageLoadTimeout(originalDriver, getDefaultPageLoadTimeout());
             LOGGER.debug("finished screenshot call.");
         }
+        long captureDuration = System.nanoTime() - captureStartNanos;
 
         if (screenshot == null) {
+            commit(event, rule, captureDuration, 0, false);
             return Optional.empty();
         }
 
         Path screenshotPath = null;
+        long processingStartNanos = System.nanoTime();
         try {
             Pair<Integer, Integer> dimensions = rule.getImageResizeDimensions();
             screenshot = resizeImg(screenshot, dimensions.getLeft(), dimensions.getRight());
@@ -438,9 +443,21 @@ public class Screenshot {
         } finally {
             LOGGER.debug("Screenshot->capture finished.");
         }
+        commit(event, rule, captureDuration, System.nanoTime() - processingStartNanos, screenshotPath != null);
         return Optional.ofNullable(screenshotPath);
     }
 
+    private static void commit(ScreenshotEvent event, IScreenshotRule rule, long captureDuration, long processingDuration, boolean success) {
+        if (event.shouldCommit()) {
+            event.screenshotType = String.valueOf(rule.getScreenshotType());
+            event.fullSize = rule.isAllowFullSize();
+            event.captureDuration = captureDuration;
+            event.processingDuration = processingDuration;
+            event.success = success;
+            event.commit();
+        }
+    }
+
     /**
      * Captures screenshot explicitly ignoring any rules, creates thumbnail and copies both images to specified screenshots
      * location.
@@ -566,7 +583,7 @@ public class Screenshot {
      * @param width the target width that you wish the image to have.
      * @param height the target height that you wish the image to have.
      */
-    private static BufferedImage resizeImg(BufferedImage bufferedImage, Integer width, Integer height) {
+    static BufferedImage resizeImg(BufferedImage bufferedImage, Integer width, Integer height) {
         Objects.requireNonNull(bufferedImage, "bufferedImage parameter must not be null");
         if (width == null || width < 0 || height == null || height < 0) {
             return bufferedImage;
@@ -591,22 +608,20 @@ public class Screenshot {
      * popups and active js-elements on the page)
      *
      * @param driver web driver without listeners (original)
-     * @exception IOException see {@link ImageIO#read(File)}
      *
      * @return a {@link BufferedImage} of screenshot if it was produced successfully, or null otherwise
      */
-    private static BufferedImage takeFullScreenshot(WebDriver driver, Wait<WebDriver> wait) throws IOException {
+    private static BufferedImage takeFullScreenshot(WebDriver driver, Wait<WebDriver> wait) {
         BufferedImage screenshot;
 
         if (driver instanceof AppiumDriver) {
-            File capturedScreenshot = wait.until(drv -> ((TakesScreenshot) drv)
-                    .getScreenshotAs(OutputType.FILE));
-            screenshot = ImageIO.read(capturedScreenshot);
+            screenshot = wait.until(drv -> ResponseStreaming.screenshot((TakesScreenshot) drv));
         } else {
             final AShot ashot;
             // if for mobile we use RemoteWebDriver
-            if (DriverType.MOBILE.equals(CapabilityUtils.getDriverType(((HasCapabilities) driver).getCapabilities()))) {
-                if (Platform.ANDROID.is(((HasCapabilities) driver).getCapabilities().getPlatformName())) {
+            Optional<SessionProfile> profile = SessionProfile.of(driver);
+            if (profile.map(SessionProfile::isMobile).orElse(false)) {
+                if (profile.get().isAndroid()) {
                     String pixelRatio = String.valueOf(((HasCapabilities) driver).getCapabilities().getCapability("pixelRatio"));
                     float dpr = !pixelRatio.equals("null") ? Float.parseFloat(pixelRatio) : SpecialKeywords.DEFAULT_DPR;
                     ashot = new AShot().shootingStrategy(ShootingStrategies
@@ -630,13 +645,11 @@ public class Screenshot {
     /**
      * Take screenshot of visible part of the page.
      *
-     * @exception IOException see {@link ImageIO#read(File)}
-     *
      * @return a {@link BufferedImage} of screenshot if it was produced successfully, or null otherwise
      */
-    private static BufferedImage takeVisibleScreenshot(Wait<TakesScreenshot> wait) throws IOException {
-        File capturedScreenshot = wait.until(screenshotContext -> screenshotContext.getScreenshotAs(OutputType.FILE));
-        return ImageIO.read(capturedScreenshot);
+    private static BufferedImage takeVisibleScreenshot(Wait<TakesScreenshot> wait) {
+        // screenshot is decoded directly from the response, without intermediate base64 string and file
+        return wait.until(ResponseStreaming::screenshot);
     }
 
     /**
@@ -58,6 +58,46 @@ public final class WebDriverConfiguration extends Configuration {
          */
         SELENIUM_URL("selenium_url"),
 
+        /**
+         * Comma separated list of Selenium/Appium server URLs. If it is set, new sessions are distributed between these hubs,
+         * see {@link com.zebrunner.carina.webdriver.core.hub.HubBalancer}. <b>Default: {@code NULL}</b> ({@link #SELENIUM_URL} is used)
+         */
+        SELENIUM_URLS("selenium_urls"),
+
+        /**
+         * Strategy of the hub selection for the new session: {@code round_robin}, {@code least_sessions}, {@code lowest_latency}
+         * or class name of the {@link com.zebrunner.carina.webdriver.core.hub.HubSelectionStrategy} implementation.
+         * <b>Default: {@code round_robin}</b>
+         */
+        HUB_SELECTION_STRATEGY("hub_selection_strategy"),
+
+        /**
+         * Number of consecutive new session failures after which hub is removed from the rotation. <b>Default: {@code 3}</b>
+         */
+        HUB_MAX_FAILURES("hub_max_failures"),
+
+        /**
+         * Time (in seconds) during which hub is out of the rotation after failures. <b>Default: {@code 60}</b>
+         */
+        HUB_QUARANTINE_TIME("hub_quarantine_time"),
+
+        /**
+         * Share one pooled HTTP client per hub between all driver sessions instead of the client per session,
+         * see {@link com.zebrunner.carina.webdriver.core.http.SharedHttpClientFactory}. <b>Default: {@code false}</b>
+         */
+        HTTP_CLIENT_SHARED("http_client_shared"),
+
+        /**
+         * Max number of the open connections to the one hub, {@code -1} for unlimited. <b>Default: {@code 100}</b>
+         */
+        HTTP_CLIENT_MAX_CONNECTIONS("http_client_max_connections"),
+
+        /**
+         * Time (in seconds) during which idle connection to the hub is kept alive for the reuse, {@code 0} to disable keep-alive.
+         * <b>Default: {@code 60}</b>
+         */
+        HTTP_CLIENT_KEEP_ALIVE_TIMEOUT("http_client_keep_alive_timeout"),
+
         /**
          * Comma-separated list of extra driver listeners.
          * Listeners provide extra custom actions for WebDriver and have to be
@@ -237,6 +277,18 @@ public final class WebDriverConfiguration extends Configuration {
          */
         CUSTOM_ARTIFACTS_FOLDER("custom_artifacts_folder"),
 
+        /**
+         * Time (in seconds) during which direct links to the artifacts (for example, pre-signed application links)
+         * are reused for the same source url. Should be less than expiration time of generated links.
+         * {@code 0} disables caching. <b>Default: {@code 600}</b>
+         */
+        ARTIFACT_DIRECT_LINK_CACHE_TTL("artifact_direct_link_cache_ttl"),
+
+        /**
+         * Maximum number of cached direct links to the artifacts. <b>Default: {@code 100}</b>
+         */
+        ARTIFACT_DIRECT_LINK_CACHE_SIZE("artifact_direct_link_cache_size"),
+
         /**
          * Timeout interval in ms between calling HTML DOM for the element.
          * <b>Default: 100. For mobile automation specify in between 500-1000</b>
@@ -259,10 +311,134 @@ public final class WebDriverConfiguration extends Configuration {
         INIT_RETRY_COUNT("init_retry_count"),
 
         /**
-         * Interval in seconds between the attempts to create a driver. <b>Default: 1</b>
+         * Base interval in seconds between the attempts to create a driver. Actual interval is a random value up to
+         * {@code init_retry_interval * 2^(retry - 1)}, see {@link com.zebrunner.carina.webdriver.core.retry.RetryPolicy}. <b>Default: 1</b>
          */
         INIT_RETRY_INTERVAL("init_retry_interval"),
 
+        /**
+         * Max interval in seconds between the attempts to create a driver. <b>Default: 30</b>
+         */
+        INIT_RETRY_MAX_INTERVAL("init_retry_max_interval"),
+
+        /**
+         * Max number of the driver creation retries per minute for all threads. When it is exhausted, driver creation fails
+         * without retry. <b>Default: {@code 0} (unlimited)</b>
+         */
+        INIT_RETRY_BUDGET("init_retry_budget"),
+
+        /**
+         * Number of consecutive new session failures after which new sessions on the hub fail fast,
+         * see {@link com.zebrunner.carina.webdriver.core.retry.CircuitBreaker}. <b>Default: {@code 0} (circuit breaker is disabled)</b>
+         */
+        HUB_CIRCUIT_BREAKER_THRESHOLD("hub_circuit_breaker_threshold"),
+
+        /**
+         * Time (in seconds) during which new sessions on the hub fail fast after the circuit breaker was opened.
+         * Then one probe new session request is allowed. <b>Default: {@code 30}</b>
+         */
+        HUB_CIRCUIT_BREAKER_OPEN_TIME("hub_circuit_breaker_open_time"),
+
+        /**
+         * Max number of the command retries per driver session. Only idempotent commands failed by the transient error are retried,
+         * see {@link com.zebrunner.carina.webdriver.core.retry.CommandRetryPolicy}. <b>Default: {@code 10}</b>
+         */
+        COMMAND_RETRY_BUDGET("command_retry_budget"),
+
+        /**
+         * Max time (in seconds) spent on the retries of one command, including pauses between them. <b>Default: {@code 5}</b>
+         */
+        COMMAND_RETRY_DEADLINE("command_retry_deadline"),
+
+        /**
+         * Write per-command metrics (wire latency, payload sizes, errors) to the {@code command-metrics.json} report on shutdown,
+         * see {@link com.zebrunner.carina.webdriver.core.metrics.CommandMetrics}. <b>Default: {@code false}</b>
+         */
+        COMMAND_METRICS_REPORT("command_metrics_report"),
+
+        /**
+         * Path to the file where the HTTP exchanges of the command executors (driver commands and responses with timings) are recorded,
+         * see {@link com.zebrunner.carina.webdriver.core.replay.CommandReplay}. File is gzipped if its name ends with {@code .gz}.
+         * <b>Default: {@code NULL} (recording is disabled)</b>
+         */
+        COMMAND_RECORD_FILE("command_record_file"),
+
+        /**
+         * Path to the file recorded by {@link #COMMAND_RECORD_FILE}. If it is set, command executors serve the recorded responses
+         * instead of sending commands to the hub, see {@link com.zebrunner.carina.webdriver.core.replay.CommandReplay}.
+         * <b>Default: {@code NULL} (replay is disabled)</b>
+         */
+        COMMAND_REPLAY_FILE("command_replay_file"),
+
+        /**
+         * Latency of the replayed responses: {@code zero} - responses are returned immediately, {@code recorded} - after the
+         * recorded time on the wire. <b>Default: {@code zero}</b>
+         */
+        COMMAND_REPLAY_LATENCY("command_replay_latency"),
+
+        /**
+         * Number of driver sessions that are created in background ahead of demand for each set of capabilities.
+         * See {@link com.zebrunner.carina.webdriver.core.pool.WarmDriverPool}. <b>Default: {@code 0} (warm pool is disabled)</b>
+         */
+        WARM_POOL_SIZE("warm_pool_size"),
+
+        /**
+         * Time (in seconds) after which not requested session of the warm pool will be quit.
+         * Should be less than session timeout of the selenium hub. <b>Default: {@code 240}</b>
+         */
+        WARM_POOL_IDLE_TIMEOUT("warm_pool_idle_timeout"),
+
+        /**
+         * If it is true, state of the driver session will be reset instead of quit/create on driver restart and quit,
+         * see {@link com.zebrunner.carina.webdriver.core.pool.SessionRecycler}. <b>Default: {@code false}</b>
+         */
+        DRIVER_RECYCLING("driver_recycling"),
+
+        /**
+         * Max time (in seconds) to reset state of the recycled driver session. If reset is not finished in time,
+         * session is quit as usual. <b>Default: {@code 30}</b>
+         */
+        DRIVER_RECYCLING_TIMEOUT("driver_recycling_timeout"),
+
+        /**
+         * Max number of threads that quit drivers in background,
+         * see {@link com.zebrunner.carina.webdriver.core.pool.DriverQuitExecutor}. <b>Default: {@code 10}</b>
+         */
+        DRIVER_QUIT_THREADS("driver_quit_threads"),
+
+        /**
+         * Max number of driver quit tasks waiting for the thread. When the queue is full, driver is quit by the test thread.
+         * <b>Default: {@code 500}</b>
+         */
+        DRIVER_QUIT_QUEUE_SIZE("driver_quit_queue_size"),
+
+        /**
+         * Time (in seconds) after which driver quit task is interrupted. <b>Default: {@code 60}</b>
+         */
+        DRIVER_QUIT_TIMEOUT("driver_quit_timeout"),
+
+        /**
+         * Max time (in seconds) to wait for the driver quit tasks on JVM shutdown. <b>Default: {@code 180}</b>
+         */
+        DRIVER_QUIT_DRAIN_TIMEOUT("driver_quit_drain_timeout"),
+
+        /**
+         * Interval (in seconds) between health checks of the idle driver sessions (sessions without commands during the interval).
+         * Unhealthy sessions are replaced at the next test boundary, see {@link com.zebrunner.carina.webdriver.core.pool.SessionWatchdog}.
+         * <b>Default: {@code 0} (watchdog is disabled)</b>
+         */
+        SESSION_WATCHDOG_INTERVAL("session_watchdog_interval"),
+
+        /**
+         * Time (in seconds) after which health check command of the session is considered as failed. <b>Default: {@code 10}</b>
+         */
+        SESSION_WATCHDOG_TIMEOUT("session_watchdog_timeout"),
+
+        /**
+         * Number of consecutive failed or slow health checks after which the session is marked as unhealthy. <b>Default: {@code 2}</b>
+         */
+        SESSION_WATCHDOG_FAILURES("session_watchdog_failures"),
+
         /**
          * Locale for using by L10N feature. <b>Default: {@code en_US}</b><br>
          * 
@@ -297,6 +473,19 @@ public final class WebDriverConfiguration extends Configuration {
          */
         PAGE_RECURSIVE_REFLECTION("page_recursive_reflection"),
 
+        /**
+         * If it is true, nested {@link com.zebrunner.carina.webdriver.gui.AbstractUIObject} fields of pages and components
+         * will be initialized on the first call of their methods instead of the page/component construction. <b>Default: {@code false}</b>
+         */
+        LAZY_DECORATION("lazy_decoration"),
+
+        /**
+         * If it is true, timeline of the phases from the JVM start to the first created driver will be written to the log
+         * and to the {@code startup-timeline.json/txt} files in the report directory.
+         * See {@link com.zebrunner.carina.webdriver.core.profiler.StartupTimeline}. <b>Default: {@code false}</b>
+         */
+        STARTUP_PROFILER("startup_profiler"),
+
         /**
          * todo add doc
          */
@@ -338,9 +527,28 @@ public final class WebDriverConfiguration extends Configuration {
         SCROLL_TO_ELEMENT_Y_OFFSET("scroll_to_element_y_offset"),
 
         /**
-         * todo add description
+         * Max number of the new session requests sent to the Appium server(s) at the same time,
+         * see {@link com.zebrunner.carina.webdriver.core.pool.SessionAdmissionController}. <b>Default: {@code 5}</b>
+         */
+        MAX_NEW_SESSION_QUEUE("max_new_session_queue"),
+
+        /**
+         * Max number of the new session requests at the same time per capability pool, for example {@code android=3,ios=2}.
+         * Pools without limit are limited only by {@link #MAX_NEW_SESSION_QUEUE}. <b>Default: {@code NULL}</b>
+         */
+        NEW_SESSION_POOL_LIMITS("new_session_pool_limits"),
+
+        /**
+         * Name of the capability which value is a pool of the new session request for the {@link #NEW_SESSION_POOL_LIMITS}.
+         * <b>Default: {@code platformName}</b>
+         */
+        NEW_SESSION_POOL_CAPABILITY("new_session_pool_capability"),
+
+        /**
+         * Max time (in seconds) the new session request waits for the admission, then it fails.
+         * <b>Default: {@code 0} (wait without limit)</b>
          */
-        MAX_NEW_SESSION_QUEUE("max_new_session_queue");
+        NEW_SESSION_QUEUE_TIMEOUT("new_session_queue_timeout");
 
         private final String name;
 
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.batch;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.apiguardian.api.API;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scope that coalesces independent reads of the page into a single {@code executeScript} round trip:
+ *
+ * <pre>
+ * try (CommandBatch batch = CommandBatch.open(driver)) {
+ *     title = batch.title();
+ *     url = batch.currentUrl();
+ *     item = batch.script("return window.localStorage.getItem(arguments[0]);", "token");
+ * }
+ * // futures are resolved here
+ * String token = (String) CommandBatch.result(item);
+ * </pre>
+ *
+ * Registered reads are executed when the scope is closed (or {@link #flush()} is called), futures are resolved in the order of
+ * registration. Every script is evaluated in its own function with its own {@code arguments}, so an error of one script fails only
+ * its future (with {@link JavascriptException}).<br>
+ * Reads that could not be expressed in JavaScript ({@link #read(Function)}, {@link #pageSource()}) are executed sequentially after
+ * the batch. The whole batch is executed sequentially when the driver does not support JavaScript (for example, native context of
+ * the mobile application) or the batch script itself fails.<br>
+ * Scripts registered in the batch should not have side effects: when the batch falls back to sequential execution, script could be
+ * evaluated twice.<br>
+ * Batch is not thread-safe and should be used by the thread that opened it.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class CommandBatch implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String STATUS_KEY = "s";
+    private static final String VALUE_KEY = "v";
+    private static final long STATUS_OK = 0;
+
+    private final WebDriver driver;
+    private final List<Entry<?>> entries = new ArrayList<>();
+    private boolean closed = false;
+
+    private CommandBatch(WebDriver driver) {
+        this.driver = Objects.requireNonNull(driver);
+    }
+
+    /**
+     * Open the batch scope
+     *
+     * @param driver {@link WebDriver}
+     * @return {@link CommandBatch}, should be closed (try-with-resources)
+     */
+    public static CommandBatch open(WebDriver driver) {
+        return new CommandBatch(driver);
+    }
+
+    /**
+     * Register script for the batched execution
+     *
+     * @param script script, as for {@link JavascriptExecutor#executeScript(String, Object...)}
+     * @param args script arguments
+     * @return future with the script result, converted as by {@link JavascriptExecutor#executeScript(String, Object...)}
+     */
+    public CompletableFuture<Object> script(String script, Object... args) {
+        Objects.requireNonNull(script);
+        return register(new Entry<>(Object.class, script, args,
+                drv -> ((JavascriptExecutor) drv).executeScript(script, args), false));
+    }
+
+    /**
+     * Register read of the page title
+     *
+     * @return future with the title of the top-level browsing context
+     */
+    public CompletableFuture<String> title() {
+        return register(new Entry<>(String.class, "return window.top.document.title;", new Object[0], WebDriver::getTitle, true));
+    }
+
+    /**
+     * Register read of the current url
+     *
+     * @return future with the url of the top-level browsing context
+     */
+    public CompletableFuture<String> currentUrl() {
+        return register(new Entry<>(String.class, "return window.top.location.href;", new Object[0], WebDriver::getCurrentUrl, true));
+    }
+
+    /**
+     * Register read of the page source. Page source is serialized by the driver, so it is always read sequentially.
+     *
+     * @return future with the page source
+     */
+    public CompletableFuture<String> pageSource() {
+        return read(WebDriver::getPageSource);
+    }
+
+    /**
+     * Register read that could not be expressed in JavaScript. It is executed sequentially after the batched scripts.
+     *
+     * @param reader function that reads the value using the driver
+     * @param <T> type of the value
+     * @return future with the value
+     */
+    public <T> CompletableFuture<T> read(Function<WebDriver, T> reader) {
+        Objects.requireNonNull(reader);
+        return register(new Entry<>(null, null, null, reader, false));
+    }
+
+    /**
+     * Execute registered reads and resolve their futures. Batch could be used again after the flush.
+     */
+    public void flush() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Entry<?>> batch = new ArrayList<>(entries);
+        entries.clear();
+
+        List<Entry<?>> scripts = new ArrayList<>(batch.size());
+        List<Entry<?>> sequential = new ArrayList<>();
+        for (Entry<?> entry : batch) {
+            (entry.script != null ? scripts : sequential).add(entry);
+        }
+
+        if (scripts.size() == 1 || (!scripts.isEmpty() && !(driver instanceof JavascriptExecutor))) {
+            sequential.addAll(0, scripts);
+        } else if (!scripts.isEmpty()) {
+            executeBatch(scripts, sequential);
+        }
+        for (Entry<?> entry : sequential) {
+            entry.executeSequentially(driver);
+        }
+    }
+
+    /**
+     * Get result of the resolved future, rethrowing the original exception of the failed read
+     *
+     * @param future future returned by the batch
+     * @param <T> type of the value
+     * @return value
+     */
+    public static <T> T result(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+        }
+    }
+
+    private <T> CompletableFuture<T> register(Entry<T> entry) {
+        if (closed) {
+            throw new IllegalStateException("Command batch is already closed.");
+        }
+        entries.add(entry);
+        return entry.future;
+    }
+
+    private void executeBatch(List<Entry<?>> scripts, List<Entry<?>> sequential) {
+        List<Object> results;
+        try {
+            Object response = ((JavascriptExecutor) driver).executeScript(buildScript(scripts), argumentsOf(scripts));
+            if (!(response instanceof List) || ((List<?>) response).size() != scripts.size()) {
+                throw new WebDriverException("Unexpected response of the batch script: " + response);
+            }
+            results = new ArrayList<>((List<?>) response);
+        } catch (WebDriverException e) {
+            LOGGER.debug("Batch of {} scripts could not be executed, scripts will be executed sequentially. Message: {}",
+                    scripts.size(), e.getMessage());
+            sequential.addAll(0, scripts);
+            return;
+        }
+
+        for (int i = 0; i < scripts.size(); i++) {
+            Entry<?> entry = scripts.get(i);
+            Map<?, ?> result = results.get(i) instanceof Map ? (Map<?, ?>) results.get(i) : Map.of();
+            Object status = result.get(STATUS_KEY);
+            if (status instanceof Number && ((Number) status).longValue() == STATUS_OK) {
+                entry.complete(result.get(VALUE_KEY));
+            } else if (entry.fallbackOnError) {
+                sequential.add(entry);
+            } else {
+                entry.future.completeExceptionally(new JavascriptException(String.valueOf(result.get(VALUE_KEY))));
+            }
+        }
+    }
+
+    static String buildScript(List<Entry<?>> scripts) {
+        StringBuilder sb = new StringBuilder("var a = arguments[0], r = [];")
+                .append("function run(i, f) {")
+                .append(" try { r.push({" + STATUS_KEY + ": " + STATUS_OK + ", " + VALUE_KEY + ": f.apply(null, a[i])}); }")
+                .append(" catch (e) { r.push({" + STATUS_KEY + ": 1, " + VALUE_KEY + ": String(e && e.message || e)}); }")
+                .append(" }\n");
+        for (int i = 0; i < scripts.size(); i++) {
+            sb.append("run(").append(i).append(", function() {\n")
+                    .append(scripts.get(i).script)
+                    .append("\n});\n");
+        }
+        return sb.append("return r;").toString();
+    }
+
+    private static List<List<Object>> argumentsOf(List<Entry<?>> scripts) {
+        List<List<Object>> args = new ArrayList<>(scripts.size());
+        for (Entry<?> entry : scripts) {
+            args.add(Arrays.asList(entry.args));
+        }
+        return args;
+    }
+
+    static final class Entry<T> {
+        private final Class<T> type;
+        private final String script;
+        private final Object[] args;
+        private final Function<WebDriver, T> fallback;
+        private final boolean fallbackOnError;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Entry(Class<T> type, String script, Object[] args, Function<WebDriver, T> fallback, boolean fallbackOnError) {
+            this.type = type;
+            this.script = script;
+            this.args = args;
+            this.fallback = fallback;
+            this.fallbackOnError = fallbackOnError;
+        }
+
+        private void complete(Object value) {
+            try {
+                future.complete(type.cast(value));
+            } catch (ClassCastException e) {
+                future.completeExceptionally(new WebDriverException("Unexpected result of the script: " + value, e));
+            }
+        }
+
+        private void executeSequentially(WebDriver driver) {
+            try {
+                future.complete(fallback.apply(driver));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
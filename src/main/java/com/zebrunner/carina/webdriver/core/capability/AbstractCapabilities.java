@@ -47,6 +47,7 @@ import com.zebrunner.carina.utils.R;
 import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.utils.exception.InvalidConfigurationException;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.profiler.StartupTimeline;
 
 import javax.annotation.Nullable;
 
@@ -265,6 +266,12 @@ public abstract class AbstractCapabilities<T extends MutableCapabilities> {
      * @param props see {@link Properties}
      */
     static <C extends MutableCapabilities> void addPropertiesCapabilities(C options, Properties props) {
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("AbstractCapabilities.addPropertiesCapabilities")) {
+            putPropertiesCapabilities(options, props);
+        }
+    }
+
+    private static <C extends MutableCapabilities> void putPropertiesCapabilities(C options, Properties props) {
         @SuppressWarnings({ "unchecked", "rawtypes" })
         Map<String, String> properties = new HashMap(props);
         Map<String, Object> capabilities = getGlobalCapabilities(properties);
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.capability;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.support.decorators.Decorated;
+
+import com.google.common.collect.MapMaker;
+import com.zebrunner.carina.utils.commons.SpecialKeywords;
+
+import io.appium.java_client.internal.CapabilityHelpers;
+import io.appium.java_client.remote.MobileCapabilityType;
+
+/**
+ * Immutable snapshot of the session properties that are constant for the whole life of the driver session
+ * (platform, browser, automation name, driver type etc.).<br>
+ * Profile is calculated once when driver is created by {@link com.zebrunner.carina.webdriver.core.factory.DriverFactory}
+ * and registered both for original and decorated driver, so it could be taken by {@link #of(WebDriver)}
+ * without capabilities request and unwrapping of the driver.
+ */
+public final class SessionProfile {
+
+    /**
+     * Profiles by driver identity. Keys are weak, so profile is released together with the driver object.
+     */
+    private static final ConcurrentMap<WebDriver, SessionProfile> PROFILES = new MapMaker()
+            .weakKeys()
+            .makeMap();
+
+    private final String platform;
+    private final String browserName;
+    private final String browserVersion;
+    private final String automation;
+    private final DriverType driverType;
+    private final boolean setWindowRect;
+    private final boolean webSocketUrl;
+
+    private SessionProfile(Capabilities capabilities) {
+        this.platform = CapabilityHelpers.getCapability(capabilities, CapabilityType.PLATFORM_NAME, String.class);
+        this.browserName = CapabilityHelpers.getCapability(capabilities, CapabilityType.BROWSER_NAME, String.class);
+        this.browserVersion = CapabilityHelpers.getCapability(capabilities, CapabilityType.BROWSER_VERSION, String.class);
+        this.automation = CapabilityHelpers.getCapability(capabilities, MobileCapabilityType.AUTOMATION_NAME, String.class);
+        this.driverType = detectDriverType(browserName, platform);
+        this.setWindowRect = Boolean.TRUE.equals(capabilities.getCapability(CapabilityType.SET_WINDOW_RECT));
+        this.webSocketUrl = capabilities.getCapability("webSocketUrl") instanceof String;
+    }
+
+    /**
+     * Create profile from session capabilities
+     *
+     * @param capabilities capabilities returned by the new session command
+     * @return {@link SessionProfile}
+     */
+    public static SessionProfile fromCapabilities(Capabilities capabilities) {
+        return new SessionProfile(Objects.requireNonNull(capabilities));
+    }
+
+    /**
+     * Register profile for the driver(s) of the same session, for example for original and decorated driver.<br>
+     * <b>For internal usage only</b>
+     *
+     * @param profile {@link SessionProfile}
+     * @param drivers drivers of the session
+     */
+    @API(status = API.Status.INTERNAL)
+    public static void register(SessionProfile profile, WebDriver... drivers) {
+        for (WebDriver driver : drivers) {
+            PROFILES.put(driver, profile);
+        }
+    }
+
+    /**
+     * Get profile of the driver session. If profile was not registered (driver was not created by carina),
+     * it will be calculated from the driver capabilities and cached.
+     *
+     * @param driver {@link WebDriver}
+     * @return {@link Optional} of {@link SessionProfile}, or empty if driver does not provide capabilities
+     */
+    public static Optional<SessionProfile> of(@Nullable WebDriver driver) {
+        if (driver == null) {
+            return Optional.empty();
+        }
+        SessionProfile profile = PROFILES.get(driver);
+        if (profile != null) {
+            return Optional.of(profile);
+        }
+        WebDriver original = driver;
+        if (driver instanceof Decorated<?>) {
+            original = (WebDriver) ((Decorated<?>) driver).getOriginal();
+            profile = PROFILES.get(original);
+        }
+        if (profile == null) {
+            if (!(original instanceof HasCapabilities)) {
+                return Optional.empty();
+            }
+            profile = fromCapabilities(((HasCapabilities) original).getCapabilities());
+        }
+        PROFILES.put(driver, profile);
+        return Optional.of(profile);
+    }
+
+    @Nullable
+    public String getPlatform() {
+        return platform;
+    }
+
+    @Nullable
+    public String getBrowserName() {
+        return browserName;
+    }
+
+    @Nullable
+    public String getBrowserVersion() {
+        return browserVersion;
+    }
+
+    @Nullable
+    public String getAutomation() {
+        return automation;
+    }
+
+    /**
+     * Get driver type of the session
+     *
+     * @return {@link DriverType}, or null if it could not be detected
+     */
+    @Nullable
+    public DriverType getDriverType() {
+        return driverType;
+    }
+
+    /**
+     * Get driver type in the form of {@link SpecialKeywords} (mobile, desktop, Windows, MAC)
+     *
+     * @return driver type keyword, or null if it could not be detected
+     */
+    @Nullable
+    public String getDriverTypeKeyword() {
+        if (driverType == null) {
+            return null;
+        }
+        switch (driverType) {
+        case MOBILE:
+            return SpecialKeywords.MOBILE;
+        case DESKTOP:
+            return SpecialKeywords.DESKTOP;
+        case WINDOWS:
+            return SpecialKeywords.WINDOWS;
+        case MAC:
+            return SpecialKeywords.MAC;
+        default:
+            return null;
+        }
+    }
+
+    public boolean isMobile() {
+        return DriverType.MOBILE == driverType;
+    }
+
+    /**
+     * Check if session is started for the native (or hybrid) mobile application, not for the mobile browser
+     *
+     * @return true if mobile session without browser, false otherwise
+     */
+    public boolean isNativeApp() {
+        return isMobile() && StringUtils.isEmpty(browserName);
+    }
+
+    public boolean isAndroid() {
+        return SpecialKeywords.ANDROID.equalsIgnoreCase(platform);
+    }
+
+    public boolean isIOS() {
+        return SpecialKeywords.IOS.equalsIgnoreCase(platform) || SpecialKeywords.TVOS.equalsIgnoreCase(platform);
+    }
+
+    /**
+     * W3C {@code setWindowRect} capability of the session
+     *
+     * @return true if remote end supports resizing and repositioning of the window
+     */
+    public boolean isSetWindowRect() {
+        return setWindowRect;
+    }
+
+    /**
+     * W3C {@code webSocketUrl} capability of the session
+     *
+     * @return true if remote end returned BiDi web socket url
+     */
+    public boolean isBiDiEnabled() {
+        return webSocketUrl;
+    }
+
+    private static DriverType detectDriverType(String browserName, String platform) {
+        if (SpecialKeywords.ANDROID.equalsIgnoreCase(platform) ||
+                SpecialKeywords.IOS.equalsIgnoreCase(platform) ||
+                SpecialKeywords.TVOS.equalsIgnoreCase(platform)) {
+            return DriverType.MOBILE;
+        } else if (!StringUtils.isEmpty(browserName)) {
+            return DriverType.DESKTOP;
+        } else if (SpecialKeywords.WINDOWS.equalsIgnoreCase(platform)) {
+            return DriverType.WINDOWS;
+        } else if (SpecialKeywords.MAC.equalsIgnoreCase(platform)) {
+            return DriverType.MAC;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionProfile{" +
+                "platform='" + platform + '\'' +
+                ", browserName='" + browserName + '\'' +
+                ", browserVersion='" + browserVersion + '\'' +
+                ", automation='" + automation + '\'' +
+                ", driverType=" + driverType +
+                '}';
+    }
+}
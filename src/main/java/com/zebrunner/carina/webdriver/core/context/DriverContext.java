@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.context;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apiguardian.api.API;
+
+/**
+ * Test context that owns drivers, device and custom capabilities.<br>
+ * By default each thread has its own context with id equal to the thread id, so {@link com.zebrunner.carina.webdriver.IDriverPool}
+ * works as earlier. Context could be propagated to the helper threads, so they see the drivers of the test:
+ *
+ * <pre>
+ * CompletableFuture&lt;String&gt; title = DriverContext.supplyAsync(() -&gt; getDriver().getTitle());
+ * executor.submit(DriverContext.wrap(() -&gt; downloadArtifact()));
+ * Executor propagating = DriverContext.propagating(executor);
+ * </pre>
+ *
+ * Lookup of the current context is a single {@link ThreadLocal} read, default context is created lazily
+ * and is collected together with the thread.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class DriverContext {
+    /**
+     * Ids of the contexts created by {@link #create()}. Negative, so they do not intersect with thread ids
+     */
+    private static final AtomicLong CONTEXT_SEQUENCE = new AtomicLong();
+    private static final ThreadLocal<DriverContext> CURRENT = ThreadLocal.withInitial(
+            () -> new DriverContext(Thread.currentThread().getId()));
+
+    private final long id;
+    private final Map<Local<?>, Object> values = new ConcurrentHashMap<>(2);
+
+    private DriverContext(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Create new context that is not bound to any thread. Use {@link #attach()}, {@link #run(Runnable)}
+     * or {@link #call(Callable)} to execute code in it.
+     *
+     * @return {@link DriverContext}
+     */
+    public static DriverContext create() {
+        return new DriverContext(CONTEXT_SEQUENCE.decrementAndGet());
+    }
+
+    /**
+     * Get context of the current thread
+     *
+     * @return {@link DriverContext}
+     */
+    public static DriverContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Get id of the current context. Drivers in {@link com.zebrunner.carina.webdriver.IDriverPool#DRIVERS_POOL} are stored by this id
+     *
+     * @return id of the context
+     */
+    public static long currentId() {
+        return CURRENT.get().id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Make this context current for the thread until the returned scope is closed.
+     * Scope should be closed by the same thread.
+     *
+     * @return {@link Scope}
+     */
+    public Scope attach() {
+        DriverContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    public void run(Runnable runnable) {
+        try (Scope ignored = attach()) {
+            runnable.run();
+        }
+    }
+
+    public <T> T call(Callable<T> callable) throws Exception {
+        try (Scope ignored = attach()) {
+            return callable.call();
+        }
+    }
+
+    public <T> T get(Supplier<T> supplier) {
+        try (Scope ignored = attach()) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * Bind the runnable to the current context
+     *
+     * @param runnable {@link Runnable}
+     * @return {@link Runnable} that will be executed in the context of the caller
+     */
+    public static Runnable wrap(Runnable runnable) {
+        Objects.requireNonNull(runnable);
+        DriverContext context = current();
+        return () -> context.run(runnable);
+    }
+
+    /**
+     * Bind the callable to the current context
+     *
+     * @param callable {@link Callable}
+     * @return {@link Callable} that will be executed in the context of the caller
+     */
+    public static <T> Callable<T> wrap(Callable<T> callable) {
+        Objects.requireNonNull(callable);
+        DriverContext context = current();
+        return () -> context.call(callable);
+    }
+
+    /**
+     * Bind the supplier to the current context
+     *
+     * @param supplier {@link Supplier}
+     * @return {@link Supplier} that will be executed in the context of the caller
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        Objects.requireNonNull(supplier);
+        DriverContext context = current();
+        return () -> context.get(supplier);
+    }
+
+    /**
+     * Get executor that runs tasks in the context of the thread that submitted them
+     *
+     * @param executor {@link Executor}
+     * @return {@link Executor}
+     */
+    public static Executor propagating(Executor executor) {
+        Objects.requireNonNull(executor);
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * {@link CompletableFuture#supplyAsync(Supplier)} in the current context
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@link CompletableFuture#supplyAsync(Supplier, Executor)} in the current context
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(wrap(supplier), executor);
+    }
+
+    /**
+     * {@link CompletableFuture#runAsync(Runnable)} in the current context
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        return runAsync(runnable, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@link CompletableFuture#runAsync(Runnable, Executor)} in the current context
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        return CompletableFuture.runAsync(wrap(runnable), executor);
+    }
+
+    @Override
+    public String toString() {
+        return "DriverContext{id=" + id + '}';
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final DriverContext previous;
+        private boolean closed = false;
+
+        private Scope(DriverContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Value stored in the current {@link DriverContext} instead of the thread. Extends {@link ThreadLocal}
+     * for compatibility with the existing storages, but {@link #get()}, {@link #set(Object)} and {@link #remove()}
+     * work with the context, so the value is visible in all threads the context was propagated to.
+     *
+     * @param <T> type of the value
+     */
+    public static final class Local<T> extends ThreadLocal<T> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() {
+            return (T) current().values.get(this);
+        }
+
+        @Override
+        public void set(T value) {
+            if (value == null) {
+                remove();
+            } else {
+                current().values.put(this, value);
+            }
+        }
+
+        @Override
+        public void remove() {
+            current().values.remove(this);
+        }
+    }
+}
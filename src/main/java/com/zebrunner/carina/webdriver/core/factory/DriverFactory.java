@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
 import org.openqa.selenium.MutableCapabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverListener;
@@ -37,10 +38,12 @@ import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
 import com.zebrunner.carina.webdriver.core.capability.CapabilityUtils;
 import com.zebrunner.carina.webdriver.core.capability.DriverType;
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
 import com.zebrunner.carina.webdriver.core.factory.impl.DesktopFactory;
 import com.zebrunner.carina.webdriver.core.factory.impl.MacFactory;
 import com.zebrunner.carina.webdriver.core.factory.impl.MobileFactory;
 import com.zebrunner.carina.webdriver.core.factory.impl.WindowsFactory;
+import com.zebrunner.carina.webdriver.core.profiler.StartupTimeline;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 
 /**
@@ -58,16 +61,26 @@ public class DriverFactory {
     }
 
     public static ImmutablePair<WebDriver, Capabilities> create(String testName, Capabilities capabilities, String seleniumHost) {
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("DriverFactory.create")) {
+            ImmutablePair<WebDriver, Capabilities> pair = createDriver(testName, capabilities, seleniumHost);
+            StartupTimeline.firstDriverCreated();
+            return pair;
+        }
+    }
+
+    private static ImmutablePair<WebDriver, Capabilities> createDriver(String testName, Capabilities capabilities, String seleniumHost) {
 		LOGGER.debug("DriverFactory start...");
         AbstractFactory factory = null;
 
-        URL seleniumUrl = RemoteWebDriverFactory.getSeleniumHubUrl();
-        if (seleniumUrl != null) {
-            // override existing selenium_url in config
-            R.CONFIG.put(WebDriverConfiguration.Parameter.SELENIUM_URL.getKey(), seleniumUrl.toString());
+        DriverType driverType;
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("configuration loading")) {
+            URL seleniumUrl = RemoteWebDriverFactory.getSeleniumHubUrl();
+            if (seleniumUrl != null) {
+                // override existing selenium_url in config
+                R.CONFIG.put(WebDriverConfiguration.Parameter.SELENIUM_URL.getKey(), seleniumUrl.toString());
+            }
+            driverType = capabilities == null ? WebDriverConfiguration.getDriverType() : CapabilityUtils.getDriverType(capabilities);
         }
-
-        DriverType driverType = capabilities == null ? WebDriverConfiguration.getDriverType() : CapabilityUtils.getDriverType(capabilities);
 		switch (driverType) {
         case DESKTOP:
 			factory = new DesktopFactory();
@@ -86,12 +99,25 @@ public class DriverFactory {
         }
 
         LOGGER.info("Starting driver session...");
-        ImmutablePair<WebDriver, Capabilities> pair = factory.create(testName, capabilities, seleniumHost);
+        ImmutablePair<WebDriver, Capabilities> pair;
+        try (StartupTimeline.Phase phase = StartupTimeline.phase(factory.getClass().getSimpleName() + ".create")) {
+            pair = factory.create(testName, capabilities, seleniumHost);
+        }
         LOGGER.info("Driver session started.");
         LOGGER.debug("DriverFactory finish...");
 
-        return new ImmutablePair<>(new CarinaEventFiringDecorator<>(getEventListeners(pair.getLeft()))
-                .decorate(pair.getLeft()), pair.getRight());
+        WebDriverListener[] listeners;
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("listeners instantiation")) {
+            listeners = getEventListeners(pair.getLeft());
+        }
+        WebDriver decoratedDriver = new CarinaEventFiringDecorator<>(listeners)
+                .decorate(pair.getLeft());
+        if (pair.getLeft() instanceof HasCapabilities) {
+            // calculate session profile once to avoid capabilities requests (through listeners) from elements and helpers
+            SessionProfile.register(SessionProfile.fromCapabilities(((HasCapabilities) pair.getLeft()).getCapabilities()),
+                    pair.getLeft(), decoratedDriver);
+        }
+        return new ImmutablePair<>(decoratedDriver, pair.getRight());
     }
 
     /**
@@ -51,6 +51,8 @@ import com.zebrunner.carina.webdriver.core.capability.impl.desktop.FirefoxCapabi
 import com.zebrunner.carina.webdriver.core.capability.impl.desktop.OperaCapabilities;
 import com.zebrunner.carina.webdriver.core.capability.impl.desktop.SafariCapabilities;
 import com.zebrunner.carina.webdriver.core.factory.AbstractFactory;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
+import com.zebrunner.carina.webdriver.core.profiler.StartupTimeline;
 import com.zebrunner.carina.webdriver.listener.EventFiringSeleniumCommandExecutor;
 
 public class DesktopFactory extends AbstractFactory {
@@ -61,12 +63,13 @@ public class DesktopFactory extends AbstractFactory {
     @Override
     public ImmutablePair<WebDriver, Capabilities> create(String name, Capabilities capabilities, String seleniumHost) {
         WebDriver driver = null;
-        if (seleniumHost == null) {
-            seleniumHost = Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL);
-        }
+        HubBalancer.Lease lease = HubBalancer.getInstance().lease(seleniumHost);
+        seleniumHost = lease.getUrl();
 
         if (isCapabilitiesEmpty(capabilities)) {
-            capabilities = getCapabilities(name);
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("capabilities")) {
+                capabilities = getCapabilities(name);
+            }
         }
 
         if (staticCapabilities != null) {
@@ -77,16 +80,26 @@ public class DesktopFactory extends AbstractFactory {
         LOGGER.debug("Capabilities: {}", capabilities);
 
         try {
-            ClientConfig clientConfig = ClientConfig.defaultConfig()
-                    .baseUrl(new URL(seleniumHost));
-            Optional<Integer> readTimeout = Configuration.get(WebDriverConfiguration.Parameter.READ_TIMEOUT, Integer.class);
-            if (readTimeout.isPresent()) {
-                clientConfig = clientConfig.readTimeout(Duration.ofSeconds(readTimeout.get()));
+            EventFiringSeleniumCommandExecutor ce;
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("command executor")) {
+                ClientConfig clientConfig = ClientConfig.defaultConfig()
+                        .baseUrl(new URL(seleniumHost));
+                Optional<Integer> readTimeout = Configuration.get(WebDriverConfiguration.Parameter.READ_TIMEOUT, Integer.class);
+                if (readTimeout.isPresent()) {
+                    clientConfig = clientConfig.readTimeout(Duration.ofSeconds(readTimeout.get()));
+                }
+                ce = new EventFiringSeleniumCommandExecutor(clientConfig);
+            }
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("new session")) {
+                driver = new RemoteWebDriver(ce, capabilities);
             }
-            EventFiringSeleniumCommandExecutor ce = new EventFiringSeleniumCommandExecutor(clientConfig);
-            driver = new RemoteWebDriver(ce, capabilities);
+            lease.onSuccess(driver);
         } catch (MalformedURLException e) {
+            lease.onFailure(e);
             throw new UncheckedIOException("Malformed selenium URL!", e);
+        } catch (RuntimeException e) {
+            lease.onFailure(e);
+            throw e;
         }
         resizeBrowserWindow(driver, capabilities);
         return new ImmutablePair<>(driver, capabilities);
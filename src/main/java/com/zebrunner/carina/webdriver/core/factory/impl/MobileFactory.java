@@ -53,6 +53,8 @@ import com.zebrunner.carina.webdriver.core.capability.impl.mobile.EspressoCapabi
 import com.zebrunner.carina.webdriver.core.capability.impl.mobile.UiAutomator2Capabilities;
 import com.zebrunner.carina.webdriver.core.capability.impl.mobile.XCUITestCapabilities;
 import com.zebrunner.carina.webdriver.core.factory.AbstractFactory;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
+import com.zebrunner.carina.webdriver.core.profiler.StartupTimeline;
 import com.zebrunner.carina.webdriver.device.Device;
 
 import io.appium.java_client.AppiumClientConfig;
@@ -75,15 +77,16 @@ public class MobileFactory extends AbstractFactory {
 
     @Override
     public ImmutablePair<WebDriver, Capabilities> create(String name, Capabilities capabilities, String seleniumHost) {
-        if (seleniumHost == null) {
-            seleniumHost = Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL);
-        }
+        HubBalancer.Lease lease = HubBalancer.getInstance().lease(seleniumHost);
+        seleniumHost = lease.getUrl();
         LOGGER.debug("Selenium URL: {}", seleniumHost);
 
         WebDriver driver = null;
         // if inside capabilities only singly "udid" capability then generate default one and append udid
         if (isCapabilitiesEmpty(capabilities)) {
-            capabilities = getCapabilities(name);
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("capabilities")) {
+                capabilities = getCapabilities(name);
+            }
         } else if (capabilities.asMap().size() == 1
                 && CapabilityHelpers.getCapability(capabilities, MobileCapabilityType.UDID, String.class) != null) {
             String udid = CapabilityHelpers.getCapability(capabilities, MobileCapabilityType.UDID, String.class);
@@ -98,28 +101,36 @@ public class MobileFactory extends AbstractFactory {
 
         try {
             String mobilePlatformName = CapabilityHelpers.getCapability(capabilities, CapabilityType.PLATFORM_NAME, String.class);
-            AppiumClientConfig clientConfig = AppiumClientConfig.defaultConfig()
-                    .baseUrl(new URL(seleniumHost));
-            Optional<Integer> readTimeout = Configuration.get(WebDriverConfiguration.Parameter.READ_TIMEOUT, Integer.class);
-            if (readTimeout.isPresent()) {
-                clientConfig = clientConfig.readTimeout(Duration.ofSeconds(readTimeout.get()));
+            EventFiringAppiumCommandExecutor commandExecutor;
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("command executor")) {
+                AppiumClientConfig clientConfig = AppiumClientConfig.defaultConfig()
+                        .baseUrl(new URL(seleniumHost));
+                Optional<Integer> readTimeout = Configuration.get(WebDriverConfiguration.Parameter.READ_TIMEOUT, Integer.class);
+                if (readTimeout.isPresent()) {
+                    clientConfig = clientConfig.readTimeout(Duration.ofSeconds(readTimeout.get()));
+                }
+                commandExecutor = new EventFiringAppiumCommandExecutor(MobileCommand.commandRepository, clientConfig);
+                commandExecutor.setCapabilities(capabilities);
             }
-            EventFiringAppiumCommandExecutor commandExecutor = new EventFiringAppiumCommandExecutor(MobileCommand.commandRepository, clientConfig);
-            commandExecutor.setCapabilities(capabilities);
-
-            if (MobilePlatform.ANDROID.equalsIgnoreCase(mobilePlatformName)) {
-                driver = new AndroidDriver(commandExecutor, capabilities);
-            } else if (MobilePlatform.IOS.equalsIgnoreCase(mobilePlatformName) ||
-                    MobilePlatform.TVOS.equalsIgnoreCase(mobilePlatformName)) {
-                // can't create a SafariDriver as it has no advantages over IOSDriver, but needs revision in the future
-                // SafariDriver only limits functionality
-                driver = new IOSDriver(commandExecutor, capabilities);
-            } else {
-                throw new InvalidConfigurationException("Unsupported mobile platform: " + mobilePlatformName);
+
+            try (StartupTimeline.Phase phase = StartupTimeline.phase("new session")) {
+                if (MobilePlatform.ANDROID.equalsIgnoreCase(mobilePlatformName)) {
+                    driver = new AndroidDriver(commandExecutor, capabilities);
+                } else if (MobilePlatform.IOS.equalsIgnoreCase(mobilePlatformName) ||
+                        MobilePlatform.TVOS.equalsIgnoreCase(mobilePlatformName)) {
+                    // can't create a SafariDriver as it has no advantages over IOSDriver, but needs revision in the future
+                    // SafariDriver only limits functionality
+                    driver = new IOSDriver(commandExecutor, capabilities);
+                } else {
+                    throw new InvalidConfigurationException("Unsupported mobile platform: " + mobilePlatformName);
+                }
             }
+            lease.onSuccess(driver);
         } catch (MalformedURLException e) {
+            lease.onFailure(e);
             throw new UncheckedIOException("Malformed selenium URL!", e);
         } catch (Exception e) {
+            lease.onFailure(e);
             LOGGER.debug("STF is enabled. Debug info will be extracted from the exception.");
             String debugInfo = getDebugInfo(e.getMessage());
             if (!debugInfo.isEmpty()) {
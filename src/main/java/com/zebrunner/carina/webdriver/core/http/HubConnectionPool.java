@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apiguardian.api.API;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.ClientStats;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.Dsl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Pooled HTTP client to the one hub shared by all driver sessions of this hub.<br>
+ * Connection reuse statistics: every request either reuses a kept-alive connection or opens a new one,
+ * so {@code reused = requests - opened}.
+ */
+@API(status = API.Status.INTERNAL)
+public final class HubConnectionPool implements Closeable {
+    private final String hub;
+    private final AsyncHttpClient client;
+    private final AtomicLong activeSessions = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong openedConnections = new AtomicLong();
+
+    /**
+     * @param hub scheme, host and port of the hub
+     * @param maxConnections max number of the open connections, {@code -1} for unlimited
+     * @param keepAliveTimeout how long idle connection is kept in the pool, {@link Duration#ZERO} to disable keep-alive
+     * @param connectionTimeout connection timeout
+     * @param acquireTimeout how long request waits for the free connection when {@code maxConnections} is reached
+     */
+    HubConnectionPool(String hub, int maxConnections, Duration keepAliveTimeout, Duration connectionTimeout, Duration acquireTimeout) {
+        this.hub = hub;
+        DefaultAsyncHttpClientConfig.Builder builder = new DefaultAsyncHttpClientConfig.Builder()
+                .setThreadFactory(new ThreadFactoryBuilder()
+                        .setNameFormat("carina-http-" + hub.replaceAll("^.*://", "") + "-%d")
+                        .setDaemon(true)
+                        .build())
+                .setUseInsecureTrustManager(true)
+                .setAggregateWebSocketFrameFragments(true)
+                .setConnectTimeout(toClampedInt(connectionTimeout.toMillis()))
+                .setMaxConnectionsPerHost(maxConnections)
+                .setAcquireFreeChannelTimeout(toClampedInt(acquireTimeout.toMillis()))
+                .setKeepAlive(!keepAliveTimeout.isZero())
+                .setPooledConnectionIdleTimeout(toClampedInt(keepAliveTimeout.toMillis()))
+                .setFollowRedirect(true)
+                .setMaxRedirects(100)
+                .setUseProxyProperties(true)
+                .setUseProxySelector(true)
+                .setMaxRequestRetry(0)
+                .setHttpAdditionalChannelInitializer(channel -> openedConnections.incrementAndGet());
+        this.client = Dsl.asyncHttpClient(builder);
+    }
+
+    AsyncHttpClient getClient() {
+        return client;
+    }
+
+    void onSessionClientOpened() {
+        activeSessions.incrementAndGet();
+    }
+
+    void onSessionClientClosed() {
+        activeSessions.decrementAndGet();
+    }
+
+    void onRequest() {
+        requests.incrementAndGet();
+    }
+
+    /**
+     * Get scheme, host and port of the hub
+     *
+     * @return hub
+     */
+    public String getHub() {
+        return hub;
+    }
+
+    /**
+     * Get number of the session clients (command executors) that use this pool and are not closed yet
+     *
+     * @return number of the clients
+     */
+    public long getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Get number of the connections opened to the hub
+     *
+     * @return number of the connections
+     */
+    public long getOpenedConnections() {
+        return openedConnections.get();
+    }
+
+    /**
+     * Get number of the requests that were sent over already opened (kept-alive) connection
+     *
+     * @return number of the requests
+     */
+    public long getReusedConnections() {
+        return Math.max(0, requests.get() - openedConnections.get());
+    }
+
+    public long getActiveConnections() {
+        return getClientStats().getTotalActiveConnectionCount();
+    }
+
+    public long getIdleConnections() {
+        return getClientStats().getTotalIdleConnectionCount();
+    }
+
+    private ClientStats getClientStats() {
+        return client.getClientStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    @Override
+    public String toString() {
+        long requestsCount = requests.get();
+        return String.format(Locale.US, "%s: active sessions=%d, requests=%d, opened connections=%d, reused connections=%d (%.1f%%), active=%d, idle=%d",
+                hub, activeSessions.get(), requestsCount, openedConnections.get(), getReusedConnections(),
+                requestsCount == 0 ? 0.0 : getReusedConnections() * 100.0 / requestsCount, getActiveConnections(), getIdleConnections());
+    }
+
+    private static int toClampedInt(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+}
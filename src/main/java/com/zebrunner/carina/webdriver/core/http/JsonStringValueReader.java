@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.openqa.selenium.json.JsonException;
+
+/**
+ * Reader of the string {@code value} member of the json object (W3C response), that decodes the string while it is read.<br>
+ * Members before {@code value} are skipped without decoding, members after it are not read at all.
+ */
+final class JsonStringValueReader extends Reader {
+    private static final String VALUE_KEY = "value";
+
+    private final Reader in;
+    private boolean finished = false;
+
+    private JsonStringValueReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Position the reader at the beginning of the {@code value} string
+     *
+     * @param in json object
+     * @return reader of the value or null if the object has no {@code value} or it is not a string
+     * @throws IOException if json could not be read
+     */
+    static JsonStringValueReader of(Reader in) throws IOException {
+        if (nextToken(in) != '{') {
+            return null;
+        }
+        int c = nextToken(in);
+        while (c == '"') {
+            String key = readKey(in);
+            if (nextToken(in) != ':') {
+                throw new JsonException("Expected ':' after the key '" + key + "'");
+            }
+            c = nextToken(in);
+            if (VALUE_KEY.equals(key)) {
+                return c == '"' ? new JsonStringValueReader(in) : null;
+            }
+            c = skipValue(in, c);
+            if (c == ',') {
+                c = nextToken(in);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (finished) {
+            return -1;
+        }
+        int count = 0;
+        while (count < len) {
+            int c = in.read();
+            if (c == -1) {
+                throw new JsonException("Unterminated string value");
+            }
+            if (c == '"') {
+                finished = true;
+                break;
+            }
+            cbuf[off + count++] = c == '\\' ? readEscaped(in) : (char) c;
+        }
+        return count == 0 && finished ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static int nextToken(Reader in) throws IOException {
+        int c;
+        do {
+            c = in.read();
+        } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+        return c;
+    }
+
+    private static String readKey(Reader in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int c = in.read(); c != '"'; c = in.read()) {
+            if (c == -1) {
+                throw new JsonException("Unterminated key");
+            }
+            sb.append(c == '\\' ? readEscaped(in) : (char) c);
+        }
+        return sb.toString();
+    }
+
+    private static char readEscaped(Reader in) throws IOException {
+        int c = in.read();
+        switch (c) {
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'u':
+            char[] hex = new char[4];
+            for (int i = 0; i < hex.length; i++) {
+                int h = in.read();
+                if (h == -1) {
+                    throw new JsonException("Unterminated unicode escape");
+                }
+                hex[i] = (char) h;
+            }
+            try {
+                return (char) Integer.parseInt(new String(hex), 16);
+            } catch (NumberFormatException e) {
+                throw new JsonException("Invalid unicode escape: \\u" + new String(hex));
+            }
+        case -1:
+            throw new JsonException("Unterminated escape");
+        default:
+            // '"', '\\' and '/'
+            return (char) c;
+        }
+    }
+
+    /**
+     * Skip the value which starts with the character
+     *
+     * @return the first token after the value: ',' or '}'
+     */
+    private static int skipValue(Reader in, int first) throws IOException {
+        int depth = 0;
+        for (int c = first;; c = nextToken(in)) {
+            switch (c) {
+            case -1:
+                throw new JsonException("Unexpected end of json");
+            case '"':
+                skipString(in);
+                break;
+            case '{':
+            case '[':
+                depth++;
+                break;
+            case '}':
+            case ']':
+                if (depth == 0) {
+                    return c;
+                }
+                depth--;
+                break;
+            case ',':
+                if (depth == 0) {
+                    return c;
+                }
+                break;
+            default:
+                // literal
+                break;
+            }
+        }
+    }
+
+    private static void skipString(Reader in) throws IOException {
+        for (int c = in.read(); c != '"'; c = in.read()) {
+            if (c == -1) {
+                throw new JsonException("Unterminated string");
+            }
+            if (c == '\\') {
+                in.read();
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+/**
+ * {@link HttpClient.Factory} decorator that measures HTTP exchanges of the command executor: time on the wire and payload sizes.<br>
+ * Command executor sends the request in the calling thread, so measurements are accumulated in the thread and taken by the
+ * executor after the command by {@link #takeExchange()}.
+ */
+@API(status = API.Status.INTERNAL)
+public final class MeteredHttpClientFactory implements HttpClient.Factory {
+    private static final ThreadLocal<Exchange> EXCHANGE = new ThreadLocal<>();
+
+    private final HttpClient.Factory delegate;
+
+    private MeteredHttpClientFactory(HttpClient.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    public static HttpClient.Factory wrap(HttpClient.Factory factory) {
+        return factory instanceof MeteredHttpClientFactory ? factory : new MeteredHttpClientFactory(factory);
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new MeteredClient(delegate.createClient(config));
+    }
+
+    @Override
+    public void cleanupIdleClients() {
+        delegate.cleanupIdleClients();
+    }
+
+    /**
+     * Get and reset measurements of the HTTP exchanges made by the current thread
+     *
+     * @return {@link Exchange} or null if there were no exchanges
+     */
+    public static Exchange takeExchange() {
+        Exchange exchange = EXCHANGE.get();
+        EXCHANGE.remove();
+        return exchange;
+    }
+
+    /**
+     * Get size of the content from the Content-Length header, or count the bytes while the content is read
+     *
+     * @return content that should be used instead of the original one
+     */
+    private static Supplier<InputStream> measure(String contentLengthHeader, Supplier<InputStream> content, LongAdder bytes) {
+        long contentLength = NumberUtils.toLong(contentLengthHeader, -1);
+        if (contentLength >= 0) {
+            bytes.add(contentLength);
+            return content;
+        }
+        // content could be read several times (for example, by the listeners), but it is sent or received once
+        AtomicBoolean counted = new AtomicBoolean(false);
+        return () -> {
+            InputStream stream = content.get();
+            return counted.compareAndSet(false, true) ? new CountingInputStream(stream, bytes) : stream;
+        };
+    }
+
+    /**
+     * Accumulated measurements of the HTTP exchanges (several exchanges when command is retried)
+     */
+    public static final class Exchange {
+        private int count;
+        private long wireNanos;
+        // content could be read by the other thread of the HTTP client
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getWireNanos() {
+            return wireNanos;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+    }
+
+    private static final class MeteredClient implements HttpClient {
+        private final HttpClient delegate;
+
+        private MeteredClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            Exchange exchange = EXCHANGE.get();
+            if (exchange == null) {
+                exchange = new Exchange();
+                EXCHANGE.set(exchange);
+            }
+            request.setContent(measure(request.getHeader("Content-Length"), request.getContent(), exchange.requestBytes));
+            long start = System.nanoTime();
+            try {
+                HttpResponse response = delegate.execute(request);
+                response.setContent(measure(response.getHeader("Content-Length"), response.getContent(), exchange.responseBytes));
+                return response;
+            } finally {
+                exchange.count++;
+                exchange.wireNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return delegate.openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder bytes;
+
+        private CountingInputStream(InputStream in, LongAdder bytes) {
+            super(in);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                bytes.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                bytes.add(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytes.add(skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+
+import org.apiguardian.api.API;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Streaming of the large string values of the driver responses (page source, base64 screenshots etc.).<br>
+ * By default, command executor decodes the whole response into the {@link String} of the json, then into the map and the string of
+ * the value. Inside {@link #readValue(String, ValueReader, Supplier)}, {@code value} of the response is decoded directly from the
+ * response body by the {@link ValueReader}, and the command returns an empty string instead:
+ *
+ * <pre>
+ * ResponseStreaming.readValue(PAGE_SOURCE_PATH, source -&gt; Files.copy(...), driver::getPageSource);
+ * </pre>
+ *
+ * Command is still executed by the driver, so listeners, retries and metrics are applied as usual. When the response could not be
+ * streamed (driver is not created by carina, value is not a string etc.), value returned by the command is read instead.<br>
+ * <b>Note:</b> the value is not materialized, so driver listeners ({@code WebDriverListener}, {@code DriverListener}) see an empty
+ * string as the result of the streamed command. Layers below the streaming ({@code CommandRecorder}, command metrics) see the
+ * original response.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class ResponseStreaming {
+    /**
+     * Path suffix of the W3C {@code getPageSource} command
+     */
+    public static final String PAGE_SOURCE_PATH = "/source";
+    /**
+     * Path suffix of the W3C {@code screenshot} and {@code elementScreenshot} commands
+     */
+    public static final String SCREENSHOT_PATH = "/screenshot";
+
+    private static final ThreadLocal<Scope<?>> SCOPE = new ThreadLocal<>();
+
+    private ResponseStreaming() {
+        // hide
+    }
+
+    /**
+     * Reads value of the response
+     *
+     * @param <T> result type
+     */
+    @FunctionalInterface
+    public interface ValueReader<T> {
+        T read(Reader value) throws IOException;
+    }
+
+    /**
+     * Execute command and read its string value by the reader without materializing it
+     *
+     * @param path path suffix of the command which response should be streamed, for example {@link #PAGE_SOURCE_PATH}
+     * @param reader reads value of the response
+     * @param command executes command, for example {@code driver::getPageSource}
+     * @param <T> result type
+     * @return result of the reader
+     * @throws UncheckedIOException if reader failed
+     */
+    public static <T> T readValue(String path, ValueReader<T> reader, Supplier<String> command) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(reader);
+        Scope<T> scope = new Scope<>(path, reader);
+        Scope<?> previous = SCOPE.get();
+        SCOPE.set(scope);
+        String value;
+        try {
+            value = command.get();
+        } finally {
+            SCOPE.set(previous);
+        }
+        if (scope.streamed) {
+            return scope.result;
+        }
+        try {
+            return reader.read(new StringReader(value == null ? "" : value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Take screenshot and decode it into the image directly from the response
+     *
+     * @param context driver or element
+     * @return {@link BufferedImage}
+     * @throws UncheckedIOException if screenshot could not be decoded
+     */
+    public static BufferedImage screenshot(TakesScreenshot context) {
+        return readValue(SCREENSHOT_PATH, value -> {
+            try (InputStream image = Base64.getMimeDecoder().wrap(new AsciiInputStream(value))) {
+                BufferedImage screenshot = ImageIO.read(image);
+                if (screenshot == null) {
+                    // fail instead of returning null, otherwise wait polls the screenshot till timeout
+                    throw new IOException("Screenshot could not be decoded: unsupported image format");
+                }
+                return screenshot;
+            }
+        }, () -> context.getScreenshotAs(OutputType.BASE64));
+    }
+
+    /**
+     * Get page source through the reader
+     *
+     * @param driver {@link WebDriver}
+     * @param reader reads page source
+     * @param <T> result type
+     * @return result of the reader
+     */
+    public static <T> T pageSource(WebDriver driver, ValueReader<T> reader) {
+        return readValue(PAGE_SOURCE_PATH, reader, driver::getPageSource);
+    }
+
+    /**
+     * Get the streaming scope of the current thread, if the request matches it
+     */
+    static Scope<?> getScope(String requestPath) {
+        Scope<?> scope = SCOPE.get();
+        return scope != null && !scope.streamed && requestPath.endsWith(scope.path) ? scope : null;
+    }
+
+    static final class Scope<T> {
+        private final String path;
+        private final ValueReader<T> reader;
+        private boolean streamed = false;
+        private T result;
+
+        private Scope(String path, ValueReader<T> reader) {
+            this.path = path;
+            this.reader = reader;
+        }
+
+        void read(Reader value) throws IOException {
+            result = reader.read(value);
+            streamed = true;
+        }
+    }
+
+    /**
+     * Base64 characters as bytes
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+
+        private AsciiInputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return reader.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = reader.read(buffer, 0, Math.min(len, buffer.length));
+            for (int i = 0; i < count; i++) {
+                b[off + i] = (byte) buffer[i];
+            }
+            return count;
+        }
+    }
+}
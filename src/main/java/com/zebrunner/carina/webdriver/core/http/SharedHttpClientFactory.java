@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apiguardian.api.API;
+import org.asynchttpclient.Dsl;
+import org.asynchttpclient.Realm;
+import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.proxy.ProxyServer;
+import org.openqa.selenium.Credentials;
+import org.openqa.selenium.UsernameAndPassword;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.http.AddSeleniumUserAgent;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * {@link HttpClient.Factory} that shares one {@link HubConnectionPool} per hub (scheme, host, port and proxy) and timeouts between all
+ * driver sessions, so parallel sessions to the same hub reuse kept-alive connections instead of opening a pool
+ * (and doing a TLS handshake) per session.<br>
+ * Connection timeout is a setting of the pool, so sessions with different connection or read timeouts get different pools.
+ * Read timeout, credentials and filters are applied to every request of the session.
+ * Web sockets (BiDi, CDP) are opened by the default Selenium client.<br>
+ * Used by {@link com.zebrunner.carina.webdriver.listener.EventFiringSeleniumCommandExecutor} and
+ * {@link com.zebrunner.carina.webdriver.listener.EventFiringAppiumCommandExecutor} when
+ * {@link WebDriverConfiguration.Parameter#HTTP_CLIENT_SHARED} is enabled.
+ * Connection reuse statistics of every hub are logged on shutdown.
+ */
+@API(status = API.Status.INTERNAL)
+public final class SharedHttpClientFactory implements HttpClient.Factory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static SharedHttpClientFactory instance;
+
+    private final int maxConnections;
+    private final Duration keepAliveTimeout;
+    private final Map<String, HubConnectionPool> pools = new ConcurrentHashMap<>();
+
+    SharedHttpClientFactory(int maxConnections, Duration keepAliveTimeout) {
+        this.maxConnections = maxConnections;
+        this.keepAliveTimeout = keepAliveTimeout;
+    }
+
+    public static synchronized SharedHttpClientFactory getInstance() {
+        if (instance == null) {
+            instance = new SharedHttpClientFactory(
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.HTTP_CLIENT_MAX_CONNECTIONS, Integer.class),
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.HTTP_CLIENT_KEEP_ALIVE_TIMEOUT, Long.class)));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown, "carina-http-client-shutdown"));
+        }
+        return instance;
+    }
+
+    /**
+     * Get factory of the HTTP clients for the command executor
+     *
+     * @return {@link SharedHttpClientFactory} if {@link WebDriverConfiguration.Parameter#HTTP_CLIENT_SHARED} is enabled,
+     *         default Selenium factory otherwise
+     */
+    public static HttpClient.Factory getClientFactory() {
+        return Configuration.getRequired(WebDriverConfiguration.Parameter.HTTP_CLIENT_SHARED, Boolean.class)
+                ? getInstance()
+                : HttpCommandExecutor.getDefaultClientFactory();
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        String hub = getHub(config);
+        HubConnectionPool pool = pools.computeIfAbsent(String.format("%s (connection timeout %d ms, read timeout %d ms)", hub,
+                config.connectionTimeout().toMillis(), config.readTimeout().toMillis()),
+                key -> {
+                    LOGGER.debug("Creating shared HTTP client for '{}'.", key);
+                    return new HubConnectionPool(hub, maxConnections, keepAliveTimeout, config.connectionTimeout(), config.readTimeout());
+                });
+        pool.onSessionClientOpened();
+        return new SessionClient(config, pool);
+    }
+
+    /**
+     * Get connection pools of the hubs
+     *
+     * @return unmodifiable collection of {@link HubConnectionPool}
+     */
+    public Collection<HubConnectionPool> getPools() {
+        return Collections.unmodifiableCollection(pools.values());
+    }
+
+    void shutdown() {
+        for (HubConnectionPool pool : pools.values()) {
+            LOGGER.info("HTTP connections statistics of {}", pool);
+            try {
+                pool.close();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Unable to close HTTP client of '{}'. Message: {}", pool.getHub(), e.getMessage(), e);
+            }
+        }
+        pools.clear();
+    }
+
+    private static String getHub(ClientConfig config) {
+        URI uri = config.baseUri();
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+        String key = String.format("%s://%s:%d", uri.getScheme(), uri.getHost(), port).toLowerCase(Locale.ROOT);
+        Proxy proxy = config.proxy();
+        return proxy == null || proxy.type() == Proxy.Type.DIRECT ? key : key + " via " + proxy;
+    }
+
+    /**
+     * Client of the one session: sends requests through the shared pool of the hub, closing it does not close the pool
+     */
+    private static final class SessionClient implements HttpClient {
+        private final ClientConfig config;
+        private final HubConnectionPool pool;
+        private final HttpHandler handler;
+        private final String baseUrl;
+        private final Realm realm;
+        private final ProxyServer proxyServer;
+        private HttpClient webSocketClient;
+        private boolean closed = false;
+
+        private SessionClient(ClientConfig config, HubConnectionPool pool) {
+            this.config = config;
+            this.pool = pool;
+            this.handler = config.filter().andFinally(this::makeCall);
+            URI uri = config.baseUri();
+            this.baseUrl = StringUtils.removeEnd(uri.toString().replace(uri.getRawUserInfo() == null ? "" : uri.getRawUserInfo() + "@", ""), "/");
+            this.realm = createRealm(uri.getUserInfo(), config.credentials());
+            this.proxyServer = createProxyServer(config.proxy());
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return handler.execute(request);
+        }
+
+        @Override
+        public synchronized WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            if (webSocketClient == null) {
+                webSocketClient = HttpClient.Factory.createDefault().createClient(config);
+            }
+            return webSocketClient.openSocket(request, listener);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                pool.onSessionClientClosed();
+            }
+            if (webSocketClient != null) {
+                webSocketClient.close();
+                webSocketClient = null;
+            }
+        }
+
+        private HttpResponse makeCall(HttpRequest request) {
+            pool.onRequest();
+            int readTimeout = (int) Math.min(Integer.MAX_VALUE, config.readTimeout().toMillis());
+            String uri = request.getUri();
+            RequestBuilder builder = new RequestBuilder(request.getMethod().toString())
+                    .setUrl(uri.startsWith("http://") || uri.startsWith("https://") ? uri : baseUrl + uri)
+                    .setReadTimeout(readTimeout)
+                    .setRequestTimeout(readTimeout);
+            for (String name : request.getQueryParameterNames()) {
+                for (String value : request.getQueryParameters(name)) {
+                    builder.addQueryParam(name, value);
+                }
+            }
+            request.forEachHeader((name, value) -> {
+                // connection is managed by the pool
+                if (!"Connection".equalsIgnoreCase(name)) {
+                    builder.addHeader(name, value);
+                }
+            });
+            if (request.getHeader("User-Agent") == null) {
+                builder.addHeader("User-Agent", AddSeleniumUserAgent.USER_AGENT);
+            }
+            if (realm != null) {
+                builder.setRealm(realm);
+            }
+            if (proxyServer != null) {
+                builder.setProxyServer(proxyServer);
+            }
+            if (request.getMethod() == HttpMethod.POST || request.getMethod() == HttpMethod.PUT) {
+                builder.setBody(Contents.bytes(request.getContent()));
+            }
+
+            Future<org.asynchttpclient.Response> whenResponse = pool.getClient().executeRequest(builder.build());
+            try {
+                return toSeleniumResponse(whenResponse.get(readTimeout, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the response from " + pool.getHub(), e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw (UncheckedIOException) cause;
+                }
+                if (cause instanceof IOException) {
+                    throw new UncheckedIOException((IOException) cause);
+                }
+                throw new RuntimeException("Unable to execute request to " + pool.getHub(), cause);
+            } catch (TimeoutException e) {
+                whenResponse.cancel(true);
+                throw new org.openqa.selenium.TimeoutException(e);
+            }
+        }
+
+        private static HttpResponse toSeleniumResponse(org.asynchttpclient.Response response) {
+            HttpResponse seleniumResponse = new HttpResponse();
+            seleniumResponse.setStatus(response.getStatusCode());
+            for (String name : response.getHeaders().names()) {
+                for (String value : response.getHeaders(name)) {
+                    seleniumResponse.addHeader(name, value);
+                }
+            }
+            seleniumResponse.setContent(response.hasResponseBody() ? Contents.bytes(response.getResponseBodyAsBytes()) : Contents.empty());
+            return seleniumResponse;
+        }
+
+        private static Realm createRealm(String userInfo, Credentials credentials) {
+            if (StringUtils.isNotEmpty(userInfo)) {
+                String[] parts = userInfo.split(":", 2);
+                return Dsl.basicAuthRealm(parts[0], parts.length > 1 ? parts[1] : null)
+                        .setUsePreemptiveAuth(true)
+                        .build();
+            }
+            if (credentials instanceof UsernameAndPassword) {
+                UsernameAndPassword usernameAndPassword = (UsernameAndPassword) credentials;
+                return Dsl.basicAuthRealm(usernameAndPassword.username(), usernameAndPassword.password())
+                        .setUsePreemptiveAuth(true)
+                        .build();
+            }
+            return null;
+        }
+
+        private static ProxyServer createProxyServer(Proxy proxy) {
+            if (proxy == null || proxy.type() != Proxy.Type.HTTP || !(proxy.address() instanceof InetSocketAddress)) {
+                // system proxy properties and proxy selector are used by the pool
+                return null;
+            }
+            InetSocketAddress address = (InetSocketAddress) proxy.address();
+            return new ProxyServer.Builder(address.getHostString(), address.getPort()).build();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+
+import org.apiguardian.api.API;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+/**
+ * {@link HttpClient.Factory} decorator that passes string {@code value} of the successful response to the
+ * {@link ResponseStreaming} scope of the current thread, and replaces it with an empty string, so command executor does not
+ * decode it.<br>
+ * As it is the outermost decorator of the command executors, driver listeners get the empty value of the streamed command,
+ * while {@link MeteredHttpClientFactory} and the command recorder get the original response.
+ */
+@API(status = API.Status.INTERNAL)
+public final class StreamingHttpClientFactory implements HttpClient.Factory {
+    private static final String EMPTY_VALUE = "{\"value\":\"\"}";
+
+    private final HttpClient.Factory delegate;
+
+    private StreamingHttpClientFactory(HttpClient.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    public static HttpClient.Factory wrap(HttpClient.Factory factory) {
+        return factory instanceof StreamingHttpClientFactory ? factory : new StreamingHttpClientFactory(factory);
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new StreamingClient(delegate.createClient(config));
+    }
+
+    @Override
+    public void cleanupIdleClients() {
+        delegate.cleanupIdleClients();
+    }
+
+    private static final class StreamingClient implements HttpClient {
+        private final HttpClient delegate;
+
+        private StreamingClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            HttpResponse response = delegate.execute(request);
+            ResponseStreaming.Scope<?> scope;
+            if (request.getMethod() != HttpMethod.GET
+                    || response.getStatus() != HttpURLConnection.HTTP_OK
+                    || (scope = ResponseStreaming.getScope(request.getUri())) == null) {
+                return response;
+            }
+            try (JsonStringValueReader value = JsonStringValueReader.of(
+                    new BufferedReader(new InputStreamReader(response.getContent().get(), StandardCharsets.UTF_8)))) {
+                if (value == null) {
+                    // not a string, let the command executor decode it
+                    return response;
+                }
+                scope.read(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            HttpResponse streamed = new HttpResponse()
+                    .setStatus(response.getStatus())
+                    .setContent(Contents.utf8String(EMPTY_VALUE));
+            response.forEachHeader((name, headerValue) -> {
+                if (!"Content-Length".equalsIgnoreCase(name)) {
+                    streamed.addHeader(name, headerValue);
+                }
+            });
+            return streamed;
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return delegate.openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.hub;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apiguardian.api.API;
+
+/**
+ * Selenium/Appium hub in the rotation of the {@link HubBalancer}, with the statistics used by {@link HubSelectionStrategy}
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class Hub {
+    /**
+     * Weight of the last new session latency in the exponentially weighted moving average
+     */
+    static final double LATENCY_EWMA_ALPHA = 0.3;
+
+    private final String url;
+    private final AtomicInteger outstandingSessions = new AtomicInteger();
+    private double latencyEwmaMillis = 0;
+    private int consecutiveFailures = 0;
+    private long quarantinedUntilNanos = 0;
+
+    Hub(String url) {
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return number of sessions started on the hub (including new session requests in progress) and not quit yet
+     */
+    public int getOutstandingSessions() {
+        return outstandingSessions.get();
+    }
+
+    /**
+     * @return exponentially weighted moving average of the new session latency, or {@link Duration#ZERO} if there were no sessions
+     */
+    public synchronized Duration getNewSessionLatency() {
+        return Duration.ofMillis(Math.round(latencyEwmaMillis));
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized boolean isAvailable(long nowNanos) {
+        return nowNanos - quarantinedUntilNanos >= 0;
+    }
+
+    synchronized long getQuarantinedUntilNanos() {
+        return quarantinedUntilNanos;
+    }
+
+    void onSessionRequested() {
+        outstandingSessions.incrementAndGet();
+    }
+
+    void onSessionReleased() {
+        outstandingSessions.updateAndGet(count -> Math.max(count - 1, 0));
+    }
+
+    synchronized void onNewSessionSuccess(Duration latency) {
+        consecutiveFailures = 0;
+        latencyEwmaMillis = latencyEwmaMillis == 0 ? latency.toMillis()
+                : LATENCY_EWMA_ALPHA * latency.toMillis() + (1 - LATENCY_EWMA_ALPHA) * latencyEwmaMillis;
+    }
+
+    /**
+     * @return true if hub was removed from the rotation by this failure
+     */
+    synchronized boolean onNewSessionFailure(int maxFailures, Duration quarantineTime, long nowNanos) {
+        consecutiveFailures++;
+        if (maxFailures > 0 && consecutiveFailures >= maxFailures && isAvailable(nowNanos)) {
+            quarantinedUntilNanos = nowNanos + quarantineTime.toNanos();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Hub{" +
+                "url='" + url.replaceFirst("//[^/@]+@", "//") + '\'' +
+                ", outstandingSessions=" + getOutstandingSessions() +
+                ", newSessionLatencyMs=" + getNewSessionLatency().toMillis() +
+                ", consecutiveFailures=" + getConsecutiveFailures() +
+                '}';
+    }
+}
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.hub;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.config.StandardConfigurationOption;
+import com.zebrunner.carina.utils.exception.CircuitBreakerOpenException;
+import com.zebrunner.carina.utils.exception.InvalidConfigurationException;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.retry.CircuitBreaker;
+
+/**
+ * Distributes new sessions between the hubs listed in the {@link WebDriverConfiguration.Parameter#SELENIUM_URLS}
+ * using {@link HubSelectionStrategy} from {@link WebDriverConfiguration.Parameter#HUB_SELECTION_STRATEGY}.<br>
+ * Session keeps affinity to the hub: command executor of the driver is created with the url of the selected hub, and
+ * hub-specific endpoints (proxy, clipboard, devtools etc.) could be resolved by {@link #getSeleniumUrl(WebDriver)}.<br>
+ * After {@link WebDriverConfiguration.Parameter#HUB_MAX_FAILURES} consecutive new session failures hub is removed from the rotation
+ * for {@link WebDriverConfiguration.Parameter#HUB_QUARANTINE_TIME}.<br>
+ * Each hub has its own {@link CircuitBreaker}: hubs with open circuit are skipped, so the new session is requested from the other hub
+ * instead of failing fast. {@link CircuitBreakerOpenException} is thrown only when circuits of all hubs are open.<br>
+ * When {@link WebDriverConfiguration.Parameter#SELENIUM_URLS} is not set, {@link WebDriverConfiguration.Parameter#SELENIUM_URL} is used as earlier.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class HubBalancer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static HubBalancer instance;
+
+    private final List<Hub> hubs;
+    private final HubSelectionStrategy strategy;
+    private final int maxFailures;
+    private final Duration quarantineTime;
+    private final LongSupplier clock;
+    private final Function<String, CircuitBreaker> circuitBreakers;
+    private final Map<SessionId, Hub> sessions = new ConcurrentHashMap<>();
+
+    HubBalancer(List<String> urls, HubSelectionStrategy strategy, int maxFailures, Duration quarantineTime, LongSupplier clock) {
+        this(urls, strategy, maxFailures, quarantineTime, clock, CircuitBreaker::forHub);
+    }
+
+    HubBalancer(List<String> urls, HubSelectionStrategy strategy, int maxFailures, Duration quarantineTime, LongSupplier clock,
+            Function<String, CircuitBreaker> circuitBreakers) {
+        this.hubs = urls.stream()
+                .map(Hub::new)
+                .collect(Collectors.toUnmodifiableList());
+        this.strategy = strategy;
+        this.maxFailures = maxFailures;
+        this.quarantineTime = quarantineTime;
+        this.clock = clock;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    public static synchronized HubBalancer getInstance() {
+        if (instance == null) {
+            List<String> urls = Configuration.get(WebDriverConfiguration.Parameter.SELENIUM_URLS, StandardConfigurationOption.DECRYPT)
+                    .map(value -> Arrays.stream(value.split(","))
+                            .map(String::trim)
+                            .filter(StringUtils::isNotEmpty)
+                            .collect(Collectors.toList()))
+                    .orElse(List.of());
+            instance = new HubBalancer(urls,
+                    createStrategy(Configuration.getRequired(WebDriverConfiguration.Parameter.HUB_SELECTION_STRATEGY)),
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.HUB_MAX_FAILURES, Integer.class),
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.HUB_QUARANTINE_TIME, Long.class)),
+                    System::nanoTime);
+            if (instance.isEnabled()) {
+                LOGGER.info("New sessions will be distributed between {} hubs using '{}' strategy.", urls.size(),
+                        instance.strategy.getClass().getSimpleName());
+            }
+        }
+        return instance;
+    }
+
+    static HubSelectionStrategy createStrategy(String name) {
+        switch (name.trim().toLowerCase()) {
+        case "round_robin":
+            return new HubSelectionStrategy.RoundRobin();
+        case "least_sessions":
+            return new HubSelectionStrategy.LeastSessions();
+        case "lowest_latency":
+            return new HubSelectionStrategy.LowestLatency();
+        default:
+            try {
+                return (HubSelectionStrategy) Class.forName(name.trim())
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new InvalidConfigurationException(String.format("Unsupported hub selection strategy: '%s'. "
+                        + "Use round_robin, least_sessions, lowest_latency or class name of the HubSelectionStrategy implementation.", name));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return !hubs.isEmpty();
+    }
+
+    public List<Hub> getHubs() {
+        return hubs;
+    }
+
+    /**
+     * Choose the hub for the new session
+     *
+     * @param seleniumHost explicitly requested hub url, it is used as is
+     * @return {@link Lease}, it should be notified about the result of the new session request
+     * @throws CircuitBreakerOpenException if circuit breaker of the requested hub, or of all balanced hubs, is open
+     */
+    public Lease lease(@Nullable String seleniumHost) {
+        if (seleniumHost != null || !isEnabled()) {
+            String url = seleniumHost != null ? seleniumHost : Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL);
+            CircuitBreaker circuitBreaker = circuitBreakers.apply(url);
+            circuitBreaker.acquire();
+            return new Lease(url, null, circuitBreaker);
+        }
+        long now = clock.getAsLong();
+        List<Hub> allowed = hubs.stream()
+                .filter(hub -> circuitBreakers.apply(hub.getUrl()).isAllowed())
+                .collect(Collectors.toList());
+        if (allowed.isEmpty()) {
+            throw new CircuitBreakerOpenException(String.format("Circuit breakers of all %d hubs are open, new session request is rejected.",
+                    hubs.size()));
+        }
+        List<Hub> available = allowed.stream()
+                .filter(hub -> hub.isAvailable(now))
+                .collect(Collectors.toList());
+        Hub hub;
+        if (available.isEmpty()) {
+            hub = allowed.stream()
+                    .min(Comparator.comparingLong(h -> h.getQuarantinedUntilNanos() - now))
+                    .orElseThrow();
+            LOGGER.warn("All hubs are removed from the rotation because of the failures, the first to return will be used: {}", hub);
+        } else {
+            hub = strategy.select(available);
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.apply(hub.getUrl());
+        circuitBreaker.acquire();
+        hub.onSessionRequested();
+        return new Lease(hub.getUrl(), hub, circuitBreaker);
+    }
+
+    /**
+     * Get url of the hub the session of the driver was started on
+     *
+     * @param driver {@link WebDriver}
+     * @return {@link Optional} of hub url, or empty if session was not started by the balancer
+     */
+    public Optional<String> getSeleniumUrl(WebDriver driver) {
+        if (sessions.isEmpty()) {
+            return Optional.empty();
+        }
+        return getSessionId(driver)
+                .map(sessions::get)
+                .map(Hub::getUrl);
+    }
+
+    /**
+     * Release the hub of the quit session
+     *
+     * @param sessionId {@link SessionId}
+     */
+    public void release(@Nullable SessionId sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Hub hub = sessions.remove(sessionId);
+        if (hub != null) {
+            hub.onSessionReleased();
+        }
+    }
+
+    private static Optional<SessionId> getSessionId(WebDriver driver) {
+        WebDriver drv = driver instanceof Decorated<?> ? (WebDriver) ((Decorated<?>) driver).getOriginal() : driver;
+        return drv instanceof RemoteWebDriver ? Optional.ofNullable(((RemoteWebDriver) drv).getSessionId()) : Optional.empty();
+    }
+
+    /**
+     * Hub chosen for the new session
+     */
+    public final class Lease {
+        private final String url;
+        @Nullable
+        private final Hub hub;
+        private final CircuitBreaker circuitBreaker;
+        private final long startNanos = System.nanoTime();
+
+        private Lease(String url, @Nullable Hub hub, CircuitBreaker circuitBreaker) {
+            this.url = url;
+            this.hub = hub;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Optional<Hub> getHub() {
+            return Optional.ofNullable(hub);
+        }
+
+        /**
+         * Session was started on the hub
+         *
+         * @param driver {@link WebDriver}
+         */
+        public void onSuccess(WebDriver driver) {
+            circuitBreaker.onSuccess();
+            if (hub == null) {
+                return;
+            }
+            hub.onNewSessionSuccess(Duration.ofNanos(System.nanoTime() - startNanos));
+            Optional<SessionId> sessionId = getSessionId(driver);
+            if (sessionId.isPresent()) {
+                sessions.put(sessionId.get(), hub);
+            } else {
+                hub.onSessionReleased();
+            }
+        }
+
+        /**
+         * Session was not started on the hub. Error is counted by the hub and its circuit breaker only if it is failure of the hub,
+         * see {@link CircuitBreaker#isHubFailure(Throwable)}
+         *
+         * @param error error of the new session request
+         */
+        public void onFailure(Throwable error) {
+            circuitBreaker.onFailure(error);
+            if (hub == null) {
+                return;
+            }
+            hub.onSessionReleased();
+            if (!CircuitBreaker.isHubFailure(error)) {
+                return;
+            }
+            if (hub.onNewSessionFailure(maxFailures, quarantineTime, clock.getAsLong())) {
+                LOGGER.warn("Hub is removed from the rotation for {} seconds after {} consecutive failures: {}",
+                        quarantineTime.toSeconds(), hub.getConsecutiveFailures(), hub);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.hub;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apiguardian.api.API;
+
+/**
+ * Strategy of the hub selection for the new session. Custom implementation could be set by the class name in the
+ * {@link com.zebrunner.carina.webdriver.config.WebDriverConfiguration.Parameter#HUB_SELECTION_STRATEGY}, it should have public no-args constructor.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+@FunctionalInterface
+public interface HubSelectionStrategy {
+
+    /**
+     * Select hub for the new session
+     *
+     * @param hubs hubs in the rotation, not empty
+     * @return selected {@link Hub}
+     */
+    Hub select(List<Hub> hubs);
+
+    /**
+     * Take hubs one by one
+     */
+    final class RoundRobin implements HubSelectionStrategy {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Hub select(List<Hub> hubs) {
+            return hubs.get(Math.floorMod(counter.getAndIncrement(), hubs.size()));
+        }
+    }
+
+    /**
+     * Take hub with the least number of sessions
+     */
+    final class LeastSessions implements HubSelectionStrategy {
+
+        @Override
+        public Hub select(List<Hub> hubs) {
+            return hubs.stream()
+                    .min(Comparator.comparingInt(Hub::getOutstandingSessions))
+                    .orElseThrow();
+        }
+    }
+
+    /**
+     * Take hub with the lowest recent new session latency (hubs without sessions go first), ties are resolved by the number of sessions
+     */
+    final class LowestLatency implements HubSelectionStrategy {
+
+        @Override
+        public Hub select(List<Hub> hubs) {
+            return hubs.stream()
+                    .min(Comparator.comparing(Hub::getNewSessionLatency)
+                            .thenComparingInt(Hub::getOutstandingSessions))
+                    .orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.metrics;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apiguardian.api.API;
+import org.json.JSONObject;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.report.ReportContext;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.http.MeteredHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.profiler.jfr.DriverCommandEvent;
+
+/**
+ * Per-command metrics of the command executors: wire latency, request and response sizes and errors, kept per session and
+ * aggregated per run.<br>
+ * Latency is the time of the HTTP exchanges of the command (time of the whole command when there was no exchange), so it could
+ * be compared with the time of the command in the framework to tell slow grid from slow framework.<br>
+ * Metrics of the session are kept until the session is quit, then their summary is kept for the report (up to
+ * {@value #MAX_COMPLETED_SESSIONS} last quit sessions). Metrics of the run are kept until the end of the run.<br>
+ * Metrics are exposed via JMX ({@value #OBJECT_NAME}) and, when {@link WebDriverConfiguration.Parameter#COMMAND_METRICS_REPORT} is
+ * enabled, written on shutdown to {@code command-metrics.json} in the {@link ReportContext#getBaseDirectory()}.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class CommandMetrics implements CommandMetricsMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    public static final String OBJECT_NAME = "com.zebrunner.carina:type=CommandMetrics";
+    public static final String REPORT_NAME = "command-metrics.json";
+    private static final String UNKNOWN_SESSION = "unknown";
+    /**
+     * Max number of the quit sessions which summary is kept for the report
+     */
+    static final int MAX_COMPLETED_SESSIONS = 1000;
+
+    private final Map<String, CommandStats> run = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, CommandStats>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, JSONObject> completedSessions = Collections.synchronizedMap(new LinkedHashMap<>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JSONObject> eldest) {
+            return size() > MAX_COMPLETED_SESSIONS;
+        }
+    });
+
+    CommandMetrics() {
+        // hide
+    }
+
+    public static CommandMetrics getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static CommandMetrics create() {
+        CommandMetrics instance = new CommandMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            LOGGER.debug("Unable to register command metrics MBean. Message: {}", e.getMessage(), e);
+        }
+        if (Configuration.getRequired(WebDriverConfiguration.Parameter.COMMAND_METRICS_REPORT, Boolean.class)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::writeReport, "carina-command-metrics-report"));
+        }
+        return instance;
+    }
+
+    /**
+     * Execute the command and record it. Measurements of the HTTP exchanges are taken from the {@link MeteredHttpClientFactory}.
+     * Command is also recorded as {@link DriverCommandEvent} when it is enabled in the flight recording.
+     *
+     * @param command command
+     * @param call execution of the command by the executor
+     * @return {@link Response}
+     * @param <E> type of the exception thrown by the executor
+     * @throws E if command failed
+     */
+    public <E extends Exception> Response measure(Command command, CommandCall<E> call) throws E {
+        DriverCommandEvent event = new DriverCommandEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        Response response = null;
+        try {
+            response = call.execute();
+            return response;
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            MeteredHttpClientFactory.Exchange exchange = MeteredHttpClientFactory.takeExchange();
+            String sessionId = command.getSessionId() != null ? command.getSessionId().toString()
+                    : response != null && response.getSessionId() != null ? response.getSessionId() : UNKNOWN_SESSION;
+            long requestBytes = exchange != null ? exchange.getRequestBytes() : 0;
+            long responseBytes = exchange != null ? exchange.getResponseBytes() : 0;
+            boolean error = response == null || response.getValue() instanceof Throwable;
+            record(sessionId, command.getName(),
+                    TimeUnit.NANOSECONDS.toMicros(exchange != null ? exchange.getWireNanos() : elapsedNanos),
+                    requestBytes, responseBytes, error);
+            if (DriverCommand.QUIT.equals(command.getName())) {
+                release(sessionId);
+            }
+            if (event.shouldCommit()) {
+                event.command = command.getName();
+                event.sessionId = sessionId;
+                event.exchanges = exchange != null ? exchange.getCount() : 0;
+                event.requestBytes = requestBytes;
+                event.responseBytes = responseBytes;
+                event.error = error;
+                event.commit();
+            }
+        }
+    }
+
+    void record(String sessionId, String commandName, long latencyMicros, long requestBytes, long responseBytes, boolean error) {
+        run.computeIfAbsent(commandName, name -> new CommandStats())
+                .record(latencyMicros, requestBytes, responseBytes, error);
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(commandName, name -> new CommandStats())
+                .record(latencyMicros, requestBytes, responseBytes, error);
+    }
+
+    /**
+     * Release metrics of the session (it was quit): histograms are replaced by their summary, that is kept for the report.
+     * Metrics of the run are kept.
+     *
+     * @param sessionId id of the session
+     */
+    void release(String sessionId) {
+        Map<String, CommandStats> stats = sessions.remove(sessionId);
+        if (stats == null) {
+            return;
+        }
+        JSONObject summary = toJson(stats);
+        completedSessions.put(sessionId, summary);
+        LOGGER.debug("Command metrics of the session {}: {}", sessionId, summary);
+    }
+
+    /**
+     * Get metrics aggregated per run
+     *
+     * @return sorted map, command name - {@link CommandStats}
+     */
+    public Map<String, CommandStats> getRunStats() {
+        return new TreeMap<>(run);
+    }
+
+    /**
+     * Get metrics of the session
+     *
+     * @param sessionId id of the session
+     * @return sorted map, command name - {@link CommandStats}
+     */
+    public Map<String, CommandStats> getSessionStats(String sessionId) {
+        return new TreeMap<>(sessions.getOrDefault(sessionId, Map.of()));
+    }
+
+    public JSONObject toJson() {
+        JSONObject sessionsJson = new JSONObject();
+        synchronized (completedSessions) {
+            new TreeMap<>(completedSessions).forEach(sessionsJson::put);
+        }
+        new TreeMap<>(sessions).forEach((id, stats) -> sessionsJson.put(id, toJson(stats)));
+        return new JSONObject()
+                .put("run", toJson(run))
+                .put("sessions", sessionsJson);
+    }
+
+    /**
+     * Write {@value #REPORT_NAME} report to the directory
+     *
+     * @param directory report directory
+     * @throws IOException if report could not be written
+     */
+    public void writeReport(Path directory) throws IOException {
+        Files.writeString(directory.resolve(REPORT_NAME), toJson().toString(2), StandardCharsets.UTF_8);
+    }
+
+    private void writeReport() {
+        if (run.isEmpty()) {
+            return;
+        }
+        try {
+            writeReport(ReportContext.getBaseDirectory());
+        } catch (Exception e) {
+            LOGGER.warn("Unable to create command metrics report. Message: {}", e.getMessage(), e);
+        }
+    }
+
+    private static JSONObject toJson(Map<String, CommandStats> stats) {
+        JSONObject json = new JSONObject();
+        new TreeMap<>(stats).forEach((name, commandStats) -> json.put(name, commandStats.toJson()));
+        return json;
+    }
+
+    /**
+     * Execution of the command by the command executor
+     *
+     * @param <E> type of the exception thrown by the executor
+     */
+    @FunctionalInterface
+    public interface CommandCall<E extends Exception> {
+        Response execute() throws E;
+    }
+
+    private static final class InstanceHolder {
+        private static final CommandMetrics INSTANCE = create();
+    }
+
+    private <T> Map<String, T> collect(Function<CommandStats, T> mapper) {
+        Map<String, T> result = new TreeMap<>();
+        run.forEach((name, stats) -> result.put(name, mapper.apply(stats)));
+        return result;
+    }
+
+    @Override
+    public long getCommandCount() {
+        return run.values().stream().mapToLong(CommandStats::getCount).sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return run.values().stream().mapToLong(CommandStats::getErrors).sum();
+    }
+
+    @Override
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public int getCompletedSessionCount() {
+        return completedSessions.size();
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        return collect(CommandStats::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return collect(CommandStats::getErrors);
+    }
+
+    @Override
+    public Map<String, Double> getMeanLatencyMillis() {
+        return collect(stats -> stats.getLatency().getMean() / 1000.0);
+    }
+
+    @Override
+    public Map<String, Double> getP99LatencyMillis() {
+        return collect(stats -> stats.getLatency().getPercentile(99) / 1000.0);
+    }
+
+    @Override
+    public Map<String, Double> getMeanResponseBytes() {
+        return collect(stats -> stats.getResponseBytes().getMean());
+    }
+
+    @Override
+    public String getReport() {
+        return toJson().toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.metrics;
+
+import java.util.Map;
+
+import org.apiguardian.api.API;
+
+/**
+ * JMX view of the {@link CommandMetrics} aggregated per run, registered as {@value CommandMetrics#OBJECT_NAME}
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public interface CommandMetricsMXBean {
+
+    long getCommandCount();
+
+    long getErrorCount();
+
+    /**
+     * @return number of the active sessions
+     */
+    int getSessionCount();
+
+    /**
+     * @return number of the quit sessions which summary is kept for the report
+     */
+    int getCompletedSessionCount();
+
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Long> getErrorCounts();
+
+    Map<String, Double> getMeanLatencyMillis();
+
+    Map<String, Double> getP99LatencyMillis();
+
+    Map<String, Double> getMeanResponseBytes();
+
+    /**
+     * Get full report (per run and per session)
+     *
+     * @return report in JSON format
+     */
+    String getReport();
+}
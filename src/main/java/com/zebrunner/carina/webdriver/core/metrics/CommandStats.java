@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apiguardian.api.API;
+import org.json.JSONObject;
+
+/**
+ * Metrics of the one command name: wire latency (in microseconds), request and response payload sizes (in bytes) and errors
+ */
+@API(status = API.Status.INTERNAL)
+public final class CommandStats {
+    private final Histogram latency = new Histogram();
+    private final Histogram requestBytes = new Histogram();
+    private final Histogram responseBytes = new Histogram();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyMicros, long requestSize, long responseSize, boolean error) {
+        latency.record(latencyMicros);
+        requestBytes.record(requestSize);
+        responseBytes.record(responseSize);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Get histogram of the wire latency
+     *
+     * @return {@link Histogram}, values in microseconds
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getRequestBytes() {
+        return requestBytes;
+    }
+
+    public Histogram getResponseBytes() {
+        return responseBytes;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("count", getCount())
+                .put("errors", getErrors())
+                .put("latencyMs", latency.toJson(1000.0))
+                .put("requestBytes", requestBytes.toJson(1.0))
+                .put("responseBytes", responseBytes.toJson(1.0));
+    }
+}
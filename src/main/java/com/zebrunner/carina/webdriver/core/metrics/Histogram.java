@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apiguardian.api.API;
+import org.json.JSONObject;
+
+/**
+ * Lock-free histogram of the non-negative values with power of two buckets: bucket {@code i} contains values from
+ * {@code 2^(i-1)} (exclusive) to {@code 2^i} (inclusive), so percentiles are estimated with error up to 2x,
+ * which is enough to distinguish milliseconds from seconds and kilobytes from megabytes.
+ */
+@API(status = API.Status.INTERNAL)
+public final class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        buckets[v <= 1 ? 0 : BUCKETS - Long.numberOfLeadingZeros(v - 1)].increment();
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Get estimated percentile
+     *
+     * @param percentile percentile, from 0 to 100
+     * @return upper bound of the bucket that contains the percentile (but not more than max value), 0 if histogram is empty
+     */
+    public long getPercentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(i == 0 ? 1 : (i >= 63 ? Long.MAX_VALUE : 1L << i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get summary of the histogram
+     *
+     * @param scale divider of the values, for example {@code 1000.0} to convert microseconds to milliseconds
+     * @return {@link JSONObject} with count, mean, p50, p90, p99 and max
+     */
+    public JSONObject toJson(double scale) {
+        return new JSONObject()
+                .put("count", getCount())
+                .put("mean", getMean() / scale)
+                .put("p50", getPercentile(50) / scale)
+                .put("p90", getPercentile(90) / scale)
+                .put("p99", getPercentile(99) / scale)
+                .put("max", getMax() / scale);
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
+
+/**
+ * Resets state of the browser session (desktop or mobile browser): opens new clean window (tab) instead of all windows of the session,
+ * clears local storage and cookies of every origin opened by the session and opens {@code about:blank}.<br>
+ * Storage and cookies are cleared per origin (W3C limitation): origins are collected from the {@code get} commands of the session, so
+ * origins reached only by redirects or links are cleared only if they are opened when the root of the collected origin is loaded.
+ * IndexedDB, cache storage and HTTP cache are not cleared.
+ */
+public class BrowserResetStrategy implements SessionResetStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String BLANK_PAGE = "about:blank";
+    private static final String CLEAR_STORAGE_SCRIPT = "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) { }";
+
+    @Override
+    public boolean isSupported(SessionProfile profile) {
+        return !StringUtils.isEmpty(profile.getBrowserName());
+    }
+
+    @Override
+    public void reset(WebDriver driver) {
+        Set<String> handles = driver.getWindowHandles();
+        if (handles.isEmpty()) {
+            throw new IllegalStateException("There are no opened windows in the session.");
+        }
+        String window = openCleanWindow(driver, handles);
+        for (String handle : handles) {
+            if (!handle.equals(window)) {
+                driver.switchTo().window(handle).close();
+            }
+        }
+        driver.switchTo().window(window);
+
+        Set<String> origins = new LinkedHashSet<>(SessionRecycler.pollVisitedOrigins(driver));
+        for (String origin : origins) {
+            driver.get(origin + "/");
+            clearPage(driver);
+        }
+        if (origins.isEmpty()) {
+            // origins are not known (for example, recycling was enabled after navigation), so at least current page is cleared
+            clearPage(driver);
+        }
+        driver.get(BLANK_PAGE);
+    }
+
+    /**
+     * Open new window, so history and session storage of the old windows are not inherited.
+     * If driver does not support new windows (some mobile browsers), window of the test is kept.
+     *
+     * @return handle of the window that should stay opened
+     */
+    private static String openCleanWindow(WebDriver driver, Set<String> handles) {
+        try {
+            return driver.switchTo().newWindow(WindowType.TAB).getWindowHandle();
+        } catch (WebDriverException e) {
+            LOGGER.debug("Unable to open new window, current window will be reused. Message: {}", e.getMessage());
+        }
+        try {
+            return driver.getWindowHandle();
+        } catch (NoSuchWindowException e) {
+            // current window was closed by the test
+            return handles.iterator().next();
+        }
+    }
+
+    private static void clearPage(WebDriver driver) {
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            } catch (WebDriverException e) {
+                LOGGER.debug("Unable to clear storage of the page. Message: {}", e.getMessage());
+            }
+        }
+        driver.manage().deleteAllCookies();
+    }
+
+    @Override
+    public boolean isHealthy(WebDriver driver) {
+        return driver.getWindowHandle() != null;
+    }
+}
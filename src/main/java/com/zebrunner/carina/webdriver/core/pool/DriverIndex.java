@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.decorators.Decorated;
+
+import com.google.common.collect.MapMaker;
+import com.zebrunner.carina.webdriver.CarinaDriver;
+
+/**
+ * Secondary indexes of the drivers registered in the {@link com.zebrunner.carina.webdriver.IDriverPool#DRIVERS_POOL}:
+ * session id, driver identity (both decorated and original driver) and device udid.<br>
+ * Indexes are updated by the driver pool together with the registration and removal of the driver, so listeners could resolve
+ * driver or device of the current command in O(1) regardless of the number of sessions.
+ * Drivers put into the {@link com.zebrunner.carina.webdriver.IDriverPool#DRIVERS_POOL} directly are not indexed.<br>
+ * All indexes hold drivers weakly, so driver removed from the pool without {@link #remove(CarinaDriver)} does not leak.
+ * Index contains drivers of all contexts (threads): caller should check {@link CarinaDriver#getThreadId()} if needed.
+ */
+@API(status = API.Status.INTERNAL)
+public final class DriverIndex {
+    private static final Map<SessionId, CarinaDriver> BY_SESSION_ID = new MapMaker()
+            .weakValues()
+            .makeMap();
+    /**
+     * Weak keys are compared by identity. Weak values - entry is collected together with the driver removed from the pool directly
+     */
+    private static final ConcurrentMap<WebDriver, CarinaDriver> BY_DRIVER = new MapMaker()
+            .weakKeys()
+            .weakValues()
+            .makeMap();
+    private static final Map<String, Set<CarinaDriver>> BY_UDID = new ConcurrentHashMap<>();
+
+    private DriverIndex() {
+        // hide
+    }
+
+    public static void register(CarinaDriver carinaDriver) {
+        WebDriver driver = carinaDriver.getDriver();
+        BY_DRIVER.put(driver, carinaDriver);
+        WebDriver original = getOriginal(driver);
+        if (original != driver) {
+            BY_DRIVER.put(original, carinaDriver);
+        }
+        getSessionId(original).ifPresent(sessionId -> BY_SESSION_ID.put(sessionId, carinaDriver));
+        String udid = carinaDriver.getDevice().getUdid();
+        if (StringUtils.isNotEmpty(udid)) {
+            BY_UDID.computeIfAbsent(udid, k -> Collections.newSetFromMap(new MapMaker().weakKeys().makeMap())).add(carinaDriver);
+        }
+    }
+
+    public static void remove(CarinaDriver carinaDriver) {
+        WebDriver driver = carinaDriver.getDriver();
+        BY_DRIVER.remove(driver, carinaDriver);
+        WebDriver original = getOriginal(driver);
+        BY_DRIVER.remove(original, carinaDriver);
+        getSessionId(original).ifPresent(sessionId -> BY_SESSION_ID.remove(sessionId, carinaDriver));
+        String udid = carinaDriver.getDevice().getUdid();
+        if (StringUtils.isNotEmpty(udid)) {
+            BY_UDID.computeIfPresent(udid, (k, drivers) -> {
+                drivers.remove(carinaDriver);
+                return drivers.isEmpty() ? null : drivers;
+            });
+        }
+    }
+
+    public static Optional<CarinaDriver> getBySessionId(SessionId sessionId) {
+        return Optional.ofNullable(BY_SESSION_ID.get(sessionId));
+    }
+
+    /**
+     * Get driver by identity of decorated or original driver
+     *
+     * @param driver {@link WebDriver}
+     * @return {@link Optional} of {@link CarinaDriver}
+     */
+    public static Optional<CarinaDriver> getByDriver(WebDriver driver) {
+        return Optional.ofNullable(BY_DRIVER.get(driver));
+    }
+
+    public static Set<CarinaDriver> getByUdid(String udid) {
+        Set<CarinaDriver> drivers = BY_UDID.get(udid);
+        // copy, as size of the weak set includes collected drivers until the cleanup
+        return drivers == null ? Set.of() : Set.copyOf(drivers);
+    }
+
+    private static WebDriver getOriginal(WebDriver driver) {
+        if (driver instanceof Decorated<?>) {
+            return (WebDriver) ((Decorated<?>) driver).getOriginal();
+        }
+        return driver;
+    }
+
+    private static Optional<SessionId> getSessionId(WebDriver driver) {
+        return driver instanceof RemoteWebDriver ? Optional.ofNullable(((RemoteWebDriver) driver).getSessionId()) : Optional.empty();
+    }
+}
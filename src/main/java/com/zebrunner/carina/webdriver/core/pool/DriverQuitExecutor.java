@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * Executor for the driver quit tasks ({@link com.zebrunner.carina.webdriver.IDriverPool#EXECUTOR_SERVICE}).<br>
+ * Number of threads is limited by {@link WebDriverConfiguration.Parameter#DRIVER_QUIT_THREADS} and tasks are waiting in the queue
+ * of {@link WebDriverConfiguration.Parameter#DRIVER_QUIT_QUEUE_SIZE} size. When the queue is full, quit is executed by the caller thread,
+ * so slow grid slows down the tests instead of spawning new threads.<br>
+ * Each task, including the task executed by the caller thread, is interrupted when it is running longer than
+ * {@link WebDriverConfiguration.Parameter#DRIVER_QUIT_TIMEOUT}.<br>
+ * On JVM shutdown {@link #drain()} is called for the executor created by {@link #create()}: it waits up to
+ * {@link WebDriverConfiguration.Parameter#DRIVER_QUIT_DRAIN_TIMEOUT} for the started and queued tasks and abandons the rest.
+ */
+@API(status = API.Status.INTERNAL)
+public final class DriverQuitExecutor extends ThreadPoolExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final long KEEP_ALIVE_SECONDS = 120L;
+    // shared by all executors, so quit tasks executed by the caller thread have a deadline even after the executor shutdown
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("carina-driver-quit-watchdog")
+            .build());
+
+    private final Duration quitTimeout;
+    private final Duration drainTimeout;
+    private final ThreadLocal<Deadline> deadlines = new ThreadLocal<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+
+    DriverQuitExecutor(int threads, int queueSize, Duration quitTimeout, Duration drainTimeout) {
+        super(Math.max(threads, 1), Math.max(threads, 1), KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(queueSize, 1)),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("carina-driver-quit-%d")
+                        .build());
+        this.quitTimeout = quitTimeout;
+        this.drainTimeout = drainTimeout;
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler(new CallerRunsQuitPolicy());
+    }
+
+    /**
+     * Create executor by the configuration parameters. Executor is drained on JVM shutdown.
+     *
+     * @return {@link DriverQuitExecutor}
+     */
+    public static DriverQuitExecutor create() {
+        DriverQuitExecutor executor = new DriverQuitExecutor(Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_QUIT_THREADS, Integer.class),
+                Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_QUIT_QUEUE_SIZE, Integer.class),
+                Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_QUIT_TIMEOUT, Long.class)),
+                Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_QUIT_DRAIN_TIMEOUT, Long.class)));
+        Runtime.getRuntime().addShutdownHook(new Thread(executor::drain, "carina-driver-quit-shutdown"));
+        return executor;
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        running.incrementAndGet();
+        deadlines.set(startDeadline(thread));
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable throwable) {
+        Deadline deadline = deadlines.get();
+        deadlines.remove();
+        if (deadline != null) {
+            deadline.finish();
+            totalLatencyNanos.add(System.nanoTime() - deadline.startNanos);
+            completed.increment();
+        }
+        running.decrementAndGet();
+        super.afterExecute(task, throwable);
+    }
+
+    /**
+     * Wait for the quit tasks up to {@link WebDriverConfiguration.Parameter#DRIVER_QUIT_DRAIN_TIMEOUT}, and then abandon the rest of them
+     *
+     * @return true if all tasks were completed, false otherwise
+     */
+    public boolean drain() {
+        return drain(drainTimeout);
+    }
+
+    /**
+     * Wait for the quit tasks up to timeout, and then abandon the rest of them. New tasks are executed by the caller after drain.
+     *
+     * @param timeout max time to wait
+     * @return true if all tasks were completed, false otherwise
+     */
+    public boolean drain(Duration timeout) {
+        shutdown();
+        try {
+            if (awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.debug("Driver quit tasks were drained. {}", this);
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> abandoned = shutdownNow();
+        LOGGER.warn("Driver quit tasks were not completed in {} ms: {} queued task(s) abandoned, {} running task(s) interrupted.",
+                timeout.toMillis(), abandoned.size(), running.get());
+        return false;
+    }
+
+    /**
+     * @return number of quit tasks waiting for the thread
+     */
+    public int getQueuedCount() {
+        return getQueue().size();
+    }
+
+    /**
+     * @return number of quit tasks in progress
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * @return number of completed (successfully or not) quit tasks, including tasks executed by the caller thread
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * @return number of quit tasks interrupted by {@link WebDriverConfiguration.Parameter#DRIVER_QUIT_TIMEOUT}
+     */
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return number of quit tasks executed by the caller thread because the queue was full
+     */
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * @return average time of the quit task execution
+     */
+    public Duration getAverageQuitLatency() {
+        long count = completed.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalLatencyNanos.sum() / count);
+    }
+
+    private Deadline startDeadline(Thread thread) {
+        Deadline deadline = new Deadline(thread);
+        deadline.timeout = WATCHDOG.schedule(deadline::expire, quitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverQuitExecutor{" +
+                "queued=" + getQueuedCount() +
+                ", running=" + getRunningCount() +
+                ", completed=" + getCompletedCount() +
+                ", timedOut=" + getTimedOutCount() +
+                ", callerRuns=" + getCallerRunsCount() +
+                ", averageQuitLatencyMs=" + getAverageQuitLatency().toMillis() +
+                '}';
+    }
+
+    private final class CallerRunsQuitPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            callerRuns.increment();
+            if (executor.isShutdown()) {
+                LOGGER.debug("Driver quit executor is shut down, quit will be executed in the current thread.");
+            } else {
+                LOGGER.warn("Driver quit queue is full, quit will be executed in the current thread. {}", DriverQuitExecutor.this);
+            }
+            Deadline deadline = startDeadline(Thread.currentThread());
+            try {
+                task.run();
+            } finally {
+                deadline.finish();
+                totalLatencyNanos.add(System.nanoTime() - deadline.startNanos);
+                completed.increment();
+            }
+        }
+    }
+
+    private final class Deadline {
+        private final Thread thread;
+        private final long startNanos = System.nanoTime();
+        private ScheduledFuture<?> timeout;
+        private boolean finished = false;
+
+        private Deadline(Thread thread) {
+            this.thread = thread;
+        }
+
+        private synchronized void expire() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            timedOut.increment();
+            LOGGER.warn("Driver quit task is running longer than {} ms and will be interrupted.", quitTimeout.toMillis());
+            thread.interrupt();
+        }
+
+        private void finish() {
+            boolean expired;
+            synchronized (this) {
+                expired = finished;
+                finished = true;
+            }
+            timeout.cancel(false);
+            if (expired) {
+                // clear interruption of the worker thread made by the deadline
+                Thread.interrupted();
+            }
+        }
+    }
+}
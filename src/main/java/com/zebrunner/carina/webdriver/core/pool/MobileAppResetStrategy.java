@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import com.zebrunner.carina.utils.commons.SpecialKeywords;
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
+
+import io.appium.java_client.InteractsWithApps;
+import io.appium.java_client.appmanagement.ApplicationState;
+import io.appium.java_client.internal.CapabilityHelpers;
+
+/**
+ * Resets state of the native application session by the application restart ({@code terminateApp} + {@code activateApp}).
+ * Application id is taken from the {@code appPackage} (Android) or {@code bundleId} (iOS) capability of the session.
+ */
+public class MobileAppResetStrategy implements SessionResetStrategy {
+
+    @Override
+    public boolean isSupported(SessionProfile profile) {
+        return profile.isNativeApp();
+    }
+
+    @Override
+    public void reset(WebDriver driver) {
+        String appId = getAppId(driver);
+        InteractsWithApps apps = (InteractsWithApps) driver;
+        apps.terminateApp(appId);
+        apps.activateApp(appId);
+    }
+
+    @Override
+    public boolean isHealthy(WebDriver driver) {
+        return ApplicationState.RUNNING_IN_FOREGROUND == ((InteractsWithApps) driver).queryAppState(getAppId(driver));
+    }
+
+    private static String getAppId(WebDriver driver) {
+        if (!(driver instanceof InteractsWithApps) || !(driver instanceof HasCapabilities)) {
+            throw new UnsupportedOperationException("Driver does not support application management.");
+        }
+        Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+        String appId = CapabilityHelpers.getCapability(capabilities, SpecialKeywords.APP_PACKAGE, String.class);
+        if (appId == null) {
+            appId = CapabilityHelpers.getCapability(capabilities, "bundleId", String.class);
+        }
+        if (appId == null) {
+            appId = CapabilityHelpers.getCapability(capabilities, SpecialKeywords.BUNDLE_ID, String.class);
+        }
+        if (appId == null) {
+            throw new IllegalStateException("Unable to detect application id of the session.");
+        }
+        return appId;
+    }
+}
@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.exception.InvalidConfigurationException;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
+
+/**
+ * Admission of the new session requests to the Appium server(s): no more than {@link WebDriverConfiguration.Parameter#MAX_NEW_SESSION_QUEUE}
+ * requests are sent at the same time, and no more than the limit of the capability pool from
+ * {@link WebDriverConfiguration.Parameter#NEW_SESSION_POOL_LIMITS} (pool is a value of the
+ * {@link WebDriverConfiguration.Parameter#NEW_SESSION_POOL_CAPABILITY} capability, for example {@code android=3,ios=2}).<br>
+ * Waiting requests are admitted by the priority, and in the arrival order (FIFO) within the same priority, so threads are not starved.
+ * Request waiting in the pool that reached its limit does not block requests of the other pools.
+ * Priority of the current thread (driver context) could be raised by {@link #setPriority(int)}, for example by the retry analyzer
+ * to let the retry of the failed test jump ahead ({@link #RETRY_PRIORITY}).<br>
+ * Request waiting longer than {@link WebDriverConfiguration.Parameter#NEW_SESSION_QUEUE_TIMEOUT} is rejected by
+ * {@link SessionNotCreatedException}.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class SessionAdmissionController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    public static final int NORMAL_PRIORITY = 0;
+    public static final int RETRY_PRIORITY = 10;
+    static final String DEFAULT_POOL = "default";
+    /**
+     * Upper bounds (in milliseconds) of the wait time histogram buckets, the last bucket is unbounded
+     */
+    private static final long[] WAIT_BUCKETS = { 100, 1_000, 5_000, 30_000, 60_000, 300_000 };
+    private static final ThreadLocal<Integer> PRIORITY = new DriverContext.Local<>();
+    private static SessionAdmissionController instance;
+
+    private final int maxActive;
+    private final Map<String, Integer> poolLimits;
+    private final String poolCapability;
+    private final Duration timeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition admitted = lock.newCondition();
+    private final NavigableSet<Ticket> queue = new TreeSet<>(Comparator.comparingInt((Ticket ticket) -> -ticket.priority)
+            .thenComparingLong(ticket -> ticket.sequence));
+    private final Map<String, Integer> activePerPool = new HashMap<>();
+    private int active = 0;
+    private long sequence = 0;
+
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder[] waitHistogram = new LongAdder[WAIT_BUCKETS.length + 1];
+
+    /**
+     * @param maxActive max number of the new session requests at the same time
+     * @param poolLimits max number of the new session requests at the same time per capability pool
+     * @param poolCapability name of the capability which value is a pool of the request
+     * @param timeout max wait time, {@link Duration#ZERO} to wait without limit
+     */
+    SessionAdmissionController(int maxActive, Map<String, Integer> poolLimits, String poolCapability, Duration timeout) {
+        this.maxActive = maxActive;
+        this.poolLimits = poolLimits;
+        this.poolCapability = poolCapability;
+        this.timeout = timeout;
+        Arrays.setAll(waitHistogram, i -> new LongAdder());
+    }
+
+    public static synchronized SessionAdmissionController getInstance() {
+        if (instance == null) {
+            instance = new SessionAdmissionController(
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.MAX_NEW_SESSION_QUEUE, Integer.class),
+                    parsePoolLimits(Configuration.get(WebDriverConfiguration.Parameter.NEW_SESSION_POOL_LIMITS).orElse("")),
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.NEW_SESSION_POOL_CAPABILITY),
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.NEW_SESSION_QUEUE_TIMEOUT, Long.class)));
+        }
+        return instance;
+    }
+
+    static Map<String, Integer> parsePoolLimits(String value) {
+        try {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(StringUtils::isNotEmpty)
+                    .map(limit -> limit.split("=", 2))
+                    .collect(Collectors.toUnmodifiableMap(limit -> limit[0].trim().toLowerCase(Locale.ROOT),
+                            limit -> Integer.parseInt(limit[1].trim())));
+        } catch (RuntimeException e) {
+            throw new InvalidConfigurationException(String.format("Invalid value of the '%s' parameter: '%s'. Expected format: pool=limit,pool=limit",
+                    WebDriverConfiguration.Parameter.NEW_SESSION_POOL_LIMITS.getKey(), value));
+        }
+    }
+
+    /**
+     * Set priority of the new session requests of the current driver context
+     *
+     * @param priority priority, higher value is admitted first, {@link #NORMAL_PRIORITY} by default
+     */
+    public static void setPriority(int priority) {
+        PRIORITY.set(priority == NORMAL_PRIORITY ? null : priority);
+    }
+
+    public static int getPriority() {
+        Integer priority = PRIORITY.get();
+        return priority == null ? NORMAL_PRIORITY : priority;
+    }
+
+    /**
+     * Wait for the admission of the new session request with the priority of the current driver context
+     *
+     * @param capabilities capabilities of the session
+     * @return {@link Permit} that should be closed when the new session request is completed
+     * @throws InterruptedException if thread is interrupted while waiting
+     * @throws SessionNotCreatedException if request was not admitted in time
+     */
+    public Permit acquire(@Nullable Capabilities capabilities) throws InterruptedException {
+        return acquire(getPool(capabilities), getPriority());
+    }
+
+    Permit acquire(String pool, int priority) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        lock.lock();
+        Ticket ticket = new Ticket(pool, priority, sequence++);
+        try {
+            queue.add(ticket);
+            dispatch();
+            long remainingNanos = timeout.toNanos();
+            while (!ticket.admitted) {
+                if (timeout.isZero()) {
+                    admitted.await();
+                } else if (remainingNanos > 0) {
+                    remainingNanos = admitted.awaitNanos(remainingNanos);
+                } else {
+                    queue.remove(ticket);
+                    rejectedCount.increment();
+                    throw new SessionNotCreatedException(String.format(
+                            "New session request was not admitted in %d seconds (pool: '%s', priority: %d). %s",
+                            timeout.toSeconds(), pool, priority, this));
+                }
+            }
+        } catch (InterruptedException e) {
+            if (ticket.admitted) {
+                release(ticket);
+            } else {
+                queue.remove(ticket);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        admittedCount.increment();
+        waitHistogram[getBucket(waitMillis)].increment();
+        LOGGER.debug("New session request was admitted in {} ms (pool: '{}', priority: {}).", waitMillis, pool, priority);
+        return new Permit(ticket);
+    }
+
+    String getPool(@Nullable Capabilities capabilities) {
+        if (capabilities == null) {
+            return DEFAULT_POOL;
+        }
+        Object value = capabilities.getCapability(poolCapability);
+        if (value == null && !poolCapability.contains(":")) {
+            value = capabilities.getCapability("appium:" + poolCapability);
+        }
+        return value == null || StringUtils.isBlank(value.toString()) ? DEFAULT_POOL : value.toString().trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Admit waiting requests in the order of the queue while there are free slots. Should be called under the lock.
+     */
+    private void dispatch() {
+        boolean changed = false;
+        Iterator<Ticket> iterator = queue.iterator();
+        while (active < maxActive && iterator.hasNext()) {
+            Ticket ticket = iterator.next();
+            Integer poolLimit = poolLimits.get(ticket.pool);
+            if (poolLimit != null && activePerPool.getOrDefault(ticket.pool, 0) >= poolLimit) {
+                // do not block requests of the other pools
+                continue;
+            }
+            iterator.remove();
+            ticket.admitted = true;
+            active++;
+            activePerPool.merge(ticket.pool, 1, Integer::sum);
+            changed = true;
+        }
+        if (changed) {
+            admitted.signalAll();
+        }
+    }
+
+    private void release(Ticket ticket) {
+        lock.lock();
+        try {
+            active--;
+            activePerPool.computeIfPresent(ticket.pool, (pool, count) -> count > 1 ? count - 1 : null);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int getBucket(long waitMillis) {
+        for (int i = 0; i < WAIT_BUCKETS.length; i++) {
+            if (waitMillis <= WAIT_BUCKETS[i]) {
+                return i;
+            }
+        }
+        return WAIT_BUCKETS.length;
+    }
+
+    /**
+     * Get number of the waiting requests
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get number of the admitted requests that are not completed yet
+     *
+     * @return number of the requests
+     */
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmitted() {
+        return admittedCount.sum();
+    }
+
+    public long getRejected() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Get histogram of the wait time of the admitted requests
+     *
+     * @return ordered map, bucket (for example {@code <=1000ms}) - number of the requests
+     */
+    public Map<String, Long> getWaitHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < WAIT_BUCKETS.length; i++) {
+            histogram.put("<=" + WAIT_BUCKETS[i] + "ms", waitHistogram[i].sum());
+        }
+        histogram.put(">" + WAIT_BUCKETS[WAIT_BUCKETS.length - 1] + "ms", waitHistogram[WAIT_BUCKETS.length].sum());
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionAdmissionController{" +
+                "queueDepth=" + getQueueDepth() +
+                ", active=" + getActive() +
+                ", admitted=" + getAdmitted() +
+                ", rejected=" + getRejected() +
+                ", waitHistogram=" + getWaitHistogram() +
+                '}';
+    }
+
+    /**
+     * Admission of the new session request
+     */
+    public final class Permit implements AutoCloseable {
+        private final Ticket ticket;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(Ticket ticket) {
+            this.ticket = ticket;
+        }
+
+        public String getPool() {
+            return ticket.pool;
+        }
+
+        /**
+         * Release the slot of the request, so the next waiting request could be admitted
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(ticket);
+            }
+        }
+    }
+
+    private static final class Ticket {
+        private final String pool;
+        private final int priority;
+        private final long sequence;
+        private boolean admitted = false;
+
+        private Ticket(String pool, int priority, long sequence) {
+            this.pool = pool;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
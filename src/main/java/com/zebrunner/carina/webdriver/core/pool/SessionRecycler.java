@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.concurrent.ConcurrentException;
+import org.apache.commons.lang3.concurrent.LazyInitializer;
+import org.apiguardian.api.API;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
+
+/**
+ * Reuses driver sessions instead of quit/create when {@link WebDriverConfiguration.Parameter#DRIVER_RECYCLING} is enabled:
+ * <ul>
+ * <li>{@link com.zebrunner.carina.webdriver.IDriverPool#restartDriver()} resets state of the session in place</li>
+ * <li>{@link com.zebrunner.carina.webdriver.IDriverPool#quitDriver(String)} resets state of the session and returns it to the
+ * {@link WarmDriverPool}, so the next driver request with the same capabilities gets it without the new session</li>
+ * </ul>
+ * State is reset by the first {@link SessionResetStrategy} that supports the session, after that session is checked by
+ * {@link SessionResetStrategy#isHealthy(WebDriver)}. If there is no suitable strategy, reset or health check failed, or reset
+ * took longer than {@link WebDriverConfiguration.Parameter#DRIVER_RECYCLING_TIMEOUT}, session is quit/created as usual.<br>
+ * Remote device of the recycled session stays connected while the session is in the {@link WarmDriverPool}, it is disconnected
+ * when the pool quits the session.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class SessionRecycler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final List<SessionResetStrategy> CUSTOM_STRATEGIES = new CopyOnWriteArrayList<>();
+    private static final LazyInitializer<List<SessionResetStrategy>> STRATEGIES = new LazyInitializer<>() {
+        @Override
+        protected List<SessionResetStrategy> initialize() {
+            List<SessionResetStrategy> strategies = new ArrayList<>();
+            Iterator<SessionResetStrategy> iterator = ServiceLoader.load(SessionResetStrategy.class).iterator();
+            while (true) {
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    strategies.add(iterator.next());
+                } catch (ServiceConfigurationError e) {
+                    LOGGER.error("Cannot create instance of session reset strategy. Message: {}", e.getMessage());
+                }
+            }
+            strategies.add(new BrowserResetStrategy());
+            strategies.add(new MobileAppResetStrategy());
+            return strategies;
+        }
+    };
+
+    private static final ExecutorService RESET_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("carina-session-reset-%d")
+            .build());
+    /**
+     * Origins (scheme, host and port) opened by the sessions, used to clear storage and cookies of all of them on reset
+     */
+    private static final Map<SessionId, Set<String>> VISITED_ORIGINS = new ConcurrentHashMap<>();
+
+    private SessionRecycler() {
+        // hide
+    }
+
+    public static boolean isEnabled() {
+        return Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_RECYCLING, Boolean.class);
+    }
+
+    /**
+     * Register custom reset strategy. Strategies registered later have higher priority.
+     *
+     * @param strategy {@link SessionResetStrategy}
+     */
+    public static void addStrategy(SessionResetStrategy strategy) {
+        CUSTOM_STRATEGIES.add(0, strategy);
+    }
+
+    /**
+     * Reset state of the driver session
+     *
+     * @param carinaDriver {@link CarinaDriver}
+     * @return true if state was reset and session is healthy, false if session should be restarted
+     */
+    public static boolean reset(CarinaDriver carinaDriver) {
+        if (SessionWatchdog.getInstance().isUnhealthy(carinaDriver)) {
+            LOGGER.debug("Session of the '{}' driver is unhealthy, it will be restarted.", carinaDriver.getName());
+            return false;
+        }
+        WebDriver driver = getOriginal(carinaDriver.getDriver());
+        Optional<SessionResetStrategy> strategy = getStrategy(driver);
+        if (strategy.isEmpty()) {
+            LOGGER.debug("There is no suitable reset strategy for '{}' driver, it will be restarted.", carinaDriver.getName());
+            return false;
+        }
+        long timeout = Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_RECYCLING_TIMEOUT, Long.class);
+        Future<Boolean> future = RESET_EXECUTOR.submit(() -> {
+            strategy.get().reset(driver);
+            return strategy.get().isHealthy(driver);
+        });
+        try {
+            if (future.get(timeout, TimeUnit.SECONDS)) {
+                LOGGER.debug("State of the '{}' driver was reset by {}.", carinaDriver.getName(), strategy.get().getClass().getSimpleName());
+                return true;
+            }
+            LOGGER.warn("Health check of the '{}' driver failed after reset, it will be restarted.", carinaDriver.getName());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.warn("Reset of the '{}' driver was not finished in {} second(s), it will be restarted.", carinaDriver.getName(), timeout);
+        } catch (ExecutionException e) {
+            LOGGER.warn("Unable to reset state of the '{}' driver, it will be restarted. Message: {}", carinaDriver.getName(),
+                    e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Reset state of the driver session and return it to the {@link WarmDriverPool}
+     *
+     * @param carinaDriver {@link CarinaDriver}
+     * @return true if session was recycled, false if it should be quit
+     */
+    public static boolean recycle(CarinaDriver carinaDriver) {
+        WarmDriverPool pool = WarmDriverPool.getInstance();
+        if (!pool.isEnabled() || !reset(carinaDriver)) {
+            return false;
+        }
+        WebDriver driver = getOriginal(carinaDriver.getDriver());
+        SessionResetStrategy strategy = getStrategy(driver).orElseThrow();
+        return pool.offer(carinaDriver.getDriver(), new WarmDriverPool.WarmSession(carinaDriver.getDriver(),
+                carinaDriver.getOriginalCapabilities(), carinaDriver.getDevice(), drv -> strategy.isHealthy(getOriginal(drv))));
+    }
+
+    /**
+     * Remember origin of the page opened by the session
+     *
+     * @param sessionId id of the session
+     * @param url url of the {@code get} command
+     */
+    @API(status = API.Status.INTERNAL)
+    public static void onNavigation(@Nullable SessionId sessionId, @Nullable Object url) {
+        if (sessionId == null || url == null || !isEnabled()) {
+            return;
+        }
+        try {
+            URI uri = URI.create(String.valueOf(url));
+            if (uri.getScheme() != null && uri.getScheme().startsWith("http") && uri.getHost() != null) {
+                VISITED_ORIGINS.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet())
+                        .add(uri.getScheme() + "://" + uri.getRawAuthority());
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Unable to get origin of the url '{}': {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Forget origins opened by the session (it was quit)
+     *
+     * @param sessionId id of the session
+     */
+    @API(status = API.Status.INTERNAL)
+    public static void release(@Nullable SessionId sessionId) {
+        if (sessionId != null) {
+            VISITED_ORIGINS.remove(sessionId);
+        }
+    }
+
+    /**
+     * Get and forget origins opened by the session since the previous call
+     *
+     * @param driver {@link WebDriver}
+     * @return origins, for example {@code https://example.com:8443}
+     */
+    static Set<String> pollVisitedOrigins(WebDriver driver) {
+        if (!(driver instanceof RemoteWebDriver) || ((RemoteWebDriver) driver).getSessionId() == null) {
+            return Set.of();
+        }
+        Set<String> origins = VISITED_ORIGINS.remove(((RemoteWebDriver) driver).getSessionId());
+        return origins == null ? Set.of() : origins;
+    }
+
+    private static Optional<SessionResetStrategy> getStrategy(WebDriver driver) {
+        Optional<SessionProfile> profile = SessionProfile.of(driver);
+        if (profile.isEmpty()) {
+            return Optional.empty();
+        }
+        List<SessionResetStrategy> strategies = new ArrayList<>(CUSTOM_STRATEGIES);
+        try {
+            strategies.addAll(STRATEGIES.get());
+        } catch (ConcurrentException e) {
+            throw new RuntimeException("Unable to load session reset strategies. Message: " + e.getMessage(), e);
+        }
+        return strategies.stream()
+                .filter(strategy -> strategy.isSupported(profile.get()))
+                .findFirst();
+    }
+
+    private static WebDriver getOriginal(WebDriver driver) {
+        if (driver instanceof Decorated<?>) {
+            return (WebDriver) ((Decorated<?>) driver).getOriginal();
+        }
+        return driver;
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import org.openqa.selenium.WebDriver;
+
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
+
+/**
+ * Strategy of the session state reset, used by {@link SessionRecycler} to reuse the session instead of quit/create.<br>
+ * Custom strategies could be registered by {@link SessionRecycler#addStrategy(SessionResetStrategy)} or as
+ * {@link java.util.ServiceLoader} providers. They have higher priority than built-in ones.
+ */
+public interface SessionResetStrategy {
+
+    /**
+     * Check if strategy could reset state of the session
+     *
+     * @param profile {@link SessionProfile} of the session
+     * @return true if strategy supports the session, false otherwise
+     */
+    boolean isSupported(SessionProfile profile);
+
+    /**
+     * Reset state of the session
+     *
+     * @param driver original (not decorated) driver
+     * @throws RuntimeException if state could not be reset, so session should be quit
+     */
+    void reset(WebDriver driver);
+
+    /**
+     * Check that session could be reused. Performed after the reset and before the handout of the recycled session
+     *
+     * @param driver original (not decorated) driver
+     * @return true if session is alive and ready, false otherwise
+     */
+    boolean isHealthy(WebDriver driver);
+}
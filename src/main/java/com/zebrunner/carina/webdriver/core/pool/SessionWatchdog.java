@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.apiguardian.api.API;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
+import com.zebrunner.carina.webdriver.core.metrics.CommandMetrics;
+
+/**
+ * Background health check of the long-lived driver sessions (class or suite scoped drivers).<br>
+ * Every {@link WebDriverConfiguration.Parameter#SESSION_WATCHDOG_INTERVAL} seconds sessions of the {@link IDriverPool} that had no
+ * commands during the interval are pinged by the cheap {@code getTimeouts} command. Session is marked as unhealthy after
+ * {@link WebDriverConfiguration.Parameter#SESSION_WATCHDOG_FAILURES} consecutive failed pings: ping returned an error, did not respond
+ * during {@link WebDriverConfiguration.Parameter#SESSION_WATCHDOG_TIMEOUT} seconds, or responded {@link #SLOWDOWN_FACTOR} times slower
+ * than the usual response time of the session (but not faster than {@link #MIN_SLOW_PING}).<br>
+ * Unhealthy sessions are replaced at the next test boundary, when drivers of the finished phase are quit by
+ * {@link IDriverPool#quitDrivers}: driver is quit and created again with the same name, phase, original capabilities, selenium host and
+ * device, so the test loses minutes instead of all remaining tests of the class. Session is never replaced in the middle of the test.<br>
+ * Commands of the tests and pings of the same session never overlap: session is not pinged while the test command is in progress,
+ * and the test command waits for the ping in progress (at most {@link WebDriverConfiguration.Parameter#SESSION_WATCHDOG_TIMEOUT}).
+ * Pings are not measured, retried or counted as session activity by the command executors, see {@link #isPingThread()}.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class SessionWatchdog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    static final double SLOWDOWN_FACTOR = 5;
+    static final Duration MIN_SLOW_PING = Duration.ofSeconds(1);
+    /**
+     * Number of the successful pings used to calculate the usual response time before slow pings are detected
+     */
+    static final int BASELINE_PINGS = 3;
+    private static final double BASELINE_WEIGHT = 0.3;
+    /**
+     * Commands of the watchdog itself are not the commands of the test
+     */
+    private static final ThreadLocal<Boolean> PING_THREAD = ThreadLocal.withInitial(() -> false);
+    private final Duration interval;
+    private final Duration timeout;
+    private final int maxFailures;
+    private final Supplier<Collection<CarinaDriver>> drivers;
+    private final Pinger pinger;
+    private final Map<SessionId, Health> sessions = new ConcurrentHashMap<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final ExecutorService pingExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("carina-session-watchdog-ping-%d")
+            .build());
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Sends the health check command to the session
+     */
+    @FunctionalInterface
+    interface Pinger {
+        void ping(WebDriver driver) throws Exception;
+    }
+
+    SessionWatchdog(Duration interval, Duration timeout, int maxFailures, Supplier<Collection<CarinaDriver>> drivers, Pinger pinger) {
+        this.interval = interval;
+        this.timeout = timeout;
+        this.maxFailures = Math.max(1, maxFailures);
+        this.drivers = drivers;
+        this.pinger = pinger;
+    }
+
+    public static SessionWatchdog getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static SessionWatchdog create() {
+        SessionWatchdog instance = new SessionWatchdog(
+                Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.SESSION_WATCHDOG_INTERVAL, Integer.class)),
+                Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.SESSION_WATCHDOG_TIMEOUT, Integer.class)),
+                Configuration.getRequired(WebDriverConfiguration.Parameter.SESSION_WATCHDOG_FAILURES, Integer.class),
+                () -> IDriverPool.DRIVERS_POOL.values()
+                        .stream()
+                        .flatMap(contextDrivers -> contextDrivers.values().stream())
+                        .collect(Collectors.toList()),
+                SessionWatchdog::ping);
+        if (instance.isEnabled()) {
+            instance.start();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return !interval.isZero() && !interval.isNegative();
+    }
+
+    /**
+     * Start periodic health checks
+     */
+    void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("carina-session-watchdog")
+                .build());
+        scheduler.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "carina-session-watchdog-shutdown"));
+        LOGGER.info("Session watchdog is started: idle sessions are checked every {} sec.", interval.toSeconds());
+    }
+
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pingExecutor.shutdownNow();
+    }
+
+    /**
+     * Check if the command is sent by the watchdog, so the command executor should not measure, retry or otherwise treat it as
+     * the command of the test
+     *
+     * @return true if the current thread pings the session
+     */
+    @API(status = API.Status.INTERNAL)
+    public static boolean isPingThread() {
+        return PING_THREAD.get();
+    }
+
+    /**
+     * Execute the command of the test. Session is not pinged while the command is in progress and during the next interval,
+     * and the command waits for the ping of the session that is already in progress.
+     *
+     * @param sessionId id of the session, could be null for the new session command
+     * @param call execution of the command by the executor
+     * @return {@link Response}
+     * @param <E> type of the exception thrown by the executor
+     * @throws E if command failed
+     */
+    @API(status = API.Status.INTERNAL)
+    public <E extends Exception> Response execute(@Nullable SessionId sessionId, CommandMetrics.CommandCall<E> call) throws E {
+        if (sessionId == null || !isEnabled()) {
+            return call.execute();
+        }
+        Health health = sessions.computeIfAbsent(sessionId, id -> new Health(System.nanoTime()));
+        health.commands.readLock().lock();
+        try {
+            health.lastActivityNanos = System.nanoTime();
+            return call.execute();
+        } finally {
+            health.lastActivityNanos = System.nanoTime();
+            health.commands.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forget the session (it was quit)
+     *
+     * @param sessionId id of the session
+     */
+    @API(status = API.Status.INTERNAL)
+    public void release(@Nullable SessionId sessionId) {
+        if (sessionId != null) {
+            sessions.remove(sessionId);
+        }
+    }
+
+    /**
+     * Check if the session of the driver is marked as unhealthy
+     *
+     * @param carinaDriver {@link CarinaDriver}
+     * @return true if the driver should be replaced
+     */
+    public boolean isUnhealthy(CarinaDriver carinaDriver) {
+        if (sessions.isEmpty()) {
+            return false;
+        }
+        return getSessionId(carinaDriver.getDriver())
+                .map(sessions::get)
+                .map(Health::isUnhealthy)
+                .orElse(false);
+    }
+
+    /**
+     * Replace unhealthy drivers of the current test context. Called on the test boundary.
+     *
+     * @return names of the replaced drivers
+     */
+    @API(status = API.Status.INTERNAL)
+    public List<String> replaceUnhealthyDrivers() {
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
+        List<String> replaced = new ArrayList<>();
+        for (CarinaDriver carinaDriver : IDriverPool.DRIVERS_POOL.getOrDefault(DriverContext.currentId(), Map.of()).values()) {
+            if (!isUnhealthy(carinaDriver)) {
+                continue;
+            }
+            LOGGER.warn("Session of the '{}' driver is unhealthy, it will be replaced by the new one.", carinaDriver.getName());
+            try {
+                IDriverPool.replaceDriver(carinaDriver.getName());
+                replaced.add(carinaDriver.getName());
+            } catch (Exception e) {
+                // driver is already removed from the pool, so it will be created again on the next request
+                LOGGER.error("Unable to replace unhealthy '{}' driver. Message: {}", carinaDriver.getName(), e.getMessage(), e);
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Ping idle sessions
+     */
+    void check() {
+        Set<SessionId> alive = new HashSet<>();
+        long now = System.nanoTime();
+        for (CarinaDriver carinaDriver : drivers.get()) {
+            Optional<SessionId> sessionId = getSessionId(carinaDriver.getDriver());
+            if (sessionId.isEmpty()) {
+                continue;
+            }
+            alive.add(sessionId.get());
+            Health health = sessions.computeIfAbsent(sessionId.get(), id -> new Health(now));
+            if (health.isUnhealthy() || now - health.lastActivityNanos < interval.toNanos() || !health.pinging.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                pingExecutor.submit(() -> checkHealth(carinaDriver, health));
+            } catch (RuntimeException e) {
+                health.pinging.set(false);
+                LOGGER.debug("Unable to submit health check of the '{}' driver. Message: {}", carinaDriver.getName(), e.getMessage());
+            }
+        }
+        sessions.keySet().retainAll(alive);
+    }
+
+    private void checkHealth(CarinaDriver carinaDriver, Health health) {
+        // skip the check if the test started to use the session since it was found idle
+        if (!health.commands.writeLock().tryLock()) {
+            health.pinging.set(false);
+            return;
+        }
+        try {
+            if (System.nanoTime() - health.lastActivityNanos >= interval.toNanos()) {
+                ping(carinaDriver, health);
+            }
+        } finally {
+            health.commands.writeLock().unlock();
+            health.pinging.set(false);
+        }
+    }
+
+    private void ping(CarinaDriver carinaDriver, Health health) {
+        long startNanos = System.nanoTime();
+        Future<?> future = pingExecutor.submit(() -> {
+            PING_THREAD.set(true);
+            try {
+                pinger.ping(getOriginal(carinaDriver.getDriver()));
+            } finally {
+                PING_THREAD.set(false);
+            }
+            return null;
+        });
+        boolean success = false;
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            success = true;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.debug("Health check of the '{}' driver timed out.", carinaDriver.getName());
+        } catch (ExecutionException e) {
+            LOGGER.debug("Health check of the '{}' driver failed. Message: {}", carinaDriver.getName(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (health.record(System.nanoTime() - startNanos, success, maxFailures)) {
+            LOGGER.warn("Session of the '{}' driver is marked as unhealthy after {} failed health check(s), it will be replaced "
+                    + "at the next test boundary.", carinaDriver.getName(), maxFailures);
+        }
+    }
+
+    /**
+     * Default health check: {@code getTimeouts} command does not touch the page, so it is cheap for any driver
+     */
+    static void ping(WebDriver driver) {
+        if (!(driver instanceof RemoteWebDriver)) {
+            return;
+        }
+        try {
+            driver.manage().timeouts().getPageLoadTimeout();
+        } catch (UnsupportedCommandException e) {
+            // server responded, so the session is alive
+        }
+    }
+
+    private static Optional<SessionId> getSessionId(WebDriver driver) {
+        WebDriver original = getOriginal(driver);
+        return original instanceof RemoteWebDriver ? Optional.ofNullable(((RemoteWebDriver) original).getSessionId()) : Optional.empty();
+    }
+
+    private static WebDriver getOriginal(WebDriver driver) {
+        if (driver instanceof Decorated<?>) {
+            return (WebDriver) ((Decorated<?>) driver).getOriginal();
+        }
+        return driver;
+    }
+
+    /**
+     * Health of the session: response time trend and consecutive failures of the health checks
+     */
+    static final class Health {
+        private final AtomicBoolean pinging = new AtomicBoolean(false);
+        /**
+         * Commands of the test hold the read lock, ping holds the write lock
+         */
+        private final ReadWriteLock commands = new ReentrantReadWriteLock();
+        private volatile long lastActivityNanos;
+        private volatile boolean unhealthy = false;
+        private double baselineNanos = 0;
+        private int baselinePings = 0;
+        private int failures = 0;
+
+        Health(long lastActivityNanos) {
+            this.lastActivityNanos = lastActivityNanos;
+        }
+
+        /**
+         * Record result of the health check
+         *
+         * @param latencyNanos response time of the check
+         * @param success false if the check failed or timed out
+         * @param maxFailures number of consecutive failures after which the session is unhealthy
+         * @return true if the session became unhealthy
+         */
+        synchronized boolean record(long latencyNanos, boolean success, int maxFailures) {
+            if (unhealthy) {
+                return false;
+            }
+            if (success && !isSlow(latencyNanos)) {
+                failures = 0;
+                // slow responses do not change the usual response time, so the slowdown could not become usual
+                baselineNanos = baselinePings == 0 ? latencyNanos : BASELINE_WEIGHT * latencyNanos + (1 - BASELINE_WEIGHT) * baselineNanos;
+                baselinePings++;
+                return false;
+            }
+            failures++;
+            if (failures >= maxFailures) {
+                unhealthy = true;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isSlow(long latencyNanos) {
+            return baselinePings >= BASELINE_PINGS
+                    && latencyNanos > Math.max(MIN_SLOW_PING.toNanos(), baselineNanos * SLOWDOWN_FACTOR);
+        }
+
+        boolean isUnhealthy() {
+            return unhealthy;
+        }
+    }
+
+    private static final class InstanceHolder {
+        private static final SessionWatchdog INSTANCE = create();
+    }
+}
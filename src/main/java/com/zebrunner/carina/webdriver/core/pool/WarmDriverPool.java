@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apiguardian.api.API;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.factory.DriverFactory;
+import com.zebrunner.carina.webdriver.device.Device;
+
+/**
+ * Pool of the driver sessions created in background ahead of demand.<br>
+ * Sessions are grouped by the capabilities fingerprint (capabilities and selenium host passed to the
+ * {@link IDriverPool#getDriver(String, Capabilities, String)}). When driver with some fingerprint is requested for the first time,
+ * pool starts creation of {@link WebDriverConfiguration.Parameter#WARM_POOL_SIZE} sessions with the same fingerprint, so the next requests
+ * get already started session instantly. Pool is topped up asynchronously after each handout.<br>
+ * Sessions that were not requested during {@link WebDriverConfiguration.Parameter#WARM_POOL_IDLE_TIMEOUT} are quit.<br>
+ * Warm sessions are not assigned to any thread, so they are not counted in {@link WebDriverConfiguration.Parameter#MAX_DRIVER_COUNT}
+ * until the handout. Idle sessions are quit by {@link #shutdown()} (it is also registered as JVM shutdown hook).<br>
+ * If {@link WebDriverConfiguration.Parameter#DRIVER_RECYCLING} is enabled, pool also keeps sessions returned by
+ * {@link SessionRecycler} after the state reset, so they are reused by the next request with the same fingerprint.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class WarmDriverPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String WARM_SESSION_NAME = "warm-pool";
+    private static WarmDriverPool instance;
+
+    private final SessionFactory sessionFactory;
+    private final int size;
+    private final boolean recycling;
+    private final Duration idleTimeout;
+    private final Map<ImmutablePair<Map<String, Object>, String>, Deque<WarmSession>> sessions = new ConcurrentHashMap<>();
+    private final Map<ImmutablePair<Map<String, Object>, String>, AtomicInteger> pendingSessions = new ConcurrentHashMap<>();
+    /**
+     * Fingerprints of the handed out (or created outside the pool) drivers, to return them to the pool after recycling
+     */
+    private final ConcurrentMap<WebDriver, ImmutablePair<Map<String, Object>, String>> fingerprints = new MapMaker()
+            .weakKeys()
+            .makeMap();
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+    /**
+     * Device registered by the session factory in the worker thread, see {@link IDriverPool#CURRENT_DEVICE}
+     */
+    private final ThreadLocal<Device> currentDevice;
+    private final ExecutorService creationExecutor;
+    private final ScheduledExecutorService retirementExecutor;
+
+    /**
+     * Creates driver session for the warm pool
+     */
+    @FunctionalInterface
+    interface SessionFactory {
+        ImmutablePair<WebDriver, Capabilities> create(String name, @Nullable Capabilities capabilities, @Nullable String seleniumHost);
+    }
+
+    WarmDriverPool(SessionFactory sessionFactory, int size, Duration idleTimeout) {
+        this(sessionFactory, size, idleTimeout, false);
+    }
+
+    WarmDriverPool(SessionFactory sessionFactory, int size, Duration idleTimeout, boolean recycling) {
+        this.sessionFactory = sessionFactory;
+        this.size = Math.max(size, 0);
+        this.recycling = recycling;
+        this.idleTimeout = idleTimeout;
+        // resolved before the workers are started: first access initializes the driver pool and configuration,
+        // which should not be paid by the first warm sessions
+        this.currentDevice = IDriverPool.CURRENT_DEVICE;
+        if (this.size == 0 && !recycling) {
+            this.creationExecutor = null;
+            this.retirementExecutor = null;
+            return;
+        }
+        this.creationExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("carina-warm-pool-%d")
+                .build());
+        this.retirementExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("carina-warm-pool-retirement")
+                .build());
+        long period = Math.max(1, idleTimeout.toMillis() / 2);
+        this.retirementExecutor.scheduleAtFixedRate(this::retireIdleSessions, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized WarmDriverPool getInstance() {
+        if (instance == null) {
+            instance = new WarmDriverPool(DriverFactory::create,
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.WARM_POOL_SIZE, Integer.class),
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.WARM_POOL_IDLE_TIMEOUT, Long.class)),
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.DRIVER_RECYCLING, Boolean.class));
+            if (instance.isEnabled()) {
+                Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown, "carina-warm-pool-shutdown"));
+            }
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return (size > 0 || recycling) && !isShutdown.get();
+    }
+
+    /**
+     * Remember capabilities fingerprint of the driver, so it could be returned to the pool by {@link #offer(WebDriver, WarmSession)}
+     *
+     * @param driver {@link WebDriver}
+     * @param capabilities capabilities that were requested for the driver
+     * @param seleniumHost selenium host that was requested for the driver
+     */
+    public void track(WebDriver driver, @Nullable Capabilities capabilities, @Nullable String seleniumHost) {
+        if (isEnabled()) {
+            fingerprints.put(driver, getFingerprint(capabilities, seleniumHost));
+        }
+    }
+
+    /**
+     * Return session (after the state reset) to the pool
+     *
+     * @param driver driver that was registered by {@link #track(WebDriver, Capabilities, String)}
+     * @param session {@link WarmSession}
+     * @return true if session was added to the pool, false if pool is disabled or driver was not tracked
+     */
+    public boolean offer(WebDriver driver, WarmSession session) {
+        ImmutablePair<Map<String, Object>, String> fingerprint = fingerprints.get(driver);
+        if (!isEnabled() || fingerprint == null) {
+            return false;
+        }
+        // recently used session is handed out first
+        sessions.computeIfAbsent(fingerprint, k -> new ConcurrentLinkedDeque<>())
+                .addFirst(session);
+        return true;
+    }
+
+    /**
+     * Start creation of the sessions with provided capabilities (if pool is not full)
+     *
+     * @param capabilities {@link Capabilities}, or null to create sessions using configuration
+     * @param seleniumHost selenium host url, or null to use configuration
+     */
+    public void prewarm(@Nullable Capabilities capabilities, @Nullable String seleniumHost) {
+        if (isEnabled()) {
+            topUp(getFingerprint(capabilities, seleniumHost), capabilities, seleniumHost);
+        }
+    }
+
+    /**
+     * Take started session with the same capabilities fingerprint. Pool will be topped up asynchronously.
+     *
+     * @param capabilities {@link Capabilities}
+     * @param seleniumHost selenium host url
+     * @return {@link Optional} of {@link WarmSession}, or empty if there are no started sessions
+     */
+    public Optional<WarmSession> take(@Nullable Capabilities capabilities, @Nullable String seleniumHost) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        ImmutablePair<Map<String, Object>, String> fingerprint = getFingerprint(capabilities, seleniumHost);
+        Deque<WarmSession> available = sessions.computeIfAbsent(fingerprint, k -> new ConcurrentLinkedDeque<>());
+        WarmSession session;
+        while ((session = available.pollFirst()) != null && (session.isIdleLongerThan(idleTimeout) || !session.isHealthy())) {
+            quit(session);
+        }
+        topUp(fingerprint, capabilities, seleniumHost);
+        if (session != null) {
+            LOGGER.info("Driver session was taken from the warm pool.");
+        }
+        return Optional.ofNullable(session);
+    }
+
+    /**
+     * Get number of started sessions that are waiting for handout
+     *
+     * @return number of sessions
+     */
+    public int getIdleSessionsCount() {
+        return sessions.values()
+                .stream()
+                .mapToInt(Deque::size)
+                .sum();
+    }
+
+    /**
+     * Stop creation of the new sessions and quit all idle sessions
+     */
+    public void shutdown() {
+        if (!isShutdown.compareAndSet(false, true) || creationExecutor == null) {
+            return;
+        }
+        creationExecutor.shutdownNow();
+        retirementExecutor.shutdownNow();
+        List<WarmSession> idle = new ArrayList<>();
+        sessions.values().forEach(deque -> {
+            WarmSession session;
+            while ((session = deque.pollFirst()) != null) {
+                idle.add(session);
+            }
+        });
+        LOGGER.debug("Quit {} idle session(s) of the warm pool.", idle.size());
+        idle.forEach(WarmDriverPool::quit);
+    }
+
+    void retireIdleSessions() {
+        for (Deque<WarmSession> deque : sessions.values()) {
+            for (WarmSession session : deque) {
+                if (session.isIdleLongerThan(idleTimeout) && deque.remove(session)) {
+                    LOGGER.debug("Warm session was idle longer than {} and will be quit.", idleTimeout);
+                    quit(session);
+                }
+            }
+        }
+    }
+
+    private void topUp(ImmutablePair<Map<String, Object>, String> fingerprint, @Nullable Capabilities capabilities, @Nullable String seleniumHost) {
+        Deque<WarmSession> available = sessions.computeIfAbsent(fingerprint, k -> new ConcurrentLinkedDeque<>());
+        AtomicInteger pending = pendingSessions.computeIfAbsent(fingerprint, k -> new AtomicInteger());
+        while (true) {
+            int current = pending.get();
+            if (current + available.size() >= size) {
+                return;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                try {
+                    creationExecutor.execute(() -> createSession(available, pending, capabilities, seleniumHost));
+                } catch (Exception e) {
+                    // pool is shut down
+                    pending.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void createSession(Deque<WarmSession> available, AtomicInteger pending, @Nullable Capabilities capabilities,
+            @Nullable String seleniumHost) {
+        try {
+            ImmutablePair<WebDriver, Capabilities> pair = sessionFactory.create(WARM_SESSION_NAME, capabilities, seleniumHost);
+            // device is registered in the context of the worker thread, so it should be transferred to the test context on handout
+            Device device = currentDevice.get();
+            currentDevice.remove();
+            WarmSession session = new WarmSession(pair.getLeft(), pair.getRight(), device);
+            if (isShutdown.get()) {
+                quit(session);
+            } else {
+                available.addLast(session);
+                LOGGER.debug("Driver session was created in the warm pool.");
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Unable to create driver session in the warm pool. Message: {}", e.getMessage(), e);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    private static void quit(WarmSession session) {
+        WebDriver driver = session.getDriver();
+        if (driver instanceof Decorated<?>) {
+            // quit without driver listeners
+            driver = (WebDriver) ((Decorated<?>) driver).getOriginal();
+        }
+        try {
+            session.getDevice().disconnectRemote();
+            driver.quit();
+        } catch (Exception e) {
+            LOGGER.warn("Unable to quit warm session. Message: {}", e.getMessage());
+        }
+    }
+
+    private static ImmutablePair<Map<String, Object>, String> getFingerprint(@Nullable Capabilities capabilities, @Nullable String seleniumHost) {
+        return ImmutablePair.of(capabilities == null ? Map.of() : new HashMap<>(capabilities.asMap()), seleniumHost);
+    }
+
+    public static final class WarmSession {
+        private final WebDriver driver;
+        private final Capabilities capabilities;
+        private final Device device;
+        private final Predicate<WebDriver> healthCheck;
+        private final long createdNanos;
+
+        WarmSession(WebDriver driver, Capabilities capabilities, @Nullable Device device) {
+            this(driver, capabilities, device, drv -> true);
+        }
+
+        /**
+         * @param driver {@link WebDriver}
+         * @param capabilities capabilities that used for creating driver
+         * @param device {@link Device} of the session, or null if there is no device
+         * @param healthCheck check that is performed before the handout of the session
+         */
+        public WarmSession(WebDriver driver, Capabilities capabilities, @Nullable Device device, Predicate<WebDriver> healthCheck) {
+            this.driver = driver;
+            this.capabilities = capabilities;
+            this.device = device == null ? IDriverPool.nullDevice : device;
+            this.healthCheck = healthCheck;
+            this.createdNanos = System.nanoTime();
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        /**
+         * Get capabilities that used for creating driver
+         *
+         * @return {@link Capabilities}
+         */
+        public Capabilities getCapabilities() {
+            return capabilities;
+        }
+
+        public Device getDevice() {
+            return device;
+        }
+
+        boolean isHealthy() {
+            try {
+                return healthCheck.test(driver);
+            } catch (Exception e) {
+                LOGGER.debug("Health check of the warm session failed. Message: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        boolean isIdleLongerThan(Duration timeout) {
+            return System.nanoTime() - createdNanos > timeout.toNanos();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.report.ReportContext;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * Timeline of the phases from the JVM start to the first usable driver (configuration loading, capabilities,
+ * classpath scans, command executor construction, new session etc.).<br>
+ * Phases are recorded with nanosecond timestamps relative to the JVM start:
+ *
+ * <pre>
+ * try (StartupTimeline.Phase phase = StartupTimeline.phase("new session")) {
+ *     driver = new RemoteWebDriver(executor, capabilities);
+ * }
+ * </pre>
+ *
+ * Recording is always on (it costs one {@link System#nanoTime()} call per phase boundary) and limited by {@link #MAX_RECORDS}.
+ * When {@link WebDriverConfiguration.Parameter#STARTUP_PROFILER} is enabled, report is written to the
+ * {@link ReportContext#getBaseDirectory()} as soon as the first driver is created:
+ * <ul>
+ * <li>{@code startup-timeline.json} - trace event format, could be opened as a flame chart in {@code chrome://tracing},
+ * Perfetto or Speedscope</li>
+ * <li>{@code startup-timeline.txt} - indented text timeline, also written to the log</li>
+ * </ul>
+ */
+public final class StartupTimeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    public static final String REPORT_NAME = "startup-timeline";
+    public static final int MAX_RECORDS = 1024;
+    static final String JVM_START_PHASE = "JVM start (before the first recorded phase)";
+    static final String FIRST_DRIVER_EVENT = "first driver";
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    /**
+     * Nanoseconds between the JVM start and {@link #ORIGIN_NANOS}
+     */
+    private static final long JVM_START_OFFSET_NANOS = ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+    private static final Queue<Record> RECORDS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger RECORDS_COUNT = new AtomicInteger();
+    private static final AtomicLong FIRST_DRIVER_NANOS = new AtomicLong(-1);
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private StartupTimeline() {
+        // hide
+    }
+
+    /**
+     * Start the phase. Phase should be closed (try-with-resources) by the same thread.
+     *
+     * @param name name of the phase
+     * @return {@link Phase}
+     */
+    public static Phase phase(String name) {
+        int depth = DEPTH.get();
+        DEPTH.set(depth + 1);
+        return new Phase(name, depth, now());
+    }
+
+    /**
+     * Mark the moment when the first driver became usable and write report if it is enabled.
+     * Subsequent calls are ignored.
+     */
+    public static void firstDriverCreated() {
+        if (!FIRST_DRIVER_NANOS.compareAndSet(-1, now())) {
+            return;
+        }
+        try {
+            if (Configuration.getRequired(WebDriverConfiguration.Parameter.STARTUP_PROFILER, Boolean.class)) {
+                String text = toText();
+                LOGGER.info("{}", text);
+                writeReport(ReportContext.getBaseDirectory(), text);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Unable to create startup timeline report. Message: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get time from the JVM start to the first driver
+     *
+     * @return nanoseconds, or -1 if driver was not created yet
+     */
+    public static long getTimeToFirstDriver() {
+        return FIRST_DRIVER_NANOS.get();
+    }
+
+    /**
+     * Get recorded phases ordered by the start time
+     *
+     * @return list of {@link Record}
+     */
+    public static List<Record> getRecords() {
+        List<Record> records = new ArrayList<>(RECORDS.size() + 1);
+        records.add(new Record(JVM_START_PHASE, "jvm", 0, 0, 0, JVM_START_OFFSET_NANOS));
+        records.addAll(RECORDS);
+        records.sort(Comparator.comparingLong(Record::getStartNanos)
+                .thenComparingInt(Record::getDepth));
+        return records;
+    }
+
+    /**
+     * Write json and text reports to the directory
+     *
+     * @param directory report directory
+     * @throws IOException if report could not be written
+     */
+    public static void writeReport(Path directory) throws IOException {
+        writeReport(directory, toText());
+    }
+
+    private static void writeReport(Path directory, String text) throws IOException {
+        Files.writeString(directory.resolve(REPORT_NAME + ".json"), toJson().toString(2), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve(REPORT_NAME + ".txt"), text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Timeline in the trace event format (complete events, timestamps in microseconds)
+     *
+     * @return {@link JSONObject}
+     */
+    public static JSONObject toJson() {
+        JSONArray events = new JSONArray();
+        for (Record record : getRecords()) {
+            events.put(new JSONObject()
+                    .put("name", record.getName())
+                    .put("cat", "carina")
+                    .put("ph", "X")
+                    .put("ts", record.getStartNanos() / 1000.0)
+                    .put("dur", record.getDurationNanos() / 1000.0)
+                    .put("pid", 1)
+                    .put("tid", record.getThreadId())
+                    .put("args", new JSONObject()
+                            .put("thread", record.getThreadName())
+                            .put("startNanos", record.getStartNanos())
+                            .put("durationNanos", record.getDurationNanos())));
+        }
+        long firstDriver = getTimeToFirstDriver();
+        if (firstDriver >= 0) {
+            events.put(new JSONObject()
+                    .put("name", FIRST_DRIVER_EVENT)
+                    .put("cat", "carina")
+                    .put("ph", "i")
+                    .put("s", "g")
+                    .put("ts", firstDriver / 1000.0)
+                    .put("pid", 1)
+                    .put("tid", 0));
+        }
+        return new JSONObject()
+                .put("traceEvents", events)
+                .put("displayTimeUnit", "ms")
+                .put("otherData", new JSONObject()
+                        .put("timeToFirstDriverNanos", firstDriver)
+                        .put("droppedRecords", Math.max(0, RECORDS_COUNT.get() - MAX_RECORDS)));
+    }
+
+    /**
+     * Timeline as indented text, one phase per line: start and duration (in milliseconds), thread and name of the phase
+     *
+     * @return text report
+     */
+    public static String toText() {
+        long firstDriver = getTimeToFirstDriver();
+        StringBuilder sb = new StringBuilder("Startup timeline")
+                .append(firstDriver >= 0 ? String.format(Locale.US, " (time to first driver: %.3f ms)", firstDriver / 1e6) : "")
+                .append(System.lineSeparator())
+                .append(String.format(Locale.US, "%12s %12s  %s", "start, ms", "duration, ms", "phase"))
+                .append(System.lineSeparator());
+        for (Record record : getRecords()) {
+            sb.append(String.format(Locale.US, "%12.3f %12.3f  %s%s [%s]", record.getStartNanos() / 1e6, record.getDurationNanos() / 1e6,
+                    "  ".repeat(record.getDepth()), record.getName(), record.getThreadName()))
+                    .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * For tests only
+     */
+    static void reset() {
+        RECORDS.clear();
+        RECORDS_COUNT.set(0);
+        FIRST_DRIVER_NANOS.set(-1);
+    }
+
+    private static long now() {
+        return JVM_START_OFFSET_NANOS + (System.nanoTime() - ORIGIN_NANOS);
+    }
+
+    public static final class Phase implements AutoCloseable {
+        private final String name;
+        private final int depth;
+        private final long startNanos;
+        private boolean closed = false;
+
+        private Phase(String name, int depth, long startNanos) {
+            this.name = name;
+            this.depth = depth;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            long duration = now() - startNanos;
+            DEPTH.set(depth);
+            if (RECORDS_COUNT.incrementAndGet() <= MAX_RECORDS) {
+                Thread thread = Thread.currentThread();
+                RECORDS.add(new Record(name, thread.getName(), thread.getId(), depth, startNanos, duration));
+            }
+        }
+    }
+
+    public static final class Record {
+        private final String name;
+        private final String threadName;
+        private final long threadId;
+        private final int depth;
+        private final long startNanos;
+        private final long durationNanos;
+
+        Record(String name, String threadName, long threadId, int depth, long startNanos, long durationNanos) {
+            this.name = name;
+            this.threadName = threadName;
+            this.threadId = threadId;
+            this.depth = depth;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        /**
+         * Get nesting level of the phase in the thread
+         *
+         * @return 0 for the top level phase
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Get start of the phase
+         *
+         * @return nanoseconds from the JVM start
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Record{" +
+                    "name='" + name + '\'' +
+                    ", thread='" + threadName + '\'' +
+                    ", startNanos=" + startNanos +
+                    ", durationNanos=" + durationNanos +
+                    '}';
+        }
+    }
+}
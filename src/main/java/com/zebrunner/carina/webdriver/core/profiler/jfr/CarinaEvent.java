@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import org.apiguardian.api.API;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the Java Flight Recorder events of carina, so driver commands, waits, element actions etc. could be correlated
+ * with GC, allocation and thread data of the same recording.<br>
+ * Events are disabled by default (an instrumented no-op when disabled, values that are expensive to compute are calculated only
+ * when {@link #isEnabled()}). JFR does not support wildcards in event names, so every event should be enabled by its name:
+ * {@code com.zebrunner.carina.DriverCommand}, {@code com.zebrunner.carina.DriverLifecycle}, {@code com.zebrunner.carina.ElementAction},
+ * {@code com.zebrunner.carina.Screenshot} and {@code com.zebrunner.carina.Wait}. To record them (JDK 17+):
+ *
+ * <pre>
+ * -XX:StartFlightRecording:filename=run.jfr,+com.zebrunner.carina.DriverCommand#enabled=true,+com.zebrunner.carina.Wait#enabled=true
+ * </pre>
+ *
+ * or in code, by name or by class:
+ *
+ * <pre>
+ * recording.enable("com.zebrunner.carina.DriverCommand");
+ * recording.enable(WaitEvent.class);
+ * </pre>
+ *
+ * or create custom settings by {@code jfr configure} / JDK Mission Control with the events of the {@code Carina} category enabled.
+ */
+@API(status = API.Status.INTERNAL)
+@Category({ "Carina" })
+@Enabled(false)
+@StackTrace(false)
+public abstract class CarinaEvent extends Event {
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import org.apiguardian.api.API;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Execution of the W3C command by the command executor, including retries
+ */
+@API(status = API.Status.INTERNAL)
+@Name("com.zebrunner.carina.DriverCommand")
+@Label("Driver Command")
+@Description("W3C command executed by the command executor")
+public final class DriverCommandEvent extends CarinaEvent {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("HTTP Exchanges")
+    @Description("Number of the HTTP requests sent for the command (more than one when command is retried)")
+    public int exchanges;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Error")
+    public boolean error;
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import org.apiguardian.api.API;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creation or quit of the driver by {@link com.zebrunner.carina.webdriver.IDriverPool}
+ */
+@API(status = API.Status.INTERNAL)
+@Name("com.zebrunner.carina.DriverLifecycle")
+@Label("Driver Lifecycle")
+@Description("Driver creation or quit")
+public final class DriverLifecycleEvent extends CarinaEvent {
+    public static final String CREATE = "create";
+    public static final String QUIT = "quit";
+
+    @Label("Operation")
+    @Description("create or quit")
+    public String operation;
+
+    @Label("Driver Name")
+    public String name;
+
+    @Label("Attempts")
+    @Description("Number of the driver creation attempts")
+    public int attempts;
+
+    @Label("Warm Session")
+    @Description("True if driver was taken from the warm pool")
+    public boolean warm;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import org.apiguardian.api.API;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Action on the {@link com.zebrunner.carina.webdriver.decorator.ExtendedWebElement} split into the phases: wait of the element
+ * condition, search of the element and the action itself
+ */
+@API(status = API.Status.INTERNAL)
+@Name("com.zebrunner.carina.ElementAction")
+@Label("Element Action")
+@Description("Action on the ExtendedWebElement")
+public final class ElementActionEvent extends CarinaEvent {
+
+    @Label("Action")
+    public String action;
+
+    @Label("Element")
+    public String element;
+
+    @Label("Condition Verified")
+    @Description("False if element did not satisfy the wait condition in time")
+    public boolean conditionVerified;
+
+    @Label("Wait Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waitDuration;
+
+    @Label("Find Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long findDuration;
+
+    @Label("Action Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long actionDuration;
+
+    @Label("Stale Element Retry")
+    @Description("True if element was found again after StaleElementReferenceException")
+    public boolean staleElementRetry;
+}
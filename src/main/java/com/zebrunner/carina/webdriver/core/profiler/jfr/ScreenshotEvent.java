@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import org.apiguardian.api.API;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Screenshot captured by {@link com.zebrunner.carina.webdriver.Screenshot#capture}, split into the capture (driver) and
+ * the processing (resize, write, upload) phases
+ */
+@API(status = API.Status.INTERNAL)
+@Name("com.zebrunner.carina.Screenshot")
+@Label("Screenshot")
+@Description("Screenshot capturing and processing")
+public final class ScreenshotEvent extends CarinaEvent {
+
+    @Label("Screenshot Type")
+    public String screenshotType;
+
+    @Label("Full Size")
+    public boolean fullSize;
+
+    @Label("Capture Duration")
+    @Description("Time of taking the screenshot by the driver")
+    @Timespan(Timespan.NANOSECONDS)
+    public long captureDuration;
+
+    @Label("Processing Duration")
+    @Description("Time of resizing, writing and uploading the screenshot")
+    @Timespan(Timespan.NANOSECONDS)
+    public long processingDuration;
+
+    @Label("Success")
+    public boolean success;
+}
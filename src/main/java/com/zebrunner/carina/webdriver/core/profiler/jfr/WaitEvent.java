@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import org.apiguardian.api.API;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Explicit wait of the condition by {@link com.zebrunner.carina.webdriver.helper.IWaitHelper#waitUntil}
+ */
+@API(status = API.Status.INTERNAL)
+@Name("com.zebrunner.carina.Wait")
+@Label("Wait")
+@Description("Wait until the condition happens")
+public final class WaitEvent extends CarinaEvent {
+
+    @Label("Condition")
+    public String condition;
+
+    @Label("Timeout")
+    @Timespan(Timespan.MILLISECONDS)
+    public long timeout;
+
+    @Label("Polling Interval")
+    @Timespan(Timespan.MILLISECONDS)
+    public long interval;
+
+    @Label("Polls")
+    @Description("Number of the condition evaluations")
+    public int polls;
+
+    @Label("Success")
+    @Description("False if condition did not happen in time")
+    public boolean success;
+}
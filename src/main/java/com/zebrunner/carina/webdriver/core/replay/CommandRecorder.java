@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.replay;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.apiguardian.api.API;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes HTTP exchanges of the command executors (one json object per line) to the file, that could be replayed by
+ * {@link ReplayHttpClientFactory}. Exchanges of all sessions are written to the same file in the order of completion.
+ */
+@API(status = API.Status.INTERNAL)
+public final class CommandRecorder implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Path file;
+    private final Writer writer;
+    private int count = 0;
+    private boolean closed = false;
+
+    /**
+     * @param file file to record to, it is gzipped if its name ends with {@code .gz}
+     * @throws UncheckedIOException if file could not be created
+     */
+    public CommandRecorder(Path file) {
+        this.file = file;
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            OutputStream out = Files.newOutputStream(file);
+            if (file.getFileName().toString().endsWith(".gz")) {
+                out = new GZIPOutputStream(out);
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create command record file: " + file, e);
+        }
+    }
+
+    /**
+     * Wrap the factory, so exchanges of its clients are recorded
+     *
+     * @param factory {@link HttpClient.Factory}
+     * @return {@link HttpClient.Factory}
+     */
+    public HttpClient.Factory wrap(HttpClient.Factory factory) {
+        return new HttpClient.Factory() {
+            @Override
+            public HttpClient createClient(ClientConfig config) {
+                return new RecordingClient(factory.createClient(config));
+            }
+
+            @Override
+            public void cleanupIdleClients() {
+                factory.cleanupIdleClients();
+            }
+        };
+    }
+
+    synchronized void record(RecordedExchange exchange) {
+        if (closed) {
+            return;
+        }
+        try {
+            writer.write(exchange.toJson().toString());
+            writer.write('\n');
+            count++;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to record command to the '{}'. Message: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.close();
+            LOGGER.info("{} commands recorded to the '{}'.", count, file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close command record file '{}'. Message: {}", file, e.getMessage());
+        }
+    }
+
+    private final class RecordingClient implements HttpClient {
+        private final HttpClient delegate;
+
+        private RecordingClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            long start = System.nanoTime();
+            HttpResponse response = delegate.execute(request);
+            long wireNanos = System.nanoTime() - start;
+            // content of the requests and responses is kept in memory by the command executor, so it could be read again
+            record(new RecordedExchange(request.getMethod().toString(), request.getUri(), Contents.string(request),
+                    response.getStatus(), Contents.string(response), wireNanos));
+            return response;
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return delegate.openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.replay;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.apiguardian.api.API;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * Record/replay of the driver commands on the HTTP level of the command executors, for the offline performance regression testing
+ * of the framework itself (waits, lists, page initialization etc.):
+ * <ul>
+ * <li>{@link WebDriverConfiguration.Parameter#COMMAND_RECORD_FILE} - every command, its response and the time on the wire are
+ * written to the file by {@link CommandRecorder}</li>
+ * <li>{@link WebDriverConfiguration.Parameter#COMMAND_REPLAY_FILE} - recorded responses are served by
+ * {@link ReplayHttpClientFactory} without the hub, browser or device, with {@link Latency latency} from the
+ * {@link WebDriverConfiguration.Parameter#COMMAND_REPLAY_LATENCY}. Selenium url should still be set, but it is not used.</li>
+ * </ul>
+ * Both executors ({@link com.zebrunner.carina.webdriver.listener.EventFiringSeleniumCommandExecutor},
+ * {@link com.zebrunner.carina.webdriver.listener.EventFiringAppiumCommandExecutor}) are supported, as the commands are encoded and
+ * the responses are decoded by the executors as usual.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class CommandReplay {
+    private static CommandRecorder recorder;
+    private static ReplayHttpClientFactory replayFactory;
+
+    private CommandReplay() {
+        // hide
+    }
+
+    public enum Latency {
+        /**
+         * Responses are returned immediately
+         */
+        ZERO,
+        /**
+         * Responses are returned after the recorded time on the wire
+         */
+        RECORDED
+    }
+
+    /**
+     * Wrap HTTP client factory of the command executor according to the configuration
+     *
+     * @param factory {@link HttpClient.Factory} that sends commands to the hub
+     * @return factory that serves recorded responses if replay is enabled, factory that records exchanges if recording is enabled,
+     *         or the factory itself
+     */
+    public static HttpClient.Factory wrap(HttpClient.Factory factory) {
+        if (Configuration.get(WebDriverConfiguration.Parameter.COMMAND_REPLAY_FILE).isPresent()) {
+            return getReplayFactory();
+        }
+        Optional<CommandRecorder> commandRecorder = getRecorder();
+        return commandRecorder.isPresent() ? commandRecorder.get().wrap(factory) : factory;
+    }
+
+    private static synchronized ReplayHttpClientFactory getReplayFactory() {
+        if (replayFactory == null) {
+            replayFactory = new ReplayHttpClientFactory(
+                    Path.of(Configuration.getRequired(WebDriverConfiguration.Parameter.COMMAND_REPLAY_FILE)),
+                    Latency.valueOf(Configuration.getRequired(WebDriverConfiguration.Parameter.COMMAND_REPLAY_LATENCY)
+                            .toUpperCase(Locale.ROOT)));
+        }
+        return replayFactory;
+    }
+
+    private static synchronized Optional<CommandRecorder> getRecorder() {
+        if (recorder == null) {
+            Optional<String> file = Configuration.get(WebDriverConfiguration.Parameter.COMMAND_RECORD_FILE);
+            if (file.isEmpty()) {
+                return Optional.empty();
+            }
+            recorder = new CommandRecorder(Path.of(file.get()));
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::close, "carina-command-recorder-shutdown"));
+        }
+        return Optional.of(recorder);
+    }
+}
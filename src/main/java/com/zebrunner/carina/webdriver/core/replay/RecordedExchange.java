@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.replay;
+
+import org.json.JSONObject;
+
+/**
+ * HTTP exchange of the command executor: W3C command (method, path and body) and its response with the time on the wire
+ */
+final class RecordedExchange {
+    private final String method;
+    private final String path;
+    private final String request;
+    private final int status;
+    private final String response;
+    private final long wireNanos;
+
+    RecordedExchange(String method, String path, String request, int status, String response, long wireNanos) {
+        this.method = method;
+        this.path = path;
+        this.request = request;
+        this.status = status;
+        this.response = response;
+        this.wireNanos = wireNanos;
+    }
+
+    static RecordedExchange fromJson(JSONObject json) {
+        return new RecordedExchange(json.getString("method"),
+                json.getString("path"),
+                json.optString("request", ""),
+                json.getInt("status"),
+                json.optString("response", ""),
+                json.optLong("nanos", 0));
+    }
+
+    JSONObject toJson() {
+        JSONObject json = new JSONObject()
+                .put("method", method)
+                .put("path", path)
+                .put("status", status)
+                .put("nanos", wireNanos);
+        if (!request.isEmpty()) {
+            json.put("request", request);
+        }
+        if (!response.isEmpty()) {
+            json.put("response", response);
+        }
+        return json;
+    }
+
+    /**
+     * Key of the command: method and path (with session and element ids)
+     */
+    String getKey() {
+        return method + " " + path;
+    }
+
+    String getRequest() {
+        return request;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    String getResponse() {
+        return response;
+    }
+
+    long getWireNanos() {
+        return wireNanos;
+    }
+}
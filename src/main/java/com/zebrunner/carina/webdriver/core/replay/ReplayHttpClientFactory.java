@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+
+import org.apiguardian.api.API;
+import org.json.JSONObject;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+/**
+ * {@link HttpClient.Factory} that serves responses recorded by {@link CommandRecorder} without the hub, browser or device.<br>
+ * Responses are matched by the method and path of the request (session and element ids are the recorded ones, as they are
+ * returned by the replayed responses). Responses of the same command are served in the recorded order, preferring the ones with
+ * the same request body. When recorded responses of the command are exhausted, the last one is repeated (for example,
+ * additional polls of the wait). Command that was not recorded fails with {@code unknown command} error.<br>
+ * Clients of the same factory share the recording, so sessions are replayed in the recorded order.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class ReplayHttpClientFactory implements HttpClient.Factory {
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final Map<String, Track> tracks;
+    private final CommandReplay.Latency latency;
+
+    /**
+     * @param file file recorded by the {@link CommandRecorder}
+     * @param latency latency of the responses
+     * @throws UncheckedIOException if file could not be read
+     */
+    public ReplayHttpClientFactory(Path file, CommandReplay.Latency latency) {
+        this.latency = Objects.requireNonNull(latency);
+        Map<String, List<RecordedExchange>> exchanges = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank()) {
+                    RecordedExchange exchange = RecordedExchange.fromJson(new JSONObject(line));
+                    exchanges.computeIfAbsent(exchange.getKey(), key -> new ArrayList<>()).add(exchange);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read command record file: " + file, e);
+        }
+        Map<String, Track> tracks = new HashMap<>();
+        exchanges.forEach((key, list) -> tracks.put(key, new Track(list)));
+        this.tracks = Collections.unmodifiableMap(tracks);
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new ReplayClient();
+    }
+
+    @Override
+    public void cleanupIdleClients() {
+        // there are no connections
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long left = nanos; left > 0; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recorded exchanges of one command
+     */
+    private static final class Track {
+        private final List<RecordedExchange> exchanges;
+        private int cursor = 0;
+
+        private Track(List<RecordedExchange> exchanges) {
+            this.exchanges = exchanges;
+        }
+
+        private synchronized RecordedExchange next(String request) {
+            for (int i = cursor; i < exchanges.size(); i++) {
+                if (exchanges.get(i).getRequest().equals(request)) {
+                    cursor = i + 1;
+                    return exchanges.get(i);
+                }
+            }
+            if (cursor < exchanges.size()) {
+                return exchanges.get(cursor++);
+            }
+            return exchanges.get(exchanges.size() - 1);
+        }
+    }
+
+    private final class ReplayClient implements HttpClient {
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            String key = request.getMethod() + " " + request.getUri();
+            Track track = tracks.get(key);
+            if (track == null) {
+                return new HttpResponse()
+                        .setStatus(HttpURLConnection.HTTP_NOT_FOUND)
+                        .addHeader("Content-Type", JSON_CONTENT_TYPE)
+                        .setContent(Contents.asJson(Map.of("value", Map.of(
+                                "error", "unknown command",
+                                "message", "Command was not recorded: " + key,
+                                "stacktrace", ""))));
+            }
+            RecordedExchange exchange = track.next(Contents.string(request));
+            if (latency == CommandReplay.Latency.RECORDED) {
+                pause(exchange.getWireNanos());
+            }
+            return new HttpResponse()
+                    .setStatus(exchange.getStatus())
+                    .addHeader("Content-Type", JSON_CONTENT_TYPE)
+                    .setContent(Contents.utf8String(exchange.getResponse()));
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            throw new UnsupportedOperationException("Web sockets are not supported by the command replay.");
+        }
+
+        @Override
+        public void close() {
+            // shared recording is not closed
+        }
+    }
+}
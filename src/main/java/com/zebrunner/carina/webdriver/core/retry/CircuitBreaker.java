@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.retry;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.exception.CircuitBreakerOpenException;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * Circuit breaker of the new session requests to the hub.<br>
+ * After {@link WebDriverConfiguration.Parameter#HUB_CIRCUIT_BREAKER_THRESHOLD} consecutive failures circuit is opened and
+ * new sessions fail fast during {@link WebDriverConfiguration.Parameter#HUB_CIRCUIT_BREAKER_OPEN_TIME}. Then circuit becomes half-open:
+ * one probe request is allowed, it closes the circuit on success or opens it again on failure.<br>
+ * Only failures of the hub are counted, see {@link #isHubFailure(Throwable)}. Circuit breakers are used by the
+ * {@link com.zebrunner.carina.webdriver.core.hub.HubBalancer.Lease} of the hub the session is requested from.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class CircuitBreaker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String LOCAL_HUB = "local";
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String hub;
+    private final int threshold;
+    private final long openTimeNanos;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtNanos;
+    private boolean probeInProgress = false;
+
+    private final LongAdder openedCount = new LongAdder();
+    private final LongAdder halfOpenedCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param hub hub url
+     * @param threshold number of consecutive failures to open the circuit, {@code 0} or less to disable circuit breaker
+     * @param openTime time during which requests are rejected
+     */
+    public CircuitBreaker(String hub, int threshold, Duration openTime) {
+        this(hub, threshold, openTime, System::nanoTime);
+    }
+
+    CircuitBreaker(String hub, int threshold, Duration openTime, LongSupplier clock) {
+        this.hub = hub;
+        this.threshold = threshold;
+        this.openTimeNanos = openTime.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Get circuit breaker of the hub
+     *
+     * @param seleniumHost hub url, or null for {@link WebDriverConfiguration.Parameter#SELENIUM_URL}
+     * @return {@link CircuitBreaker}
+     */
+    public static CircuitBreaker forHub(@Nullable String seleniumHost) {
+        String hub = seleniumHost != null ? seleniumHost
+                : Configuration.get(WebDriverConfiguration.Parameter.SELENIUM_URL).orElse(LOCAL_HUB);
+        return BREAKERS.computeIfAbsent(hub, url -> new CircuitBreaker(url,
+                Configuration.getRequired(WebDriverConfiguration.Parameter.HUB_CIRCUIT_BREAKER_THRESHOLD, Integer.class),
+                Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.HUB_CIRCUIT_BREAKER_OPEN_TIME, Long.class))));
+    }
+
+    /**
+     * Get circuit breakers of all hubs used in the run
+     *
+     * @return {@link Map} of hub urls and {@link CircuitBreaker}
+     */
+    public static Map<String, CircuitBreaker> getAll() {
+        return Map.copyOf(BREAKERS);
+    }
+
+    /**
+     * Check if new session request failed because of the hub: transport error (connection refused, timeout, truncated response etc.)
+     * or error response of the new session command ({@link SessionNotCreatedException}).
+     * Configuration and capabilities errors are not failures of the hub.
+     *
+     * @param error error of the new session request
+     * @return true if error should be counted as failure of the hub
+     */
+    public static boolean isHubFailure(Throwable error) {
+        for (Throwable throwable : ExceptionUtils.getThrowableList(error)) {
+            if (throwable instanceof SessionNotCreatedException
+                    || (throwable instanceof IOException && !(throwable instanceof MalformedURLException))) {
+                return true;
+            }
+        }
+        return CommandRetryPolicy.isTransient(error);
+    }
+
+    public boolean isEnabled() {
+        return threshold > 0;
+    }
+
+    /**
+     * Check if the request to the hub would be permitted by {@link #acquire()}, without taking the probe of the half-open circuit
+     *
+     * @return false if the circuit is open, or it is half-open and the probe request is in progress
+     */
+    public synchronized boolean isAllowed() {
+        if (!isEnabled() || state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            return clock.getAsLong() - openedAtNanos >= openTimeNanos;
+        }
+        return !probeInProgress;
+    }
+
+    /**
+     * Ask permission for the request to the hub
+     *
+     * @throws CircuitBreakerOpenException if circuit is open, or it is half-open and the probe request is in progress
+     */
+    public synchronized void acquire() {
+        if (!isEnabled() || state == State.CLOSED) {
+            return;
+        }
+        if (state == State.OPEN && clock.getAsLong() - openedAtNanos >= openTimeNanos) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN && !probeInProgress) {
+            probeInProgress = true;
+            return;
+        }
+        rejectedCount.increment();
+        throw new CircuitBreakerOpenException(String.format("Circuit breaker of the hub '%s' is %s after %d consecutive failures, "
+                + "new session request is rejected.", hub, state, consecutiveFailures));
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInProgress = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * New session request failed. Error is counted only if it is failure of the hub, see {@link #isHubFailure(Throwable)}
+     *
+     * @param error error of the new session request
+     */
+    public synchronized void onFailure(Throwable error) {
+        if (isHubFailure(error)) {
+            onFailure();
+        } else {
+            // probe request did not reach the hub, so the next request could be the probe
+            probeInProgress = false;
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (!isEnabled()) {
+            return;
+        }
+        consecutiveFailures++;
+        probeInProgress = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= threshold)) {
+            openedAtNanos = clock.getAsLong();
+            transition(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getHub() {
+        return hub;
+    }
+
+    /**
+     * @return number of transitions to the {@link State#OPEN} state
+     */
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    /**
+     * @return number of transitions to the {@link State#HALF_OPEN} state
+     */
+    public long getHalfOpenedCount() {
+        return halfOpenedCount.sum();
+    }
+
+    /**
+     * @return number of transitions to the {@link State#CLOSED} state
+     */
+    public long getClosedCount() {
+        return closedCount.sum();
+    }
+
+    /**
+     * @return number of requests rejected because circuit was open
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    private void transition(State newState) {
+        LOGGER.warn("Circuit breaker of the hub '{}': {} -> {}", hub, state, newState);
+        state = newState;
+        switch (newState) {
+        case OPEN:
+            openedCount.increment();
+            break;
+        case HALF_OPEN:
+            halfOpenedCount.increment();
+            break;
+        default:
+            closedCount.increment();
+            break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+                "hub='" + hub + '\'' +
+                ", state=" + getState() +
+                ", opened=" + getOpenedCount() +
+                ", halfOpened=" + getHalfOpenedCount() +
+                ", closed=" + getClosedCount() +
+                ", rejected=" + getRejectedCount() +
+                '}';
+    }
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.retry;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.JsonException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.openqa.selenium.remote.http.ConnectionFailedException;
+
+import com.zebrunner.carina.utils.commons.SpecialKeywords;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * Retry policy of the driver commands:
+ * <ul>
+ * <li>only idempotent commands (reads, finds, status etc., see {@link #isIdempotent(String)}) are retried, so {@code newSession},
+ * {@code click}, {@code sendKeys} etc. are never sent twice</li>
+ * <li>only transient errors are retried, they are recognized by the exception type (see {@link #isTransient(Object)})</li>
+ * <li>every session has a budget of {@link WebDriverConfiguration.Parameter#COMMAND_RETRY_BUDGET} retries</li>
+ * <li>retries of one command are limited by {@link #MAX_RETRIES} and {@link WebDriverConfiguration.Parameter#COMMAND_RETRY_DEADLINE},
+ * pause between them is an exponential backoff with full jitter</li>
+ * </ul>
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class CommandRetryPolicy {
+    public static final int MAX_RETRIES = 2;
+    private static final Duration BASE_DELAY = Duration.ofMillis(500);
+
+    private static final Set<String> IDEMPOTENT_COMMANDS = Set.of(
+            DriverCommand.STATUS,
+            DriverCommand.GET_ALL_SESSIONS,
+            DriverCommand.GET_CAPABILITIES,
+            DriverCommand.GET_CURRENT_URL,
+            DriverCommand.GET_TITLE,
+            DriverCommand.GET_PAGE_SOURCE,
+            DriverCommand.GET_CURRENT_WINDOW_HANDLE,
+            DriverCommand.GET_WINDOW_HANDLES,
+            DriverCommand.GET_CURRENT_CONTEXT_HANDLE,
+            DriverCommand.GET_CONTEXT_HANDLES,
+            DriverCommand.GET_CURRENT_WINDOW_SIZE,
+            DriverCommand.GET_CURRENT_WINDOW_POSITION,
+            DriverCommand.GET_ACTIVE_ELEMENT,
+            DriverCommand.GET_ALL_COOKIES,
+            DriverCommand.GET_COOKIE,
+            DriverCommand.GET_TIMEOUTS,
+            DriverCommand.SET_TIMEOUT,
+            DriverCommand.IMPLICITLY_WAIT,
+            DriverCommand.SET_SCRIPT_TIMEOUT,
+            DriverCommand.GET_ALERT_TEXT,
+            DriverCommand.GET_SCREEN_ORIENTATION,
+            DriverCommand.GET_SCREEN_ROTATION,
+            DriverCommand.GET_AVAILABLE_LOG_TYPES,
+            DriverCommand.FIND_ELEMENT,
+            DriverCommand.FIND_ELEMENTS,
+            DriverCommand.FIND_CHILD_ELEMENT,
+            DriverCommand.FIND_CHILD_ELEMENTS,
+            DriverCommand.GET_ELEMENT_SHADOW_ROOT,
+            DriverCommand.FIND_ELEMENT_FROM_SHADOW_ROOT,
+            DriverCommand.FIND_ELEMENTS_FROM_SHADOW_ROOT,
+            DriverCommand.GET_ELEMENT_TEXT,
+            DriverCommand.GET_ELEMENT_TAG_NAME,
+            DriverCommand.IS_ELEMENT_SELECTED,
+            DriverCommand.IS_ELEMENT_ENABLED,
+            DriverCommand.IS_ELEMENT_DISPLAYED,
+            DriverCommand.GET_ELEMENT_RECT,
+            DriverCommand.GET_ELEMENT_LOCATION,
+            DriverCommand.GET_ELEMENT_SIZE,
+            DriverCommand.GET_ELEMENT_DOM_PROPERTY,
+            DriverCommand.GET_ELEMENT_DOM_ATTRIBUTE,
+            DriverCommand.GET_ELEMENT_ATTRIBUTE,
+            DriverCommand.GET_ELEMENT_VALUE_OF_CSS_PROPERTY,
+            DriverCommand.GET_ELEMENT_ARIA_ROLE,
+            DriverCommand.GET_ELEMENT_ACCESSIBLE_NAME,
+            DriverCommand.ELEMENT_EQUALS,
+            DriverCommand.SCREENSHOT,
+            DriverCommand.ELEMENT_SCREENSHOT);
+
+    /**
+     * Transport errors after which the command could be sent again
+     */
+    private static final List<Class<? extends Throwable>> TRANSIENT_ERRORS = List.of(
+            ConnectException.class,
+            NoRouteToHostException.class,
+            SocketTimeoutException.class,
+            ClosedChannelException.class,
+            ConnectionFailedException.class,
+            UnreachableBrowserException.class,
+            // truncated or empty response body
+            JsonException.class);
+
+    /**
+     * Errors of the grid and drivers that are returned as plain {@link WebDriverException} ({@code unknown error}),
+     * so they could be recognized only by the message
+     */
+    private static final List<String> TRANSIENT_UNKNOWN_ERRORS = List.of(
+            SpecialKeywords.DRIVER_CONNECTION_REFUSED,
+            SpecialKeywords.DRIVER_TARGET_FRAME_DETACHED);
+
+    private static CommandRetryPolicy instance;
+
+    private final RetryPolicy backoff;
+    private final Duration deadline;
+    private final int sessionBudget;
+    private final Map<SessionId, AtomicInteger> budgets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> retries = new ConcurrentHashMap<>();
+    private final LongAdder exhaustedBudgets = new LongAdder();
+
+    /**
+     * @param baseDelay delay before the first retry (upper bound of the random value)
+     * @param deadline max time spent on the retries of one command
+     * @param sessionBudget max number of the retries per session
+     */
+    public CommandRetryPolicy(Duration baseDelay, Duration deadline, int sessionBudget) {
+        this.backoff = new RetryPolicy(baseDelay, deadline, 0);
+        this.deadline = deadline;
+        this.sessionBudget = sessionBudget;
+    }
+
+    public static synchronized CommandRetryPolicy getInstance() {
+        if (instance == null) {
+            instance = new CommandRetryPolicy(BASE_DELAY,
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.COMMAND_RETRY_DEADLINE, Integer.class)),
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.COMMAND_RETRY_BUDGET, Integer.class));
+        }
+        return instance;
+    }
+
+    /**
+     * Check if command could be safely sent again
+     *
+     * @param commandName name of the command, see {@link DriverCommand}
+     * @return true if command has no side effects (or repeating it gives the same result)
+     */
+    public static boolean isIdempotent(String commandName) {
+        return IDEMPOTENT_COMMANDS.contains(commandName);
+    }
+
+    /**
+     * Check if error is transient (connection refused, connection timed out, truncated response etc.)
+     *
+     * @param error exception thrown by the command executor or value of the response
+     * @return true if command failed by the transient error
+     */
+    public static boolean isTransient(Object error) {
+        if (!(error instanceof Throwable)) {
+            return false;
+        }
+        for (Throwable throwable : ExceptionUtils.getThrowableList((Throwable) error)) {
+            if (throwable instanceof UncheckedIOException) {
+                continue;
+            }
+            for (Class<? extends Throwable> transientError : TRANSIENT_ERRORS) {
+                if (transientError.isInstance(throwable)) {
+                    return true;
+                }
+            }
+            if (throwable.getClass() == WebDriverException.class && throwable.getMessage() != null) {
+                String message = throwable.getMessage();
+                if (TRANSIENT_UNKNOWN_ERRORS.stream().anyMatch(message::contains)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Take retry from the session budget and sleep before it
+     *
+     * @param command failed command
+     * @param attempt number of the retry, starting from 1
+     * @param startNanos {@link System#nanoTime()} of the first attempt of the command
+     * @return true if command could be retried, false if it should fail: retries or deadline are exceeded, session
+     *         budget is exhausted or thread is interrupted
+     */
+    public boolean retry(Command command, int attempt, long startNanos) {
+        if (attempt > MAX_RETRIES) {
+            return false;
+        }
+        long remainingMillis = deadline.minusNanos(System.nanoTime() - startNanos).toMillis();
+        if (remainingMillis <= 0) {
+            return false;
+        }
+        if (command.getSessionId() != null) {
+            AtomicInteger budget = budgets.computeIfAbsent(command.getSessionId(), id -> new AtomicInteger(sessionBudget));
+            if (budget.getAndUpdate(value -> Math.max(value - 1, 0)) <= 0) {
+                exhaustedBudgets.increment();
+                return false;
+            }
+        }
+        retries.computeIfAbsent(command.getName(), name -> new LongAdder())
+                .increment();
+        try {
+            Thread.sleep(Math.min(backoff.getDelay(attempt).toMillis(), remainingMillis));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Forget the budget of the closed session
+     *
+     * @param sessionId id of the session
+     */
+    public void release(SessionId sessionId) {
+        if (sessionId != null) {
+            budgets.remove(sessionId);
+        }
+    }
+
+    /**
+     * Get number of the retries per command name
+     *
+     * @return sorted map, command name - number of the retries
+     */
+    public Map<String, Long> getRetries() {
+        Map<String, Long> result = new TreeMap<>();
+        retries.forEach((name, counter) -> result.put(name, counter.sum()));
+        return result;
+    }
+
+    /**
+     * Get number of the retries rejected because the session budget was exhausted
+     *
+     * @return number of the rejected retries
+     */
+    public long getExhaustedBudgets() {
+        return exhaustedBudgets.sum();
+    }
+}
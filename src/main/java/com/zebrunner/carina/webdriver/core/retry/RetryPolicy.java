@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apiguardian.api.API;
+
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+/**
+ * Retry policy shared by all threads: exponential backoff with full jitter and global retry budget.<br>
+ * Delay before the retry {@code n} is a random value between {@code 0} and {@code min(maxDelay, baseDelay * 2^(n - 1))},
+ * so parallel threads do not retry in lockstep. Retry budget is a token bucket with {@link WebDriverConfiguration.Parameter#INIT_RETRY_BUDGET}
+ * tokens refilled during a minute: when it is empty, callers should fail instead of retrying.
+ */
+@API(status = API.Status.EXPERIMENTAL)
+public final class RetryPolicy {
+    private static final long BUDGET_PERIOD_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static RetryPolicy instance;
+
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final int budget;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param baseDelay delay before the first retry (upper bound of the random value)
+     * @param maxDelay max delay before the retry
+     * @param budget max number of retries per minute for all threads, {@code 0} or less for unlimited
+     */
+    public RetryPolicy(Duration baseDelay, Duration maxDelay, int budget) {
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay.compareTo(baseDelay) < 0 ? baseDelay : maxDelay;
+        this.budget = budget;
+        this.tokens = budget;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Get policy for the driver initialization retries
+     *
+     * @return {@link RetryPolicy}
+     */
+    public static synchronized RetryPolicy getInstance() {
+        if (instance == null) {
+            instance = new RetryPolicy(
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.INIT_RETRY_INTERVAL, Integer.class)),
+                    Duration.ofSeconds(Configuration.getRequired(WebDriverConfiguration.Parameter.INIT_RETRY_MAX_INTERVAL, Integer.class)),
+                    Configuration.getRequired(WebDriverConfiguration.Parameter.INIT_RETRY_BUDGET, Integer.class));
+        }
+        return instance;
+    }
+
+    /**
+     * Get delay before the retry
+     *
+     * @param attempt number of the retry, starting from 1
+     * @return {@link Duration}
+     */
+    public Duration getDelay(int attempt) {
+        return getDelay(attempt, maxDelay);
+    }
+
+    /**
+     * Get delay before the retry limited by custom max delay
+     *
+     * @param attempt number of the retry, starting from 1
+     * @param maxDelay max delay before the retry
+     * @return {@link Duration}
+     */
+    public Duration getDelay(int attempt, Duration maxDelay) {
+        long base = baseDelay.toMillis();
+        long cap = maxDelay.toMillis();
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long bound = base > (cap >> shift) ? cap : base << shift;
+        return Duration.ofMillis(bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    /**
+     * Take one retry from the global budget
+     *
+     * @return true if retry is allowed, false if budget is exhausted
+     */
+    public synchronized boolean tryAcquire() {
+        if (budget <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(budget, tokens + (double) (now - lastRefillNanos) * budget / BUDGET_PERIOD_NANOS);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Take retry from the budget and sleep before it
+     *
+     * @param attempt number of the retry, starting from 1
+     * @return true if caller could retry, false if retry budget is exhausted or thread is interrupted
+     */
+    public boolean backoff(int attempt) {
+        if (!tryAcquire()) {
+            return false;
+        }
+        try {
+            Thread.sleep(getDelay(attempt).toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -33,7 +33,10 @@ import org.openqa.selenium.support.pagefactory.FieldDecorator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
 import com.zebrunner.carina.webdriver.gui.AbstractPage;
+import com.zebrunner.carina.webdriver.gui.AbstractUIObject;
 import com.zebrunner.carina.webdriver.helper.IExtendedWebElementHelper;
 import com.zebrunner.carina.webdriver.locator.ExtendedElementLocator;
 import com.zebrunner.carina.webdriver.locator.converter.LocatorConverter;
@@ -43,10 +46,22 @@ public class ExtendedFieldDecorator implements FieldDecorator, IExtendedWebEleme
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private final ElementLocatorFactory locatorFactory;
     private final WebDriver driver;
+    private final boolean lazy;
 
     public ExtendedFieldDecorator(ElementLocatorFactory locatorFactory, WebDriver driver) {
+        this(locatorFactory, driver, Configuration.get(WebDriverConfiguration.Parameter.LAZY_DECORATION, Boolean.class).orElse(false));
+    }
+
+    /**
+     * @param locatorFactory {@link ElementLocatorFactory}
+     * @param driver {@link WebDriver}
+     * @param lazy if true, {@link AbstractUIObject} fields will be created as placeholders, whose own fields
+     *            will be initialized on the first method call (see {@link LazyUIObjectFactory})
+     */
+    public ExtendedFieldDecorator(ElementLocatorFactory locatorFactory, WebDriver driver, boolean lazy) {
         this.locatorFactory = locatorFactory;
         this.driver = driver;
+        this.lazy = lazy;
     }
 
     @Override
@@ -82,8 +97,15 @@ public class ExtendedFieldDecorator implements FieldDecorator, IExtendedWebEleme
 
         if (ClassUtils.isAssignable(fieldType, ExtendedWebElement.class)) {
             try {
-                ExtendedWebElement element;
-                if (ConstructorUtils.getAccessibleConstructor(fieldType, WebDriver.class, SearchContext.class) != null) {
+                ExtendedWebElement element = null;
+                if (lazy && AbstractUIObject.class.isAssignableFrom(fieldType)) {
+                    element = LazyUIObjectFactory.create((Class<? extends AbstractUIObject>) fieldType, locator.getDriver(),
+                            locator.getSearchContext())
+                            .orElse(null);
+                }
+                if (element != null) {
+                    LOGGER.debug("Initialization of '{}' field elements is deferred.", field.getName());
+                } else if (ConstructorUtils.getAccessibleConstructor(fieldType, WebDriver.class, SearchContext.class) != null) {
                     element = (ExtendedWebElement) ConstructorUtils.invokeConstructor(fieldType,
                             new Object[] { locator.getDriver(), locator.getSearchContext() },
                             new Class<?>[] { WebDriver.class, SearchContext.class });
@@ -40,7 +40,6 @@ import org.apache.commons.lang3.reflect.ConstructorUtils;
 import org.hamcrest.BaseMatcher;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
-import org.openqa.selenium.HasCapabilities;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.NoSuchElementException;
@@ -75,8 +74,8 @@ import com.zebrunner.carina.utils.messager.Messager;
 import com.zebrunner.carina.utils.performance.ACTION_NAME;
 import com.zebrunner.carina.utils.resources.L10N;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
-import com.zebrunner.carina.webdriver.core.capability.CapabilityUtils;
-import com.zebrunner.carina.webdriver.core.capability.DriverType;
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
+import com.zebrunner.carina.webdriver.core.profiler.jfr.ElementActionEvent;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 
 import javax.annotation.Nullable;
@@ -992,7 +991,7 @@ public class ExtendedWebElement implements IWebElement, WebElement, IExtendedWeb
      * Useful for desktop with React
      */
     public void scrollTo() {
-        if (DriverType.MOBILE.equals(CapabilityUtils.getDriverType(((HasCapabilities) getDriver()).getCapabilities()))) {
+        if (SessionProfile.of(getDriver()).map(SessionProfile::isMobile).orElse(false)) {
             LOGGER.debug("scrollTo javascript is unsupported for mobile devices!");
             return;
         }
@@ -1411,13 +1410,20 @@ public class ExtendedWebElement implements IWebElement, WebElement, IExtendedWeb
             Object... inputArgs) {
         clearElementState();
 
+        ElementActionEvent event = new ElementActionEvent();
+        event.begin();
+        long phaseStartNanos = System.nanoTime();
+        boolean conditionVerified = true;
         if (waitCondition != null) {
             // do verification only if waitCondition is not null
             if (!waitUntil(waitCondition, timeout)) {
+                conditionVerified = false;
                 // TODO: think about raising exception otherwise we do extra call and might wait and hangs especially for mobile/appium
                 LOGGER.error(Messager.ELEMENT_CONDITION_NOT_VERIFIED.getMessage(actionName.getKey(), getNameWithLocator()));
             }
         }
+        event.conditionVerified = conditionVerified;
+        event.waitDuration = System.nanoTime() - phaseStartNanos;
 
         if (isLocalized) {
             isLocalized = false; // single verification is enough for this particular element
@@ -1427,8 +1433,12 @@ public class ExtendedWebElement implements IWebElement, WebElement, IExtendedWeb
         Object output = null;
 
         try {
+            phaseStartNanos = System.nanoTime();
             this.element = findElement();
+            event.findDuration = System.nanoTime() - phaseStartNanos;
+            phaseStartNanos = System.nanoTime();
             output = overrideAction(actionName, inputArgs);
+            event.actionDuration = System.nanoTime() - phaseStartNanos;
         } catch (StaleElementReferenceException e) {
             // TODO: analyze mobile testing for staled elements. Potentially it should be fixed by appium java client already
             // sometime Appium instead printing valid StaleElementException generate java.lang.ClassCastException:
@@ -1438,11 +1448,23 @@ public class ExtendedWebElement implements IWebElement, WebElement, IExtendedWeb
             // [AS] do not try to refresh element if it created as part of list,
             // because it can find first element or different (not original) element - unexpected behaviour
             if (by != null) {
+                // durations of the retry replace the ones of the failed attempt
+                event.staleElementRetry = true;
+                phaseStartNanos = System.nanoTime();
                 this.element = this.findElement();
+                event.findDuration = System.nanoTime() - phaseStartNanos;
+                phaseStartNanos = System.nanoTime();
                 output = overrideAction(actionName, inputArgs);
+                event.actionDuration = System.nanoTime() - phaseStartNanos;
             } else {
                 throw e;
             }
+        } finally {
+            if (event.shouldCommit()) {
+                event.action = actionName.getKey();
+                event.element = getName();
+                event.commit();
+            }
         }
         return output;
     }
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.decorator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+import org.apiguardian.api.API;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zebrunner.carina.webdriver.gui.AbstractUIObject;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.SuperCall;
+import net.bytebuddy.implementation.bind.annotation.This;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * Creates {@link AbstractUIObject} placeholders which postpone initialization of their fields
+ * until the first call of any (non-final) method of the object.<br>
+ * Placeholder is a runtime subclass of the UI object class, so it could be assigned to the field of the original type.
+ * Fields of the placeholder are initialized in the same way as for regular UI object (including {@link com.zebrunner.carina.webdriver.locator.Context}
+ * resolution), so the only difference is that fields of the UI object should not be accessed directly (not through the methods)
+ * before the first method call.<br>
+ * <b>For internal usage only</b>
+ */
+@API(status = API.Status.INTERNAL)
+public final class LazyUIObjectFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final ThreadLocal<Boolean> DEFERRED_INITIALIZATION = new ThreadLocal<>();
+    /**
+     * Placeholder classes by UI object class. Empty value means that placeholder could not be created for class
+     */
+    private static final Map<Class<?>, Optional<Class<?>>> PLACEHOLDER_CLASSES = new ConcurrentHashMap<>();
+
+    private LazyUIObjectFactory() {
+        // hide
+    }
+
+    /**
+     * Create placeholder of UI object
+     *
+     * @param type UI object class
+     * @param driver {@link WebDriver}
+     * @param searchContext {@link SearchContext}
+     * @return {@link Optional} of UI object placeholder, or empty if placeholder could not be created for the class
+     * @throws ReflectiveOperationException if UI object constructor throws an exception
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends AbstractUIObject> Optional<T> create(Class<T> type, WebDriver driver, SearchContext searchContext)
+            throws ReflectiveOperationException {
+        Optional<Class<?>> placeholderClass = PLACEHOLDER_CLASSES.computeIfAbsent(type, LazyUIObjectFactory::makePlaceholderClass);
+        if (placeholderClass.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Constructor<?> constructor = ConstructorUtils.getAccessibleConstructor(placeholderClass.get(), WebDriver.class, SearchContext.class);
+        Object[] args = new Object[] { driver, searchContext };
+        if (constructor == null) {
+            constructor = ConstructorUtils.getAccessibleConstructor(placeholderClass.get(), WebDriver.class);
+            args = new Object[] { driver };
+        }
+        if (constructor == null) {
+            return Optional.empty();
+        }
+
+        DEFERRED_INITIALIZATION.set(Boolean.TRUE);
+        try {
+            return Optional.of((T) constructor.newInstance(args));
+        } finally {
+            DEFERRED_INITIALIZATION.remove();
+        }
+    }
+
+    /**
+     * Check if fields initialization should be deferred for UI object that is being created in the current thread.
+     * The flag is reset after the check, so it will not be applied to the UI objects created inside the constructor.
+     *
+     * @return true if initialization should be deferred, false otherwise
+     */
+    public static boolean consumeDeferredInitialization() {
+        boolean isDeferred = Boolean.TRUE.equals(DEFERRED_INITIALIZATION.get());
+        DEFERRED_INITIALIZATION.remove();
+        return isDeferred;
+    }
+
+    private static Optional<Class<?>> makePlaceholderClass(Class<?> type) {
+        if (Modifier.isFinal(type.getModifiers()) || Modifier.isAbstract(type.getModifiers())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new ByteBuddy()
+                    .subclass(type)
+                    .method(ElementMatchers.not(ElementMatchers.isDeclaredBy(Object.class))
+                            .and(ElementMatchers.not(ElementMatchers.isAbstract())))
+                    .intercept(MethodDelegation.to(Interceptor.class))
+                    .make()
+                    .load(type.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(MethodHandles.privateLookupIn(type, MethodHandles.lookup())))
+                    .getLoaded());
+        } catch (Exception | LinkageError e) {
+            LOGGER.debug("Cannot create lazy placeholder for '{}' class, it will be initialized eagerly. Message: {}", type.getName(),
+                    e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public static final class Interceptor {
+
+        private Interceptor() {
+            // hide
+        }
+
+        @RuntimeType
+        public static Object intercept(@This AbstractUIObject uiObject, @SuperCall Callable<?> method) throws Exception {
+            uiObject.initElementsIfDeferred();
+            return method.call();
+        }
+    }
+}
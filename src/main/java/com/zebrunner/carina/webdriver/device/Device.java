@@ -15,6 +15,8 @@
  *******************************************************************************/
 package com.zebrunner.carina.webdriver.device;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,6 +49,7 @@ import com.zebrunner.carina.utils.report.ReportContext;
 import com.zebrunner.carina.webdriver.IDriverPool;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
 import com.zebrunner.carina.webdriver.core.capability.CapabilityUtils;
+import com.zebrunner.carina.webdriver.core.http.ResponseStreaming;
 
 import io.appium.java_client.internal.CapabilityHelpers;
 import io.appium.java_client.remote.MobileCapabilityType;
@@ -627,17 +630,23 @@ public class Device implements IDriverPool {
             
             LOGGER.debug("UI dump generation...");
 
-            String pageSource = driver.getPageSource();
-            pageSource = pageSource.replaceAll(SpecialKeywords.ANDROID_START_NODE, SpecialKeywords.ANDROID_START_UIX_NODE).
-                    replaceAll(SpecialKeywords.ANDROID_END_NODE, SpecialKeywords.ANDROID_END_UIX_NODE);
             Path dumpFile = ReportContext.getTestDirectory()
                     .resolve(String.format("%s.uix", screenshotName.replace(".png", "")));
-            Path file = null;
-            try {
-                file = Files.writeString(dumpFile, pageSource, StandardCharsets.US_ASCII);
-            } catch (IOException e) {
-                LOGGER.warn("Error has been met during attempt to extract xml tree.", e);
-            }
+            // page source is streamed into the file line by line (nodes of the xml tree are on separate lines)
+            Path file = ResponseStreaming.pageSource(driver, pageSource -> {
+                BufferedReader reader = new BufferedReader(pageSource);
+                try (BufferedWriter writer = Files.newBufferedWriter(dumpFile, StandardCharsets.US_ASCII)) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        writer.write(line.replaceAll(SpecialKeywords.ANDROID_START_NODE, SpecialKeywords.ANDROID_START_UIX_NODE)
+                                .replaceAll(SpecialKeywords.ANDROID_END_NODE, SpecialKeywords.ANDROID_END_UIX_NODE));
+                        writer.write('\n');
+                    }
+                    return dumpFile;
+                } catch (IOException e) {
+                    LOGGER.warn("Error has been met during attempt to extract xml tree.", e);
+                    return null;
+                }
+            });
             LOGGER.debug("XML file path: {}", dumpFile);
             return Optional.ofNullable(file);
         } catch (Exception e) {
@@ -16,6 +16,7 @@
 package com.zebrunner.carina.webdriver.gui;
 
 import com.zebrunner.carina.webdriver.core.factory.ExtendedPageFactory;
+import org.apiguardian.api.API;
 import org.openqa.selenium.By;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.WebDriver;
@@ -29,9 +30,15 @@ import com.zebrunner.carina.utils.messager.Messager;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
 import com.zebrunner.carina.webdriver.decorator.ExtendedFieldDecorator;
 import com.zebrunner.carina.webdriver.decorator.ExtendedWebElement;
+import com.zebrunner.carina.webdriver.decorator.LazyUIObjectFactory;
 import com.zebrunner.carina.webdriver.locator.ExtendedElementLocatorFactory;
 
 public abstract class AbstractUIObject extends ExtendedWebElement {
+    private volatile boolean elementsInitialized = true;
+    /**
+     * Guards against re-entrant initialization from the methods called during the decoration of the fields
+     */
+    private boolean elementsInitializing = false;
 
     /**
      * Initializes UI object using {@link PageFactory}. Whole browser window is used as search context
@@ -60,9 +67,42 @@ public abstract class AbstractUIObject extends ExtendedWebElement {
     @SuppressWarnings("squid:S5993")
     public AbstractUIObject(WebDriver driver, SearchContext searchContext) {
         super(driver, searchContext);
-        ExtendedElementLocatorFactory factory = new ExtendedElementLocatorFactory(driver, this);
-        PageFactory.initElements(new ExtendedFieldDecorator(factory, driver), this);
-         ExtendedPageFactory.reinitElementsContext(this);
+        if (LazyUIObjectFactory.consumeDeferredInitialization()) {
+            // fields will be initialized on the first method call, see LazyUIObjectFactory
+            elementsInitialized = false;
+        } else {
+            initElements();
+        }
+    }
+
+    /**
+     * Initializes fields of the UI object if their initialization was deferred by lazy decoration.<br>
+     * <b>For internal usage only</b>
+     */
+    @API(status = API.Status.INTERNAL)
+    public final void initElementsIfDeferred() {
+        if (elementsInitialized) {
+            return;
+        }
+        synchronized (this) {
+            if (elementsInitialized || elementsInitializing) {
+                return;
+            }
+            elementsInitializing = true;
+            try {
+                initElements();
+                // object is initialized only if all fields are decorated, otherwise the next call fails with the same error
+                elementsInitialized = true;
+            } finally {
+                elementsInitializing = false;
+            }
+        }
+    }
+
+    private void initElements() {
+        ExtendedElementLocatorFactory factory = new ExtendedElementLocatorFactory(getDriver(), this);
+        PageFactory.initElements(new ExtendedFieldDecorator(factory, getDriver()), this);
+        ExtendedPageFactory.reinitElementsContext(this);
     }
 
     /**
@@ -28,6 +28,7 @@ import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.utils.config.StandardConfigurationOption;
 import com.zebrunner.carina.webdriver.IDriverPool;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 
 public interface IChromeDevToolsHelper extends IDriverPool {
@@ -70,8 +71,8 @@ public interface IChromeDevToolsHelper extends IDriverPool {
             System.setProperty("org.glassfish.tyrus.server.tracingType", "ALL");
         }
         try {
-            String url = String.format("%s%s%s", Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL,
-                    StandardConfigurationOption.DECRYPT)
+            String url = String.format("%s%s%s", HubBalancer.getInstance().getSeleniumUrl(getDriver())
+                    .orElseGet(() -> Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL, StandardConfigurationOption.DECRYPT))
                     .replace("/wd/hub", "/devtools/")
                     // pattern for Selenium URL with/without credentials
                     .replaceFirst("(^.+@)|(http(s)?:\\/\\/)", "wss://"),
@@ -3,6 +3,7 @@ package com.zebrunner.carina.webdriver.helper;
 import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.webdriver.IDriverPool;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.decorators.Decorated;
@@ -122,7 +123,9 @@ public interface IClipboardHelper extends IDriverPool {
     }
 
     private String getSelenoidClipboardUrl(WebDriver driver) {
-        String seleniumHost = Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL).replace("wd/hub", "clipboard/");
+        String seleniumHost = HubBalancer.getInstance().getSeleniumUrl(driver)
+                .orElseGet(() -> Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL))
+                .replace("wd/hub", "clipboard/");
         WebDriver drv = (driver instanceof Decorated<?>) ? (WebDriver) ((Decorated<?>) driver).getOriginal() : driver;
         String sessionId = ((RemoteWebDriver) drv).getSessionId().toString();
         String url = seleniumHost + sessionId;
@@ -4,6 +4,7 @@ import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.utils.messager.Messager;
 import com.zebrunner.carina.webdriver.IDriverPool;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.batch.CommandBatch;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 import org.json.JSONObject;
 import org.openqa.selenium.Cookie;
@@ -15,7 +16,10 @@ import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Wait;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface IPageStorageHelper extends IDriverPool {
     String REDUX_STORE_STATE_BASE_PATH = "window.store.getState()";
@@ -63,6 +67,24 @@ public interface IPageStorageHelper extends IDriverPool {
                 .executeScript("return window.localStorage.getItem(arguments[0]);", name));
     }
 
+    /**
+     * gets the values of the stored items in one round trip to the driver
+     *
+     * @param names the items that are stored
+     * @return map of the item name to the value of the stored item, value is null if nothing is stored
+     */
+    default Map<String, String> getValuesFromLocalStorage(String... names) {
+        Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        try (CommandBatch batch = CommandBatch.open(getDriver())) {
+            for (String name : names) {
+                futures.put(name, batch.script("return window.localStorage.getItem(arguments[0]);", name));
+            }
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        futures.forEach((name, value) -> values.put(name, (String) CommandBatch.result(value)));
+        return values;
+    }
+
     /**
      * gets the name of a stored item via an index
      *
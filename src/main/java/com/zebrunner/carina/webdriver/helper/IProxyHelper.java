@@ -25,6 +25,7 @@ import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.utils.report.SessionContext;
 import com.zebrunner.carina.webdriver.IDriverPool;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
 import com.zebrunner.carina.webdriver.listener.DriverListener;
 import com.zebrunner.carina.webdriver.proxy.ZebrunnerProxyBuilder;
 
@@ -60,7 +61,8 @@ public interface IProxyHelper extends IDriverPool {
             throw new IllegalArgumentException("Parameter could not be null, blank or empty.");
         }
         try {
-            URL endpoint = new URL(String.format("%s/%s/%s/%s/%s", Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL)
+            URL endpoint = new URL(String.format("%s/%s/%s/%s/%s", HubBalancer.getInstance().getSeleniumUrl(getDriver())
+                    .orElseGet(() -> Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL))
                     .replace("wd/hub", "proxy"),
                     DriverListener.castDriver(getDriver(), RemoteWebDriver.class).getSessionId(),
                     "download",
@@ -100,7 +102,8 @@ public interface IProxyHelper extends IDriverPool {
             throw new IllegalArgumentException("Parameter could not be null, blank or empty.");
         }
         try {
-            URL endpoint = new URL(String.format("%s/%s/%s/%s/%s", Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL)
+            URL endpoint = new URL(String.format("%s/%s/%s/%s/%s", HubBalancer.getInstance().getSeleniumUrl(getDriver())
+                    .orElseGet(() -> Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL))
                     .replace("wd/hub", "proxy"),
                     DriverListener.castDriver(getDriver(), RemoteWebDriver.class).getSessionId(),
                     "download",
@@ -121,7 +124,8 @@ public interface IProxyHelper extends IDriverPool {
      */
     default void clearProxyFlows() {
         try {
-            String url = String.format("%s/%s/%s", Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL)
+            String url = String.format("%s/%s/%s", HubBalancer.getInstance().getSeleniumUrl(getDriver())
+                    .orElseGet(() -> Configuration.getRequired(WebDriverConfiguration.Parameter.SELENIUM_URL))
                     .replace("wd/hub", "proxy"),
                     DriverListener.castDriver(getDriver(), RemoteWebDriver.class).getSessionId(),
                     "clear-flows");
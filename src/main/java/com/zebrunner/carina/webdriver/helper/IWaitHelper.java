@@ -3,6 +3,7 @@ package com.zebrunner.carina.webdriver.helper;
 import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.webdriver.IDriverPool;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.profiler.jfr.WaitEvent;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.ExpectedCondition;
@@ -14,6 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public interface IWaitHelper extends IDriverPool {
     Logger I_WAIT_HELPER_LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -63,12 +65,32 @@ public interface IWaitHelper extends IDriverPool {
         // removed ".ignoring(NoSuchElementException.class);" as NotFoundException ignored by waiter itself
         // added explicit .withTimeout(Duration.ofSeconds(timeout));
 
+        WaitEvent event = new WaitEvent();
+        ExpectedCondition<?> waitCondition = condition;
+        AtomicInteger polls = event.isEnabled() ? new AtomicInteger() : null;
+        if (polls != null) {
+            // count polls only for the flight recording
+            waitCondition = new ExpectedCondition<Object>() {
+                @Override
+                public Object apply(WebDriver driver) {
+                    polls.incrementAndGet();
+                    return condition.apply(driver);
+                }
+
+                @Override
+                public String toString() {
+                    return condition.toString();
+                }
+            };
+        }
+
         I_WAIT_HELPER_LOGGER.debug("waitUntil: starting... timeout: {}", timeout);
         boolean res = false;
         long startMillis = 0;
+        event.begin();
         try {
             startMillis = System.currentTimeMillis();
-            wait.until(condition);
+            wait.until(waitCondition);
             res = true;
         } catch (TimeoutException e) {
             I_WAIT_HELPER_LOGGER.debug("waitUntil: org.openqa.selenium.TimeoutException", e);
@@ -79,6 +101,14 @@ public interface IWaitHelper extends IDriverPool {
                 I_WAIT_HELPER_LOGGER.debug("Your retry_interval is too low: {} ms! Increase it or upgrade your hardware",
                         getDefaultWaitInterval(timeout));
             }
+            if (event.shouldCommit()) {
+                event.condition = String.valueOf(condition);
+                event.timeout = timeout.toMillis();
+                event.interval = interval.toMillis();
+                event.polls = polls == null ? 0 : polls.get();
+                event.success = res;
+                event.commit();
+            }
         }
         return res;
     }
@@ -5,12 +5,21 @@ import com.zebrunner.carina.utils.common.CommonUtils;
 import com.zebrunner.carina.utils.config.Configuration;
 import com.zebrunner.carina.utils.mobile.ArtifactProvider;
 import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.http.MeteredHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.http.SharedHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.http.StreamingHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
+import com.zebrunner.carina.webdriver.core.metrics.CommandMetrics;
+import com.zebrunner.carina.webdriver.core.pool.SessionAdmissionController;
+import com.zebrunner.carina.webdriver.core.pool.SessionRecycler;
+import com.zebrunner.carina.webdriver.core.pool.SessionWatchdog;
+import com.zebrunner.carina.webdriver.core.replay.CommandReplay;
+import com.zebrunner.carina.webdriver.core.retry.RetryPolicy;
 import io.appium.java_client.AppiumClientConfig;
 import io.appium.java_client.internal.CapabilityHelpers;
 import io.appium.java_client.remote.AppiumCommandExecutor;
 import io.appium.java_client.remote.AppiumNewSessionCommandPayload;
 import io.appium.java_client.remote.options.SupportsAppOption;
-import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.concurrent.ConcurrentException;
 import org.apache.commons.lang3.concurrent.LazyInitializer;
@@ -22,6 +31,7 @@ import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.Command;
 import org.openqa.selenium.remote.CommandInfo;
 import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.HttpCommandExecutor;
 import org.openqa.selenium.remote.Response;
 import org.openqa.selenium.remote.http.HttpClient;
 import org.openqa.selenium.remote.service.DriverService;
@@ -31,10 +41,7 @@ import javax.annotation.Nullable;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -46,8 +53,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 public final class EventFiringAppiumCommandExecutor extends AppiumCommandExecutor {
     private static final AtomicInteger CURRENT_SESSIONS_AMOUNT = new AtomicInteger(0);
     private static final Map<String, Duration> EXCEPTION_TIMEOUTS = new ConcurrentHashMap<>();
-    private static final BlockingQueue<String> BLOCKING_QUEUE = new LinkedBlockingQueue<>(
-            Configuration.getRequired(WebDriverConfiguration.Parameter.MAX_NEW_SESSION_QUEUE, Integer.class));
 
     private static final LazyInitializer<IArtifactManager> ARTIFACT_PROVIDERS = new LazyInitializer<>() {
         @Override
@@ -65,12 +70,14 @@ public final class EventFiringAppiumCommandExecutor extends AppiumCommandExecuto
             @Nullable DriverService service,
             @Nullable HttpClient.Factory httpClientFactory,
             @Nonnull AppiumClientConfig appiumClientConfig) {
-        super(additionalCommands, service, httpClientFactory, appiumClientConfig);
+        super(additionalCommands, service, StreamingHttpClientFactory.wrap(MeteredHttpClientFactory.wrap(CommandReplay.wrap(httpClientFactory == null
+                ? HttpCommandExecutor.getDefaultClientFactory()
+                : httpClientFactory))), appiumClientConfig);
         newSessionPause = Configuration.getRequired(WebDriverConfiguration.Parameter.MAX_NEW_SESSION_QUEUE, Integer.class) * 3;
     }
 
     public EventFiringAppiumCommandExecutor(Map<String, CommandInfo> additionalCommands, AppiumClientConfig appiumClientConfig) {
-        this(additionalCommands, null, null, appiumClientConfig);
+        this(additionalCommands, null, SharedHttpClientFactory.getClientFactory(), appiumClientConfig);
     }
 
     public void setCapabilities(Capabilities capabilities) {
@@ -79,32 +86,49 @@ public final class EventFiringAppiumCommandExecutor extends AppiumCommandExecuto
 
     @Override
     public Response execute(Command command) throws WebDriverException {
+        if (SessionWatchdog.isPingThread()) {
+            // health check of the session is not measured, retried or counted as the session activity
+            return super.execute(command);
+        }
+        if (DriverCommand.GET.equals(command.getName())) {
+            SessionRecycler.onNavigation(command.getSessionId(), command.getParameters().get("url"));
+        }
+        return SessionWatchdog.getInstance().execute(command.getSessionId(),
+                () -> CommandMetrics.getInstance().measure(command, () -> executeCommand(command)));
+    }
+
+    private Response executeCommand(Command command) {
         boolean isNewSessionCommand = DriverCommand.NEW_SESSION.equals(command.getName());
         Response response = null;
+        int attempt = 0;
         do {
-            if (isNewSessionCommand) {
-                try {
-                    BLOCKING_QUEUE.put(UUID.randomUUID().toString() + System.currentTimeMillis());
-                    String app = CapabilityHelpers.getCapability(capabilities, SupportsAppOption.APP_OPTION, String.class);
-                    if (app != null) {
-                        MutableCapabilities appCaps = new MutableCapabilities().merge(capabilities);
-                        appCaps.setCapability("appium:" + SupportsAppOption.APP_OPTION, ARTIFACT_PROVIDERS.get()
-                                .getDirectLink(app));
-                        FieldUtils.writeField(FieldUtils.getField(Command.class, "payload", true),
-                                command,
-                                new AppiumNewSessionCommandPayload(capabilities.merge(appCaps)),
-                                true);
+            SessionAdmissionController.Permit permit = null;
+            try {
+                if (isNewSessionCommand) {
+                    try {
+                        permit = SessionAdmissionController.getInstance().acquire(capabilities);
+                        String app = CapabilityHelpers.getCapability(capabilities, SupportsAppOption.APP_OPTION, String.class);
+                        if (app != null) {
+                            MutableCapabilities appCaps = new MutableCapabilities().merge(capabilities);
+                            appCaps.setCapability("appium:" + SupportsAppOption.APP_OPTION, ARTIFACT_PROVIDERS.get()
+                                    .getDirectLink(app));
+                            FieldUtils.writeField(FieldUtils.getField(Command.class, "payload", true),
+                                    command,
+                                    new AppiumNewSessionCommandPayload(capabilities.merge(appCaps)),
+                                    true);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new WebDriverException("Interrupted while waiting for the new session permit.", e);
+                    } catch (ConcurrentException | IllegalAccessException e) {
+                        return ExceptionUtils.rethrow(e);
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ConcurrentException | IllegalAccessException e) {
-                    return ExceptionUtils.rethrow(e);
                 }
-
-            }
-            try {
                 if (DriverCommand.QUIT.equalsIgnoreCase(command.getName())) {
                     CURRENT_SESSIONS_AMOUNT.getAndDecrement();
+                    HubBalancer.getInstance().release(command.getSessionId());
+                    SessionWatchdog.getInstance().release(command.getSessionId());
+                    SessionRecycler.release(command.getSessionId());
                 }
                 response = super.execute(command);
                 if (isNewSessionCommand) {
@@ -112,7 +136,7 @@ public final class EventFiringAppiumCommandExecutor extends AppiumCommandExecuto
                     retry.set(false);
                 }
             } catch (Throwable e) {
-                if (!isNewSessionCommand) {
+                if (!isNewSessionCommand || Thread.currentThread().isInterrupted()) {
                     throw e;
                 }
                 Optional<String> error = WebDriverConfiguration.getIgnoredNewSessionErrorMessages()
@@ -158,15 +182,14 @@ public final class EventFiringAppiumCommandExecutor extends AppiumCommandExecuto
                 if (!retry.get()) {
                     throw e;
                 }
-                CommonUtils.pause(RandomUtils.nextInt(1, newSessionPause + 1));
+                // exponential backoff with full jitter, so parallel threads do not retry in lockstep
+                CommonUtils.pause(RetryPolicy.getInstance()
+                        .getDelay(++attempt, Duration.ofSeconds(newSessionPause))
+                        .toMillis() / 1000.0);
                 setCommandCodec(null);
             } finally {
-                if (isNewSessionCommand) {
-                    try {
-                        BLOCKING_QUEUE.take();
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                    }
+                if (permit != null) {
+                    permit.close();
                 }
             }
         } while (retry.get());
@@ -17,6 +17,7 @@ package com.zebrunner.carina.webdriver.listener;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.Collections;
 
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.Command;
@@ -27,55 +28,76 @@ import org.openqa.selenium.remote.http.ClientConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.zebrunner.carina.utils.common.CommonUtils;
-import com.zebrunner.carina.utils.commons.SpecialKeywords;
-import com.zebrunner.carina.utils.config.Configuration;
-import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.http.MeteredHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.http.SharedHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.http.StreamingHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.hub.HubBalancer;
+import com.zebrunner.carina.webdriver.core.metrics.CommandMetrics;
+import com.zebrunner.carina.webdriver.core.pool.SessionRecycler;
+import com.zebrunner.carina.webdriver.core.pool.SessionWatchdog;
+import com.zebrunner.carina.webdriver.core.replay.CommandReplay;
+import com.zebrunner.carina.webdriver.core.retry.CommandRetryPolicy;
 
 /**
  * EventFiringSeleniumCommandExecutor triggers event listener before/after execution of the command.
  */
 public class EventFiringSeleniumCommandExecutor extends HttpCommandExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-    private static final String CONNECTION_TIMED_OUT_EXCEPTION = "connection timed out";
 
     public EventFiringSeleniumCommandExecutor(ClientConfig clientConfig) {
-        super(clientConfig);
+        super(Collections.emptyMap(), clientConfig,
+                StreamingHttpClientFactory.wrap(MeteredHttpClientFactory.wrap(CommandReplay.wrap(SharedHttpClientFactory.getClientFactory()))));
     }
 
     @Override
     public Response execute(Command command) throws IOException {
-        Response response = null;
-        int retry = 2; // extra retries to execute command
-        Number pause = Configuration.getRequired(WebDriverConfiguration.Parameter.EXPLICIT_TIMEOUT, Integer.class) / retry;
-        while (retry >= 0) {
-            response = super.execute(command);
+        if (SessionWatchdog.isPingThread()) {
+            // health check of the session is not measured, retried or counted as the session activity
+            return super.execute(command);
+        }
+        if (DriverCommand.GET.equals(command.getName())) {
+            SessionRecycler.onNavigation(command.getSessionId(), command.getParameters().get("url"));
+        }
+        try {
+            return SessionWatchdog.getInstance().execute(command.getSessionId(),
+                    () -> CommandMetrics.getInstance().measure(command, () -> executeWithRetry(command)));
+        } finally {
+            if (DriverCommand.QUIT.equals(command.getName())) {
+                HubBalancer.getInstance().release(command.getSessionId());
+                CommandRetryPolicy.getInstance().release(command.getSessionId());
+                SessionWatchdog.getInstance().release(command.getSessionId());
+                SessionRecycler.release(command.getSessionId());
+            }
+        }
+    }
+
+    private Response executeWithRetry(Command command) throws IOException {
+        // do not retry commands with side effects (new session, click etc.) and quit (grid will close session forcibly anyway)
+        boolean idempotent = CommandRetryPolicy.isIdempotent(command.getName());
+        long startNanos = System.nanoTime();
+        int attempt = 0;
+        while (true) {
+            Response response;
+            try {
+                response = super.execute(command);
+            } catch (IOException | RuntimeException e) {
+                if (idempotent && CommandRetryPolicy.isTransient(e) && CommandRetryPolicy.getInstance().retry(command, ++attempt, startNanos)) {
+                    LOGGER.warn("Retrying '{}' command (attempt {}) after transient error: {}", command.getName(), attempt, e.getMessage());
+                    continue;
+                }
+                throw e;
+            }
             if (response.getValue() instanceof WebDriverException) {
                 LOGGER.debug("CarinaCommandExecutor catched: {}", response.getValue());
-                if (DriverCommand.QUIT.equals(command.getName())) {
-                    // do not retry on quit command (grid will close it forcibly anyway)
-                    break;
-                }
-
-                String msg = response.getValue().toString();
-                if (msg.contains(SpecialKeywords.DRIVER_CONNECTION_REFUSED) ||
-                        msg.contains(SpecialKeywords.DRIVER_CONNECTION_REFUSED2) ||
-                        msg.contains(SpecialKeywords.DRIVER_TARGET_FRAME_DETACHED) ||
-                        msg.contains(CONNECTION_TIMED_OUT_EXCEPTION)) {
-                    LOGGER.warn("Enabled command executor retries: {}", msg);
-                    CommonUtils.pause(pause);
-                } else {
-                    // do not retry for non "driver connection refused" errors!
-                    break;
+                if (idempotent && CommandRetryPolicy.isTransient(response.getValue())
+                        && CommandRetryPolicy.getInstance().retry(command, ++attempt, startNanos)) {
+                    LOGGER.warn("Retrying '{}' command (attempt {}) after transient error: {}", command.getName(), attempt,
+                            ((WebDriverException) response.getValue()).getMessage());
+                    continue;
                 }
-            } else {
-                // do nothing as response already contains all the information we need
-                break;
             }
-            retry--;
+            // response already contains all the information we need
+            return response;
         }
-
-        return response;
     }
-
 }
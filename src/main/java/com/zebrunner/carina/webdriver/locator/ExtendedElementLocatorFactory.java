@@ -17,13 +17,10 @@ package com.zebrunner.carina.webdriver.locator;
 
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
+import java.util.Optional;
 
-import org.apache.commons.lang3.StringUtils;
-import org.openqa.selenium.Capabilities;
-import org.openqa.selenium.HasCapabilities;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.support.pagefactory.AbstractAnnotations;
 import org.openqa.selenium.support.pagefactory.ElementLocator;
 import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
@@ -32,13 +29,11 @@ import org.slf4j.LoggerFactory;
 
 import com.zebrunner.carina.utils.commons.SpecialKeywords;
 import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.core.capability.SessionProfile;
 import com.zebrunner.carina.webdriver.decorator.annotations.AccessibilityId;
 import com.zebrunner.carina.webdriver.decorator.annotations.ClassChain;
 import com.zebrunner.carina.webdriver.decorator.annotations.Predicate;
 
-import io.appium.java_client.internal.CapabilityHelpers;
-import io.appium.java_client.remote.MobileCapabilityType;
-
 public final class ExtendedElementLocatorFactory implements ElementLocatorFactory, IDriverPool {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -56,12 +51,15 @@ public final class ExtendedElementLocatorFactory implements ElementLocatorFactor
         this.searchContext = searchContext;
 
         String browserName = null;
-        if (this.webDriver instanceof HasCapabilities) {
-            Capabilities capabilities = ((HasCapabilities) this.webDriver).getCapabilities();
-            this.platform = CapabilityHelpers.getCapability(capabilities, CapabilityType.PLATFORM_NAME, String.class);
-            this.automation = CapabilityHelpers.getCapability(capabilities, MobileCapabilityType.AUTOMATION_NAME, String.class);
-            browserName = CapabilityHelpers.getCapability(capabilities, CapabilityType.BROWSER_NAME, String.class);
-            this.driverType = detectDriverType(browserName, platform);
+        Optional<SessionProfile> profile = SessionProfile.of(this.webDriver);
+        if (profile.isPresent()) {
+            this.platform = profile.get().getPlatform();
+            this.automation = profile.get().getAutomation();
+            browserName = profile.get().getBrowserName();
+            this.driverType = profile.get().getDriverTypeKeyword();
+            if (this.driverType == null) {
+                LOGGER.error("Cannot detect driver type by capabilities");
+            }
         } else {
             LOGGER.error("Driver should realize HasCapabilities class!");
         }
@@ -99,24 +97,4 @@ public final class ExtendedElementLocatorFactory implements ElementLocatorFactor
         }
         return extendedElementLocator;
     }
-
-    private String detectDriverType(String browserName, String platform) {
-        String type = null;
-        if (SpecialKeywords.ANDROID.equalsIgnoreCase(platform) ||
-                SpecialKeywords.IOS.equalsIgnoreCase(platform) ||
-                SpecialKeywords.TVOS.equalsIgnoreCase(platform)) {
-            type = SpecialKeywords.MOBILE;
-        } else if (!StringUtils.isEmpty(browserName)) {
-            type = SpecialKeywords.DESKTOP;
-        } else if (SpecialKeywords.WINDOWS.equalsIgnoreCase(platform)) {
-            type = SpecialKeywords.WINDOWS;
-        } else if (SpecialKeywords.MAC.equalsIgnoreCase(platform)) {
-            type = SpecialKeywords.MAC;
-        }
-
-        if (type == null) {
-            LOGGER.error("Cannot detect driver type by capabilities");
-        }
-        return type;
-    }
 }
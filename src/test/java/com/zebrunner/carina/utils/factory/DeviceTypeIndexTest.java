@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.factory;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.factory.DeviceType.Type;
+import com.zebrunner.carina.webdriver.gui.AbstractPage;
+
+public class DeviceTypeIndexTest implements ICustomTypePageFactory {
+
+    public abstract static class BasePage extends AbstractPage {
+        protected BasePage(WebDriver driver) {
+            super(driver);
+        }
+    }
+
+    @DeviceType(pageType = Type.DESKTOP, parentClass = BasePage.class)
+    public static class DesktopPage extends BasePage {
+        private String title;
+
+        public DesktopPage(WebDriver driver) {
+            super(driver);
+        }
+
+        public DesktopPage(WebDriver driver, String title) {
+            super(driver);
+            this.title = title;
+        }
+
+        public DesktopPage(WebDriver driver, Integer timeout) {
+            super(driver);
+            throw new IllegalStateException("Timeout is not supported: " + timeout);
+        }
+    }
+
+    @DeviceType(pageType = Type.ANDROID_PHONE, parentClass = BasePage.class)
+    public static class AndroidPage extends BasePage {
+        public AndroidPage(WebDriver driver) {
+            super(driver);
+        }
+    }
+
+    @Test
+    public void testIndexGeneratedAtCompileTime() {
+        DeviceTypeIndex index = DeviceTypeIndex.load(getClass().getClassLoader());
+        Assert.assertFalse(index.isEmpty(), "Index was not generated by annotation processor");
+
+        List<Class<? extends BasePage>> implementations = index.getImplementations(BasePage.class);
+        Assert.assertEquals(implementations.size(), 2);
+        Assert.assertTrue(implementations.contains(DesktopPage.class));
+        Assert.assertTrue(implementations.contains(AndroidPage.class));
+    }
+
+    @Test
+    public void testIndexedRoots() throws MalformedURLException {
+        Assert.assertEquals(DeviceTypeIndex.getRoot(new URL("jar:file:/lib/pages.jar!/" + DeviceTypeIndex.INDEX_LOCATION)), "file:/lib/pages.jar");
+        Assert.assertEquals(DeviceTypeIndex.getRoot(new URL("file:/project/target/classes/" + DeviceTypeIndex.INDEX_LOCATION)),
+                "file:/project/target/classes");
+
+        DeviceTypeIndex index = DeviceTypeIndex.load(getClass().getClassLoader());
+        URL testClasses = DesktopPage.class.getProtectionDomain().getCodeSource().getLocation();
+        Assert.assertTrue(index.isIndexed(testClasses), "Root with index should not be scanned: " + testClasses);
+        URL seleniumJar = WebDriver.class.getProtectionDomain().getCodeSource().getLocation();
+        Assert.assertFalse(index.isIndexed(seleniumJar), "Root without index should be scanned: " + seleniumJar);
+    }
+
+    @Test
+    public void testParseRecord() {
+        Assert.assertEquals(DeviceTypeIndex.parseRecord("a.B$C=a.B"), new String[] { "a.B$C", "a.B" });
+        Assert.assertNull(DeviceTypeIndex.parseRecord(""));
+        Assert.assertNull(DeviceTypeIndex.parseRecord("a.B"));
+    }
+
+    @Test
+    public void testInitPageByIndex() {
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        BasePage page = initPage(driver, BasePage.class);
+        Assert.assertEquals(page.getClass(), DesktopPage.class);
+        // second call should be resolved from the cache
+        Assert.assertEquals(initPage(driver, BasePage.class).getClass(), DesktopPage.class);
+    }
+
+    @Test
+    public void testInitPageConstructorIsCached() {
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        DesktopPage page = (DesktopPage) initPage(driver, BasePage.class, driver, "title");
+        Assert.assertEquals(page.title, "title");
+        Assert.assertTrue(PageConstructorCache.contains(DesktopPage.class, List.of(driver.getClass(), String.class)));
+        Assert.assertSame(PageConstructorCache.get(this, DesktopPage.class, driver, "another title"),
+                PageConstructorCache.get(this, DesktopPage.class, driver, "title"));
+    }
+
+    @Test
+    public void testInitPageConstructorException() {
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        RuntimeException e = Assert.expectThrows(RuntimeException.class, () -> initPage(driver, BasePage.class, driver, 10));
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        Assert.assertEquals(e.getMessage(), "Unable to instantiate page! Timeout is not supported: 10");
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    public void testDeprecatedReflectionsScansClasspath() {
+        Assert.assertTrue(REFLECTIONS.getSubTypesOf(BasePage.class).contains(DesktopPage.class));
+    }
+}
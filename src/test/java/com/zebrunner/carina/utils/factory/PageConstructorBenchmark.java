@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.factory;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Compares page creation by the constructor resolved by {@link ICustomTypePageFactory#getConstructorByParams(Class, Object...)}
+ * (reflective search on each call) with creation by the cached invoker of the {@link PageConstructorCache}.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.utils.factory.PageConstructorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageConstructorBenchmark {
+
+    private final ICustomTypePageFactory factory = new ICustomTypePageFactory() {
+    };
+    private Object[] parameters;
+
+    @Setup
+    public void setUp() {
+        parameters = new Object[] { Mockito.mock(WebDriver.class), "title" };
+    }
+
+    @Benchmark
+    public Object reflectiveConstructor() throws ReflectiveOperationException {
+        return factory.getConstructorByParams(DeviceTypeIndexTest.DesktopPage.class, parameters)
+                .newInstance(parameters);
+    }
+
+    @Benchmark
+    public Object cachedConstructor() throws Throwable {
+        return PageConstructorCache.get(factory, DeviceTypeIndexTest.DesktopPage.class, parameters)
+                .invokeExact(parameters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PageConstructorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
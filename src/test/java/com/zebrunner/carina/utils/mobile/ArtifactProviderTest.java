@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.mobile;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.commons.artifact.IArtifactManagerFactory;
+
+public class ArtifactProviderTest {
+
+    @Test
+    public void testFactoryIsLoadedFromServiceIndex() throws IOException {
+        Path source = Files.createTempFile("artifact", ".apk");
+        Path target = Files.createTempFile("artifact", ".copy");
+        Files.writeString(source, "app");
+        try {
+            ArtifactProvider provider = new ArtifactProvider();
+            Assert.assertTrue(provider.download(LocalArtifactManagerFactory.PREFIX + source, target));
+            Assert.assertEquals(Files.readString(target), "app");
+            Assert.assertTrue(provider.delete(LocalArtifactManagerFactory.PREFIX + target));
+            Assert.assertThrows(FileNotFoundException.class,
+                    () -> provider.put(target, LocalArtifactManagerFactory.PREFIX + source));
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    @Test
+    public void testRegisteredRootsAreNotScanned() {
+        String testClasses = StringUtils.removeEnd(LocalArtifactManagerFactory.class.getProtectionDomain().getCodeSource().getLocation()
+                .toExternalForm(), "/");
+        Assert.assertTrue(ArtifactProvider.getRegisteredRoots(getClass().getClassLoader()).contains(testClasses),
+                "Root with registered factory should not be scanned: " + testClasses);
+    }
+
+    @Test
+    public void testScannedFactoriesAreMergedWithRegistered() {
+        IArtifactManagerFactory registered = new LocalArtifactManagerFactory();
+        IArtifactManagerFactory scanned = Mockito.mock(IArtifactManagerFactory.class);
+        List<IArtifactManagerFactory> factories = ArtifactProvider.merge(List.of(registered),
+                List.of(new LocalArtifactManagerFactory(), scanned));
+        Assert.assertEquals(factories, List.of(registered, scanned), "Factory of the same class should be added only once");
+    }
+
+    @Test
+    public void testDirectLinkIsCached() {
+        ArtifactProvider provider = new ArtifactProvider(List.of(new LocalArtifactManagerFactory()), Duration.ofMinutes(1), 10);
+        String url = LocalArtifactManagerFactory.PREFIX + "/tmp/cached.apk";
+        int requests = LocalArtifactManagerFactory.DIRECT_LINK_REQUESTS.get();
+
+        String directLink = provider.getDirectLink(url);
+        Assert.assertEquals(directLink, Path.of("/tmp/cached.apk").toUri().toString());
+        Assert.assertEquals(provider.getDirectLink(url), directLink);
+        Assert.assertEquals(LocalArtifactManagerFactory.DIRECT_LINK_REQUESTS.get(), requests + 1);
+    }
+
+    @Test
+    public void testDirectLinkCacheDisabled() {
+        ArtifactProvider provider = new ArtifactProvider(List.of(new LocalArtifactManagerFactory()), Duration.ZERO, 10);
+        String url = LocalArtifactManagerFactory.PREFIX + "/tmp/not-cached.apk";
+        int requests = LocalArtifactManagerFactory.DIRECT_LINK_REQUESTS.get();
+
+        provider.getDirectLink(url);
+        provider.getDirectLink(url);
+        Assert.assertEquals(LocalArtifactManagerFactory.DIRECT_LINK_REQUESTS.get(), requests + 2);
+    }
+
+    @Test
+    public void testUnsupportedUrlIsReturnedAsIs() {
+        ArtifactProvider provider = new ArtifactProvider(List.of(new LocalArtifactManagerFactory()), Duration.ofMinutes(1), 10);
+        Assert.assertEquals(provider.getDirectLink("https://example.com/app.apk"), "https://example.com/app.apk");
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.utils.mobile;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.zebrunner.carina.commons.artifact.ArtifactManagerFactory;
+import com.zebrunner.carina.commons.artifact.IArtifactManager;
+import com.zebrunner.carina.commons.artifact.IArtifactManagerFactory;
+
+/**
+ * Artifact manager for the local files ({@code local://<path>} urls). Direct link is {@code file:} url of the file
+ */
+@ArtifactManagerFactory
+public class LocalArtifactManagerFactory implements IArtifactManagerFactory {
+    static final String PREFIX = "local://";
+    static final AtomicInteger DIRECT_LINK_REQUESTS = new AtomicInteger();
+
+    @Override
+    public boolean isSuitable(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public IArtifactManager getInstance() {
+        return new IArtifactManager() {
+            @Override
+            public boolean download(String from, Path to) {
+                try {
+                    Files.copy(toPath(from), to, StandardCopyOption.REPLACE_EXISTING);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean put(Path from, String to) throws FileNotFoundException {
+                if (!Files.exists(from)) {
+                    throw new FileNotFoundException(from.toString());
+                }
+                try {
+                    Files.copy(from, toPath(to), StandardCopyOption.REPLACE_EXISTING);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean delete(String url) {
+                try {
+                    return Files.deleteIfExists(toPath(url));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public String getDirectLink(String url) {
+                DIRECT_LINK_REQUESTS.incrementAndGet();
+                URI uri = toPath(url).toUri();
+                return uri.toString();
+            }
+        };
+    }
+
+    private static Path toPath(String url) {
+        return Path.of(url.substring(PREFIX.length()));
+    }
+}
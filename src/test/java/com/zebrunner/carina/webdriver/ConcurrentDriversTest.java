@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.R;
+import com.zebrunner.carina.utils.config.Configuration;
+import com.zebrunner.carina.utils.exception.DriverPoolException;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
+import com.zebrunner.carina.webdriver.stub.StubWebDriverServer;
+
+public class ConcurrentDriversTest implements IDriverPool {
+
+    @Test
+    public void testRegisteredDriversAreReturnedWithoutCreation() {
+        DriverContext.create().run(() -> {
+            WebDriver first = registerMockDriver("first");
+            WebDriver second = registerMockDriver("second");
+            Map<String, Capabilities> drivers = new LinkedHashMap<>();
+            drivers.put("second", null);
+            drivers.put("first", new MutableCapabilities());
+
+            Map<String, WebDriver> result = getDrivers(drivers);
+            Assert.assertEquals(result.keySet().toArray(), new String[] { "second", "first" });
+            Assert.assertSame(result.get("first"), first);
+            Assert.assertSame(result.get("second"), second);
+            IDriverPool.DRIVERS_POOL.remove(DriverContext.currentId());
+        });
+    }
+
+    @Test
+    public void testMaxDriverCountIsCheckedBeforeCreation() {
+        DriverContext.create().run(() -> {
+            int maxDriverCount = Configuration.getRequired(WebDriverConfiguration.Parameter.MAX_DRIVER_COUNT, Integer.class);
+            Map<String, Capabilities> drivers = new LinkedHashMap<>();
+            for (int i = 0; i <= maxDriverCount; i++) {
+                drivers.put("driver-" + i, null);
+            }
+            DriverPoolException e = Assert.expectThrows(DriverPoolException.class, () -> getDrivers(drivers));
+            Assert.assertTrue(e.getMessage().contains("max number of drivers"), e.getMessage());
+            Assert.assertTrue(IDriverPool.getDrivers().isEmpty(), "No drivers should be registered");
+            IDriverPool.DRIVERS_POOL.remove(DriverContext.currentId());
+        });
+    }
+
+    @Test
+    public void testParallelTestsCreateDriversConcurrently() throws Exception {
+        String seleniumUrl = R.CONFIG.get("selenium_url");
+        int tests = 3;
+        int driversPerTest = 2;
+        Duration newSessionLatency = Duration.ofSeconds(1);
+        ExecutorService testThreads = Executors.newFixedThreadPool(tests);
+        try (StubWebDriverServer server = new StubWebDriverServer().latency(DriverCommand.NEW_SESSION, newSessionLatency).start()) {
+            // not a test property, as drivers are created by the other threads
+            R.CONFIG.put("selenium_url", server.getUrl());
+            // warm up, so the first session does not pay for the class loading and http client initialization
+            DriverContext.create().run(() -> {
+                MutableCapabilities capabilities = new MutableCapabilities();
+                capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+                getDriver("warm-up", capabilities);
+                quitDrivers(TestPhase.Phase.ALL);
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            long startNanos = System.nanoTime();
+            for (int t = 0; t < tests; t++) {
+                futures.add(testThreads.submit(() -> DriverContext.create().run(() -> {
+                    Map<String, Capabilities> drivers = new LinkedHashMap<>();
+                    for (int i = 0; i < driversPerTest; i++) {
+                        MutableCapabilities capabilities = new MutableCapabilities();
+                        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+                        drivers.put("driver-" + i, capabilities);
+                    }
+                    try {
+                        Assert.assertEquals(getDrivers(drivers).size(), driversPerTest);
+                        Assert.assertSame(getDevice(), IDriverPool.getNullDevice(), "Current device should not be changed");
+                    } finally {
+                        quitDrivers(TestPhase.Phase.ALL);
+                    }
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            Assert.assertEquals(server.getCreatedSessions(), tests * driversPerTest + 1);
+            // all sessions are requested at once, so parallel tests pay the new session latency once
+            Assert.assertTrue(elapsed.compareTo(newSessionLatency.multipliedBy(2)) < 0,
+                    "Drivers of the parallel tests should be created concurrently, but took " + elapsed.toMillis() + " ms");
+        } finally {
+            testThreads.shutdownNow();
+            R.CONFIG.put("selenium_url", seleniumUrl);
+        }
+    }
+
+    private static WebDriver registerMockDriver(String name) {
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        IDriverPool.getDrivers().put(name, new CarinaDriver(name, driver, IDriverPool.getNullDevice(), TestPhase.Phase.METHOD,
+                DriverContext.currentId(), new MutableCapabilities()));
+        return driver;
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
+import com.zebrunner.carina.webdriver.decorator.ExtendedWebElement;
+import com.zebrunner.carina.webdriver.stub.StubElement;
+import com.zebrunner.carina.webdriver.stub.StubWebDriverServer;
+
+/**
+ * Creates real driver sessions (two per driver context) through the driver pool, factories and command executors against the
+ * in-process {@link StubWebDriverServer}. Number of the contexts could be increased by the {@code carina.load.contexts} system
+ * property for the scaling tests.
+ */
+public class DriverPoolLoadTest implements IDriverPool {
+    private static final String LOGIN_PAGE = "https://stub.local/login";
+    private static final int CONTEXTS = Integer.getInteger("carina.load.contexts", 50);
+    private static final int THREADS = 50;
+
+    private StubWebDriverServer server;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = new StubWebDriverServer()
+                .page(LOGIN_PAGE, "Login", StubElement.of("html").child(StubElement.of("body").child(
+                        StubElement.of("input").id("login").attr("name", "login"),
+                        StubElement.of("div").attr("class", "message hidden").displayed(false).text("Welcome"),
+                        StubElement.of("a").attr("class", "link").attr("href", StubWebDriverServer.BLANK_PAGE).text("Logout"))))
+                .start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testHundredsOfSessions() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONTEXTS; i++) {
+                futures.add(executor.submit(() -> DriverContext.create().run(this::runScenario)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(server.getCreatedSessions(), CONTEXTS * 2);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (server.getActiveSessions() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        Assert.assertEquals(server.getActiveSessions(), 0, "All sessions should be quit");
+        Assert.assertTrue(server.getCommandCount(DriverCommand.FIND_ELEMENT) >= CONTEXTS * 2L);
+    }
+
+    private void runScenario() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+        List<String> names = List.of("first", "second");
+        try {
+            for (String name : names) {
+                WebDriver driver = getDriver(name, capabilities, server.getUrl());
+                driver.get(LOGIN_PAGE);
+                Assert.assertEquals(driver.getTitle(), "Login");
+
+                ExtendedWebElement login = new ExtendedWebElement(By.id("login"), "login", driver, driver);
+                login.type("user");
+                Assert.assertEquals(login.getAttribute("value"), "user");
+                Assert.assertFalse(new ExtendedWebElement(By.cssSelector(".message"), "message", driver, driver).isVisible(0));
+
+                new ExtendedWebElement(By.xpath("//a[text()='Logout']"), "logout", driver, driver).click();
+                Assert.assertEquals(driver.getCurrentUrl(), StubWebDriverServer.BLANK_PAGE);
+            }
+        } finally {
+            names.forEach(this::quitDriver);
+        }
+    }
+}
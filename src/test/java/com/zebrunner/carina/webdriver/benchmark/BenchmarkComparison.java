@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Comparison of two benchmark runs in the JMH JSON format (for example, results of the previous release and of the current build).<br>
+ * Benchmarks are matched by the name and parameters. Benchmark is regressed, when its score became worse by more than the threshold
+ * (in percent) and the difference is bigger than the sum of the score errors of both runs, so noise of the run is not reported.
+ */
+public final class BenchmarkComparison {
+    private final List<Change> changes;
+    private final List<String> added;
+    private final List<String> removed;
+
+    private BenchmarkComparison(List<Change> changes, List<String> added, List<String> removed) {
+        this.changes = changes;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * Compare benchmark results
+     *
+     * @param baseline path to the JMH JSON results of the baseline run
+     * @param current path to the JMH JSON results of the current run
+     * @param threshold allowed degradation of the score, in percent
+     * @return {@link BenchmarkComparison}
+     * @throws IOException if results could not be read
+     */
+    public static BenchmarkComparison compare(Path baseline, Path current, double threshold) throws IOException {
+        return compare(read(baseline), read(current), threshold);
+    }
+
+    static BenchmarkComparison compare(Map<String, Score> baseline, Map<String, Score> current, double threshold) {
+        List<Change> changes = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit.equals(entry.getValue().unit) || !before.mode.equals(entry.getValue().mode)) {
+                added.add(entry.getKey());
+                continue;
+            }
+            changes.add(new Change(entry.getKey(), before, entry.getValue(), threshold));
+        }
+        List<String> removed = baseline.keySet()
+                .stream()
+                .filter(key -> !current.containsKey(key))
+                .collect(Collectors.toList());
+        return new BenchmarkComparison(changes, added, removed);
+    }
+
+    /**
+     * Read benchmark results
+     *
+     * @param path path to the JMH JSON results
+     * @return scores by the benchmark key (name and parameters)
+     * @throws IOException if results could not be read
+     */
+    static Map<String, Score> read(Path path) throws IOException {
+        JSONArray results = new JSONArray(Files.readString(path, StandardCharsets.UTF_8));
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            JSONObject metric = result.getJSONObject("primaryMetric");
+            double error = metric.optDouble("scoreError", 0);
+            scores.put(toKey(result), new Score(result.getString("mode"), metric.getDouble("score"),
+                    Double.isNaN(error) ? 0 : error, metric.getString("scoreUnit")));
+        }
+        return scores;
+    }
+
+    private static String toKey(JSONObject result) {
+        JSONObject params = result.optJSONObject("params");
+        if (params == null || params.isEmpty()) {
+            return result.getString("benchmark");
+        }
+        Map<String, Object> sorted = new TreeMap<>(params.toMap());
+        return result.getString("benchmark") + sorted.entrySet()
+                .stream()
+                .map(param -> param.getKey() + "=" + param.getValue())
+                .collect(Collectors.joining(", ", " {", "}"));
+    }
+
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public List<Change> getRegressions() {
+        return changes.stream()
+                .filter(Change::isRegression)
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasRegressions() {
+        return changes.stream().anyMatch(Change::isRegression);
+    }
+
+    /**
+     * Comparison as text, one benchmark per line
+     *
+     * @return text report
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder("Benchmark comparison")
+                .append(System.lineSeparator());
+        for (Change change : changes) {
+            sb.append(String.format(Locale.US, "%-10s %+8.2f%%  %14.3f -> %14.3f %-8s %s", change.isRegression() ? "REGRESSED" : "ok",
+                    change.getWorsening(), change.baseline.score, change.current.score, change.current.unit, change.key))
+                    .append(System.lineSeparator());
+        }
+        added.forEach(key -> sb.append(String.format("%-10s %s", "NEW", key)).append(System.lineSeparator()));
+        removed.forEach(key -> sb.append(String.format("%-10s %s", "REMOVED", key)).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    static final class Score {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        Score(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        /**
+         * Higher score is better for throughput, lower - for the time modes (avgt, sample, ss)
+         */
+        boolean isHigherBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public static final class Change {
+        private final String key;
+        private final Score baseline;
+        private final Score current;
+        private final boolean regression;
+
+        private Change(String key, Score baseline, Score current, double threshold) {
+            this.key = key;
+            this.baseline = baseline;
+            this.current = current;
+            boolean significant = Math.abs(current.score - baseline.score) > baseline.error + current.error;
+            this.regression = significant && getWorsening() > threshold;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Get degradation of the score
+         *
+         * @return percent, negative if the score became better
+         */
+        public double getWorsening() {
+            if (baseline.score == 0) {
+                return 0;
+            }
+            double change = (current.score - baseline.score) / baseline.score * 100;
+            return baseline.isHigherBetter() ? -change : change;
+        }
+
+        public boolean isRegression() {
+            return regression;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BenchmarkComparisonTest {
+
+    @Test
+    public void testRegressionIsDetected() throws IOException {
+        Path baseline = write(result("a.ElementBenchmark.click", "avgt", 100, 2, "ns/op", Map.of()),
+                result("a.ElementBenchmark.getText", "avgt", 100, 2, "ns/op", Map.of()),
+                result("a.ListBenchmark.size", "avgt", 10, 1, "us/op", Map.of("elements", "10")),
+                result("a.ListBenchmark.size", "avgt", 100, 1, "us/op", Map.of("elements", "100")),
+                result("a.QueueBenchmark.offer", "thrpt", 1000, 10, "ops/us", Map.of()));
+        Path current = write(result("a.ElementBenchmark.click", "avgt", 105, 2, "ns/op", Map.of()),
+                result("a.ElementBenchmark.getText", "avgt", 150, 2, "ns/op", Map.of()),
+                result("a.ListBenchmark.size", "avgt", 10, 1, "us/op", Map.of("elements", "10")),
+                result("a.ListBenchmark.size", "avgt", 50, 1, "us/op", Map.of("elements", "100")),
+                result("a.QueueBenchmark.offer", "thrpt", 500, 10, "ops/us", Map.of()),
+                result("a.NewBenchmark.run", "avgt", 1, 0, "ns/op", Map.of()));
+
+        BenchmarkComparison comparison = BenchmarkComparison.compare(baseline, current, 10);
+
+        Assert.assertTrue(comparison.hasRegressions());
+        List<String> regressions = comparison.getRegressions()
+                .stream()
+                .map(BenchmarkComparison.Change::getKey)
+                .collect(Collectors.toList());
+        Assert.assertEquals(regressions, List.of("a.ElementBenchmark.getText", "a.QueueBenchmark.offer"),
+                "Only worse scores above the threshold should be reported");
+        Assert.assertEquals(comparison.getChanges().size(), 5);
+        Assert.assertTrue(comparison.toText().contains("NEW        a.NewBenchmark.run"), comparison.toText());
+        Assert.assertTrue(comparison.toText().contains("a.ListBenchmark.size {elements=100}"), comparison.toText());
+    }
+
+    @Test
+    public void testDifferenceWithinErrorIsNotRegression() throws IOException {
+        Path baseline = write(result("a.ElementBenchmark.click", "avgt", 100, 30, "ns/op", Map.of()));
+        Path current = write(result("a.ElementBenchmark.click", "avgt", 140, 30, "ns/op", Map.of()),
+                result("a.ElementBenchmark.type", "avgt", 100, 30, "ns/op", Map.of()));
+
+        BenchmarkComparison comparison = BenchmarkComparison.compare(baseline, current, 10);
+
+        Assert.assertFalse(comparison.hasRegressions(), comparison.toText());
+        Assert.assertEquals(comparison.getChanges().get(0).getWorsening(), 40, 0.001);
+    }
+
+    private static JSONObject result(String benchmark, String mode, double score, double error, String unit, Map<String, String> params) {
+        JSONObject result = new JSONObject()
+                .put("benchmark", benchmark)
+                .put("mode", mode)
+                .put("primaryMetric", new JSONObject()
+                        .put("score", score)
+                        .put("scoreError", error)
+                        .put("scoreUnit", unit));
+        if (!params.isEmpty()) {
+            result.put("params", new JSONObject(params));
+        }
+        return result;
+    }
+
+    private static Path write(JSONObject... results) throws IOException {
+        Path file = Files.createTempFile("benchmark", ".json");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, new JSONArray(List.of(results)).toString(2), StandardCharsets.UTF_8);
+        return file;
+    }
+}
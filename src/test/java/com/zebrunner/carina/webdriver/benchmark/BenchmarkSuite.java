@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.benchmark;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs all benchmarks of the project ({@code *Benchmark} classes of the test sources) with the settings declared in these classes
+ * and writes results in the JMH JSON format, so results of different releases could be compared by {@link BenchmarkComparison}.<br>
+ * Settings (system properties):
+ * <ul>
+ * <li>{@code benchmark.include} - regexp of the benchmarks to run, default {@code .*Benchmark\.}</li>
+ * <li>{@code benchmark.result} - results file, default {@code target/jmh/benchmark-result.json}</li>
+ * <li>{@code benchmark.baseline} - results of the previous run to compare with, optional</li>
+ * <li>{@code benchmark.threshold} - allowed degradation of the score in percent, default {@code 10}</li>
+ * </ul>
+ * If baseline is defined and any benchmark regressed, runner exits with the status {@code 1}.<br>
+ * Run by {@code mvn -B verify -Pbenchmarks [-Dbenchmark.baseline=<previous results>]}
+ */
+public final class BenchmarkSuite {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String DEFAULT_INCLUDE = ".*Benchmark\\.";
+    private static final String DEFAULT_RESULT = "target/jmh/benchmark-result.json";
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private BenchmarkSuite() {
+        // hide
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path result = Path.of(System.getProperty("benchmark.result", DEFAULT_RESULT)).toAbsolutePath();
+        Files.createDirectories(result.getParent());
+        new Runner(new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", DEFAULT_INCLUDE))
+                // same heap for each run, so results are not affected by the machine memory
+                .jvmArgsAppend("-Xms1g", "-Xmx1g", "-Djava.awt.headless=true")
+                .shouldFailOnError(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build())
+                .run();
+        LOGGER.info("Benchmark results: {}", result);
+
+        String baseline = System.getProperty("benchmark.baseline", "");
+        if (baseline.isBlank()) {
+            return;
+        }
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", String.valueOf(DEFAULT_THRESHOLD)));
+        BenchmarkComparison comparison = BenchmarkComparison.compare(Path.of(baseline), result, threshold);
+        LOGGER.info("{}", comparison.toText());
+        if (comparison.hasRegressions()) {
+            LOGGER.error("{} benchmark(s) regressed more than {}% against '{}'", comparison.getRegressions().size(), threshold, baseline);
+            System.exit(1);
+        }
+    }
+}
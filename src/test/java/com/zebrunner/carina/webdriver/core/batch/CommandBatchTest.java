@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.batch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CommandBatchTest {
+
+    @Test
+    public void testReadsAreCoalescedIntoOneScript() {
+        WebDriver driver = createJavascriptDriver();
+        Mockito.when(((JavascriptExecutor) driver).executeScript(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(List.of(Map.of("s", 0L, "v", "Title"), Map.of("s", 0L, "v", "https://example.com/"), Map.of("s", 0L, "v", 5L)));
+
+        CompletableFuture<String> title;
+        CompletableFuture<String> url;
+        CompletableFuture<Object> value;
+        try (CommandBatch batch = CommandBatch.open(driver)) {
+            title = batch.title();
+            url = batch.currentUrl();
+            value = batch.script("return arguments[0] + arguments[1];", 2, 3);
+            Assert.assertFalse(title.isDone(), "Futures should be resolved at the end of the scope");
+        }
+
+        Assert.assertEquals(CommandBatch.result(title), "Title");
+        Assert.assertEquals(CommandBatch.result(url), "https://example.com/");
+        Assert.assertEquals(CommandBatch.result(value), 5L);
+        Mockito.verify((JavascriptExecutor) driver, Mockito.times(1))
+                .executeScript(ArgumentMatchers.anyString(), ArgumentMatchers.eq(List.of(List.of(), List.of(), List.of(2, 3))));
+        Mockito.verify(driver, Mockito.never()).getTitle();
+    }
+
+    @Test
+    public void testFailedScriptFailsOnlyItsFuture() {
+        WebDriver driver = createJavascriptDriver();
+        Mockito.when(((JavascriptExecutor) driver).executeScript(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(List.of(Map.of("s", 1L, "v", "Blocked a frame"), Map.of("s", 1L, "v", "foo is not defined")));
+        Mockito.when(driver.getTitle()).thenReturn("Title");
+
+        CompletableFuture<String> title;
+        CompletableFuture<Object> value;
+        try (CommandBatch batch = CommandBatch.open(driver)) {
+            title = batch.title();
+            value = batch.script("return foo;");
+        }
+
+        Assert.assertEquals(CommandBatch.result(title), "Title", "Title should be read sequentially when script fails");
+        JavascriptException e = Assert.expectThrows(JavascriptException.class, () -> CommandBatch.result(value));
+        Assert.assertTrue(e.getMessage().contains("foo is not defined"));
+    }
+
+    @Test
+    public void testSequentialExecutionWhenBatchFails() {
+        WebDriver driver = createJavascriptDriver();
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        Mockito.when(executor.executeScript(ArgumentMatchers.contains("run(0"), ArgumentMatchers.any()))
+                .thenThrow(new WebDriverException("Method is not implemented"));
+        Mockito.when(driver.getTitle()).thenReturn("Title");
+        Mockito.when(driver.getPageSource()).thenReturn("<html/>");
+        Mockito.when(executor.executeScript("return 1;")).thenReturn(1L);
+
+        CompletableFuture<String> title;
+        CompletableFuture<String> source;
+        CompletableFuture<Object> value;
+        try (CommandBatch batch = CommandBatch.open(driver)) {
+            source = batch.pageSource();
+            title = batch.title();
+            value = batch.script("return 1;");
+        }
+
+        Assert.assertEquals(CommandBatch.result(title), "Title");
+        Assert.assertEquals(CommandBatch.result(source), "<html/>");
+        Assert.assertEquals(CommandBatch.result(value), 1L);
+    }
+
+    @Test
+    public void testDriverWithoutJavascript() {
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        Mockito.when(driver.getTitle()).thenReturn("Title");
+        Mockito.when(driver.getCurrentUrl()).thenReturn("https://example.com/");
+
+        try (CommandBatch batch = CommandBatch.open(driver)) {
+            CompletableFuture<String> title = batch.title();
+            CompletableFuture<String> url = batch.currentUrl();
+            batch.flush();
+            Assert.assertEquals(CommandBatch.result(title), "Title");
+            Assert.assertEquals(CommandBatch.result(url), "https://example.com/");
+        }
+    }
+
+    @Test
+    public void testClosedBatchRejectsReads() {
+        CommandBatch batch = CommandBatch.open(createJavascriptDriver());
+        batch.close();
+        Assert.assertThrows(IllegalStateException.class, batch::title);
+    }
+
+    private static WebDriver createJavascriptDriver() {
+        return Mockito.mock(WebDriver.class, Mockito.withSettings().extraInterfaces(JavascriptExecutor.class));
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.capability;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import com.zebrunner.carina.webdriver.core.capability.impl.desktop.ChromeCapabilities;
+import com.zebrunner.carina.webdriver.core.capability.impl.desktop.FirefoxCapabilities;
+
+/**
+ * Measures building of the capabilities by the {@link AbstractCapabilities} implementations from the test configuration
+ * and parsing of the typed {@code capabilities.*} properties.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.webdriver.core.capability.CapabilitiesBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapabilitiesBenchmark {
+    private static final int PROPERTIES = 50;
+
+    private final ChromeCapabilities chromeCapabilities = new ChromeCapabilities();
+    private final FirefoxCapabilities firefoxCapabilities = new FirefoxCapabilities();
+    private final Map<String, String> properties = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < PROPERTIES; i++) {
+            properties.put("capabilities.string" + i, "value" + i);
+            properties.put("capabilities.flag" + i + "[boolean]", "true");
+            properties.put("capabilities.number" + i + "[integer]", String.valueOf(i));
+            properties.put("unrelated.property" + i, "value" + i);
+        }
+    }
+
+    @Benchmark
+    public ChromeOptions chrome() {
+        return chromeCapabilities.getCapability("benchmark");
+    }
+
+    @Benchmark
+    public FirefoxOptions firefox() {
+        return firefoxCapabilities.getCapability("benchmark");
+    }
+
+    @Benchmark
+    public Map<String, Object> globalCapabilities() {
+        return AbstractCapabilities.getGlobalCapabilities(properties);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CapabilitiesBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
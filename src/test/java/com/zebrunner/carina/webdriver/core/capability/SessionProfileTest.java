@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.capability;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.commons.SpecialKeywords;
+
+public class SessionProfileTest {
+
+    @Test
+    public void testNativeAndroidProfile() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.PLATFORM_NAME, "android");
+        capabilities.setCapability("appium:automationName", "UiAutomator2");
+
+        SessionProfile profile = SessionProfile.fromCapabilities(capabilities);
+        Assert.assertEquals(profile.getDriverType(), DriverType.MOBILE);
+        Assert.assertEquals(profile.getDriverTypeKeyword(), SpecialKeywords.MOBILE);
+        Assert.assertEquals(profile.getAutomation(), "UiAutomator2");
+        Assert.assertTrue(profile.isAndroid());
+        Assert.assertTrue(profile.isNativeApp());
+    }
+
+    @Test
+    public void testDesktopProfile() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+        capabilities.setCapability(CapabilityType.SET_WINDOW_RECT, true);
+
+        SessionProfile profile = SessionProfile.fromCapabilities(capabilities);
+        Assert.assertEquals(profile.getDriverType(), DriverType.DESKTOP);
+        Assert.assertFalse(profile.isNativeApp());
+        Assert.assertTrue(profile.isSetWindowRect());
+        Assert.assertFalse(profile.isBiDiEnabled());
+    }
+
+    @Test
+    public void testProfileIsCachedByDriver() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "firefox");
+        WebDriver driver = Mockito.mock(WebDriver.class, Mockito.withSettings().extraInterfaces(HasCapabilities.class));
+        Mockito.when(((HasCapabilities) driver).getCapabilities()).thenReturn(capabilities);
+
+        SessionProfile profile = SessionProfile.of(driver).orElseThrow();
+        Assert.assertSame(SessionProfile.of(driver).orElseThrow(), profile);
+        Mockito.verify((HasCapabilities) driver, Mockito.times(1)).getCapabilities();
+    }
+
+    @Test
+    public void testDriverWithoutCapabilities() {
+        Assert.assertTrue(SessionProfile.of(Mockito.mock(WebDriver.class)).isEmpty());
+        Assert.assertTrue(SessionProfile.of(null).isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.context;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.TestPhase;
+import com.zebrunner.carina.webdriver.device.Device;
+
+public class DriverContextTest {
+    private static final String DRIVER_NAME = "context-driver";
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDefaultContextIdIsThreadId() {
+        Assert.assertEquals(DriverContext.currentId(), Thread.currentThread().getId());
+        Assert.assertSame(DriverContext.current(), DriverContext.current());
+    }
+
+    @Test
+    public void testDriverIsVisibleInPropagatedTasks() throws Exception {
+        DriverContext context = DriverContext.create();
+        Assert.assertTrue(context.getId() < 0, "Explicit context id should not intersect with thread ids");
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        Device device = new Device();
+
+        context.call(() -> {
+            IDriverPool.getDrivers().put(DRIVER_NAME,
+                    new CarinaDriver(DRIVER_NAME, driver, device, TestPhase.Phase.METHOD, DriverContext.currentId(), new MutableCapabilities()));
+            IDriverPool.CURRENT_DEVICE.set(device);
+
+            CompletableFuture<WebDriver> fromFuture = DriverContext.supplyAsync(() -> IDriverPool.getDrivers().get(DRIVER_NAME).getDriver(),
+                    executor);
+            Assert.assertSame(fromFuture.get(10, TimeUnit.SECONDS), driver);
+
+            CompletableFuture<Device> fromExecutor = new CompletableFuture<>();
+            DriverContext.propagating(executor).execute(() -> fromExecutor.complete(IDriverPool.CURRENT_DEVICE.get()));
+            Assert.assertSame(fromExecutor.get(10, TimeUnit.SECONDS), device);
+
+            // not propagated task works in the context of the worker thread
+            Assert.assertNull(executor.submit(() -> IDriverPool.getDrivers().get(DRIVER_NAME)).get(10, TimeUnit.SECONDS));
+            return null;
+        });
+
+        Assert.assertNull(IDriverPool.getDrivers().get(DRIVER_NAME), "Driver of the explicit context should not be visible in the thread");
+        Assert.assertNull(IDriverPool.CURRENT_DEVICE.get());
+        IDriverPool.DRIVERS_POOL.remove(context.getId());
+    }
+
+    @Test
+    public void testScopeRestoresPreviousContext() {
+        DriverContext previous = DriverContext.current();
+        DriverContext context = DriverContext.create();
+        try (DriverContext.Scope ignored = context.attach()) {
+            Assert.assertSame(DriverContext.current(), context);
+            try (DriverContext.Scope ignored2 = DriverContext.create().attach()) {
+                Assert.assertNotSame(DriverContext.current(), context);
+            }
+            Assert.assertSame(DriverContext.current(), context);
+        }
+        Assert.assertSame(DriverContext.current(), previous);
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.http;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResponseStreamingTest {
+
+    @Test
+    public void testValueIsDecodedWhileRead() throws IOException {
+        String json = "{\"sessionId\": \"abc\", \"status\": 0, \"other\": {\"value\": [1, \"}\\\"\", {}], \"x\": null},"
+                + " \"value\": \"<a b=\\\"c\\\">\\n\\u0436\\\\/\\/</a>\", \"after\": 1}";
+        JsonStringValueReader reader = JsonStringValueReader.of(new StringReader(json));
+        Assert.assertNotNull(reader);
+        Assert.assertEquals(readAll(reader), "<a b=\"c\">\nж\\//</a>");
+    }
+
+    @Test
+    public void testValueWhichIsNotString() throws IOException {
+        Assert.assertNull(JsonStringValueReader.of(new StringReader("{\"value\": {\"error\": \"no such window\"}}")));
+        Assert.assertNull(JsonStringValueReader.of(new StringReader("{\"value\": null}")));
+        Assert.assertNull(JsonStringValueReader.of(new StringReader("{\"status\": 0}")));
+        Assert.assertNull(JsonStringValueReader.of(new StringReader("[]")));
+    }
+
+    @Test
+    public void testResponseIsStreamedInScope() {
+        HttpClient client = createClient("{\"value\": \"<html>source</html>\"}");
+        AtomicReference<String> command = new AtomicReference<>();
+
+        String source = ResponseStreaming.readValue(ResponseStreaming.PAGE_SOURCE_PATH, ResponseStreamingTest::readAll, () -> {
+            HttpResponse response = client.execute(new HttpRequest(HttpMethod.GET, "/session/1/source"));
+            command.set(Contents.string(response));
+            return "";
+        });
+
+        Assert.assertEquals(source, "<html>source</html>");
+        Assert.assertEquals(command.get(), "{\"value\":\"\"}", "Command should receive empty value");
+    }
+
+    @Test
+    public void testResponseIsNotStreamedOutOfScope() {
+        HttpClient client = createClient("{\"value\": \"<html>source</html>\"}");
+        Assert.assertEquals(Contents.string(client.execute(new HttpRequest(HttpMethod.GET, "/session/1/source"))),
+                "{\"value\": \"<html>source</html>\"}");
+        String title = ResponseStreaming.readValue(ResponseStreaming.PAGE_SOURCE_PATH, ResponseStreamingTest::readAll,
+                () -> Contents.string(client.execute(new HttpRequest(HttpMethod.GET, "/session/1/title"))));
+        Assert.assertEquals(title, "{\"value\": \"<html>source</html>\"}", "Response of other command should not be streamed");
+    }
+
+    @Test
+    public void testScreenshotFallback() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB), "png", png);
+        TakesScreenshot context = Mockito.mock(TakesScreenshot.class);
+        Mockito.when(context.getScreenshotAs(OutputType.BASE64)).thenReturn(Base64.getEncoder().encodeToString(png.toByteArray()));
+
+        BufferedImage image = ResponseStreaming.screenshot(context);
+        Assert.assertEquals(image.getWidth(), 3);
+        Assert.assertEquals(image.getHeight(), 2);
+    }
+
+    @Test(expectedExceptions = UncheckedIOException.class)
+    public void testUndecodableScreenshotIsFailure() {
+        TakesScreenshot context = Mockito.mock(TakesScreenshot.class);
+        Mockito.when(context.getScreenshotAs(OutputType.BASE64)).thenReturn(Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3 }));
+        ResponseStreaming.screenshot(context);
+    }
+
+    private static HttpClient createClient(String body) {
+        HttpClient delegate = Mockito.mock(HttpClient.class);
+        Mockito.when(delegate.execute(Mockito.any())).thenAnswer(invocation -> new HttpResponse()
+                .setStatus(200)
+                .addHeader("Content-Type", "application/json; charset=utf-8")
+                .setContent(Contents.utf8String(body)));
+        HttpClient.Factory factory = Mockito.mock(HttpClient.Factory.class);
+        Mockito.when(factory.createClient(Mockito.any(ClientConfig.class))).thenReturn(delegate);
+        return StreamingHttpClientFactory.wrap(factory).createClient(ClientConfig.defaultConfig());
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringWriter writer = new StringWriter();
+        reader.transferTo(writer);
+        return writer.toString();
+    }
+}
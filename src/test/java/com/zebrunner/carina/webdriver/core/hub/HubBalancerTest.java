@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.hub;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.exception.CircuitBreakerOpenException;
+import com.zebrunner.carina.utils.exception.InvalidConfigurationException;
+import com.zebrunner.carina.webdriver.core.retry.CircuitBreaker;
+import com.zebrunner.carina.webdriver.stub.StubWebDriverServer;
+
+public class HubBalancerTest {
+    private static final String HUB1 = "http://hub1:4444/wd/hub";
+    private static final String HUB2 = "http://hub2:4444/wd/hub";
+
+    @Test
+    public void testRoundRobinAndSessionAffinity() {
+        HubBalancer balancer = new HubBalancer(List.of(HUB1, HUB2), new HubSelectionStrategy.RoundRobin(), 3, Duration.ofMinutes(1),
+                System::nanoTime);
+        HubBalancer.Lease first = balancer.lease(null);
+        HubBalancer.Lease second = balancer.lease(null);
+        Assert.assertEquals(first.getUrl(), HUB1);
+        Assert.assertEquals(second.getUrl(), HUB2);
+
+        RemoteWebDriver driver = mockDriver();
+        second.onSuccess(driver);
+        Assert.assertEquals(balancer.getSeleniumUrl(driver).orElseThrow(), HUB2, "Session should keep affinity to the hub");
+        Assert.assertEquals(balancer.getHubs().get(1).getOutstandingSessions(), 1);
+
+        balancer.release(driver.getSessionId());
+        Assert.assertTrue(balancer.getSeleniumUrl(driver).isEmpty());
+        Assert.assertEquals(balancer.getHubs().get(1).getOutstandingSessions(), 0);
+        Assert.assertEquals(balancer.lease("http://explicit:4444/wd/hub").getUrl(), "http://explicit:4444/wd/hub");
+    }
+
+    @Test
+    public void testLeastSessionsAndLowestLatency() {
+        HubBalancer balancer = new HubBalancer(List.of(HUB1, HUB2), new HubSelectionStrategy.LeastSessions(), 3, Duration.ofMinutes(1),
+                System::nanoTime);
+        balancer.lease(null).onSuccess(mockDriver());
+        Assert.assertEquals(balancer.lease(null).getUrl(), HUB2);
+
+        Hub fast = balancer.getHubs().get(0);
+        Hub slow = balancer.getHubs().get(1);
+        fast.onNewSessionSuccess(Duration.ofSeconds(2));
+        slow.onNewSessionSuccess(Duration.ofSeconds(20));
+        slow.onNewSessionSuccess(Duration.ofSeconds(10));
+        Assert.assertEquals(slow.getNewSessionLatency().toMillis(), 17000, "Latency should be exponentially weighted");
+        Assert.assertSame(new HubSelectionStrategy.LowestLatency().select(balancer.getHubs()), fast);
+    }
+
+    @Test
+    public void testHubIsRemovedFromRotationAfterFailures() {
+        AtomicLong clock = new AtomicLong();
+        HubBalancer balancer = new HubBalancer(List.of(HUB1, HUB2), new HubSelectionStrategy.LowestLatency(), 2, Duration.ofSeconds(60),
+                clock::get);
+        balancer.getHubs().get(1).onNewSessionSuccess(Duration.ofSeconds(5));
+        HubBalancer.Lease invalidCapabilities = balancer.lease(null);
+        Assert.assertEquals(invalidCapabilities.getUrl(), HUB1);
+        invalidCapabilities.onFailure(new InvalidArgumentException("Invalid capabilities"));
+        Assert.assertEquals(balancer.getHubs().get(0).getConsecutiveFailures(), 0, "Capabilities error is not a failure of the hub");
+        for (int i = 0; i < 2; i++) {
+            HubBalancer.Lease lease = balancer.lease(null);
+            Assert.assertEquals(lease.getUrl(), HUB1);
+            lease.onFailure(new SessionNotCreatedException("Could not start a new session"));
+        }
+        Assert.assertEquals(balancer.getHubs().get(0).getOutstandingSessions(), 0);
+        Assert.assertEquals(balancer.lease(null).getUrl(), HUB2, "Failed hub should be removed from rotation");
+
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+        Assert.assertEquals(balancer.lease(null).getUrl(), HUB1, "Hub should return to rotation after quarantine");
+    }
+
+    @Test
+    public void testStrategyByName() {
+        Assert.assertTrue(HubBalancer.createStrategy("least_sessions") instanceof HubSelectionStrategy.LeastSessions);
+        Assert.assertTrue(HubBalancer.createStrategy(HubSelectionStrategy.LowestLatency.class.getName())
+                instanceof HubSelectionStrategy.LowestLatency);
+        Assert.assertThrows(InvalidConfigurationException.class, () -> HubBalancer.createStrategy("unknown"));
+    }
+
+    @Test
+    public void testSessionsAreBalancedBetweenStubHubs() throws IOException {
+        try (StubWebDriverServer healthy = new StubWebDriverServer().start();
+                StubWebDriverServer failing = new StubWebDriverServer().start()) {
+            failing.fault(DriverCommand.NEW_SESSION, StubWebDriverServer.Fault.error("session not created", 100));
+            HubBalancer balancer = new HubBalancer(List.of(failing.getUrl(), healthy.getUrl()), new HubSelectionStrategy.RoundRobin(), 2,
+                    Duration.ofMinutes(1), System::nanoTime);
+            MutableCapabilities capabilities = new MutableCapabilities();
+            capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+
+            int started = 0;
+            for (int i = 0; i < 6; i++) {
+                HubBalancer.Lease lease = balancer.lease(null);
+                try {
+                    RemoteWebDriver driver = new RemoteWebDriver(new URL(lease.getUrl()), capabilities);
+                    lease.onSuccess(driver);
+                    Assert.assertEquals(balancer.getSeleniumUrl(driver).orElseThrow(), healthy.getUrl());
+                    SessionId sessionId = driver.getSessionId();
+                    driver.quit();
+                    balancer.release(sessionId);
+                    started++;
+                } catch (SessionNotCreatedException e) {
+                    lease.onFailure(e);
+                }
+            }
+            Assert.assertEquals(failing.getCommandCount(DriverCommand.NEW_SESSION), 2, "Failing hub should be removed from rotation");
+            Assert.assertEquals(started, 4);
+            Assert.assertEquals(healthy.getCreatedSessions(), 4);
+            Assert.assertEquals(healthy.getActiveSessions(), 0);
+            Assert.assertEquals(balancer.getHubs().get(1).getOutstandingSessions(), 0);
+        }
+    }
+
+    @Test
+    public void testHubWithOpenCircuitIsSkipped() throws IOException {
+        try (StubWebDriverServer healthy = new StubWebDriverServer().start();
+                StubWebDriverServer failing = new StubWebDriverServer().start()) {
+            failing.fault(DriverCommand.NEW_SESSION, StubWebDriverServer.Fault.error("session not created", 100));
+            Map<String, CircuitBreaker> circuitBreakers = new HashMap<>();
+            // quarantine is disabled, so only circuit breaker removes the failing hub from the rotation
+            HubBalancer balancer = new HubBalancer(List.of(failing.getUrl(), healthy.getUrl()), new HubSelectionStrategy.RoundRobin(), 0,
+                    Duration.ofMinutes(1), System::nanoTime,
+                    url -> circuitBreakers.computeIfAbsent(url, u -> new CircuitBreaker(u, 2, Duration.ofMinutes(1))));
+            MutableCapabilities capabilities = new MutableCapabilities();
+            capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+
+            int started = 0;
+            for (int i = 0; i < 8; i++) {
+                HubBalancer.Lease lease = balancer.lease(null);
+                try {
+                    RemoteWebDriver driver = new RemoteWebDriver(new URL(lease.getUrl()), capabilities);
+                    lease.onSuccess(driver);
+                    driver.quit();
+                    started++;
+                } catch (SessionNotCreatedException e) {
+                    lease.onFailure(e);
+                }
+            }
+            Assert.assertEquals(failing.getCommandCount(DriverCommand.NEW_SESSION), 2, "Hub with open circuit should be skipped");
+            Assert.assertEquals(circuitBreakers.get(failing.getUrl()).getState(), CircuitBreaker.State.OPEN);
+            Assert.assertEquals(circuitBreakers.get(healthy.getUrl()).getState(), CircuitBreaker.State.CLOSED,
+                    "Failures of one hub should not open circuit of the other hub");
+            Assert.assertEquals(started, 6);
+            Assert.assertEquals(healthy.getCreatedSessions(), 6);
+
+            circuitBreakers.get(healthy.getUrl()).onFailure(new SessionNotCreatedException("Could not start a new session"));
+            circuitBreakers.get(healthy.getUrl()).onFailure(new SessionNotCreatedException("Could not start a new session"));
+            Assert.assertThrows(CircuitBreakerOpenException.class, () -> balancer.lease(null));
+        }
+    }
+
+    private static RemoteWebDriver mockDriver() {
+        RemoteWebDriver driver = Mockito.mock(RemoteWebDriver.class);
+        Mockito.when(driver.getSessionId()).thenReturn(new SessionId(UUID.randomUUID().toString()));
+        return driver;
+    }
+}
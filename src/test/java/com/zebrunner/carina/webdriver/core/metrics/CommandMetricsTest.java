@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.metrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.webdriver.core.http.MeteredHttpClientFactory;
+import com.zebrunner.carina.webdriver.core.profiler.jfr.DriverCommandEvent;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class CommandMetricsTest {
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(histogram.getPercentile(99), 0);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(histogram.getCount(), 100);
+        Assert.assertEquals(histogram.getMean(), 50.5);
+        Assert.assertEquals(histogram.getMax(), 100);
+        Assert.assertEquals(histogram.getPercentile(50), 64, "p50 should be the upper bound of its bucket");
+        Assert.assertEquals(histogram.getPercentile(99), 100, "Percentile should not exceed max value");
+        Assert.assertEquals(histogram.getPercentile(1), 1);
+    }
+
+    @Test
+    public void testRecordPerSessionAndRun() {
+        CommandMetrics metrics = new CommandMetrics();
+        metrics.record("first", DriverCommand.FIND_ELEMENT, 2_000, 100, 300, false);
+        metrics.record("first", DriverCommand.FIND_ELEMENT, 4_000, 100, 300, true);
+        metrics.record("second", DriverCommand.FIND_ELEMENT, 6_000, 100, 300, false);
+        metrics.record("second", DriverCommand.CLICK_ELEMENT, 1_000, 10, 14, false);
+
+        Assert.assertEquals(metrics.getCommandCount(), 4);
+        Assert.assertEquals(metrics.getErrorCount(), 1);
+        Assert.assertEquals(metrics.getSessionCount(), 2);
+        Assert.assertEquals(metrics.getCommandCounts(), Map.of(DriverCommand.FIND_ELEMENT, 3L, DriverCommand.CLICK_ELEMENT, 1L));
+        Assert.assertEquals(metrics.getMeanLatencyMillis().get(DriverCommand.FIND_ELEMENT), 4.0);
+        Assert.assertEquals(metrics.getSessionStats("first").get(DriverCommand.FIND_ELEMENT).getErrors(), 1);
+        Assert.assertEquals(metrics.getSessionStats("second").keySet().size(), 2);
+
+        JSONObject report = new JSONObject(metrics.getReport());
+        Assert.assertEquals(report.getJSONObject("run").getJSONObject(DriverCommand.FIND_ELEMENT).getLong("count"), 3);
+        Assert.assertEquals(report.getJSONObject("sessions").getJSONObject("second").getJSONObject(DriverCommand.CLICK_ELEMENT)
+                .getJSONObject("responseBytes").getDouble("max"), 14.0);
+    }
+
+    @Test
+    public void testWireMeasurementsAreTakenFromHttpClient() {
+        HttpClient client = MeteredHttpClientFactory.wrap(config -> new HttpClient() {
+            @Override
+            public HttpResponse execute(HttpRequest request) {
+                // content is sent by the client
+                Contents.bytes(request.getContent());
+                return new HttpResponse().setContent(Contents.utf8String("{\"value\":\"text\"}"));
+            }
+
+            @Override
+            public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+                throw new UnsupportedOperationException();
+            }
+        }).createClient(ClientConfig.defaultConfig().baseUri(URI.create("http://localhost:4444")));
+
+        CommandMetrics metrics = new CommandMetrics();
+        metrics.measure(new Command(new SessionId("1"), DriverCommand.GET_TITLE), () -> {
+            HttpResponse element = client.execute(new HttpRequest(HttpMethod.POST, "/session/1/element")
+                    .setContent(Contents.utf8String("{\"using\":\"id\"}")));
+            Contents.string(element);
+            // content read again by the listeners is not counted
+            Contents.string(element);
+            Contents.string(client.execute(new HttpRequest(HttpMethod.GET, "/session/1/title")));
+            return new Response(new SessionId("1"));
+        });
+        CommandStats stats = metrics.getSessionStats("1").get(DriverCommand.GET_TITLE);
+        Assert.assertEquals(stats.getRequestBytes().getSum(), 14, "Request sizes of all exchanges should be summed");
+        Assert.assertEquals(stats.getResponseBytes().getSum(), 32);
+        Assert.assertNull(MeteredHttpClientFactory.takeExchange(), "Measurements should be reset after the command");
+    }
+
+    @Test
+    public void testSessionMetricsAreReleasedOnQuit() {
+        CommandMetrics metrics = new CommandMetrics();
+        metrics.measure(new Command(new SessionId("quit"), DriverCommand.GET_TITLE), () -> new Response(new SessionId("quit")));
+        Assert.assertEquals(metrics.getSessionCount(), 1);
+        metrics.measure(new Command(new SessionId("quit"), DriverCommand.QUIT), () -> new Response(new SessionId("quit")));
+
+        Assert.assertEquals(metrics.getSessionCount(), 0, "Metrics of the quit session should be released");
+        Assert.assertTrue(metrics.getSessionStats("quit").isEmpty());
+        Assert.assertEquals(metrics.getCommandCounts(), Map.of(DriverCommand.GET_TITLE, 1L, DriverCommand.QUIT, 1L));
+        Assert.assertEquals(metrics.getCompletedSessionCount(), 1);
+        Assert.assertEquals(metrics.toJson().getJSONObject("sessions").getJSONObject("quit").getJSONObject(DriverCommand.GET_TITLE)
+                .getLong("count"), 1, "Summary of the quit session should be kept for the report");
+    }
+
+    @Test
+    public void testCompletedSessionsAreBounded() {
+        CommandMetrics metrics = new CommandMetrics();
+        for (int i = 0; i <= CommandMetrics.MAX_COMPLETED_SESSIONS; i++) {
+            SessionId sessionId = new SessionId("session-" + i);
+            metrics.measure(new Command(sessionId, DriverCommand.GET_TITLE), () -> new Response(sessionId));
+            metrics.measure(new Command(sessionId, DriverCommand.QUIT), () -> new Response(sessionId));
+        }
+        Assert.assertEquals(metrics.getCompletedSessionCount(), CommandMetrics.MAX_COMPLETED_SESSIONS);
+        JSONObject sessions = metrics.toJson().getJSONObject("sessions");
+        Assert.assertFalse(sessions.has("session-0"), "The oldest quit session should be dropped");
+        Assert.assertTrue(sessions.has("session-" + CommandMetrics.MAX_COMPLETED_SESSIONS));
+    }
+
+    @Test
+    public void testDriverCommandEventIsRecorded() throws IOException {
+        Path file = Files.createTempFile("carina", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DriverCommandEvent.class);
+            recording.start();
+            new CommandMetrics().measure(new Command(new SessionId("jfr-session"), DriverCommand.GET_TITLE),
+                    () -> new Response(new SessionId("jfr-session")));
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+                    .stream()
+                    .filter(event -> "com.zebrunner.carina.DriverCommand".equals(event.getEventType().getName()))
+                    .collect(Collectors.toList());
+            Assert.assertEquals(events.size(), 1);
+            Assert.assertEquals(events.get(0).getString("command"), DriverCommand.GET_TITLE);
+            Assert.assertEquals(events.get(0).getString("sessionId"), "jfr-session");
+            Assert.assertFalse(events.get(0).getBoolean("error"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
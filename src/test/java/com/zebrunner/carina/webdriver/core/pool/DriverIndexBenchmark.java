@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.TestPhase;
+import com.zebrunner.carina.webdriver.device.Device;
+
+/**
+ * Compares lookup of the driver by session id and by driver identity in the {@link DriverIndex} with the linear scan
+ * over all registered drivers (previous implementation), with hundreds of concurrent sessions.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.webdriver.core.pool.DriverIndexBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class DriverIndexBenchmark {
+
+    @Param({ "200", "1000" })
+    private int sessions;
+
+    private final List<CarinaDriver> drivers = new ArrayList<>();
+    private SessionId[] sessionIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionIds = new SessionId[sessions];
+        for (int i = 0; i < sessions; i++) {
+            SessionId sessionId = new SessionId(UUID.randomUUID().toString());
+            RemoteWebDriver driver = Mockito.mock(RemoteWebDriver.class);
+            Mockito.when(driver.getSessionId()).thenReturn(sessionId);
+            CarinaDriver carinaDriver = new CarinaDriver("driver-" + i, driver, new Device(), TestPhase.Phase.METHOD, i,
+                    new MutableCapabilities());
+            DriverIndex.register(carinaDriver);
+            drivers.add(carinaDriver);
+            sessionIds[i] = sessionId;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        drivers.forEach(DriverIndex::remove);
+    }
+
+    @Benchmark
+    public Object scanBySessionId() {
+        SessionId sessionId = sessionIds[ThreadLocalRandom.current().nextInt(sessions)];
+        for (CarinaDriver carinaDriver : drivers) {
+            if (sessionId.equals(((RemoteWebDriver) carinaDriver.getDriver()).getSessionId())) {
+                return carinaDriver;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Object indexBySessionId() {
+        return DriverIndex.getBySessionId(sessionIds[ThreadLocalRandom.current().nextInt(sessions)]);
+    }
+
+    @Benchmark
+    public Object scanByDriver() {
+        WebDriver driver = drivers.get(ThreadLocalRandom.current().nextInt(sessions)).getDriver();
+        for (CarinaDriver carinaDriver : drivers) {
+            if (carinaDriver.getDriver().equals(driver)) {
+                return carinaDriver.getDevice();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Object indexByDriver() {
+        return DriverIndex.getByDriver(drivers.get(ThreadLocalRandom.current().nextInt(sessions)).getDriver());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DriverIndexBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
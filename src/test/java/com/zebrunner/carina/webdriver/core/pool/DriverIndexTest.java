@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.exception.DriverPoolException;
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.TestPhase;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
+import com.zebrunner.carina.webdriver.device.Device;
+
+public class DriverIndexTest implements IDriverPool {
+
+    @Test
+    public void testDriverIsIndexedUntilRemoved() {
+        SessionId sessionId = new SessionId(UUID.randomUUID().toString());
+        RemoteWebDriver original = Mockito.mock(RemoteWebDriver.class);
+        Mockito.when(original.getSessionId()).thenReturn(sessionId);
+        WebDriver decorated = new EventFiringDecorator<>().decorate(original);
+        Device device = new Device();
+        device.setUdid(UUID.randomUUID().toString());
+        CarinaDriver carinaDriver = new CarinaDriver("default", decorated, device, TestPhase.Phase.METHOD, 1L, new MutableCapabilities());
+
+        DriverIndex.register(carinaDriver);
+        Assert.assertSame(DriverIndex.getBySessionId(sessionId).orElseThrow(), carinaDriver);
+        Assert.assertSame(DriverIndex.getByDriver(decorated).orElseThrow(), carinaDriver);
+        Assert.assertSame(DriverIndex.getByDriver(original).orElseThrow(), carinaDriver, "Driver should be found by the original driver");
+        Assert.assertTrue(DriverIndex.getByUdid(device.getUdid()).contains(carinaDriver));
+
+        DriverIndex.remove(carinaDriver);
+        Assert.assertTrue(DriverIndex.getBySessionId(sessionId).isEmpty());
+        Assert.assertTrue(DriverIndex.getByDriver(decorated).isEmpty());
+        Assert.assertTrue(DriverIndex.getByDriver(original).isEmpty());
+        Assert.assertTrue(DriverIndex.getByUdid(device.getUdid()).isEmpty());
+    }
+
+    @Test
+    public void testDriverOfOtherContextIsNotReturned() {
+        SessionId sessionId = new SessionId(UUID.randomUUID().toString());
+        RemoteWebDriver driver = Mockito.mock(RemoteWebDriver.class);
+        Mockito.when(driver.getSessionId()).thenReturn(sessionId);
+        Device device = new Device();
+        CarinaDriver carinaDriver = new CarinaDriver("default", driver, device, TestPhase.Phase.METHOD, DriverContext.currentId(),
+                new MutableCapabilities());
+        DriverIndex.register(carinaDriver);
+        try {
+            Assert.assertSame(IDriverPool.getDriver(sessionId), driver);
+            Assert.assertSame(getDevice(driver), device);
+            DriverContext.create().run(() -> {
+                Assert.assertThrows(DriverPoolException.class, () -> IDriverPool.getDriver(sessionId));
+                Assert.assertSame(getDevice(driver), IDriverPool.getNullDevice(), "Device of the other context should not be returned");
+            });
+        } finally {
+            DriverIndex.remove(carinaDriver);
+        }
+    }
+
+    @Test
+    public void testDriverRemovedFromPoolDirectlyIsNotRetained() throws InterruptedException {
+        SessionId sessionId = new SessionId(UUID.randomUUID().toString());
+        String udid = UUID.randomUUID().toString();
+        registerUnreferencedDriver(sessionId, udid);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((DriverIndex.getBySessionId(sessionId).isPresent() || !DriverIndex.getByUdid(udid).isEmpty())
+                && System.nanoTime() < deadline) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        Assert.assertTrue(DriverIndex.getBySessionId(sessionId).isEmpty(), "Driver should be collected");
+        Assert.assertTrue(DriverIndex.getByUdid(udid).isEmpty(), "Driver should be collected");
+    }
+
+    private static void registerUnreferencedDriver(SessionId sessionId, String udid) {
+        RemoteWebDriver driver = Mockito.mock(RemoteWebDriver.class);
+        Mockito.when(driver.getSessionId()).thenReturn(sessionId);
+        Device device = new Device();
+        device.setUdid(udid);
+        DriverIndex.register(new CarinaDriver("default", driver, device, TestPhase.Phase.METHOD, 1L, new MutableCapabilities()));
+        Assert.assertTrue(DriverIndex.getBySessionId(sessionId).isPresent());
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DriverQuitExecutorTest {
+
+    @Test
+    public void testQuitIsInterruptedByDeadline() throws Exception {
+        DriverQuitExecutor executor = new DriverQuitExecutor(1, 10, Duration.ofMillis(200), Duration.ofSeconds(5));
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        Future<?> future = executor.submit(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        future.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(interrupted.get(), "Quit task should be interrupted by deadline");
+        Assert.assertTrue(executor.drain());
+        Assert.assertEquals(executor.getTimedOutCount(), 1);
+        Assert.assertEquals(executor.getCompletedCount(), 1);
+        Assert.assertTrue(executor.getAverageQuitLatency().toMillis() >= 200);
+    }
+
+    @Test
+    public void testQuitIsExecutedByCallerWhenQueueIsFull() throws Exception {
+        DriverQuitExecutor executor = new DriverQuitExecutor(1, 1, Duration.ofSeconds(10), Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> awaitQuietly(release));
+        Assert.assertEquals(executor.getRunningCount(), 1);
+        Assert.assertEquals(executor.getQueuedCount(), 1);
+
+        Thread caller = Thread.currentThread();
+        AtomicBoolean executedByCaller = new AtomicBoolean(false);
+        executor.execute(() -> executedByCaller.set(Thread.currentThread() == caller));
+        Assert.assertTrue(executedByCaller.get(), "Task should be executed by caller when queue is full");
+        Assert.assertEquals(executor.getCallerRunsCount(), 1);
+        Assert.assertEquals(executor.getPoolSize(), 1, "Number of threads should be bounded");
+
+        release.countDown();
+        Assert.assertTrue(executor.drain());
+        Assert.assertEquals(executor.getCompletedCount(), 3);
+    }
+
+    @Test
+    public void testQuitExecutedByCallerIsInterruptedByDeadline() {
+        DriverQuitExecutor executor = new DriverQuitExecutor(1, 1, Duration.ofMillis(200), Duration.ofSeconds(5));
+        Assert.assertTrue(executor.drain());
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        long start = System.nanoTime();
+        executor.execute(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        Assert.assertTrue(interrupted.get(), "Quit task executed by caller should be interrupted by deadline");
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        Assert.assertFalse(Thread.currentThread().isInterrupted(), "Interruption made by deadline should be cleared");
+        Assert.assertEquals(executor.getCallerRunsCount(), 1);
+        Assert.assertEquals(executor.getTimedOutCount(), 1);
+    }
+
+    @Test
+    public void testDrainAbandonsQueuedTasks() {
+        DriverQuitExecutor executor = new DriverQuitExecutor(1, 10, Duration.ofSeconds(10), Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedExecuted = new AtomicBoolean(false);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> queuedExecuted.set(true));
+
+        Assert.assertFalse(executor.drain(Duration.ofMillis(200)), "Drain should not wait longer than timeout");
+        Assert.assertTrue(executor.isShutdown());
+        Assert.assertFalse(queuedExecuted.get(), "Queued task should be abandoned");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
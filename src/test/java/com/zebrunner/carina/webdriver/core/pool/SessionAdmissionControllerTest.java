@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.exception.InvalidConfigurationException;
+
+public class SessionAdmissionControllerTest {
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRequestsAreAdmittedByPriorityAndArrivalOrder() throws Exception {
+        SessionAdmissionController controller = new SessionAdmissionController(1, Map.of(), "platformName", Duration.ZERO);
+        SessionAdmissionController.Permit permit = controller.acquire("android", SessionAdmissionController.NORMAL_PRIORITY);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        List<Future<?>> futures = List.of(
+                waitInQueue(controller, "first", SessionAdmissionController.NORMAL_PRIORITY, order, 1),
+                waitInQueue(controller, "second", SessionAdmissionController.NORMAL_PRIORITY, order, 2),
+                waitInQueue(controller, "retry", SessionAdmissionController.RETRY_PRIORITY, order, 3));
+        permit.close();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(order, List.of("retry", "first", "second"));
+        Assert.assertEquals(controller.getAdmitted(), 4);
+        Assert.assertEquals(controller.getActive(), 0);
+        Assert.assertEquals(controller.getQueueDepth(), 0);
+    }
+
+    @Test
+    public void testPoolLimitDoesNotBlockOtherPools() throws Exception {
+        SessionAdmissionController controller = new SessionAdmissionController(3, Map.of("android", 1), "platformName", Duration.ZERO);
+        SessionAdmissionController.Permit android = controller.acquire("android", SessionAdmissionController.NORMAL_PRIORITY);
+        List<String> order = new CopyOnWriteArrayList<>();
+        Future<?> waiting = waitInQueue(controller, "android", SessionAdmissionController.NORMAL_PRIORITY, order, 1);
+
+        try (SessionAdmissionController.Permit ios = controller.acquire("ios", SessionAdmissionController.NORMAL_PRIORITY)) {
+            Assert.assertEquals(ios.getPool(), "ios");
+            Assert.assertTrue(order.isEmpty(), "Request of the pool that reached its limit should wait");
+        }
+        android.close();
+        waiting.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(order, List.of("android"));
+    }
+
+    @Test
+    public void testRequestIsRejectedAfterTimeout() throws Exception {
+        SessionAdmissionController controller = new SessionAdmissionController(1, Map.of(), "platformName", Duration.ofMillis(200));
+        try (SessionAdmissionController.Permit permit = controller.acquire("android", SessionAdmissionController.NORMAL_PRIORITY)) {
+            Assert.assertThrows(SessionNotCreatedException.class, () -> controller.acquire("android", SessionAdmissionController.NORMAL_PRIORITY));
+        }
+        Assert.assertEquals(controller.getRejected(), 1);
+        Assert.assertEquals(controller.getQueueDepth(), 0);
+        Assert.assertEquals(controller.getWaitHistogram().values().stream().mapToLong(Long::longValue).sum(), 1);
+        // slot is free again
+        controller.acquire("android", SessionAdmissionController.NORMAL_PRIORITY).close();
+    }
+
+    @Test
+    public void testPoolIsResolvedFromCapabilities() {
+        SessionAdmissionController controller = new SessionAdmissionController(1, Map.of(), "deviceName", Duration.ZERO);
+        MutableCapabilities capabilities = new MutableCapabilities();
+        Assert.assertEquals(controller.getPool(capabilities), SessionAdmissionController.DEFAULT_POOL);
+        capabilities.setCapability("appium:deviceName", "Pixel 7");
+        Assert.assertEquals(controller.getPool(capabilities), "pixel 7");
+        Assert.assertEquals(controller.getPool(null), SessionAdmissionController.DEFAULT_POOL);
+    }
+
+    @Test
+    public void testParsePoolLimits() {
+        Assert.assertEquals(SessionAdmissionController.parsePoolLimits(" Android=3, ios = 2"), Map.of("android", 3, "ios", 2));
+        Assert.assertEquals(SessionAdmissionController.parsePoolLimits(""), Map.of());
+        Assert.assertThrows(InvalidConfigurationException.class, () -> SessionAdmissionController.parsePoolLimits("android"));
+    }
+
+    private Future<?> waitInQueue(SessionAdmissionController controller, String name, int priority, List<String> order, int expectedDepth)
+            throws InterruptedException {
+        Future<?> future = executor.submit(() -> {
+            try (SessionAdmissionController.Permit permit = controller.acquire(name, priority)) {
+                order.add(name);
+            }
+            return null;
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (controller.getQueueDepth() < expectedDepth && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(controller.getQueueDepth(), expectedDepth);
+        return future;
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.mockito.Answers;
+import org.mockito.Mockito;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.R;
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.TestPhase;
+import com.zebrunner.carina.webdriver.config.WebDriverConfiguration;
+
+public class SessionRecyclerTest {
+
+    @Test
+    public void testBrowserSessionReset() {
+        WebDriver driver = createBrowserDriver();
+        Mockito.when(driver.getWindowHandles()).thenReturn(new LinkedHashSet<>(List.of("main", "popup")));
+        Mockito.when(driver.switchTo().newWindow(WindowType.TAB).getWindowHandle()).thenReturn("clean");
+        Mockito.when(driver.getWindowHandle()).thenReturn("clean");
+
+        Assert.assertTrue(SessionRecycler.reset(toCarinaDriver(driver)));
+        Mockito.verify(driver.switchTo()).window("main");
+        Mockito.verify(driver.switchTo()).window("popup");
+        Mockito.verify(driver.switchTo().window("main")).close();
+        Mockito.verify(driver.switchTo().window("popup")).close();
+        Mockito.verify(driver.switchTo()).window("clean");
+        Mockito.verify(driver.manage()).deleteAllCookies();
+        Mockito.verify(driver).get("about:blank");
+    }
+
+    @Test
+    public void testVisitedOriginsAreCleared() {
+        RemoteWebDriver driver = Mockito.mock(RemoteWebDriver.class, Answers.RETURNS_DEEP_STUBS);
+        SessionId sessionId = new SessionId("recycled-" + System.nanoTime());
+        Mockito.when(driver.getSessionId()).thenReturn(sessionId);
+        Mockito.when(driver.getWindowHandles()).thenReturn(new LinkedHashSet<>(List.of("main")));
+        Mockito.when(driver.switchTo().newWindow(WindowType.TAB).getWindowHandle()).thenReturn("clean");
+
+        R.CONFIG.put(WebDriverConfiguration.Parameter.DRIVER_RECYCLING.getKey(), "true", true);
+        try {
+            SessionRecycler.onNavigation(sessionId, "https://example.com/login?user=1");
+            SessionRecycler.onNavigation(sessionId, "https://example.com:8443/");
+            SessionRecycler.onNavigation(sessionId, "about:blank");
+        } finally {
+            R.CONFIG.clearTestProperties();
+        }
+        new BrowserResetStrategy().reset(driver);
+
+        Mockito.verify(driver).get("https://example.com/");
+        Mockito.verify(driver).get("https://example.com:8443/");
+        Mockito.verify(driver.manage(), Mockito.times(2)).deleteAllCookies();
+        Mockito.verify(driver).get("about:blank");
+        Assert.assertTrue(SessionRecycler.pollVisitedOrigins(driver).isEmpty(), "Origins should be cleared only once");
+    }
+
+    @Test
+    public void testFailedResetRequiresRestart() {
+        WebDriver driver = createBrowserDriver();
+        Mockito.when(driver.getWindowHandles()).thenThrow(new WebDriverException("Session is deleted"));
+
+        Assert.assertFalse(SessionRecycler.reset(toCarinaDriver(driver)));
+    }
+
+    @Test
+    public void testCustomStrategyHasPriority() {
+        WebDriver driver = createBrowserDriver();
+        SessionResetStrategy strategy = Mockito.mock(SessionResetStrategy.class);
+        Mockito.when(strategy.isSupported(Mockito.any())).thenReturn(true);
+        Mockito.when(strategy.isHealthy(driver)).thenReturn(false);
+        SessionRecycler.addStrategy(strategy);
+
+        Assert.assertFalse(SessionRecycler.reset(toCarinaDriver(driver)), "Session should be restarted when health check failed");
+        Mockito.verify(strategy).reset(driver);
+        Mockito.verify(driver, Mockito.never()).get(Mockito.anyString());
+    }
+
+    private static WebDriver createBrowserDriver() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        // unique browser name to not match the strategies registered by other tests
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome-" + System.nanoTime());
+        WebDriver driver = Mockito.mock(WebDriver.class, Mockito.withSettings()
+                .defaultAnswer(Answers.RETURNS_DEEP_STUBS)
+                .extraInterfaces(HasCapabilities.class, JavascriptExecutor.class));
+        Mockito.when(((HasCapabilities) driver).getCapabilities()).thenReturn(capabilities);
+        return driver;
+    }
+
+    private static CarinaDriver toCarinaDriver(WebDriver driver) {
+        return new CarinaDriver("default", driver, IDriverPool.nullDevice, TestPhase.Phase.METHOD, Thread.currentThread().getId(),
+                ((HasCapabilities) driver).getCapabilities());
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.R;
+import com.zebrunner.carina.webdriver.CarinaDriver;
+import com.zebrunner.carina.webdriver.IDriverPool;
+import com.zebrunner.carina.webdriver.core.context.DriverContext;
+import com.zebrunner.carina.webdriver.core.metrics.CommandMetrics;
+import com.zebrunner.carina.webdriver.stub.StubWebDriverServer;
+
+public class SessionWatchdogTest implements IDriverPool {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testSlowdownAgainstBaselineIsFailure() {
+        SessionWatchdog.Health health = new SessionWatchdog.Health(System.nanoTime());
+        for (int i = 0; i < SessionWatchdog.BASELINE_PINGS; i++) {
+            Assert.assertFalse(health.record(100 * MILLIS, true, 2));
+        }
+        // slower than baseline, but faster than the minimal slow ping
+        Assert.assertFalse(health.record(500 * MILLIS, true, 2));
+        Assert.assertFalse(health.record(2000 * MILLIS, true, 2), "First slow ping should not mark session as unhealthy");
+        Assert.assertFalse(health.record(300 * MILLIS, true, 2), "Successful ping should reset failures");
+        Assert.assertFalse(health.record(2000 * MILLIS, true, 2));
+        Assert.assertFalse(health.isUnhealthy());
+        Assert.assertTrue(health.record(0, false, 2), "Second consecutive failure should mark session as unhealthy");
+        Assert.assertTrue(health.isUnhealthy());
+        Assert.assertFalse(health.record(300 * MILLIS, true, 2), "Unhealthy session could not recover");
+        Assert.assertTrue(health.isUnhealthy());
+    }
+
+    @Test
+    public void testSlowPingIsNotDetectedWithoutBaseline() {
+        SessionWatchdog.Health health = new SessionWatchdog.Health(System.nanoTime());
+        Assert.assertFalse(health.record(5000 * MILLIS, true, 1));
+        Assert.assertFalse(health.isUnhealthy());
+    }
+
+    @Test
+    public void testUnhealthySessionIsReplaced() throws IOException {
+        try (StubWebDriverServer server = new StubWebDriverServer().start()) {
+            // selenium_url is not configured: replacement should be created on the same explicitly requested hub
+            DriverContext.create().run(() -> {
+                MutableCapabilities capabilities = new MutableCapabilities();
+                capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+                WebDriver driver = getDriver("watched", capabilities, server.getUrl());
+                CarinaDriver carinaDriver = getCarinaDriver("watched");
+                String sessionId = ((RemoteWebDriver) ((Decorated<?>) driver).getOriginal()).getSessionId().toString();
+                Set<String> sessionCommands = CommandMetrics.getInstance().getSessionStats(sessionId).keySet();
+                SessionWatchdog watchdog = new SessionWatchdog(Duration.ofMillis(50), Duration.ofSeconds(5), 2,
+                        () -> new ArrayList<>(IDriverPool.DRIVERS_POOL.getOrDefault(DriverContext.currentId(), Map.of()).values()),
+                        SessionWatchdog::ping);
+                try {
+                    server.fault(DriverCommand.GET_TIMEOUTS, StubWebDriverServer.Fault.error("unknown error", 100));
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (!watchdog.isUnhealthy(carinaDriver) && System.nanoTime() < deadline) {
+                        watchdog.check();
+                        TimeUnit.MILLISECONDS.sleep(20);
+                    }
+                    Assert.assertTrue(watchdog.isUnhealthy(carinaDriver), "Session should be marked as unhealthy");
+                    Assert.assertTrue(server.getCommandCount(DriverCommand.GET_TIMEOUTS) >= 2);
+                    Assert.assertEquals(CommandMetrics.getInstance().getSessionStats(sessionId).keySet(), sessionCommands,
+                            "Health checks should not be measured as commands of the test");
+
+                    Assert.assertSame(getDriver("watched"), driver, "Session should not be replaced in the middle of the test");
+                    Assert.assertEquals(watchdog.replaceUnhealthyDrivers(), List.of("watched"));
+                    CarinaDriver replaced = getCarinaDriver("watched");
+                    Assert.assertNotSame(replaced.getDriver(), driver);
+                    Assert.assertEquals(replaced.getPhase(), carinaDriver.getPhase());
+                    Assert.assertFalse(watchdog.isUnhealthy(replaced));
+                    Assert.assertEquals(replaced.getSeleniumHost(), server.getUrl());
+                    Assert.assertEquals(server.getCreatedSessions(), 2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    watchdog.shutdown();
+                    quitDriver("watched");
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testSessionIsNotPingedDuringTestCommand() throws Exception {
+        try (StubWebDriverServer server = new StubWebDriverServer().start()) {
+            R.CONFIG.put("selenium_url", server.getUrl(), true);
+            DriverContext.create().run(() -> {
+                MutableCapabilities capabilities = new MutableCapabilities();
+                capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+                WebDriver driver = getDriver("busy", capabilities);
+                SessionId sessionId = ((RemoteWebDriver) ((Decorated<?>) driver).getOriginal()).getSessionId();
+                AtomicInteger pings = new AtomicInteger();
+                SessionWatchdog watchdog = new SessionWatchdog(Duration.ofMillis(20), Duration.ofSeconds(5), 2,
+                        () -> List.of(getCarinaDriver("busy")),
+                        webDriver -> pings.incrementAndGet());
+                try {
+                    // long test command: session is idle for several intervals by the time of the check, but still in use
+                    watchdog.execute(sessionId, () -> {
+                        for (int i = 0; i < 10; i++) {
+                            TimeUnit.MILLISECONDS.sleep(30);
+                            watchdog.check();
+                        }
+                        TimeUnit.MILLISECONDS.sleep(100);
+                        return new Response(sessionId);
+                    });
+                    Assert.assertEquals(pings.get(), 0, "Session should not be pinged while the test command is in progress");
+
+                    TimeUnit.MILLISECONDS.sleep(50);
+                    watchdog.check();
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                    while (pings.get() == 0 && System.nanoTime() < deadline) {
+                        TimeUnit.MILLISECONDS.sleep(10);
+                    }
+                    Assert.assertEquals(pings.get(), 1, "Idle session should be pinged");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    watchdog.shutdown();
+                    quitDriver("busy");
+                }
+            });
+        } finally {
+            R.CONFIG.clearTestProperties();
+        }
+    }
+
+    private static CarinaDriver getCarinaDriver(String name) {
+        CarinaDriver carinaDriver = IDriverPool.DRIVERS_POOL.getOrDefault(DriverContext.currentId(), Map.of()).get(name);
+        Assert.assertNotNull(carinaDriver, "Driver should be registered: " + name);
+        return carinaDriver;
+    }
+}
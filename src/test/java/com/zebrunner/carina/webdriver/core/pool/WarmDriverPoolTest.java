@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.pool;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.mockito.Mockito;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.webdriver.core.factory.DriverFactory;
+import com.zebrunner.carina.webdriver.stub.StubWebDriverServer;
+
+public class WarmDriverPoolTest {
+
+    private final List<WebDriver> createdDrivers = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    public void clearCreatedDrivers() {
+        createdDrivers.clear();
+    }
+
+    @Test
+    public void testSessionIsTakenFromPoolAndPoolIsToppedUp() throws InterruptedException {
+        WarmDriverPool pool = new WarmDriverPool(this::createSession, 2, Duration.ofMinutes(1));
+        try {
+            Capabilities capabilities = getCapabilities("chrome");
+            pool.prewarm(capabilities, null);
+            waitFor(() -> pool.getIdleSessionsCount() == 2);
+
+            Optional<WarmDriverPool.WarmSession> session = pool.take(getCapabilities("chrome"), null);
+            Assert.assertTrue(session.isPresent(), "Session should be taken from the warm pool");
+            Assert.assertTrue(createdDrivers.contains(session.get().getDriver()));
+            Assert.assertEquals(session.get().getCapabilities(), capabilities);
+            waitFor(() -> pool.getIdleSessionsCount() == 2);
+            Assert.assertEquals(createdDrivers.size(), 3);
+
+            Assert.assertTrue(pool.take(getCapabilities("firefox"), null).isEmpty(), "Session with other capabilities should not be taken");
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(pool.getIdleSessionsCount(), 0);
+        Assert.assertFalse(pool.isEnabled());
+        // all sessions except taken should be quit on shutdown
+        long quitCount = createdDrivers.stream()
+                .filter(driver -> Mockito.mockingDetails(driver).getInvocations().stream()
+                        .anyMatch(invocation -> "quit".equals(invocation.getMethod().getName())))
+                .count();
+        Assert.assertTrue(quitCount >= 2);
+    }
+
+    @Test
+    public void testIdleSessionsAreRetired() throws InterruptedException {
+        WarmDriverPool pool = new WarmDriverPool(this::createSession, 1, Duration.ofHours(1));
+        try {
+            pool.prewarm(null, "http://localhost:4444/wd/hub");
+            waitFor(() -> pool.getIdleSessionsCount() == 1);
+            pool.retireIdleSessions();
+            Assert.assertEquals(pool.getIdleSessionsCount(), 1, "Session should not be retired before idle timeout");
+        } finally {
+            pool.shutdown();
+        }
+
+        WarmDriverPool expiringPool = new WarmDriverPool(this::createSession, 1, Duration.ofMillis(1));
+        try {
+            expiringPool.prewarm(null, null);
+            waitFor(() -> createdDrivers.size() == 2);
+            Thread.sleep(10);
+            expiringPool.retireIdleSessions();
+            Assert.assertEquals(expiringPool.getIdleSessionsCount(), 0);
+            Mockito.verify(createdDrivers.get(1), Mockito.timeout(5000)).quit();
+        } finally {
+            expiringPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWarmSessionsOfStubServer() throws IOException, InterruptedException {
+        try (StubWebDriverServer server = new StubWebDriverServer().start()) {
+            WarmDriverPool pool = new WarmDriverPool(DriverFactory::create, 1, Duration.ofMinutes(1));
+            Optional<WarmDriverPool.WarmSession> session;
+            try {
+                pool.prewarm(getCapabilities("chrome"), server.getUrl());
+                waitFor(() -> pool.getIdleSessionsCount() == 1);
+                Assert.assertEquals(server.getActiveSessions(), 1);
+
+                session = pool.take(getCapabilities("chrome"), server.getUrl());
+                Assert.assertTrue(session.isPresent(), "Session should be taken from the warm pool");
+                Assert.assertEquals(session.get().getDriver().getCurrentUrl(), StubWebDriverServer.BLANK_PAGE);
+                // pool is topped up by the new session
+                waitFor(() -> pool.getIdleSessionsCount() == 1);
+                Assert.assertEquals(server.getCreatedSessions(), 2);
+            } finally {
+                pool.shutdown();
+            }
+            Assert.assertEquals(server.getActiveSessions(), 1, "Idle session should be quit on shutdown, taken one should stay");
+            session.get().getDriver().quit();
+            Assert.assertEquals(server.getActiveSessions(), 0);
+        }
+    }
+
+    @Test
+    public void testDisabledPool() {
+        WarmDriverPool pool = new WarmDriverPool(this::createSession, 0, Duration.ofMinutes(1));
+        pool.prewarm(null, null);
+        Assert.assertTrue(pool.take(null, null).isEmpty());
+        Assert.assertTrue(createdDrivers.isEmpty());
+    }
+
+    private ImmutablePair<WebDriver, Capabilities> createSession(String name, Capabilities capabilities, String seleniumHost) {
+        WebDriver driver = Mockito.mock(WebDriver.class);
+        createdDrivers.add(driver);
+        return new ImmutablePair<>(driver, capabilities);
+    }
+
+    private static Capabilities getCapabilities(String browserName) {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, browserName);
+        return capabilities;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Condition was not satisfied in 5 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testRecycledSessionIsReused() {
+        WarmDriverPool pool = new WarmDriverPool(this::createSession, 0, Duration.ofMinutes(1), true);
+        try {
+            Capabilities capabilities = getCapabilities("chrome");
+            WebDriver healthy = createSession("default", capabilities, null).getLeft();
+            WebDriver unhealthy = createSession("default", capabilities, null).getLeft();
+            pool.track(healthy, capabilities, null);
+            pool.track(unhealthy, capabilities, null);
+            Assert.assertFalse(pool.offer(Mockito.mock(WebDriver.class), new WarmDriverPool.WarmSession(healthy, capabilities, null)),
+                    "Not tracked driver should not be added to the pool");
+
+            Assert.assertTrue(pool.offer(healthy, new WarmDriverPool.WarmSession(healthy, capabilities, null, driver -> true)));
+            Assert.assertTrue(pool.offer(unhealthy, new WarmDriverPool.WarmSession(unhealthy, capabilities, null, driver -> false)));
+
+            Optional<WarmDriverPool.WarmSession> session = pool.take(getCapabilities("chrome"), null);
+            Assert.assertTrue(session.isPresent());
+            Assert.assertSame(session.get().getDriver(), healthy);
+            Mockito.verify(unhealthy).quit();
+            Assert.assertEquals(createdDrivers.size(), 2, "New sessions should not be created in recycling-only mode");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class StartupTimelineTest {
+
+    @BeforeMethod
+    public void reset() {
+        StartupTimeline.reset();
+    }
+
+    @Test
+    public void testNestedPhases() {
+        try (StartupTimeline.Phase outer = StartupTimeline.phase("outer")) {
+            try (StartupTimeline.Phase inner = StartupTimeline.phase("inner")) {
+                // do nothing
+            }
+        }
+        StartupTimeline.firstDriverCreated();
+
+        List<StartupTimeline.Record> records = StartupTimeline.getRecords();
+        Assert.assertEquals(records.size(), 3);
+        Assert.assertEquals(records.get(0).getName(), StartupTimeline.JVM_START_PHASE);
+        StartupTimeline.Record outer = records.get(1);
+        StartupTimeline.Record inner = records.get(2);
+        Assert.assertEquals(outer.getName(), "outer");
+        Assert.assertEquals(outer.getDepth(), 0);
+        Assert.assertEquals(inner.getName(), "inner");
+        Assert.assertEquals(inner.getDepth(), 1);
+        Assert.assertTrue(inner.getStartNanos() >= outer.getStartNanos());
+        Assert.assertTrue(inner.getStartNanos() + inner.getDurationNanos() <= outer.getStartNanos() + outer.getDurationNanos());
+        Assert.assertTrue(StartupTimeline.getTimeToFirstDriver() >= outer.getStartNanos() + outer.getDurationNanos());
+    }
+
+    @Test
+    public void testFirstDriverIsMarkedOnce() {
+        StartupTimeline.firstDriverCreated();
+        long firstDriver = StartupTimeline.getTimeToFirstDriver();
+        Assert.assertTrue(firstDriver > 0);
+        StartupTimeline.firstDriverCreated();
+        Assert.assertEquals(StartupTimeline.getTimeToFirstDriver(), firstDriver);
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        try (StartupTimeline.Phase phase = StartupTimeline.phase("new session")) {
+            // do nothing
+        }
+        StartupTimeline.firstDriverCreated();
+
+        Path directory = Files.createTempDirectory("timeline");
+        StartupTimeline.writeReport(directory);
+        JSONObject json = new JSONObject(Files.readString(directory.resolve(StartupTimeline.REPORT_NAME + ".json")));
+        JSONArray events = json.getJSONArray("traceEvents");
+        Assert.assertEquals(events.length(), 3);
+        Assert.assertEquals(events.getJSONObject(1).getString("name"), "new session");
+        Assert.assertEquals(events.getJSONObject(1).getString("ph"), "X");
+        Assert.assertEquals(events.getJSONObject(2).getString("name"), StartupTimeline.FIRST_DRIVER_EVENT);
+        Assert.assertEquals(json.getJSONObject("otherData").getLong("timeToFirstDriverNanos"), StartupTimeline.getTimeToFirstDriver());
+
+        String text = Files.readString(directory.resolve(StartupTimeline.REPORT_NAME + ".txt"));
+        Assert.assertTrue(text.contains("time to first driver"));
+        Assert.assertTrue(text.contains("new session [" + Thread.currentThread().getName() + "]"));
+    }
+}
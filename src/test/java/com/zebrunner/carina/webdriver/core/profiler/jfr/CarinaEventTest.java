@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.profiler.jfr;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import jdk.jfr.EventType;
+
+public class CarinaEventTest {
+
+    @Test
+    public void testEventsAreDisabledByDefault() {
+        for (Class<? extends CarinaEvent> eventClass : List.of(DriverCommandEvent.class, WaitEvent.class, ScreenshotEvent.class,
+                ElementActionEvent.class, DriverLifecycleEvent.class)) {
+            EventType type = EventType.getEventType(eventClass);
+            Assert.assertFalse(type.isEnabled(), type.getName() + " should be disabled by default");
+            Assert.assertEquals(type.getCategoryNames(), List.of("Carina"));
+        }
+        Assert.assertFalse(new DriverCommandEvent().shouldCommit());
+    }
+}
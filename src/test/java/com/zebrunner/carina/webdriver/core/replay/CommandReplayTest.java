@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.replay;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mockito.Mockito;
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CommandReplayTest {
+    private static final String SESSION_ID = "d2f5a8c1";
+
+    private Path file;
+    private AtomicInteger titleCalls;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = Files.createTempFile("carina-commands", ".jsonl.gz");
+        titleCalls = new AtomicInteger();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRecordedSessionIsReplayed() throws IOException {
+        try (CommandRecorder recorder = new CommandRecorder(file)) {
+            RemoteWebDriver driver = createDriver(recorder.wrap(createHubFactory()));
+            Assert.assertEquals(driver.getTitle(), "Title 1");
+            Assert.assertEquals(driver.getTitle(), "Title 2");
+            Assert.assertThrows(NoSuchElementException.class, () -> driver.findElement(By.id("missing")));
+            driver.quit();
+        }
+
+        RemoteWebDriver driver = createDriver(new ReplayHttpClientFactory(file, CommandReplay.Latency.ZERO));
+        Assert.assertEquals(driver.getSessionId().toString(), SESSION_ID);
+        Assert.assertEquals(driver.getTitle(), "Title 1");
+        Assert.assertEquals(driver.getTitle(), "Title 2");
+        Assert.assertEquals(driver.getTitle(), "Title 2", "Last recorded response should be repeated");
+        Assert.assertThrows(NoSuchElementException.class, () -> driver.findElement(By.id("missing")));
+        WebDriverException e = Assert.expectThrows(WebDriverException.class, driver::getCurrentUrl);
+        Assert.assertTrue(e.getMessage().contains("Command was not recorded"), e.getMessage());
+        driver.quit();
+        Assert.assertEquals(titleCalls.get(), 2, "Replay should not send commands to the hub");
+    }
+
+    @Test
+    public void testRecordedLatency() throws IOException {
+        Path plain = Files.createTempFile("carina-commands", ".jsonl");
+        try {
+            Files.write(plain, List.of("{\"method\":\"GET\",\"path\":\"/status\",\"status\":200,\"nanos\":200000000,"
+                    + "\"response\":\"{\\\"value\\\":{\\\"ready\\\":true}}\"}"));
+            HttpClient client = new ReplayHttpClientFactory(plain, CommandReplay.Latency.RECORDED).createClient(ClientConfig.defaultConfig());
+            long start = System.nanoTime();
+            HttpResponse response = client.execute(new HttpRequest(HttpMethod.GET, "/status"));
+            Assert.assertTrue(System.nanoTime() - start >= 200_000_000L, "Recorded latency should be applied");
+            Assert.assertEquals(Contents.string(response), "{\"value\":{\"ready\":true}}");
+
+            client = new ReplayHttpClientFactory(plain, CommandReplay.Latency.ZERO).createClient(ClientConfig.defaultConfig());
+            start = System.nanoTime();
+            client.execute(new HttpRequest(HttpMethod.GET, "/status"));
+            Assert.assertTrue(System.nanoTime() - start < 200_000_000L, "Response should be returned without latency");
+        } finally {
+            Files.deleteIfExists(plain);
+        }
+    }
+
+    private RemoteWebDriver createDriver(HttpClient.Factory factory) throws IOException {
+        HttpCommandExecutor executor = new HttpCommandExecutor(Map.of(),
+                ClientConfig.defaultConfig().baseUrl(new URL("http://localhost:4444/wd/hub")), factory);
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability("browserName", "chrome");
+        return new RemoteWebDriver(executor, capabilities);
+    }
+
+    private HttpClient.Factory createHubFactory() {
+        HttpClient client = Mockito.mock(HttpClient.class);
+        Mockito.when(client.execute(Mockito.any())).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String uri = request.getUri();
+            if (uri.endsWith("/session")) {
+                return json(200, "{\"value\":{\"sessionId\":\"" + SESSION_ID + "\",\"capabilities\":{\"browserName\":\"chrome\"}}}");
+            } else if (uri.endsWith("/title")) {
+                return json(200, "{\"value\":\"Title " + titleCalls.incrementAndGet() + "\"}");
+            } else if (uri.endsWith("/element")) {
+                return json(404, "{\"value\":{\"error\":\"no such element\",\"message\":\"Unable to locate element\",\"stacktrace\":\"\"}}");
+            }
+            return json(200, "{\"value\":null}");
+        });
+        HttpClient.Factory factory = Mockito.mock(HttpClient.Factory.class);
+        Mockito.when(factory.createClient(Mockito.any(ClientConfig.class))).thenReturn(client);
+        return factory;
+    }
+
+    private static HttpResponse json(int status, String body) {
+        return new HttpResponse()
+                .setStatus(status)
+                .addHeader("Content-Type", "application/json; charset=utf-8")
+                .setContent(Contents.utf8String(body));
+    }
+}
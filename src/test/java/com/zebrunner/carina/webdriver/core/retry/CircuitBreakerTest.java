@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.retry;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.exception.CircuitBreakerOpenException;
+import com.zebrunner.carina.utils.exception.InvalidConfigurationException;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testCircuitIsOpenedAfterConsecutiveFailures() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("http://hub:4444/wd/hub", 2, Duration.ofSeconds(30), clock::get);
+        breaker.acquire();
+        breaker.onFailure();
+        breaker.acquire();
+        breaker.onSuccess();
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED, "Failures are not consecutive");
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertFalse(breaker.isAllowed());
+        Assert.assertThrows(CircuitBreakerOpenException.class, breaker::acquire);
+        Assert.assertEquals(breaker.getRejectedCount(), 1);
+
+        // probe after open time
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        Assert.assertTrue(breaker.isAllowed());
+        Assert.assertTrue(breaker.isAllowed(), "Check should not take the probe");
+        breaker.acquire();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        Assert.assertFalse(breaker.isAllowed(), "Probe is in progress");
+        Assert.assertThrows(CircuitBreakerOpenException.class, breaker::acquire);
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN, "Failed probe should open circuit again");
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        breaker.acquire();
+        breaker.onSuccess();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        breaker.acquire();
+
+        Assert.assertEquals(breaker.getOpenedCount(), 2);
+        Assert.assertEquals(breaker.getHalfOpenedCount(), 2);
+        Assert.assertEquals(breaker.getClosedCount(), 1);
+    }
+
+    @Test
+    public void testOnlyHubFailuresAreCounted() {
+        Assert.assertTrue(CircuitBreaker.isHubFailure(new SessionNotCreatedException("No nodes support the capabilities")));
+        Assert.assertTrue(CircuitBreaker.isHubFailure(new UncheckedIOException(new ConnectException("Connection refused"))));
+        Assert.assertFalse(CircuitBreaker.isHubFailure(new InvalidArgumentException("Invalid capabilities")));
+        Assert.assertFalse(CircuitBreaker.isHubFailure(new InvalidConfigurationException("Unsupported mobile platform")));
+        Assert.assertFalse(CircuitBreaker.isHubFailure(new UncheckedIOException(new MalformedURLException("no protocol"))));
+
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("http://hub:4444/wd/hub", 1, Duration.ofSeconds(30), clock::get);
+        breaker.acquire();
+        breaker.onFailure(new InvalidArgumentException("Invalid capabilities"));
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED, "Capabilities error should not open circuit");
+        breaker.onFailure(new SessionNotCreatedException("Could not start a new session"));
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        breaker.acquire();
+        breaker.onFailure(new InvalidArgumentException("Invalid capabilities"));
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        breaker.acquire();
+    }
+
+    @Test
+    public void testDisabledCircuitBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker("local", 0, Duration.ofSeconds(30));
+        for (int i = 0; i < 10; i++) {
+            breaker.acquire();
+            breaker.onFailure();
+        }
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.retry;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Map;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.JsonException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.utils.commons.SpecialKeywords;
+
+public class CommandRetryPolicyTest {
+
+    @Test
+    public void testIdempotentCommands() {
+        Assert.assertTrue(CommandRetryPolicy.isIdempotent(DriverCommand.FIND_ELEMENT));
+        Assert.assertTrue(CommandRetryPolicy.isIdempotent(DriverCommand.GET_ELEMENT_TEXT));
+        Assert.assertTrue(CommandRetryPolicy.isIdempotent(DriverCommand.STATUS));
+        Assert.assertFalse(CommandRetryPolicy.isIdempotent(DriverCommand.NEW_SESSION));
+        Assert.assertFalse(CommandRetryPolicy.isIdempotent(DriverCommand.CLICK_ELEMENT));
+        Assert.assertFalse(CommandRetryPolicy.isIdempotent(DriverCommand.SEND_KEYS_TO_ELEMENT));
+        Assert.assertFalse(CommandRetryPolicy.isIdempotent(DriverCommand.QUIT));
+    }
+
+    @Test
+    public void testTransientErrors() {
+        Assert.assertTrue(CommandRetryPolicy.isTransient(new UncheckedIOException(new ConnectException("Connection refused"))));
+        Assert.assertTrue(CommandRetryPolicy.isTransient(new WebDriverException(new JsonException("Expected to read a START_MAP"))));
+        Assert.assertTrue(CommandRetryPolicy.isTransient(new WebDriverException("unknown error: " + SpecialKeywords.DRIVER_TARGET_FRAME_DETACHED)));
+
+        Assert.assertFalse(CommandRetryPolicy.isTransient(new NoSuchElementException("no such element")));
+        // message is not checked for the typed errors
+        Assert.assertFalse(CommandRetryPolicy.isTransient(new NoSuchElementException(SpecialKeywords.DRIVER_CONNECTION_REFUSED)));
+        Assert.assertFalse(CommandRetryPolicy.isTransient("Connection refused"));
+        Assert.assertFalse(CommandRetryPolicy.isTransient(null));
+    }
+
+    @Test
+    public void testSessionBudget() {
+        CommandRetryPolicy policy = new CommandRetryPolicy(Duration.ZERO, Duration.ofSeconds(10), 3);
+        SessionId first = new SessionId("first");
+        Command command = new Command(first, DriverCommand.FIND_ELEMENT);
+        long start = System.nanoTime();
+
+        Assert.assertTrue(policy.retry(command, 1, start));
+        Assert.assertTrue(policy.retry(command, 2, start));
+        Assert.assertFalse(policy.retry(command, CommandRetryPolicy.MAX_RETRIES + 1, start), "Retries of the command are limited");
+        Assert.assertTrue(policy.retry(new Command(first, DriverCommand.GET_TITLE), 1, start));
+        Assert.assertFalse(policy.retry(command, 1, start), "Session budget should be exhausted");
+        Assert.assertTrue(policy.retry(new Command(new SessionId("second"), DriverCommand.FIND_ELEMENT), 1, start),
+                "Budget is per session");
+
+        policy.release(first);
+        Assert.assertTrue(policy.retry(command, 1, start), "Budget of the released session should be reset");
+
+        Assert.assertEquals(policy.getRetries(), Map.of(DriverCommand.FIND_ELEMENT, 4L, DriverCommand.GET_TITLE, 1L));
+        Assert.assertEquals(policy.getExhaustedBudgets(), 1);
+    }
+
+    @Test
+    public void testDeadline() {
+        CommandRetryPolicy policy = new CommandRetryPolicy(Duration.ofMillis(100), Duration.ofMillis(200), 10);
+        Command command = new Command(new SessionId("session"), DriverCommand.FIND_ELEMENT);
+
+        Assert.assertFalse(policy.retry(command, 1, System.nanoTime() - Duration.ofSeconds(1).toNanos()),
+                "Command should not be retried after the deadline");
+        long start = System.nanoTime();
+        Assert.assertTrue(policy.retry(command, 1, start));
+        Assert.assertTrue(System.nanoTime() - start < Duration.ofMillis(200).toNanos() + Duration.ofMillis(100).toNanos(),
+                "Pause should be limited by the deadline");
+    }
+}
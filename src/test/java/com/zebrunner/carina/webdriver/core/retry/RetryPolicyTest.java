@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.core.retry;
+
+import java.time.Duration;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testBackoffWithFullJitter() {
+        RetryPolicy policy = new RetryPolicy(Duration.ofSeconds(1), Duration.ofSeconds(5), 2);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(policy.getDelay(1).toMillis() <= 1000);
+            Assert.assertTrue(policy.getDelay(3).toMillis() <= 4000);
+            Assert.assertTrue(policy.getDelay(40).toMillis() <= 5000, "Delay should be limited by max delay");
+        }
+        Assert.assertTrue(policy.tryAcquire());
+        Assert.assertTrue(policy.tryAcquire());
+        Assert.assertFalse(policy.tryAcquire(), "Retry budget should be exhausted");
+    }
+}
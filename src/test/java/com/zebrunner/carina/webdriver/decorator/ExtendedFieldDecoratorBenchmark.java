@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.decorator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+
+import com.zebrunner.carina.webdriver.gui.AbstractPage;
+import com.zebrunner.carina.webdriver.gui.AbstractUIObject;
+import com.zebrunner.carina.webdriver.locator.ExtendedElementLocatorFactory;
+
+/**
+ * Measures decoration of the page fields by the {@link ExtendedFieldDecorator} (eager and lazy decoration of the
+ * {@link AbstractUIObject} fields) and construction of the whole {@link AbstractPage}.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.webdriver.decorator.ExtendedFieldDecoratorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtendedFieldDecoratorBenchmark {
+
+    public static class Header extends AbstractUIObject {
+
+        @FindBy(id = "logo")
+        private ExtendedWebElement logo;
+
+        @FindBy(xpath = ".//a[text()='%s']")
+        private ExtendedWebElement menuItem;
+
+        @FindBy(css = "nav a")
+        private List<ExtendedWebElement> links;
+
+        public Header(WebDriver driver, SearchContext searchContext) {
+            super(driver, searchContext);
+        }
+    }
+
+    public static class LoginForm {
+
+        @FindBy(tagName = "header")
+        public Header header;
+
+        @FindBy(tagName = "footer")
+        public Header footer;
+
+        @FindBy(id = "login")
+        public ExtendedWebElement login;
+
+        @FindBy(id = "password")
+        public ExtendedWebElement password;
+
+        @FindBy(css = "button[type='submit']")
+        public ExtendedWebElement submit;
+
+        @FindBy(css = ".error")
+        public List<ExtendedWebElement> errors;
+    }
+
+    public static class LoginPage extends AbstractPage {
+
+        @FindBy(tagName = "header")
+        private Header header;
+
+        @FindBy(tagName = "footer")
+        private Header footer;
+
+        @FindBy(id = "login")
+        private ExtendedWebElement login;
+
+        @FindBy(id = "password")
+        private ExtendedWebElement password;
+
+        @FindBy(css = "button[type='submit']")
+        private ExtendedWebElement submit;
+
+        @FindBy(css = ".error")
+        private List<ExtendedWebElement> errors;
+
+        public LoginPage(WebDriver driver) {
+            super(driver);
+        }
+    }
+
+    private WebDriver driver;
+
+    @Setup
+    public void setUp() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+        driver = Mockito.mock(WebDriver.class, Mockito.withSettings().stubOnly().extraInterfaces(HasCapabilities.class));
+        Mockito.when(((HasCapabilities) driver).getCapabilities()).thenReturn(capabilities);
+    }
+
+    @Benchmark
+    public LoginPage constructPage() {
+        return new LoginPage(driver);
+    }
+
+    @Benchmark
+    public LoginForm decorateEager() {
+        return decorate(false);
+    }
+
+    @Benchmark
+    public LoginForm decorateLazy() {
+        return decorate(true);
+    }
+
+    private LoginForm decorate(boolean lazy) {
+        LoginForm form = new LoginForm();
+        PageFactory.initElements(new ExtendedFieldDecorator(new ExtendedElementLocatorFactory(driver, driver), driver, lazy), form);
+        return form;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExtendedFieldDecoratorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.decorator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import com.zebrunner.carina.webdriver.decorator.annotations.CaseInsensitiveXPath;
+import com.zebrunner.carina.webdriver.locator.converter.FormatLocatorConverter;
+import com.zebrunner.carina.webdriver.locator.converter.LocatorConverter;
+import com.zebrunner.carina.webdriver.locator.converter.caseinsensitive.CaseInsensitiveConverter;
+
+/**
+ * Measures the framework overhead of the {@link ExtendedWebElement} actions (wait condition, element lookup, action dispatch
+ * and listener messages) and of the locator formatting ({@link ExtendedWebElement#format(Object...)},
+ * {@link ExtendedWebElement#buildConvertedBy(By, List)}) against the stub-only driver, so the driver itself costs nothing.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.webdriver.decorator.ExtendedWebElementBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@CaseInsensitiveXPath
+public class ExtendedWebElementBenchmark {
+    private static final By LOGIN_BY = By.id("login");
+    private static final By CELL_BY = By.xpath("//table[@id='%s']//td[text()='%s']");
+
+    private ExtendedWebElement byLocator;
+    private ExtendedWebElement byElement;
+    private ExtendedWebElement cell;
+    private List<LocatorConverter> converters;
+
+    @Setup
+    public void setUp() {
+        // stub only mocks do not record invocations, so memory does not grow during the measurement
+        WebDriver driver = Mockito.mock(WebDriver.class, Mockito.withSettings().stubOnly());
+        WebElement element = Mockito.mock(WebElement.class, Mockito.withSettings().stubOnly());
+        Mockito.when(element.isDisplayed()).thenReturn(true);
+        Mockito.when(element.getText()).thenReturn("Sign in");
+        Mockito.when(element.getAttribute("value")).thenReturn("login");
+        Mockito.when(driver.findElement(LOGIN_BY)).thenReturn(element);
+        Mockito.when(driver.findElements(LOGIN_BY)).thenReturn(List.of(element));
+
+        byLocator = new ExtendedWebElement(LOGIN_BY, "login", driver, driver);
+        byElement = new ExtendedWebElement(driver, driver);
+        byElement.setElement(element);
+        byElement.setName("login");
+        cell = new ExtendedWebElement(CELL_BY, "cell", driver, driver);
+        converters = List.of(new FormatLocatorConverter("users", "John Doe"),
+                new CaseInsensitiveConverter(ExtendedWebElementBenchmark.class.getAnnotation(CaseInsensitiveXPath.class), false));
+    }
+
+    @Benchmark
+    public void clickByLocator() {
+        byLocator.click();
+    }
+
+    @Benchmark
+    public String getTextByLocator() {
+        return byLocator.getText();
+    }
+
+    @Benchmark
+    public String getAttributeByElement() {
+        return byElement.getAttribute("value");
+    }
+
+    @Benchmark
+    public ExtendedWebElement format() {
+        return cell.format("users", "John Doe");
+    }
+
+    @Benchmark
+    public By buildConvertedBy() {
+        return cell.buildConvertedBy(CELL_BY, converters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExtendedWebElementBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -1,17 +1,31 @@
 package com.zebrunner.carina.webdriver.decorator;
 
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+
 import org.mockito.Mockito;
 import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
-import java.util.List;
+import com.zebrunner.carina.webdriver.listener.EventFiringSeleniumCommandExecutor;
+import com.zebrunner.carina.webdriver.stub.StubElement;
+import com.zebrunner.carina.webdriver.stub.StubWebDriverServer;
 
 public class ExtendedWebElementTest {
+    private static final String STUB_PAGE = "https://stub.local/agreement";
 
     @Test
     public void test_isElementPresent_shouldReturnTrue_forVisibleElement() {
@@ -94,4 +108,47 @@ public class ExtendedWebElementTest {
         ExtendedWebElement element = new ExtendedWebElement(by, "testElementName", driver, context);
         Assert.assertFalse(element.isElementPresent());
     }
+
+    @Test
+    public void test_click_shouldRetry_onStaleElementReturnedByServer() throws IOException {
+        try (StubWebDriverServer server = new StubWebDriverServer()
+                .page(STUB_PAGE, "Agreement", StubElement.of("html").child(StubElement.of("body").child(
+                        StubElement.of("input").id("agree").attr("type", "checkbox"))))
+                .fault(DriverCommand.CLICK_ELEMENT, StubWebDriverServer.Fault.error("stale element reference", 1))
+                .start()) {
+            RemoteWebDriver driver = createStubDriver(server);
+            try {
+                driver.get(STUB_PAGE);
+                ExtendedWebElement checkbox = new ExtendedWebElement(By.id("agree"), "agree", driver, driver);
+                checkbox.click();
+                Assert.assertTrue(checkbox.getElement().isSelected(), "Checkbox should be clicked after the retry");
+                Assert.assertEquals(server.getCommandCount(DriverCommand.CLICK_ELEMENT), 2);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test
+    public void test_isElementPresent_shouldReturnFalse_forElementNotFoundByServer() throws IOException {
+        try (StubWebDriverServer server = new StubWebDriverServer()
+                .latency(DriverCommand.FIND_ELEMENT, Duration.ofMillis(50))
+                .start()) {
+            RemoteWebDriver driver = createStubDriver(server);
+            try {
+                ExtendedWebElement element = new ExtendedWebElement(By.cssSelector("#missing"), "missing", driver, driver);
+                Assert.assertFalse(element.isElementPresent(0L));
+                Assert.assertTrue(server.getCommandCount(DriverCommand.FIND_ELEMENT) > 0);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    private static RemoteWebDriver createStubDriver(StubWebDriverServer server) throws MalformedURLException {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+        return new RemoteWebDriver(new EventFiringSeleniumCommandExecutor(ClientConfig.defaultConfig().baseUrl(new URL(server.getUrl()))),
+                capabilities);
+    }
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.decorator;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.mockito.Mockito;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.zebrunner.carina.webdriver.gui.AbstractUIObject;
+import com.zebrunner.carina.webdriver.locator.Context;
+import com.zebrunner.carina.webdriver.locator.ExtendedElementLocatorFactory;
+
+public class LazyDecorationTest {
+
+    public static class Component extends AbstractUIObject {
+
+        @FindBy(id = "title")
+        private ExtendedWebElement title;
+
+        public Component(WebDriver driver, SearchContext searchContext) {
+            super(driver, searchContext);
+        }
+
+        public ExtendedWebElement getHeader() {
+            return title;
+        }
+    }
+
+    public static class Holder {
+
+        @FindBy(id = "component")
+        public Component component;
+    }
+
+    public static class BrokenComponent extends AbstractUIObject {
+
+        @FindBy(id = "title")
+        @Context(dependsOn = "missing")
+        private ExtendedWebElement title;
+
+        public BrokenComponent(WebDriver driver, SearchContext searchContext) {
+            super(driver, searchContext);
+        }
+
+        public ExtendedWebElement getHeader() {
+            return title;
+        }
+    }
+
+    public static class BrokenHolder {
+
+        @FindBy(id = "component")
+        public BrokenComponent component;
+    }
+
+    @Test
+    public void testUIObjectFieldsAreInitializedOnFirstCall() throws IllegalAccessException {
+        WebDriver driver = createDesktopDriver();
+        Holder holder = new Holder();
+        PageFactory.initElements(new ExtendedFieldDecorator(new ExtendedElementLocatorFactory(driver, driver), driver, true), holder);
+
+        Assert.assertNotNull(holder.component, "Component is not initialized");
+        Assert.assertTrue(holder.component instanceof Component);
+        Assert.assertEquals(holder.component.getName(), "component");
+        Assert.assertNull(readTitleField(holder.component), "Fields of lazy component should not be initialized before first method call");
+
+        ExtendedWebElement header = holder.component.getHeader();
+        Assert.assertNotNull(header, "Fields of lazy component should be initialized on the first method call");
+        Assert.assertEquals(header.getName(), "title");
+        Assert.assertSame(header.getSearchContext(), holder.component);
+    }
+
+    @Test
+    public void testUIObjectFieldsAreInitializedEagerly() throws IllegalAccessException {
+        WebDriver driver = createDesktopDriver();
+        Holder holder = new Holder();
+        PageFactory.initElements(new ExtendedFieldDecorator(new ExtendedElementLocatorFactory(driver, driver), driver, false), holder);
+
+        Assert.assertEquals(holder.component.getClass(), Component.class);
+        Assert.assertNotNull(readTitleField(holder.component));
+    }
+
+    @Test
+    public void testFailedInitializationIsNotMarkedAsDone() {
+        WebDriver driver = createDesktopDriver();
+        BrokenHolder holder = new BrokenHolder();
+        PageFactory.initElements(new ExtendedFieldDecorator(new ExtendedElementLocatorFactory(driver, driver), driver, true), holder);
+        Assert.assertNotNull(holder.component, "Component is not initialized");
+
+        // invalid @Context fails the initialization of the fields on each call, instead of NPE on the not initialized fields
+        Assert.assertThrows(IllegalArgumentException.class, () -> holder.component.getHeader());
+        Assert.assertThrows(IllegalArgumentException.class, () -> holder.component.getHeader());
+    }
+
+    private static Object readTitleField(Component component) throws IllegalAccessException {
+        // read field directly to not trigger initialization
+        return FieldUtils.readField(component, "title", true);
+    }
+
+    private static WebDriver createDesktopDriver() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+        WebDriver driver = Mockito.mock(WebDriver.class, Mockito.withSettings().extraInterfaces(HasCapabilities.class));
+        Mockito.when(((HasCapabilities) driver).getCapabilities()).thenReturn(capabilities);
+        return driver;
+    }
+}
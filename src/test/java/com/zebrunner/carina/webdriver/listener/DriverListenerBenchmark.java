@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.listener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import com.zebrunner.carina.webdriver.Screenshot;
+
+/**
+ * Measures classification of the driver errors by {@link DriverListener#onError(Object, Method, Object[], InvocationTargetException)}:
+ * errors ignored by the first and by the last message check, and the session error, that passes all checks
+ * and is rejected by {@link Screenshot#isCaptured(String)}, so screenshot is never taken.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.webdriver.listener.DriverListenerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverListenerBenchmark {
+
+    private DriverListener listener;
+    private WebDriver driver;
+    private Method method;
+    private Object[] args;
+    private InvocationTargetException notImplementedError;
+    private InvocationTargetException staleElementError;
+    private InvocationTargetException sessionError;
+    private String unknownErrorMessage;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        driver = Mockito.mock(WebDriver.class, Mockito.withSettings().stubOnly());
+        listener = new DriverListener(driver);
+        method = WebDriver.class.getMethod("findElement", By.class);
+        args = new Object[] { By.id("login") };
+        notImplementedError = new InvocationTargetException(new WebDriverException("Method has not yet been implemented"),
+                "Method has not yet been implemented");
+        StaleElementReferenceException stale = new StaleElementReferenceException("stale element reference: element is not attached");
+        staleElementError = new InvocationTargetException(stale, stale.toString());
+        NoSuchSessionException session = new NoSuchSessionException("invalid session id");
+        sessionError = new InvocationTargetException(session, session.toString());
+        unknownErrorMessage = new WebDriverException("unknown error: element click intercepted").getMessage();
+    }
+
+    @Benchmark
+    public void ignoredByFirstCheck() {
+        listener.onError(driver, method, args, notImplementedError);
+    }
+
+    @Benchmark
+    public void ignoredByLastCheck() {
+        listener.onError(driver, method, args, staleElementError);
+    }
+
+    @Benchmark
+    public void rejectedByScreenshotRules() {
+        listener.onError(driver, method, args, sessionError);
+    }
+
+    @Benchmark
+    public boolean isCaptured() {
+        return Screenshot.isCaptured(unknownErrorMessage);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DriverListenerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.locator.converter.caseinsensitive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+
+/**
+ * Measures conversion of the locators to the case-insensitive xpath by the {@link CaseInsensitiveConverter}
+ * for web and native mobile platforms.<br>
+ * Run from IDE or by
+ * {@code java -cp <test classpath> com.zebrunner.carina.webdriver.locator.converter.caseinsensitive.CaseInsensitiveConverterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaseInsensitiveConverterBenchmark {
+    private static final String ID_LOCATOR = By.id("loginButton").toString();
+    private static final String TEXT_LOCATOR = By.xpath("//div[@class='form']//button[contains(text(), 'Sign In') or @name='Submit']")
+            .toString();
+
+    @Param({ "false", "true" })
+    private boolean nativeMobile;
+
+    private CaseInsensitiveConverter converter;
+
+    @Setup
+    public void setUp() {
+        converter = new CaseInsensitiveConverter(nativeMobile)
+                .setId(true)
+                .setName(true)
+                .setText(true)
+                .setClassAttr(true);
+    }
+
+    @Benchmark
+    public String convertId() {
+        return converter.convert(ID_LOCATOR);
+    }
+
+    @Benchmark
+    public String convertXpath() {
+        return converter.convert(TEXT_LOCATOR);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CaseInsensitiveConverterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.locator.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+
+import com.zebrunner.carina.webdriver.decorator.ExtendedFieldDecorator;
+import com.zebrunner.carina.webdriver.decorator.ExtendedWebElement;
+import com.zebrunner.carina.webdriver.locator.ExtendedElementLocatorFactory;
+import com.zebrunner.carina.webdriver.locator.ImmutableUIList;
+
+/**
+ * Measures access to the decorated {@code List<ExtendedWebElement>} fields: each call of the list method is handled by
+ * the {@link LocatingListHandler}, that finds the elements again and wraps each of them into the {@link ExtendedWebElement}.<br>
+ * Run from IDE or by {@code java -cp <test classpath> com.zebrunner.carina.webdriver.locator.internal.LocatingListHandlerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatingListHandlerBenchmark {
+
+    public static class Results {
+
+        @FindBy(css = "li.result")
+        public List<ExtendedWebElement> results;
+
+        @ImmutableUIList
+        @FindBy(xpath = "//li[@class='result']")
+        public List<ExtendedWebElement> immutableResults;
+    }
+
+    @Param({ "10", "100" })
+    private int elements;
+
+    private Results page;
+
+    @Setup
+    public void setUp() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "chrome");
+        WebDriver driver = Mockito.mock(WebDriver.class, Mockito.withSettings().stubOnly().extraInterfaces(HasCapabilities.class));
+        Mockito.when(((HasCapabilities) driver).getCapabilities()).thenReturn(capabilities);
+
+        List<WebElement> found = new ArrayList<>(elements);
+        for (int i = 0; i < elements; i++) {
+            found.add(Mockito.mock(WebElement.class, Mockito.withSettings().stubOnly()));
+        }
+        Mockito.when(driver.findElements(Mockito.any(By.class))).thenReturn(found);
+
+        page = new Results();
+        PageFactory.initElements(new ExtendedFieldDecorator(new ExtendedElementLocatorFactory(driver, driver), driver), page);
+    }
+
+    @Benchmark
+    public int size() {
+        return page.results.size();
+    }
+
+    @Benchmark
+    public ExtendedWebElement getFirst() {
+        return page.results.get(0);
+    }
+
+    @Benchmark
+    public ExtendedWebElement getFirstImmutable() {
+        return page.immutableResults.get(0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocatingListHandlerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Node of the fake DOM served by the {@link StubWebDriverServer}:
+ *
+ * <pre>
+ * StubElement.of("body").child(
+ *         StubElement.of("input").id("login").attr("name", "login"),
+ *         StubElement.of("a").attr("class", "link primary").attr("href", "/home").text("Home"));
+ * </pre>
+ *
+ * Locators are matched by a subset of the strategies, that is enough for the tests:
+ * <ul>
+ * <li>{@code css selector} - groups ({@code ,}), descendant combinators (child combinator is treated as descendant),
+ * {@code tag}, {@code *}, {@code #id}, {@code .class}, {@code [attr]}, {@code [attr='value']}</li>
+ * <li>{@code xpath} - steps {@code //tag} and {@code /tag} (both are treated as descendant), {@code *}, predicates
+ * {@code [@attr='value']}, {@code [text()='value']}, {@code [contains(@attr,'value')]}, {@code [contains(text(),'value')]}</li>
+ * <li>{@code tag name}, {@code link text}, {@code partial link text}</li>
+ * </ul>
+ */
+public final class StubElement {
+    private static final Pattern CSS_PART = Pattern.compile(
+            "(?<tag>^[\\w-]+|^\\*)|#(?<id>(?:\\\\.|[\\w-])+)|\\.(?<cls>(?:\\\\.|[\\w-])+)|\\[(?<attr>[\\w-]+)(?:(?<op>[*^$~]?=)['\"]?(?<value>[^'\"\\]]*)['\"]?)?]");
+    private static final Pattern XPATH_STEP = Pattern.compile("(?<tag>[\\w-]+|\\*)(?<predicates>(?:\\[[^]]+])*)");
+    private static final Pattern XPATH_PREDICATE = Pattern.compile(
+            "\\[(?:(?<fn>contains)\\()?(?:@(?<attr>[\\w-]+)|(?<text>text\\(\\)))\\s*(?:,|=)\\s*['\"](?<value>[^'\"]*)['\"]\\)?]");
+
+    private final String tag;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private final List<StubElement> children = new ArrayList<>();
+    private StubElement parent;
+    private String text = "";
+    private boolean displayed = true;
+    private boolean enabled = true;
+    private boolean selected = false;
+
+    private StubElement(String tag) {
+        this.tag = tag.toLowerCase();
+    }
+
+    public static StubElement of(String tag) {
+        return new StubElement(tag);
+    }
+
+    public StubElement id(String id) {
+        return attr("id", id);
+    }
+
+    public StubElement attr(String name, String value) {
+        attributes.put(name, value);
+        return this;
+    }
+
+    public StubElement text(String text) {
+        this.text = text;
+        return this;
+    }
+
+    public StubElement displayed(boolean displayed) {
+        this.displayed = displayed;
+        return this;
+    }
+
+    public StubElement enabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public StubElement selected(boolean selected) {
+        this.selected = selected;
+        return this;
+    }
+
+    public StubElement child(StubElement... elements) {
+        for (StubElement element : elements) {
+            element.parent = this;
+            children.add(element);
+        }
+        return this;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public List<StubElement> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Get visible text of the element and its descendants
+     */
+    public String getText() {
+        if (!displayed) {
+            return "";
+        }
+        List<String> parts = new ArrayList<>();
+        if (!text.isEmpty()) {
+            parts.add(text);
+        }
+        for (StubElement child : children) {
+            String childText = child.getText();
+            if (!childText.isEmpty()) {
+                parts.add(childText);
+            }
+        }
+        return String.join("\n", parts);
+    }
+
+    public boolean isDisplayed() {
+        return displayed && (parent == null || parent.isDisplayed());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isSelected() {
+        return selected;
+    }
+
+    /**
+     * Find descendants of the element in the document order
+     *
+     * @param using W3C locator strategy
+     * @param value locator value
+     * @return matched elements
+     * @throws IllegalArgumentException if locator is not supported
+     */
+    public List<StubElement> find(String using, String value) {
+        Predicate<StubElement> predicate = toPredicate(using, value);
+        List<StubElement> found = new ArrayList<>();
+        collect(predicate, found);
+        return found;
+    }
+
+    /**
+     * Deep copy of the element, so every session has its own DOM
+     */
+    StubElement copy() {
+        StubElement copy = new StubElement(tag);
+        copy.attributes.putAll(attributes);
+        copy.text = text;
+        copy.displayed = displayed;
+        copy.enabled = enabled;
+        copy.selected = selected;
+        children.forEach(child -> copy.child(child.copy()));
+        return copy;
+    }
+
+    void setValue(String value) {
+        attributes.put("value", value);
+    }
+
+    void toggle() {
+        selected = !selected;
+    }
+
+    String toHtml() {
+        StringBuilder sb = new StringBuilder("<").append(tag);
+        attributes.forEach((name, value) -> sb.append(' ').append(name).append("=\"").append(value.replace("\"", "&quot;")).append('"'));
+        sb.append('>').append(text);
+        children.forEach(child -> sb.append(child.toHtml()));
+        return sb.append("</").append(tag).append('>').toString();
+    }
+
+    private void collect(Predicate<StubElement> predicate, List<StubElement> found) {
+        for (StubElement child : children) {
+            if (predicate.test(child)) {
+                found.add(child);
+            }
+            child.collect(predicate, found);
+        }
+    }
+
+    private Predicate<StubElement> toPredicate(String using, String value) {
+        switch (using) {
+        case "css selector":
+            return Arrays.stream(value.split(","))
+                    .map(group -> chain(Arrays.stream(group.trim().replace(">", " ").split("\\s+"))
+                            .filter(part -> !part.isEmpty())
+                            .map(StubElement::cssCompound)
+                            .collect(Collectors.toList())))
+                    .reduce(Predicate::or)
+                    .orElseThrow();
+        case "xpath":
+            String path = value.startsWith(".") ? value.substring(1) : value;
+            return chain(Arrays.stream(path.split("/+"))
+                    .filter(part -> !part.isEmpty())
+                    .map(StubElement::xpathStep)
+                    .collect(Collectors.toList()));
+        case "tag name":
+            return element -> element.tag.equalsIgnoreCase(value);
+        case "link text":
+            return element -> "a".equals(element.tag) && element.getText().equals(value);
+        case "partial link text":
+            return element -> "a".equals(element.tag) && element.getText().contains(value);
+        default:
+            throw new IllegalArgumentException("Unsupported locator strategy: " + using);
+        }
+    }
+
+    /**
+     * Descendant combinators: the last predicate should match the element, the previous ones - its ancestors (in order)
+     */
+    private Predicate<StubElement> chain(List<Predicate<StubElement>> predicates) {
+        if (predicates.isEmpty()) {
+            throw new IllegalArgumentException("Empty locator");
+        }
+        StubElement context = this;
+        return element -> {
+            if (!predicates.get(predicates.size() - 1).test(element)) {
+                return false;
+            }
+            StubElement ancestor = element.parent;
+            for (int i = predicates.size() - 2; i >= 0; i--) {
+                while (ancestor != null && ancestor != context && !predicates.get(i).test(ancestor)) {
+                    ancestor = ancestor.parent;
+                }
+                if (ancestor == null || ancestor == context) {
+                    return false;
+                }
+                ancestor = ancestor.parent;
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<StubElement> cssCompound(String compound) {
+        Predicate<StubElement> predicate = element -> true;
+        Matcher matcher = CSS_PART.matcher(compound);
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                break;
+            }
+            end = matcher.end();
+            if (matcher.group("tag") != null) {
+                String tag = matcher.group("tag");
+                predicate = predicate.and(element -> "*".equals(tag) || element.tag.equalsIgnoreCase(tag));
+            } else if (matcher.group("id") != null) {
+                String id = unescape(matcher.group("id"));
+                predicate = predicate.and(element -> id.equals(element.attributes.get("id")));
+            } else if (matcher.group("cls") != null) {
+                String cls = unescape(matcher.group("cls"));
+                predicate = predicate.and(element -> Arrays.asList(element.attributes.getOrDefault("class", "").split("\\s+")).contains(cls));
+            } else {
+                String attr = matcher.group("attr");
+                String op = matcher.group("op");
+                String value = matcher.group("value");
+                predicate = predicate.and(element -> {
+                    String actual = element.attributes.get(attr);
+                    if (actual == null || op == null) {
+                        return actual != null;
+                    }
+                    switch (op) {
+                    case "*=":
+                        return actual.contains(value);
+                    case "^=":
+                        return actual.startsWith(value);
+                    case "$=":
+                        return actual.endsWith(value);
+                    case "~=":
+                        return Arrays.asList(actual.split("\\s+")).contains(value);
+                    default:
+                        return actual.equals(value);
+                    }
+                });
+            }
+        }
+        if (end != compound.length()) {
+            throw new IllegalArgumentException("Unsupported css selector: " + compound);
+        }
+        return predicate;
+    }
+
+    private static Predicate<StubElement> xpathStep(String step) {
+        Matcher matcher = XPATH_STEP.matcher(step);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported xpath step: " + step);
+        }
+        String tag = matcher.group("tag");
+        Predicate<StubElement> predicate = element -> "*".equals(tag) || element.tag.equalsIgnoreCase(tag);
+        String predicates = matcher.group("predicates");
+        Matcher predicateMatcher = XPATH_PREDICATE.matcher(predicates);
+        int end = 0;
+        while (predicateMatcher.find() && predicateMatcher.start() == end) {
+            end = predicateMatcher.end();
+            boolean contains = predicateMatcher.group("fn") != null;
+            String attr = predicateMatcher.group("attr");
+            String value = predicateMatcher.group("value");
+            predicate = predicate.and(element -> {
+                String actual = attr != null ? element.attributes.get(attr) : element.getText();
+                return actual != null && (contains ? actual.contains(value) : actual.equals(value));
+            });
+        }
+        if (end != predicates.length()) {
+            throw new IllegalArgumentException("Unsupported xpath predicate: " + predicates);
+        }
+        return predicate;
+    }
+
+    private static String unescape(String value) {
+        return value.replaceAll("\\\\(.)", "$1");
+    }
+
+    @Override
+    public String toString() {
+        return "<" + tag + (attributes.containsKey("id") ? " id=\"" + attributes.get("id") + "\"" : "") + ">";
+    }
+}
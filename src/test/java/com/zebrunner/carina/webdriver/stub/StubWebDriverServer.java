@@ -0,0 +1,658 @@
+/*******************************************************************************
+ * Copyright 2020-2022 Zebrunner Inc (https://www.zebrunner.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.zebrunner.carina.webdriver.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.DriverCommand;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process W3C WebDriver server with the fake DOM, for the tests and benchmarks of the framework overhead without a browser or grid.
+ *
+ * <pre>
+ * try (StubWebDriverServer server = new StubWebDriverServer()
+ *         .page("about:blank", "Home", StubElement.of("body").child(StubElement.of("button").id("submit")))
+ *         .latency(DriverCommand.FIND_ELEMENT, Duration.ofMillis(20))
+ *         .fault(DriverCommand.CLICK_ELEMENT, StubWebDriverServer.Fault.error("stale element reference", 1))
+ *         .start()) {
+ *     R.CONFIG.put("selenium_url", server.getUrl());
+ *     ...
+ * }
+ * </pre>
+ *
+ * Every session has its own copy of the DOM of the current page, so element references become stale after navigation.
+ * Commands are named as in {@link DriverCommand}: latency and faults are configured per command.<br>
+ * Supported commands: sessions, status, navigation, timeouts, windows (single window), elements (find, state, click, clear,
+ * send keys), screenshots, cookies, actions and frames (no-op), scripts. Scripts of the Selenium atoms ({@code isDisplayed},
+ * {@code getAttribute}) and {@code document.readyState} are evaluated by the DOM, other scripts - by the registered handlers
+ * (return {@code null} by default).
+ */
+public final class StubWebDriverServer implements AutoCloseable {
+    public static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    public static final String BLANK_PAGE = "about:blank";
+
+    private static final Json JSON = new Json();
+    // 1x1 transparent png
+    private static final String SCREENSHOT = "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=";
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, Page> pages = new ConcurrentHashMap<>();
+    private final Map<String, Duration> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Fault> faults = new ConcurrentHashMap<>();
+    private final Map<String, Function<List<Object>, Object>> scripts = new ConcurrentHashMap<>();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger createdSessions = new AtomicInteger();
+    private volatile Duration defaultLatency = Duration.ZERO;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public StubWebDriverServer() {
+        page(BLANK_PAGE, "", StubElement.of("html").child(StubElement.of("body")));
+        registerRoutes();
+    }
+
+    /**
+     * Register page, it is opened by the {@code get} command with the same url
+     *
+     * @param url url of the page
+     * @param title title of the page
+     * @param root root element of the page, copied for every session
+     * @return this server
+     */
+    public StubWebDriverServer page(String url, String title, StubElement root) {
+        pages.put(url, new Page(title, root));
+        return this;
+    }
+
+    /**
+     * Set latency of the command
+     *
+     * @param command command name, see {@link DriverCommand}
+     * @param latency time to wait before the response
+     * @return this server
+     */
+    public StubWebDriverServer latency(String command, Duration latency) {
+        latencies.put(command, latency);
+        return this;
+    }
+
+    /**
+     * Set latency of the commands without own latency
+     *
+     * @param latency time to wait before the response
+     * @return this server
+     */
+    public StubWebDriverServer defaultLatency(Duration latency) {
+        this.defaultLatency = latency;
+        return this;
+    }
+
+    /**
+     * Inject fault into the next executions of the command
+     *
+     * @param command command name, see {@link DriverCommand}
+     * @param fault {@link Fault}
+     * @return this server
+     */
+    public StubWebDriverServer fault(String command, Fault fault) {
+        faults.put(command, fault);
+        return this;
+    }
+
+    /**
+     * Register handler of the script
+     *
+     * @param script script, as it is sent by the client
+     * @param handler function of the script arguments (elements are passed as {@link StubElement})
+     * @return this server
+     */
+    public StubWebDriverServer script(String script, Function<List<Object>, Object> handler) {
+        scripts.put(script, handler);
+        return this;
+    }
+
+    public synchronized StubWebDriverServer start() throws IOException {
+        executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("stub-webdriver-%d")
+                .setDaemon(true)
+                .build());
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public int getCreatedSessions() {
+        return createdSessions.get();
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Get number of the executions of the command
+     *
+     * @param command command name, see {@link DriverCommand}
+     * @return number of executions, including failed ones
+     */
+    public long getCommandCount(String command) {
+        LongAdder count = commandCounts.get(command);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * Fault of the command
+     */
+    public static final class Fault {
+        private final String error;
+        private final AtomicInteger remaining;
+
+        private Fault(String error, int times) {
+            this.error = error;
+            this.remaining = new AtomicInteger(times);
+        }
+
+        /**
+         * Command fails with the W3C error
+         *
+         * @param error W3C error code, for example {@code no such element}, {@code stale element reference}, {@code unknown error}
+         * @param times number of the next executions that fail
+         * @return {@link Fault}
+         */
+        public static Fault error(String error, int times) {
+            return new Fault(error, times);
+        }
+
+        /**
+         * Connection is closed without the response
+         *
+         * @param times number of the next executions that fail
+         * @return {@link Fault}
+         */
+        public static Fault disconnect(int times) {
+            return new Fault(null, times);
+        }
+
+        private boolean take() {
+            return remaining.getAndUpdate(left -> Math.max(0, left - 1)) > 0;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            dispatch(exchange);
+        } catch (W3CError e) {
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("error", e.error);
+            value.put("message", e.getMessage());
+            value.put("stacktrace", "");
+            send(exchange, e.getStatus(), Map.of("value", value));
+        } catch (RuntimeException e) {
+            send(exchange, 500, Map.of("value", Map.of("error", "unknown error", "message", String.valueOf(e), "stacktrace", "")));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath().replaceFirst("^/wd/hub", "");
+        for (Route route : routes) {
+            Matcher matcher = route.pattern.matcher(path);
+            if (!route.method.equals(method) || !matcher.matches()) {
+                continue;
+            }
+            commandCounts.computeIfAbsent(route.command, command -> new LongAdder()).increment();
+            pause(latencies.getOrDefault(route.command, defaultLatency));
+            Fault fault = faults.get(route.command);
+            if (fault != null && fault.take()) {
+                if (fault.error == null) {
+                    // connection is closed without response
+                    return;
+                }
+                throw new W3CError(fault.error, "Injected fault of the '" + route.command + "' command");
+            }
+            Map<String, Object> body = readBody(exchange);
+            Session session = null;
+            if (matcher.groupCount() > 0) {
+                session = sessions.get(matcher.group(1));
+                if (session == null) {
+                    throw new W3CError("invalid session id", "Session " + matcher.group(1) + " does not exist");
+                }
+            }
+            send(exchange, 200, Collections.singletonMap("value", route.handler.handle(new Call(session, matcher, body))));
+            return;
+        }
+        throw new W3CError("unknown command", "Unknown command: " + method + " " + path);
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return body.isBlank() ? Map.of() : JSON.toType(body, Json.MAP_TYPE);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Object value) throws IOException {
+        byte[] response = JSON.toJson(value).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static void pause(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void registerRoutes() {
+        route("GET", "/status", DriverCommand.STATUS, call -> Map.of("ready", true, "message", "stub"));
+        route("POST", "/session", DriverCommand.NEW_SESSION, this::newSession);
+        session("DELETE", "", DriverCommand.QUIT, call -> {
+            sessions.remove(call.session.id);
+            return null;
+        });
+
+        session("POST", "/url", DriverCommand.GET, call -> {
+            call.session.navigate((String) call.body.get("url"), true);
+            return null;
+        });
+        session("GET", "/url", DriverCommand.GET_CURRENT_URL, call -> call.session.url);
+        session("GET", "/title", DriverCommand.GET_TITLE, call -> call.session.title);
+        session("GET", "/source", DriverCommand.GET_PAGE_SOURCE, call -> call.session.document.getChildren().get(0).toHtml());
+        session("POST", "/back", DriverCommand.GO_BACK, call -> call.session.back());
+        session("POST", "/forward", DriverCommand.GO_FORWARD, call -> null);
+        session("POST", "/refresh", DriverCommand.REFRESH, call -> {
+            call.session.navigate(call.session.url, false);
+            return null;
+        });
+
+        session("POST", "/timeouts", DriverCommand.SET_TIMEOUT, call -> {
+            call.session.timeouts.putAll(call.body);
+            return null;
+        });
+        session("GET", "/timeouts", DriverCommand.GET_TIMEOUTS, call -> call.session.timeouts);
+
+        session("GET", "/window", DriverCommand.GET_CURRENT_WINDOW_HANDLE, call -> call.session.windowHandle);
+        session("GET", "/window/handles", DriverCommand.GET_WINDOW_HANDLES, call -> List.of(call.session.windowHandle));
+        session("POST", "/window", DriverCommand.SWITCH_TO_WINDOW, call -> null);
+        session("DELETE", "/window", DriverCommand.CLOSE, call -> List.of());
+        session("GET", "/window/rect", DriverCommand.GET_CURRENT_WINDOW_SIZE, call -> call.session.rect);
+        session("POST", "/window/rect", DriverCommand.SET_CURRENT_WINDOW_SIZE, call -> {
+            call.body.forEach((key, value) -> {
+                if (value != null) {
+                    call.session.rect.put(key, value);
+                }
+            });
+            return call.session.rect;
+        });
+        session("POST", "/window/maximize", DriverCommand.MAXIMIZE_CURRENT_WINDOW, call -> call.session.rect);
+        session("POST", "/window/minimize", DriverCommand.MINIMIZE_CURRENT_WINDOW, call -> call.session.rect);
+        session("POST", "/window/fullscreen", DriverCommand.FULLSCREEN_CURRENT_WINDOW, call -> call.session.rect);
+        session("POST", "/frame", DriverCommand.SWITCH_TO_FRAME, call -> null);
+        session("POST", "/frame/parent", DriverCommand.SWITCH_TO_PARENT_FRAME, call -> null);
+
+        session("POST", "/element", DriverCommand.FIND_ELEMENT, call -> call.session.findOne(call.session.document, call.body));
+        session("POST", "/elements", DriverCommand.FIND_ELEMENTS, call -> call.session.findAll(call.session.document, call.body));
+        session("GET", "/element/active", DriverCommand.GET_ACTIVE_ELEMENT, call -> call.session.reference(
+                call.session.document.find("css selector", "body").stream().findFirst()
+                        .orElseThrow(() -> new W3CError("no such element", "There is no active element"))));
+        element("POST", "/element", DriverCommand.FIND_CHILD_ELEMENT, (call, element) -> call.session.findOne(element, call.body));
+        element("POST", "/elements", DriverCommand.FIND_CHILD_ELEMENTS, (call, element) -> call.session.findAll(element, call.body));
+        element("POST", "/click", DriverCommand.CLICK_ELEMENT, (call, element) -> {
+            call.session.click(element);
+            return null;
+        });
+        element("POST", "/clear", DriverCommand.CLEAR_ELEMENT, (call, element) -> {
+            element.setValue("");
+            return null;
+        });
+        element("POST", "/value", DriverCommand.SEND_KEYS_TO_ELEMENT, (call, element) -> {
+            String current = element.getAttribute("value");
+            element.setValue((current == null ? "" : current) + call.body.get("text"));
+            return null;
+        });
+        element("GET", "/text", DriverCommand.GET_ELEMENT_TEXT, (call, element) -> element.getText());
+        element("GET", "/name", DriverCommand.GET_ELEMENT_TAG_NAME, (call, element) -> element.getTag());
+        element("GET", "/attribute/([^/]+)", DriverCommand.GET_ELEMENT_ATTRIBUTE, (call, element) -> element.getAttribute(call.group(3)));
+        element("GET", "/property/([^/]+)", "getElementProperty", (call, element) -> element.getAttribute(call.group(3)));
+        element("GET", "/css/([^/]+)", DriverCommand.GET_ELEMENT_VALUE_OF_CSS_PROPERTY, (call, element) -> "");
+        element("GET", "/rect", DriverCommand.GET_ELEMENT_RECT, (call, element) -> Map.of("x", 0, "y", 0, "width", 100, "height", 20));
+        element("GET", "/enabled", DriverCommand.IS_ELEMENT_ENABLED, (call, element) -> element.isEnabled());
+        element("GET", "/selected", DriverCommand.IS_ELEMENT_SELECTED, (call, element) -> element.isSelected());
+        element("GET", "/displayed", DriverCommand.IS_ELEMENT_DISPLAYED, (call, element) -> element.isDisplayed());
+        element("GET", "/screenshot", DriverCommand.ELEMENT_SCREENSHOT, (call, element) -> SCREENSHOT);
+
+        session("GET", "/screenshot", DriverCommand.SCREENSHOT, call -> SCREENSHOT);
+        session("POST", "/execute/sync", DriverCommand.EXECUTE_SCRIPT, this::executeScript);
+        session("POST", "/execute/async", DriverCommand.EXECUTE_ASYNC_SCRIPT, this::executeScript);
+
+        session("GET", "/cookie", DriverCommand.GET_ALL_COOKIES, call -> new ArrayList<>(call.session.cookies.values()));
+        session("GET", "/cookie/([^/]+)", DriverCommand.GET_COOKIE, call -> {
+            Object cookie = call.session.cookies.get(call.group(2));
+            if (cookie == null) {
+                throw new W3CError("no such cookie", "Cookie " + call.group(2) + " does not exist");
+            }
+            return cookie;
+        });
+        session("POST", "/cookie", DriverCommand.ADD_COOKIE, call -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> cookie = (Map<String, Object>) call.body.get("cookie");
+            call.session.cookies.put(String.valueOf(cookie.get("name")), cookie);
+            return null;
+        });
+        session("DELETE", "/cookie/([^/]+)", DriverCommand.DELETE_COOKIE, call -> {
+            call.session.cookies.remove(call.group(2));
+            return null;
+        });
+        session("DELETE", "/cookie", DriverCommand.DELETE_ALL_COOKIES, call -> {
+            call.session.cookies.clear();
+            return null;
+        });
+        session("POST", "/actions", DriverCommand.ACTIONS, call -> null);
+        session("DELETE", "/actions", "releaseActions", call -> null);
+        session("GET", "/alert/text", DriverCommand.GET_ALERT_TEXT, call -> {
+            throw new W3CError("no such alert", "No alert is open");
+        });
+    }
+
+    private void route(String method, String path, String command, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(path), command, handler));
+    }
+
+    private void session(String method, String path, String command, Handler handler) {
+        route(method, "/session/([^/]+)" + path, command, handler);
+    }
+
+    private void element(String method, String path, String command, ElementHandler handler) {
+        session(method, "/element/([^/]+)" + path, command, call -> handler.handle(call, call.session.element(call.group(2))));
+    }
+
+    private Object newSession(Call call) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> requested = (Map<String, Object>) call.body.getOrDefault("capabilities", Map.of());
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        capabilities.put("browserName", "chrome");
+        capabilities.put("browserVersion", "stub");
+        capabilities.put("platformName", "linux");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> alwaysMatch = (Map<String, Object>) requested.getOrDefault("alwaysMatch", Map.of());
+        capabilities.putAll(alwaysMatch);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> firstMatch = (List<Map<String, Object>>) requested.getOrDefault("firstMatch", List.of());
+        if (!firstMatch.isEmpty()) {
+            capabilities.putAll(firstMatch.get(0));
+        }
+        Session session = new Session(UUID.randomUUID().toString());
+        sessions.put(session.id, session);
+        createdSessions.incrementAndGet();
+        return Map.of("sessionId", session.id, "capabilities", capabilities);
+    }
+
+    private Object executeScript(Call call) {
+        String script = String.valueOf(call.body.get("script"));
+        @SuppressWarnings("unchecked")
+        List<Object> args = new ArrayList<>((List<Object>) call.body.getOrDefault("args", List.of()));
+        args.replaceAll(call.session::resolve);
+        if (script.startsWith("/* isDisplayed */")) {
+            return ((StubElement) args.get(0)).isDisplayed();
+        }
+        if (script.startsWith("/* getAttribute */")) {
+            return ((StubElement) args.get(0)).getAttribute(String.valueOf(args.get(1)));
+        }
+        if (script.contains("document.readyState")) {
+            return "complete";
+        }
+        Function<List<Object>, Object> handler = scripts.get(script);
+        return handler == null ? null : call.session.toJson(handler.apply(args));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Call call);
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+        Object handle(Call call, StubElement element);
+    }
+
+    private static final class Route {
+        private final String method;
+        private final Pattern pattern;
+        private final String command;
+        private final Handler handler;
+
+        private Route(String method, Pattern pattern, String command, Handler handler) {
+            this.method = method;
+            this.pattern = pattern;
+            this.command = command;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Call {
+        private final Session session;
+        private final Matcher matcher;
+        private final Map<String, Object> body;
+
+        private Call(Session session, Matcher matcher, Map<String, Object> body) {
+            this.session = session;
+            this.matcher = matcher;
+            this.body = body;
+        }
+
+        private String group(int group) {
+            return matcher.group(group);
+        }
+    }
+
+    private static final class W3CError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final String error;
+
+        private W3CError(String error, String message) {
+            super(message);
+            this.error = error;
+        }
+
+        private int getStatus() {
+            switch (error) {
+            case "invalid argument":
+            case "invalid selector":
+            case "invalid element state":
+                return 400;
+            case "no such element":
+            case "no such window":
+            case "no such frame":
+            case "no such alert":
+            case "no such cookie":
+            case "stale element reference":
+            case "invalid session id":
+            case "unknown command":
+                return 404;
+            default:
+                return 500;
+            }
+        }
+    }
+
+    private static final class Page {
+        private final String title;
+        private final StubElement root;
+
+        private Page(String title, StubElement root) {
+            this.title = title;
+            this.root = root;
+        }
+    }
+
+    private final class Session {
+        private final String id;
+        private final String windowHandle = UUID.randomUUID().toString();
+        private final Map<String, Object> timeouts = new ConcurrentHashMap<>(Map.of("implicit", 0, "pageLoad", 300_000, "script", 30_000));
+        private final Map<String, Object> rect = new ConcurrentHashMap<>(Map.of("x", 0, "y", 0, "width", 1920, "height", 1080));
+        private final Map<String, Object> cookies = new ConcurrentHashMap<>();
+        private final List<String> history = new ArrayList<>();
+        private final Map<String, StubElement> elements = new HashMap<>();
+        private final Map<StubElement, String> references = new HashMap<>();
+        private StubElement document;
+        private String url;
+        private String title;
+
+        private Session(String id) {
+            this.id = id;
+            navigate(BLANK_PAGE, false);
+        }
+
+        private synchronized void navigate(String url, boolean addToHistory) {
+            Page page = pages.get(url);
+            if (page == null) {
+                page = pages.get(BLANK_PAGE);
+            }
+            if (addToHistory && this.url != null) {
+                history.add(this.url);
+            }
+            this.url = url;
+            this.title = page.title;
+            this.document = StubElement.of("#document").child(page.root.copy());
+            // references to the elements of the previous page become stale
+            elements.clear();
+            references.clear();
+        }
+
+        private synchronized Object back() {
+            if (!history.isEmpty()) {
+                navigate(history.remove(history.size() - 1), false);
+            }
+            return null;
+        }
+
+        private synchronized void click(StubElement element) {
+            if (!element.isDisplayed() || !element.isEnabled()) {
+                throw new W3CError("element not interactable", "Element " + element + " is not interactable");
+            }
+            if ("checkbox".equals(element.getAttribute("type")) || "radio".equals(element.getAttribute("type"))) {
+                element.toggle();
+            } else if (element.getAttribute("href") != null) {
+                navigate(element.getAttribute("href"), true);
+            }
+        }
+
+        private synchronized Object findOne(StubElement context, Map<String, Object> locator) {
+            List<StubElement> found = find(context, locator);
+            if (found.isEmpty()) {
+                throw new W3CError("no such element", "Unable to locate element: " + locator);
+            }
+            return reference(found.get(0));
+        }
+
+        private synchronized Object findAll(StubElement context, Map<String, Object> locator) {
+            List<Object> found = new ArrayList<>();
+            for (StubElement element : find(context, locator)) {
+                found.add(reference(element));
+            }
+            return found;
+        }
+
+        private List<StubElement> find(StubElement context, Map<String, Object> locator) {
+            try {
+                return context.find(String.valueOf(locator.get("using")), String.valueOf(locator.get("value")));
+            } catch (IllegalArgumentException e) {
+                throw new W3CError("invalid selector", e.getMessage());
+            }
+        }
+
+        private synchronized Map<String, Object> reference(StubElement element) {
+            String reference = references.computeIfAbsent(element, e -> {
+                String elementId = UUID.randomUUID().toString();
+                elements.put(elementId, e);
+                return elementId;
+            });
+            return Map.of(ELEMENT_KEY, reference);
+        }
+
+        private synchronized StubElement element(String reference) {
+            StubElement element = elements.get(reference);
+            if (element == null) {
+                throw new W3CError("stale element reference", "Element " + reference + " is not attached to the page document");
+            }
+            return element;
+        }
+
+        private Object resolve(Object arg) {
+            if (arg instanceof Map && ((Map<?, ?>) arg).containsKey(ELEMENT_KEY)) {
+                return element(String.valueOf(((Map<?, ?>) arg).get(ELEMENT_KEY)));
+            }
+            return arg;
+        }
+
+        private Object toJson(Object value) {
+            return value instanceof StubElement ? reference((StubElement) value) : value;
+        }
+    }
+}